@@ -36,7 +36,26 @@ public enum ConfigKey implements Config.Key {
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_ENABLED("repo.meta.analyzer.cacheStampedeBlocker.enabled", true),
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_LOCK_BUCKETS("repo.meta.analyzer.cacheStampedeBlocker.lock.buckets", 1000),
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_MAX_ATTEMPTS("repo.meta.analyzer.cacheStampedeBlocker.max.attempts", 10),
-    SYSTEM_REQUIREMENT_CHECK_ENABLED("system.requirement.check.enabled", true);
+    REPO_META_ANALYZER_THREAD_POOL_SIZE("repo.meta.analyzer.thread.pool.size", 8),
+    REPO_META_ANALYZER_MAX_CONCURRENT_REQUESTS_PER_HOST("repo.meta.analyzer.max.concurrent.requests.per.host", 4),
+    REPO_META_ANALYZER_BACKOFF_INITIAL_DURATION_MS("repo.meta.analyzer.backoff.initial.duration.ms", 1000),
+    REPO_META_ANALYZER_BACKOFF_MAX_DURATION_MS("repo.meta.analyzer.backoff.max.duration.ms", 60000),
+    SYSTEM_REQUIREMENT_CHECK_ENABLED("system.requirement.check.enabled", true),
+    BOM_UPLOAD_STREAMING_THRESHOLD_BYTES("bom.upload.streaming.threshold.bytes", 10 * 1024 * 1024),
+    BOM_UPLOAD_PROCESSING_PARSE_THREAD_POOL_SIZE("bom.upload.processing.parse.thread.pool.size", 2),
+    BOM_UPLOAD_PROCESSING_INGEST_THREAD_POOL_SIZE("bom.upload.processing.ingest.thread.pool.size", 4),
+    BOM_UPLOAD_PROCESSING_INGEST_QUEUE_CAPACITY("bom.upload.processing.ingest.queue.capacity", 4),
+    BOM_UPLOAD_PROCESSING_COALESCING_ENABLED("bom.upload.processing.coalescing.enabled", true),
+    METRICS_UPDATE_PROJECT_PARALLEL_ENABLED("metrics.update.project.parallel.enabled", false),
+    METRICS_UPDATE_PROJECT_PARALLEL_CONNECTION_BUDGET("metrics.update.project.parallel.connection.budget", 4),
+    METRICS_UPDATE_INCREMENTAL_ENABLED("metrics.update.incremental.enabled", false),
+    METRICS_UPDATE_INCREMENTAL_FULL_UPDATE_INTERVAL_HOURS("metrics.update.incremental.full.update.interval.hours", 24),
+    SCANNER_INTERNAL_MATCH_INDEX_SHARED_ENABLED("scanner.internal.match.index.shared.enabled", false),
+    SCANNER_INTERNAL_MATCH_INDEX_SHARED_MAX_CANDIDATES("scanner.internal.match.index.shared.max.candidates", 1000000),
+    VULNERABILITY_ANALYSIS_ANALYZER_THREAD_POOL_SIZE("vulnerability.analysis.analyzer.thread.pool.size", 2),
+    SCANNER_ANALYSIS_CACHE_MEMORY_MAX_SIZE("scanner.analysis.cache.memory.max.size", 100000),
+    DEPENDENCY_GRAPH_CACHE_MAX_MEMORY_MB("dependency.graph.cache.max.memory.mb", 128),
+    POLICY_EVALUATION_THREAD_POOL_SIZE("policy.evaluation.thread.pool.size", 4);
 
     private final String propertyName;
     private final Object defaultValue;
@@ -19,6 +19,7 @@
 package org.dependencytrack.event;
 
 import alpine.event.framework.AbstractChainableEvent;
+import alpine.event.framework.ChainLink;
 
 import java.io.File;
 import java.util.UUID;
@@ -34,6 +35,7 @@ public class BomUploadEvent extends AbstractChainableEvent {
     private final UUID projectUuid;
     private File file;
     private byte[] bom;
+    private boolean chainLinksDeferred;
 
     public BomUploadEvent(final UUID projectUuid, final byte[] bom) {
         this.projectUuid = projectUuid;
@@ -42,6 +44,10 @@ public class BomUploadEvent extends AbstractChainableEvent {
         }
     }
 
+    /**
+     * @param projectUuid the UUID of the project the BOM was uploaded to
+     * @param file        a (temporary) file holding the BOM; it is deleted once the BOM has been processed
+     */
     public BomUploadEvent(final UUID projectUuid, final File file) {
         this.projectUuid = projectUuid;
         this.file = file;
@@ -58,4 +64,38 @@ public class BomUploadEvent extends AbstractChainableEvent {
     public File getFile() {
         return file;
     }
+
+    /**
+     * Defers the dispatch of the chain links of this event until it has been processed asynchronously.
+     * <p>
+     * Afterwards, {@link #onSuccess()} and {@link #onFailure()} no longer return any links, such that
+     * the event service that delivered this event doesn't dispatch them as soon as its subscriber returns.
+     *
+     * @return the links to dispatch once processing completes
+     * @since 4.11.0
+     */
+    public synchronized DeferredChainLinks deferChainLinks() {
+        final var chainLinks = new DeferredChainLinks(super.onSuccess(), super.onFailure());
+        chainLinksDeferred = true;
+        return chainLinks;
+    }
+
+    @Override
+    public synchronized ChainLink[] onSuccess() {
+        return chainLinksDeferred ? new ChainLink[0] : super.onSuccess();
+    }
+
+    @Override
+    public synchronized ChainLink[] onFailure() {
+        return chainLinksDeferred ? new ChainLink[0] : super.onFailure();
+    }
+
+    /**
+     * @param onSuccess links to dispatch when processing succeeded
+     * @param onFailure links to dispatch when processing failed
+     * @since 4.11.0
+     */
+    public record DeferredChainLinks(ChainLink[] onSuccess, ChainLink[] onFailure) {
+    }
+
 }
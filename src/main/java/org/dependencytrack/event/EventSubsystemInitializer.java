@@ -24,7 +24,9 @@ import alpine.event.framework.EventService;
 import alpine.event.framework.SingleThreadedEventService;
 import alpine.server.tasks.LdapSyncTask;
 import org.dependencytrack.RequirementsVerifier;
-import org.dependencytrack.tasks.BomUploadProcessingTask;
+import org.dependencytrack.policy.PolicyEngine;
+import org.dependencytrack.tasks.BomUploadDispatchTask;
+import org.dependencytrack.tasks.BomUploadProcessingExecutor;
 import org.dependencytrack.tasks.CallbackTask;
 import org.dependencytrack.tasks.ClearComponentAnalysisCacheTask;
 import org.dependencytrack.tasks.CloneProjectTask;
@@ -56,6 +58,7 @@ import org.dependencytrack.tasks.scanners.VulnDbAnalysisTask;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
+import java.time.Duration;
 
 /**
  * Initializes the event subsystem and configures event subscribers.
@@ -83,7 +86,7 @@ public class EventSubsystemInitializer implements ServletContextListener {
         if (RequirementsVerifier.failedValidation()) {
             return;
         }
-        EVENT_SERVICE.subscribe(BomUploadEvent.class, BomUploadProcessingTask.class);
+        EVENT_SERVICE.subscribe(BomUploadEvent.class, BomUploadDispatchTask.class);
         EVENT_SERVICE.subscribe(VexUploadEvent.class, VexUploadProcessingTask.class);
         EVENT_SERVICE.subscribe(LdapSyncEvent.class, LdapSyncTask.class);
         EVENT_SERVICE.subscribe(InternalAnalysisEvent.class, InternalAnalysisTask.class);
@@ -126,7 +129,7 @@ public class EventSubsystemInitializer implements ServletContextListener {
         LOGGER.info("Shutting down asynchronous event subsystem");
         TaskScheduler.getInstance().shutdown();
 
-        EVENT_SERVICE.unsubscribe(BomUploadProcessingTask.class);
+        EVENT_SERVICE.unsubscribe(BomUploadDispatchTask.class);
         EVENT_SERVICE.unsubscribe(VexUploadProcessingTask.class);
         EVENT_SERVICE.unsubscribe(LdapSyncTask.class);
         EVENT_SERVICE.unsubscribe(InternalAnalysisTask.class);
@@ -154,6 +157,10 @@ public class EventSubsystemInitializer implements ServletContextListener {
         EVENT_SERVICE.unsubscribe(NistApiMirrorTask.class);
         EVENT_SERVICE.unsubscribe(EpssMirrorTask.class);
         EVENT_SERVICE.shutdown();
+        BomUploadProcessingExecutor.getInstance().shutdown(Duration.ofSeconds(30));
+        ProjectMetricsUpdateTask.shutdown(Duration.ofSeconds(30));
+        RepositoryMetaAnalyzerTask.shutdown(Duration.ofSeconds(30));
+        PolicyEngine.shutdown(Duration.ofSeconds(30));
 
         EVENT_SERVICE_ST.unsubscribe(IndexTask.class);
         EVENT_SERVICE_ST.shutdown();
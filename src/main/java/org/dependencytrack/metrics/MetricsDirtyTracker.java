@@ -0,0 +1,122 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import alpine.Config;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of {@link Project}s whose metrics may have changed since they were last updated.
+ * <p>
+ * When incremental metrics updates are enabled, the periodic portfolio metrics update only
+ * recomputes the metrics of projects that were marked as dirty. Dirty state is held in memory.
+ * A full update is thus performed after startup, and in a configurable interval afterwards,
+ * which also picks up changes that are not tracked (e.g. modified vulnerability severities).
+ *
+ * @since 4.11.0
+ */
+public final class MetricsDirtyTracker {
+
+    private static final MetricsDirtyTracker INSTANCE = new MetricsDirtyTracker(
+            Config.getInstance().getPropertyAsBoolean(ConfigKey.METRICS_UPDATE_INCREMENTAL_ENABLED),
+            Duration.ofHours(Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_UPDATE_INCREMENTAL_FULL_UPDATE_INTERVAL_HOURS)));
+
+    private final boolean enabled;
+    private final Duration fullUpdateInterval;
+    private final Set<Long> dirtyProjectIds = ConcurrentHashMap.newKeySet();
+    private volatile Instant lastFullUpdate;
+
+    public MetricsDirtyTracker(final boolean enabled, final Duration fullUpdateInterval) {
+        this.enabled = enabled;
+        this.fullUpdateInterval = fullUpdateInterval;
+    }
+
+    public static MetricsDirtyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark the metrics of a {@link Project} as dirty.
+     *
+     * @param project The {@link Project} whose metrics may have changed
+     */
+    public void markDirty(final Project project) {
+        if (enabled && project != null) {
+            dirtyProjectIds.add(project.getId());
+        }
+    }
+
+    /**
+     * Mark the metrics of the {@link Project} a given {@link Component} belongs to as dirty.
+     *
+     * @param component The {@link Component} whose metrics may have changed
+     */
+    public void markDirty(final Component component) {
+        if (enabled && component != null) {
+            markDirty(component.getProject());
+        }
+    }
+
+    /**
+     * Mark the metrics of a {@link Project} as clean.
+     * <p>
+     * This must happen <em>before</em> the metrics are calculated, so that changes
+     * made during the calculation cause the project to be marked as dirty again.
+     *
+     * @param project The {@link Project} whose metrics are about to be calculated
+     */
+    public void markClean(final Project project) {
+        dirtyProjectIds.remove(project.getId());
+    }
+
+    public boolean isDirty(final Project project) {
+        return dirtyProjectIds.contains(project.getId());
+    }
+
+    /**
+     * @return {@code true} when the metrics of all projects must be recalculated, otherwise {@code false}
+     */
+    public boolean isFullUpdateDue() {
+        final Instant lastFullUpdate = this.lastFullUpdate;
+        return !enabled
+                || lastFullUpdate == null
+                || lastFullUpdate.plus(fullUpdateInterval).isBefore(Instant.now());
+    }
+
+    /**
+     * Record the completion of a full update.
+     *
+     * @param startedAt When the full update was started
+     */
+    public void fullUpdateCompleted(final Instant startedAt) {
+        this.lastFullUpdate = startedAt;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Model class for a single edge of a {@link Project}'s dependency graph.
+ * <p>
+ * The graph is kept in sync with {@link Project#getDirectDependencies()} and {@link Component#getDirectDependencies()},
+ * but allows for looking up the dependents of a component without parsing the JSON of every component in a project.
+ *
+ * @since 4.11.0
+ */
+@PersistenceCapable
+@Index(name = "DEPENDENCYEDGE_PARENT_IDX", members = {"project", "parent"})
+public class DependencyEdge implements Serializable {
+
+    private static final long serialVersionUID = -3806520419736428153L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    @JsonIgnore
+    private long id;
+
+    @Persistent(defaultFetchGroup = "false")
+    @Column(name = "PROJECT_ID", allowsNull = "false")
+    @NotNull
+    private Project project;
+
+    /**
+     * The depending {@link Component}, or {@code null} when {@link #child} is a direct dependency of {@link #project}.
+     */
+    @Persistent(defaultFetchGroup = "false")
+    @Column(name = "PARENT_ID", allowsNull = "true")
+    private Component parent;
+
+    @Persistent(defaultFetchGroup = "false")
+    @Column(name = "CHILD_ID", allowsNull = "false")
+    @Index(name = "DEPENDENCYEDGE_CHILD_IDX")
+    @NotNull
+    private Component child;
+
+    public DependencyEdge() {
+    }
+
+    public DependencyEdge(final Project project, final Component parent, final Component child) {
+        this.project = project;
+        this.parent = parent;
+        this.child = child;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
+    public Component getParent() {
+        return parent;
+    }
+
+    public void setParent(Component parent) {
+        this.parent = parent;
+    }
+
+    public Component getChild() {
+        return child;
+    }
+
+    public void setChild(Component child) {
+        this.child = child;
+    }
+
+}
@@ -47,6 +47,17 @@ public class Finding implements Serializable {
 
     private static final long serialVersionUID = 5313521394432526986L;
 
+    /**
+     * The tables joined by {@link #QUERY}, limited to the findings of a single project.
+     */
+    public static final String QUERY_FROM =
+            "FROM \"COMPONENT\" " +
+            "INNER JOIN \"COMPONENTS_VULNERABILITIES\" ON (\"COMPONENT\".\"ID\" = \"COMPONENTS_VULNERABILITIES\".\"COMPONENT_ID\") " +
+            "INNER JOIN \"VULNERABILITY\" ON (\"COMPONENTS_VULNERABILITIES\".\"VULNERABILITY_ID\" = \"VULNERABILITY\".\"ID\") " +
+            "INNER JOIN \"FINDINGATTRIBUTION\" ON (\"COMPONENT\".\"ID\" = \"FINDINGATTRIBUTION\".\"COMPONENT_ID\") AND (\"VULNERABILITY\".\"ID\" = \"FINDINGATTRIBUTION\".\"VULNERABILITY_ID\")" +
+            "LEFT JOIN \"ANALYSIS\" ON (\"COMPONENT\".\"ID\" = \"ANALYSIS\".\"COMPONENT_ID\") AND (\"VULNERABILITY\".\"ID\" = \"ANALYSIS\".\"VULNERABILITY_ID\") AND (\"COMPONENT\".\"PROJECT_ID\" = \"ANALYSIS\".\"PROJECT_ID\") " +
+            "WHERE \"COMPONENT\".\"PROJECT_ID\" = ?";
+
     /*
      * This statement works on Microsoft SQL Server, MySQL, and PostgreSQL. Due to the standardization
      * of upper-case table and column names in Dependency-Track, every identifier needs to be wrapped
@@ -65,8 +76,9 @@ public class Finding implements Serializable {
             "\"VULNERABILITY\".\"VULNID\"," +
             "\"VULNERABILITY\".\"TITLE\"," +
             "\"VULNERABILITY\".\"SUBTITLE\"," +
-            "\"VULNERABILITY\".\"DESCRIPTION\"," +
-            "\"VULNERABILITY\".\"RECOMMENDATION\"," +
+            // DESCRIPTION and RECOMMENDATION are CLOBs, and only loaded for the findings actually returned
+            "NULL," +
+            "NULL," +
             "\"VULNERABILITY\".\"SEVERITY\"," +
             "\"VULNERABILITY\".\"CVSSV2BASESCORE\"," +
             "\"VULNERABILITY\".\"CVSSV3BASESCORE\"," +
@@ -81,13 +93,10 @@ public class Finding implements Serializable {
             "\"FINDINGATTRIBUTION\".\"ALT_ID\"," +
             "\"FINDINGATTRIBUTION\".\"REFERENCE_URL\"," +
             "\"ANALYSIS\".\"STATE\"," +
-            "\"ANALYSIS\".\"SUPPRESSED\" " +
-            "FROM \"COMPONENT\" " +
-            "INNER JOIN \"COMPONENTS_VULNERABILITIES\" ON (\"COMPONENT\".\"ID\" = \"COMPONENTS_VULNERABILITIES\".\"COMPONENT_ID\") " +
-            "INNER JOIN \"VULNERABILITY\" ON (\"COMPONENTS_VULNERABILITIES\".\"VULNERABILITY_ID\" = \"VULNERABILITY\".\"ID\") " +
-            "INNER JOIN \"FINDINGATTRIBUTION\" ON (\"COMPONENT\".\"ID\" = \"FINDINGATTRIBUTION\".\"COMPONENT_ID\") AND (\"VULNERABILITY\".\"ID\" = \"FINDINGATTRIBUTION\".\"VULNERABILITY_ID\")" +
-            "LEFT JOIN \"ANALYSIS\" ON (\"COMPONENT\".\"ID\" = \"ANALYSIS\".\"COMPONENT_ID\") AND (\"VULNERABILITY\".\"ID\" = \"ANALYSIS\".\"VULNERABILITY_ID\") AND (\"COMPONENT\".\"PROJECT_ID\" = \"ANALYSIS\".\"PROJECT_ID\") " +
-            "WHERE \"COMPONENT\".\"PROJECT_ID\" = ?";
+            "\"ANALYSIS\".\"SUPPRESSED\"," +
+            "\"VULNERABILITY\".\"ID\"," +
+            "\"FINDINGATTRIBUTION\".\"ID\" " +
+            QUERY_FROM;
 
     private UUID project;
     private Map<String, Object> component = new LinkedHashMap<>();
@@ -116,8 +125,8 @@ public class Finding implements Serializable {
         optValue(vulnerability, "vulnId", o[8]);
         optValue(vulnerability, "title", o[9]);
         optValue(vulnerability, "subtitle", o[10]);
-        //optValue(vulnerability, "description", o[11]); // CLOB - handle this in QueryManager
-        //optValue(vulnerability, "recommendation", o[12]); // CLOB - handle this in QueryManager
+        //optValue(vulnerability, "description", o[11]); // CLOB - handled in FindingsQueryManager
+        //optValue(vulnerability, "recommendation", o[12]); // CLOB - handled in FindingsQueryManager
         final Severity severity = VulnerabilityUtil.getSeverity(o[13], (BigDecimal) o[14], (BigDecimal) o[15], (BigDecimal) o[16], (BigDecimal) o[17], (BigDecimal) o[18]);
         optValue(vulnerability, "cvssV2BaseScore", o[14]);
         optValue(vulnerability, "cvssV3BaseScore", o[15]);
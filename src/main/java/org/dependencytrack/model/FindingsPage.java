@@ -0,0 +1,32 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.model;
+
+import java.util.List;
+
+/**
+ * A single page of {@link Finding}s.
+ *
+ * @param findings   The {@link Finding}s on this page
+ * @param totalCount The total number of {@link Finding}s across all pages
+ * @param nextCursor Opaque cursor pointing to the next page, or {@code null} if this is the last page
+ * @since 4.11.0
+ */
+public record FindingsPage(List<Finding> findings, long totalCount, String nextCursor) {
+}
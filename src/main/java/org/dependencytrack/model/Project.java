@@ -260,6 +260,15 @@ public class Project implements Serializable {
     @Column(name = "LAST_RISKSCORE", allowsNull = "true") // New column, must allow nulls on existing databases))
     private Double lastInheritedRiskScore;
 
+    /**
+     * Whether the {@link DependencyEdge}s of the project reflect its dependency graph.
+     * Projects imported before the edges were introduced have their edges populated on first access.
+     */
+    @Persistent
+    @Column(name = "DEPENDENCYGRAPH_SYNCHRONIZED", allowsNull = "true") // New column, must allow nulls on existing databases
+    @JsonIgnore
+    private Boolean dependencyGraphSynchronized;
+
     @Persistent
     @Column(name = "ACTIVE")
     @JsonSerialize(nullsUsing = BooleanDefaultTrueSerializer.class)
@@ -474,6 +483,14 @@ public class Project implements Serializable {
         this.lastInheritedRiskScore = lastInheritedRiskScore;
     }
 
+    public boolean isDependencyGraphSynchronized() {
+        return Boolean.TRUE.equals(dependencyGraphSynchronized);
+    }
+
+    public void setDependencyGraphSynchronized(boolean dependencyGraphSynchronized) {
+        this.dependencyGraphSynchronized = dependencyGraphSynchronized;
+    }
+
     public List<ExternalReference> getExternalReferences() {
         return externalReferences;
     }
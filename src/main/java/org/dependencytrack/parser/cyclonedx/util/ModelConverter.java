@@ -66,10 +66,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 
 public class ModelConverter {
 
@@ -88,19 +90,45 @@ public class ModelConverter {
     public static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project) {
         final List<Component> components = new ArrayList<>();
         if (bom.getComponents() != null) {
+            // Resolve existing components for the entire BOM at once, instead of
+            // querying the database for every single (possibly nested) component.
+            final var identities = new IdentityHashMap<org.cyclonedx.model.Component, ComponentIdentity>();
+            collectIdentities(bom.getComponents(), identities);
+            final Map<ComponentIdentity, Component> existingComponents = qm.matchIdentities(project, identities.values());
+            final Function<org.cyclonedx.model.Component, Component> existingComponentResolver =
+                    cdxComponent -> existingComponents.get(identities.get(cdxComponent));
+
             for (int i = 0; i < bom.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxComponent = bom.getComponents().get(i);
                 if (cycloneDxComponent != null) {
-                    components.add(convert(qm, cycloneDxComponent, project));
+                    components.add(convert(qm, cycloneDxComponent, project, existingComponentResolver));
                 }
             }
         }
         return components;
     }
 
+    private static void collectIdentities(final List<org.cyclonedx.model.Component> cdxComponents,
+                                          final Map<org.cyclonedx.model.Component, ComponentIdentity> identities) {
+        for (final org.cyclonedx.model.Component cdxComponent : cdxComponents) {
+            if (cdxComponent != null) {
+                identities.put(cdxComponent, new ComponentIdentity(cdxComponent));
+                if (cdxComponent.getComponents() != null) {
+                    collectIdentities(cdxComponent.getComponents(), identities);
+                }
+            }
+        }
+    }
+
     /**Convert from CycloneDX to DT */
     public static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent, final Project project) {
-        Component component = qm.matchSingleIdentity(project, new ComponentIdentity(cycloneDxComponent));
+        return convert(qm, cycloneDxComponent, project,
+                cdxComponent -> qm.matchSingleIdentity(project, new ComponentIdentity(cdxComponent)));
+    }
+
+    private static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent, final Project project,
+                                     final Function<org.cyclonedx.model.Component, Component> existingComponentResolver) {
+        Component component = existingComponentResolver.apply(cycloneDxComponent);
         if (component == null) {
             component = new Component();
             component.setProject(project);
@@ -234,7 +262,7 @@ public class ModelConverter {
             for (int i = 0; i < cycloneDxComponent.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxChildComponent = cycloneDxComponent.getComponents().get(i);
                 if (cycloneDxChildComponent != null) {
-                    components.add(convert(qm, cycloneDxChildComponent, project));
+                    components.add(convert(qm, cycloneDxChildComponent, project, existingComponentResolver));
                 }
             }
             if (CollectionUtils.isNotEmpty(components)) {
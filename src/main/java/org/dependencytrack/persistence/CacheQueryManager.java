@@ -19,12 +19,15 @@
 package org.dependencytrack.persistence;
 
 import alpine.resources.AlpineRequest;
+import com.google.common.collect.Lists;
 import org.dependencytrack.model.ComponentAnalysisCache;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import javax.json.JsonObject;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -64,6 +67,31 @@ public class CacheQueryManager extends QueryManager implements IQueryManager {
         return query.executeList();
     }
 
+    /**
+     * Fetch the {@link ComponentAnalysisCache}s for multiple targets at once.
+     * @param cacheType the type of the cache
+     * @param targetHost the host of the analyzer
+     * @param targetType the type of the targets
+     * @param targets the targets to fetch cache records for
+     * @return the most recent {@link ComponentAnalysisCache} for each target that has one
+     * @since 4.11.0
+     */
+    public Map<String, ComponentAnalysisCache> getComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, Collection<String> targets) {
+        final var cacheByTarget = new HashMap<String, ComponentAnalysisCache>();
+        for (final List<String> targetsPartition : Lists.partition(List.copyOf(targets), 1000)) {
+            final Query<ComponentAnalysisCache> query = pm.newQuery(ComponentAnalysisCache.class,
+                    "cacheType == :cacheType && targetHost == :targetHost && targetType == :targetType && :targets.contains(target)");
+            query.setOrdering("lastOccurrence asc");
+            query.setNamedParameters(Map.of("cacheType", cacheType, "targetHost", targetHost, "targetType", targetType, "targets", targetsPartition));
+            try {
+                query.executeList().forEach(cac -> cacheByTarget.put(cac.getTarget(), cac));
+            } finally {
+                query.closeAll();
+            }
+        }
+        return cacheByTarget;
+    }
+
     public synchronized void updateComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, String target, Date lastOccurrence, JsonObject result) {
         ComponentAnalysisCache cac = getComponentAnalysisCache(cacheType, targetHost, targetType, target);
         if (cac == null) {
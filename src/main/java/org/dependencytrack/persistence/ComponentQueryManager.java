@@ -27,34 +27,65 @@ import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
 import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.tuple.Pair;
+import org.datanucleus.PropertyNames;
+import org.datanucleus.api.jdo.JDOQuery;
+import org.datanucleus.flush.FlushMode;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
+import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
+import org.dependencytrack.model.DependencyEdge;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
+import org.dependencytrack.model.ServiceComponent;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.resources.v1.vo.DependencyGraphResponse;
 
 import javax.jdo.FetchPlan;
+import javax.jdo.JDOHelper;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import javax.json.Json;
-import javax.json.JsonArray;
 import javax.json.JsonValue;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 final class ComponentQueryManager extends QueryManager implements IQueryManager {
 
     private static final Logger LOGGER = Logger.getLogger(ComponentQueryManager.class);
 
+    /**
+     * Maximum number of {@link Component} IDs to include in a single bulk deletion query.
+     */
+    private static final int COMPONENT_DELETION_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of {@link Component} IDs to include in a single dependency graph query.
+     */
+    private static final int DEPENDENCY_GRAPH_BATCH_SIZE = 1000;
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -339,11 +370,63 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
      */
     public Component createComponent(Component component, boolean commitIndex) {
         final Component result = persist(component);
+        MetricsDirtyTracker.getInstance().markDirty(result);
         Event.dispatch(new IndexEvent(IndexEvent.Action.CREATE, result));
         commitSearchIndex(commitIndex, Component.class);
         return result;
     }
 
+    /**
+     * Persists a batch of new and existing {@link Component}s within a single transaction.
+     * <p>
+     * Flushing is deferred until the transaction is committed, which allows DataNucleus to
+     * send INSERT and UPDATE statements to the database in JDBC batches. The persisted instances
+     * are returned as-is, i.e. they are not refreshed from the datastore one by one.
+     *
+     * @param components  The {@link Component}s to persist
+     * @param commitIndex specifies if the search index should be committed (an expensive operation)
+     * @return The persisted {@link Component}s, in the same order as {@code components}
+     * @since 4.11.0
+     */
+    public List<Component> persistComponents(final List<Component> components, final boolean commitIndex) {
+        if (components.isEmpty()) {
+            return components;
+        }
+
+        final var newComponents = new HashSet<Component>();
+        for (final Component component : components) {
+            if (!JDOHelper.isPersistent(component)) {
+                newComponents.add(component);
+            }
+        }
+
+        final Object origFlushMode = pm.getProperties().get(PropertyNames.PROPERTY_FLUSH_MODE);
+        pm.setProperty(PropertyNames.PROPERTY_FLUSH_MODE, FlushMode.MANUAL.name());
+        final List<Component> result;
+        try {
+            result = runInTransaction(() -> {
+                final Collection<Component> persisted = pm.makePersistentAll(components);
+                pm.flush();
+                return new ArrayList<>(persisted);
+            });
+        } finally {
+            pm.setProperty(PropertyNames.PROPERTY_FLUSH_MODE, origFlushMode != null ? origFlushMode : FlushMode.AUTO.name());
+        }
+
+        for (final Component component : result) {
+            final IndexEvent.Action action;
+            if (newComponents.contains(component)) {
+                action = IndexEvent.Action.CREATE;
+                MetricsDirtyTracker.getInstance().markDirty(component);
+            } else {
+                action = IndexEvent.Action.UPDATE;
+            }
+            Event.dispatch(new IndexEvent(action, component));
+        }
+        commitSearchIndex(commitIndex, Component.class);
+        return result;
+    }
+
     public Component cloneComponent(Component sourceComponent, Project destinationProject, boolean commitIndex) {
         final Component component = new Component();
         component.setGroup(sourceComponent.getGroup());
@@ -422,8 +505,10 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
      * @param project the Project to delete components of
      */
     protected void deleteComponents(Project project) {
+        pm.newQuery(DependencyEdge.class, "project == :project").deletePersistentAll(project);
         final Query<Component> query = pm.newQuery(Component.class, "project == :project");
         query.deletePersistentAll(project);
+        ProjectDependencyGraphCache.getInstance().invalidate(project);
     }
 
     /**
@@ -440,13 +525,18 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         pm.getFetchPlan().setDetachmentOptions(FetchPlan.DETACH_LOAD_FIELDS);
         try {
             final Component result = pm.getObjectById(Component.class, component.getId());
+            MetricsDirtyTracker.getInstance().markDirty(result);
             Event.dispatch(new IndexEvent(IndexEvent.Action.DELETE, result));
             deleteAnalysisTrail(component);
             deleteViolationAnalysisTrail(component);
             deleteMetrics(component);
             deleteFindingAttributions(component);
             deletePolicyViolations(component);
+            pm.newQuery(DependencyEdge.class, "parent == :component || child == :component").deletePersistentAll(component);
+            final Project project = result.getProject();
             delete(component);
+            // Invalidate only once the deletion is committed, so that concurrent readers can't cache the stale graph again.
+            ProjectDependencyGraphCache.getInstance().invalidate(project);
             commitSearchIndex(commitIndex, Component.class);
         } catch (javax.jdo.JDOObjectNotFoundException | org.datanucleus.exceptions.NucleusObjectNotFoundException e) {
             LOGGER.warn("Deletion of component failed because it didn't exist anymore.");
@@ -492,6 +582,86 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         return (List<Component>) query.executeWithMap(queryFilterParamsPair.getRight());
     }
 
+    /**
+     * Resolves existing {@link Component}s of a {@link Project} for a batch of {@link ComponentIdentity}s.
+     * <p>
+     * As opposed to calling {@link #matchSingleIdentity(Project, ComponentIdentity)} for every identity,
+     * this method fetches all components of the project with a single query, and matches the identities
+     * in memory. The same identity attributes as in {@link #matchSingleIdentity(Project, ComponentIdentity)}
+     * are considered, namely PURL, PURL coordinates, CPE, SWID tag ID, and group / name / version.
+     *
+     * @param project    The {@link Project} the components are a dependency of
+     * @param identities The {@link ComponentIdentity}s to resolve
+     * @return A {@link Map} of {@link ComponentIdentity} instances to their matching {@link Component}.
+     * Identities for which no match was found are not contained in the {@link Map}.
+     * @since 4.11.0
+     */
+    public Map<ComponentIdentity, Component> matchIdentities(final Project project, final Collection<ComponentIdentity> identities) {
+        final var matches = new IdentityHashMap<ComponentIdentity, Component>(identities.size());
+        if (identities.isEmpty()) {
+            return matches;
+        }
+
+        final var componentsByPurl = new HashMap<String, Component>();
+        final var componentsByPurlCoordinates = new HashMap<String, Component>();
+        final var componentsByCpe = new HashMap<String, Component>();
+        final var componentsBySwidTagId = new HashMap<String, Component>();
+        final var componentsByCoordinates = new HashMap<IdentityCoordinates, Component>();
+
+        final Query<Component> query = pm.newQuery(Component.class, "project == :project");
+        query.setOrdering("id asc");
+        query.setParameters(project);
+        for (final Component component : query.executeList()) {
+            if (component.getPurl() != null) {
+                componentsByPurl.putIfAbsent(component.getPurl().canonicalize(), component);
+            }
+            if (component.getPurlCoordinates() != null) {
+                componentsByPurlCoordinates.putIfAbsent(component.getPurlCoordinates().canonicalize(), component);
+            }
+            if (component.getCpe() != null) {
+                componentsByCpe.putIfAbsent(component.getCpe(), component);
+            }
+            if (component.getSwidTagId() != null) {
+                componentsBySwidTagId.putIfAbsent(component.getSwidTagId(), component);
+            }
+            componentsByCoordinates.putIfAbsent(new IdentityCoordinates(component.getGroup(),
+                    component.getName(), component.getVersion()), component);
+        }
+
+        for (final ComponentIdentity cid : identities) {
+            Component match = null;
+            if (cid.getPurl() != null) {
+                match = componentsByPurl.get(cid.getPurl().canonicalize());
+                if (match == null && cid.getPurlCoordinates() != null) {
+                    match = componentsByPurlCoordinates.get(cid.getPurlCoordinates().canonicalize());
+                }
+            }
+            if (match == null && cid.getCpe() != null) {
+                match = componentsByCpe.get(cid.getCpe());
+            }
+            if (match == null && cid.getSwidTagId() != null) {
+                match = componentsBySwidTagId.get(cid.getSwidTagId());
+            }
+            if (match == null) {
+                match = componentsByCoordinates.get(new IdentityCoordinates(cid.getGroup(), cid.getName(), cid.getVersion()));
+            }
+            if (match != null) {
+                matches.put(cid, match);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Exact group, name, and version of a component, as used for identity matching.
+     * <p>
+     * Unlike {@link org.dependencytrack.model.Coordinates}, values are not trimmed,
+     * mirroring the equality checks performed by {@link #buildComponentIdentityQuery(Project, ComponentIdentity)}.
+     */
+    private record IdentityCoordinates(String group, String name, String version) {
+    }
+
     private static Pair<String, Map<String, Object>> buildComponentIdentityQuery(final Project project, final ComponentIdentity cid) {
         String purlString = null;
         String purlCoordinates = null;
@@ -566,27 +736,84 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
     public void reconcileComponents(Project project, List<Component> existingProjectComponents, List<Component> components) {
         // Removes components as dependencies to the project for all
         // components not included in the list provided
-        List<Component> markedForDeletion = new ArrayList<>();
-        for (final Component existingComponent: existingProjectComponents) {
-            boolean keep = false;
-            for (final Component component: components) {
-                if (component.getId() == existingComponent.getId()) {
-                    keep = true;
-                    break;
-                }
-            }
-            if (!keep) {
+        final var componentIdsToKeep = new HashSet<Long>(components.size());
+        for (final Component component : components) {
+            componentIdsToKeep.add(component.getId());
+        }
+        final var markedForDeletion = new ArrayList<Component>();
+        for (final Component existingComponent : existingProjectComponents) {
+            if (!componentIdsToKeep.contains(existingComponent.getId())) {
                 markedForDeletion.add(existingComponent);
             }
         }
         if (!markedForDeletion.isEmpty()) {
-            for (Component c: markedForDeletion) {
-                this.recursivelyDelete(c, false);
+            deleteComponents(project, markedForDeletion);
+        }
+    }
+
+    /**
+     * Deletes a set of {@link Component}s of a {@link Project}, and all objects dependant on them.
+     * <p>
+     * As opposed to {@link #recursivelyDelete(Component, boolean)}, dependant objects are deleted
+     * with one query per type and batch of components, rather than with one query per type and component.
+     * Since {@code components} is expected to contain all components that shall be removed, children
+     * are not deleted implicitly. Children that are not part of {@code components} are detached from
+     * their parent instead.
+     *
+     * @param project    the Project the components belong to
+     * @param components the Components to delete
+     * @since 4.11.0
+     */
+    void deleteComponents(final Project project, final List<Component> components) {
+        MetricsDirtyTracker.getInstance().markDirty(project);
+        final List<Long> componentIds = components.stream().map(Component::getId).toList();
+        runInTransaction(() -> {
+            for (final List<Long> batch : Lists.partition(componentIds, COMPONENT_DELETION_BATCH_SIZE)) {
+                // Remove references to the components about to be deleted,
+                // so that the order in which batches are deleted does not matter.
+                final Query<Component> childrenQuery = pm.newQuery(Component.class, "project == :project && :ids.contains(parent.id)");
+                childrenQuery.setParameters(project, batch);
+                for (final Component child : childrenQuery.executeList()) {
+                    child.setParent(null);
+                }
             }
-            //this.delete(markedForDeletion);
+            pm.flush();
+
+            for (final List<Long> batch : Lists.partition(componentIds, COMPONENT_DELETION_BATCH_SIZE)) {
+                pm.newQuery(DependencyEdge.class, ":ids.contains(parent.id) || :ids.contains(child.id)").deletePersistentAll(batch);
+                pm.newQuery(Analysis.class, ":ids.contains(component.id)").deletePersistentAll(batch);
+                pm.newQuery(ViolationAnalysis.class, ":ids.contains(component.id)").deletePersistentAll(batch);
+                pm.newQuery(DependencyMetrics.class, ":ids.contains(component.id)").deletePersistentAll(batch);
+                pm.newQuery(FindingAttribution.class, ":ids.contains(component.id)").deletePersistentAll(batch);
+                pm.newQuery(PolicyViolation.class, ":ids.contains(component.id)").deletePersistentAll(batch);
+                deleteComponentVulnerabilities(batch);
+                // Bulk delete, rather than loading every component and deleting it individually.
+                final Query<?> componentQuery = pm.newQuery("DELETE FROM org.dependencytrack.model.Component WHERE :ids.contains(id)");
+                componentQuery.execute(batch);
+            }
+        });
+        ProjectDependencyGraphCache.getInstance().invalidate(project);
+        for (final Component component : components) {
+            Event.dispatch(new IndexEvent(IndexEvent.Action.DELETE, component));
         }
     }
 
+    /**
+     * Deletes the relationships between {@link Component}s and their {@link Vulnerability}s.
+     * <p>
+     * Bulk deletes of {@link Component}s do not remove the rows of the join table,
+     * so that it must be cleaned up separately beforehand.
+     *
+     * @param componentIds IDs of the Components to delete the relationships of
+     */
+    private void deleteComponentVulnerabilities(final List<Long> componentIds) {
+        pm.setProperty("datanucleus.query.sql.allowAll", true);
+        final Query<?> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, """
+                DELETE FROM "COMPONENTS_VULNERABILITIES" WHERE "COMPONENT_ID" IN (%s)
+                """.formatted(String.join(", ", Collections.nCopies(componentIds.size(), "?"))));
+        query.executeWithArray(componentIds.toArray());
+    }
+
     /**
      * A similar method exists in ProjectQueryManager
      */
@@ -629,107 +856,380 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         }
     }
 
+    /**
+     * Returns a list of all {@link DependencyGraphResponse} objects by {@link Component} UUID.
+     * @param uuids a list of {@link Component} UUIDs
+     * @return a list of {@link DependencyGraphResponse} objects
+     * @since 4.9.0
+     */
+    public List<DependencyGraphResponse> getDependencyGraphByUUID(final List<UUID> uuids) {
+        final Query<Component> query = this.getObjectsByUuidsQuery(Component.class, uuids);
+        query.setResult("uuid, name, version, purl, directDependencies, null");
+        return List.copyOf(query.executeResultList(DependencyGraphResponse.class));
+    }
+
+    /**
+     * Returns the dependency graph of a project, limited to the paths leading to the given components.
+     * <p>
+     * Every component on such a path is marked as expanded. The direct dependencies of the project,
+     * as well as two levels of direct dependencies of all components on the paths, are included too.
+     * @param project the Project the components belong to
+     * @param components the Components to get the dependency graph for
+     * @return the dependency graph, keyed by the UUIDs of the components it contains
+     */
     public Map<String, Component> getDependencyGraphForComponents(Project project, List<Component> components) {
         Map<String, Component> dependencyGraph = new HashMap<>();
         if (project.getDirectDependencies() == null || project.getDirectDependencies().isBlank()) {
             return dependencyGraph;
         }
+        final ProjectDependencyGraph graph = getDependencyGraph(project);
 
-        for(Component component : components) {
-            dependencyGraph.put(component.getUuid().toString(), component);
-            getParentDependenciesOfComponent(project, component, dependencyGraph);
-        }
-        if (!dependencyGraph.isEmpty()){
-            getRootDependencies(dependencyGraph, project);
-            getDirectDependenciesForPathDependencies(dependencyGraph);
+        final int[] componentNodes = components.stream()
+                .mapToInt(component -> graph.indexOf(component.getId()))
+                .filter(node -> node >= 0)
+                .toArray();
+        final BitSet expandedNodes = new BitSet(graph.size());
+        Arrays.stream(graph.getAncestors(componentNodes)).forEach(expandedNodes::set);
+        final BitSet nodes = new BitSet(graph.size());
+        nodes.or(expandedNodes);
+        Arrays.stream(componentNodes).forEach(nodes::set);
+        Arrays.stream(graph.getDirectDependencies()).forEach(nodes::set);
+        final BitSet nodesWithChildren = new BitSet(graph.size());
+        BitSet parentNodes = (BitSet) nodes.clone();
+        for (int i = 0; i < 2; i++) {
+            nodesWithChildren.or(parentNodes);
+            final BitSet newNodes = new BitSet(graph.size());
+            parentNodes.stream().forEach(node -> Arrays.stream(graph.getChildren(node)).forEach(newNodes::set));
+            newNodes.andNot(nodes);
+            nodes.or(newNodes);
+            parentNodes = newNodes;
         }
+
         // Reduce size of JSON response
-        for (Map.Entry<String, Component> entry : dependencyGraph.entrySet()) {
+        final Map<Long, Component> componentsById = getComponentsById(nodes.stream().mapToObj(graph::getComponentId).toList());
+        final Map<RepositoryQueryManager.RepositoryMetaComponentSearch, String> latestVersions = getLatestVersions(componentsById.values());
+        nodes.stream().forEach(node -> {
+            final Component component = componentsById.get(graph.getComponentId(node));
+            if (component == null) {
+                return;
+            }
             Component transientComponent = new Component();
-            transientComponent.setUuid(entry.getValue().getUuid());
-            transientComponent.setName(entry.getValue().getName());
-            transientComponent.setVersion(entry.getValue().getVersion());
-            transientComponent.setPurl(entry.getValue().getPurl());
-            transientComponent.setPurlCoordinates(entry.getValue().getPurlCoordinates());
-            transientComponent.setDependencyGraph(entry.getValue().getDependencyGraph());
-            transientComponent.setExpandDependencyGraph(entry.getValue().isExpandDependencyGraph());
-            if (transientComponent.getPurl() != null) {
-                final RepositoryType type = RepositoryType.resolve(transientComponent.getPurl());
-                if (RepositoryType.UNSUPPORTED != type) {
-                    final RepositoryMetaComponent repoMetaComponent = getRepositoryMetaComponent(type, transientComponent.getPurl().getNamespace(), transientComponent.getPurl().getName());
-                    if (repoMetaComponent != null) {
-                        RepositoryMetaComponent transientRepoMetaComponent = new RepositoryMetaComponent();
-                        transientRepoMetaComponent.setLatestVersion(repoMetaComponent.getLatestVersion());
-                        transientComponent.setRepositoryMeta(transientRepoMetaComponent);
-                    }
-                }
+            transientComponent.setUuid(component.getUuid());
+            transientComponent.setName(component.getName());
+            transientComponent.setVersion(component.getVersion());
+            transientComponent.setPurl(component.getPurl());
+            transientComponent.setPurlCoordinates(component.getPurlCoordinates());
+            if (nodesWithChildren.get(node)) {
+                transientComponent.setDependencyGraph(Arrays.stream(graph.getChildren(node))
+                        .filter(child -> componentsById.containsKey(graph.getComponentId(child)))
+                        .mapToObj(child -> graph.getUuid(child).toString())
+                        .collect(Collectors.toCollection(HashSet::new)));
             }
-            dependencyGraph.put(entry.getKey(), transientComponent);
-        }
+            transientComponent.setExpandDependencyGraph(expandedNodes.get(node));
+            final RepositoryQueryManager.RepositoryMetaComponentSearch search = getRepositoryMetaComponentSearch(component);
+            if (search != null && latestVersions.containsKey(search)) {
+                RepositoryMetaComponent transientRepoMetaComponent = new RepositoryMetaComponent();
+                transientRepoMetaComponent.setLatestVersion(latestVersions.get(search));
+                transientComponent.setRepositoryMeta(transientRepoMetaComponent);
+            }
+            dependencyGraph.put(component.getUuid().toString(), transientComponent);
+        });
         return dependencyGraph;
     }
 
     /**
-     * Returns a list of all {@link DependencyGraphResponse} objects by {@link Component} UUID.
-     * @param uuids a list of {@link Component} UUIDs
-     * @return a list of {@link DependencyGraphResponse} objects
-     * @since 4.9.0
+     * Returns the dependency graph of a {@link Project}.
+     * <p>
+     * The graph is built once per BOM import of the project, and held in memory by {@link ProjectDependencyGraphCache}.
+     * @param project the Project to get the dependency graph of
+     * @return the dependency graph
+     * @since 4.11.0
      */
-    public List<DependencyGraphResponse> getDependencyGraphByUUID(final List<UUID> uuids) {
-        final Query<Component> query = this.getObjectsByUuidsQuery(Component.class, uuids);
-        query.setResult("uuid, name, version, purl, directDependencies, null");
-        return List.copyOf(query.executeResultList(DependencyGraphResponse.class));
+    public ProjectDependencyGraph getDependencyGraph(final Project project) {
+        return ProjectDependencyGraphCache.getInstance().get(project, this::loadDependencyGraph);
     }
 
-    private void getParentDependenciesOfComponent(Project project, Component childComponent, Map<String, Component> dependencyGraph) {
-        String queryUuid = ".*" + childComponent.getUuid().toString() + ".*";
-        final Query<Component> query = pm.newQuery(Component.class, "directDependencies.matches(:queryUuid) && project == :project");
-        List<Component> parentComponents = (List<Component>) query.executeWithArray(queryUuid, project);
-        for (Component parentComponent : parentComponents) {
-            parentComponent.setExpandDependencyGraph(true);
-            if(parentComponent.getDependencyGraph() == null) {
-                parentComponent.setDependencyGraph(new HashSet<>());
-            }
-            parentComponent.getDependencyGraph().add(childComponent.getUuid().toString());
-            if (!dependencyGraph.containsKey(parentComponent.getUuid().toString())) {
-                dependencyGraph.put(parentComponent.getUuid().toString(), parentComponent);
-                getParentDependenciesOfComponent(project, parentComponent, dependencyGraph);
-            }
+    /**
+     * Returns the depth of a component in the dependency graph of its project,
+     * i.e. the number of edges on the shortest path from the project to the component.
+     * @param component the Component to determine the depth of
+     * @return the depth, {@code 1} for direct dependencies, or {@code -1} if the component is not part of the dependency graph
+     * @since 4.11.0
+     */
+    public int getDependencyDepth(final Component component) {
+        final ProjectDependencyGraph graph = getDependencyGraph(component.getProject());
+        final int node = graph.indexOf(component.getId());
+        return node >= 0 ? graph.getDepth(node) : -1;
+    }
+
+    /**
+     * Returns the paths through the dependency graph of a component's project that lead to the component.
+     * Each path starts with a direct dependency of the project, and ends with the component itself.
+     * <p>
+     * As the number of paths can grow exponentially with the size of the graph, the search is limited
+     * by {@code maxPaths} and {@code maxDepth}. {@link DependencyPaths#truncated()} tells whether paths were omitted.
+     * @param component the Component to get the paths for
+     * @param maxPaths the maximum number of paths to return
+     * @param maxDepth the maximum number of components of a path
+     * @return the paths, which are empty if the component is not part of the dependency graph
+     * @since 4.11.0
+     */
+    public DependencyPaths getDependencyPaths(final Component component, final int maxPaths, final int maxDepth) {
+        final ProjectDependencyGraph graph = getDependencyGraph(component.getProject());
+        final int node = graph.indexOf(component.getId());
+        if (node < 0) {
+            return DependencyPaths.EMPTY;
+        }
+        final ProjectDependencyGraph.Paths nodePaths = graph.getPaths(node, maxPaths, maxDepth);
+        if (nodePaths.paths().isEmpty()) {
+            return new DependencyPaths(Collections.emptyList(), nodePaths.truncated());
         }
+        final Set<Long> componentIds = new HashSet<>();
+        nodePaths.paths().forEach(path -> Arrays.stream(path).forEach(pathNode -> componentIds.add(graph.getComponentId(pathNode))));
+        final Map<Long, Component> componentsById = getComponentsById(componentIds);
+        return new DependencyPaths(nodePaths.paths().stream()
+                .map(path -> Arrays.stream(path).mapToObj(pathNode -> componentsById.get(graph.getComponentId(pathNode))).toList())
+                .filter(path -> !path.contains(null))
+                .toList(), nodePaths.truncated());
     }
 
-    private void getRootDependencies(Map<String, Component> dependencyGraph, Project project) {
-        JsonArray directDependencies = Json.createReader(new StringReader(project.getDirectDependencies())).readArray();
-        for (JsonValue directDependency : directDependencies) {
-            String uuid = directDependency.asJsonObject().getString("uuid");
-            if (!dependencyGraph.containsKey(uuid)) {
-                Component component = this.getObjectByUuid(Component.class, uuid);
-                dependencyGraph.put(uuid, component);
+    /**
+     * Replaces the {@link DependencyEdge}s of a {@link Project} with the ones described by
+     * {@link Project#getDirectDependencies()} and {@link Component#getDirectDependencies()}.
+     * References to components that are not contained in {@code components} are ignored.
+     * @param project the Project to synchronize the dependency graph of
+     * @param components all Components of the Project
+     * @since 4.11.0
+     */
+    public void synchronizeDependencyGraph(final Project project, final Collection<Component> components) {
+        final Map<String, Component> componentsByUuid = new HashMap<>();
+        for (final Component component : components) {
+            if (component.getUuid() != null) {
+                componentsByUuid.put(component.getUuid().toString(), component);
             }
         }
-        getDirectDependenciesForPathDependencies(dependencyGraph);
+        final List<DependencyEdge> edges = new ArrayList<>();
+        addDependencyEdges(edges, project, null, project.getDirectDependencies(), componentsByUuid);
+        for (final Component component : components) {
+            addDependencyEdges(edges, project, component, component.getDirectDependencies(), componentsByUuid);
+        }
+        runInTransaction(() -> {
+            pm.newQuery(DependencyEdge.class, "project == :project").deletePersistentAll(project);
+            pm.makePersistentAll(edges);
+            markDependencyGraphSynchronized(project);
+        });
+        ProjectDependencyGraphCache.getInstance().invalidate(project);
     }
 
-    private void getDirectDependenciesForPathDependencies(Map<String, Component> dependencyGraph) {
-        Map<String, Component> addToDependencyGraph = new HashMap<>();
-        for (Component component : dependencyGraph.values()) {
-            if (component.getDirectDependencies() != null && !component.getDirectDependencies().isEmpty()) {
-                JsonArray directDependencies = Json.createReader(new StringReader(component.getDirectDependencies())).readArray();
-                for (JsonValue directDependency : directDependencies) {
-                    if (component.getDependencyGraph() == null) {
-                        component.setDependencyGraph(new HashSet<>());
-                    }
-                    String uuid = directDependency.asJsonObject().getString("uuid");
-                    if (!dependencyGraph.containsKey(uuid) && !addToDependencyGraph.containsKey(uuid)) {
-                        Component childNode = this.getObjectByUuid(Component.class, uuid);
-                        addToDependencyGraph.put(childNode.getUuid().toString(), childNode);
-                        component.getDependencyGraph().add(childNode.getUuid().toString());
-                    } else {
-                        component.getDependencyGraph().add(uuid);
+    /**
+     * Copies the {@link DependencyEdge}s of a {@link Project} to its clone.
+     * Edges referencing components that were not cloned are skipped.
+     * @param source the Project that was cloned
+     * @param target the clone of the Project
+     * @param clonedComponents the cloned Components, by the ID of the Component they were cloned from
+     * @param includeDirectDependencies whether to copy the direct dependencies of the Project itself
+     * @since 4.11.0
+     */
+    public void cloneDependencyGraph(final Project source, final Project target, final Map<Long, Component> clonedComponents,
+                                     final boolean includeDirectDependencies) {
+        ensureDependencyGraph(source);
+
+        final List<DependencyEdge> edges = new ArrayList<>();
+        if (includeDirectDependencies) {
+            final Query<DependencyEdge> directDependencyQuery = pm.newQuery(DependencyEdge.class, "project == :project && parent == null");
+            directDependencyQuery.setParameters(source);
+            directDependencyQuery.setResult("child.id");
+            try {
+                for (final Long childId : directDependencyQuery.executeResultList(Long.class)) {
+                    final Component child = clonedComponents.get(childId);
+                    if (child != null) {
+                        edges.add(new DependencyEdge(target, null, child));
                     }
                 }
+            } finally {
+                directDependencyQuery.closeAll();
+            }
+        }
+
+        final Query<DependencyEdge> edgeQuery = pm.newQuery(DependencyEdge.class, "project == :project && parent != null");
+        edgeQuery.setParameters(source);
+        edgeQuery.setResult("parent.id, child.id");
+        try {
+            for (final Object[] row : edgeQuery.executeResultList(Object[].class)) {
+                final Component parent = clonedComponents.get((Long) row[0]);
+                final Component child = clonedComponents.get((Long) row[1]);
+                if (parent != null && child != null) {
+                    edges.add(new DependencyEdge(target, parent, child));
+                }
+            }
+        } finally {
+            edgeQuery.closeAll();
+        }
+
+        runInTransaction(() -> {
+            pm.makePersistentAll(edges);
+            markDependencyGraphSynchronized(target);
+        });
+        ProjectDependencyGraphCache.getInstance().invalidate(target);
+    }
+
+    private void markDependencyGraphSynchronized(final Project project) {
+        getObjectById(Project.class, project.getId()).setDependencyGraphSynchronized(true);
+    }
+
+    private static void addDependencyEdges(final List<DependencyEdge> edges, final Project project, final Component parent,
+                                           final String directDependencies, final Map<String, Component> componentsByUuid) {
+        if (directDependencies == null || directDependencies.isBlank()) {
+            return;
+        }
+        final Set<String> childUuids = new LinkedHashSet<>();
+        for (final JsonValue directDependency : Json.createReader(new StringReader(directDependencies)).readArray()) {
+            final String childUuid = directDependency.asJsonObject().getString("uuid", null);
+            if (childUuid != null) {
+                childUuids.add(childUuid);
+            }
+        }
+        for (final String childUuid : childUuids) {
+            final Component child = componentsByUuid.get(childUuid);
+            if (child != null) {
+                edges.add(new DependencyEdge(project, parent, child));
+            }
+        }
+    }
+
+    /**
+     * Projects imported before {@link DependencyEdge}s were introduced only have their
+     * dependency graph recorded as JSON. Populate their edges on first access, once.
+     * <p>
+     * Whether edges have been populated is recorded in {@link Project#isDependencyGraphSynchronized()},
+     * rather than inferred from their existence, as the JSON may not resolve to any edges.
+     */
+    private void ensureDependencyGraph(final Project project) {
+        if (exists(pm.newQuery(Project.class, "this == :project && dependencyGraphSynchronized == true"), project)) {
+            return;
+        }
+        if ((project.getDirectDependencies() != null && !project.getDirectDependencies().isBlank())
+                || exists(pm.newQuery(Component.class, "project == :project && directDependencies != null"), project)) {
+            synchronizeDependencyGraph(project, getAllComponents(project));
+        } else {
+            runInTransaction(() -> markDependencyGraphSynchronized(project));
+        }
+    }
+
+    private static boolean exists(final Query<?> query, final Project project) {
+        query.setParameters(project);
+        query.setResult("id");
+        query.setRange(0, 1);
+        try {
+            return !query.executeResultList(Long.class).isEmpty();
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    /**
+     * Builds the {@link ProjectDependencyGraph} of a project with a constant number of queries,
+     * regardless of the size or depth of the graph.
+     */
+    private ProjectDependencyGraph loadDependencyGraph(final Project project) {
+        ensureDependencyGraph(project);
+
+        final Query<Component> componentQuery = pm.newQuery(Component.class, "project == :project");
+        componentQuery.setParameters(project);
+        componentQuery.setResult("id, uuid");
+        final List<Object[]> componentRows;
+        try {
+            componentRows = List.copyOf(componentQuery.executeResultList(Object[].class));
+        } finally {
+            componentQuery.closeAll();
+        }
+        final long[] componentIds = new long[componentRows.size()];
+        final UUID[] uuids = new UUID[componentRows.size()];
+        for (int i = 0; i < componentRows.size(); i++) {
+            componentIds[i] = (Long) componentRows.get(i)[0];
+            uuids[i] = (UUID) componentRows.get(i)[1];
+        }
+
+        final Query<DependencyEdge> directDependencyQuery = pm.newQuery(DependencyEdge.class, "project == :project && parent == null");
+        directDependencyQuery.setParameters(project);
+        directDependencyQuery.setResult("child.id");
+        final long[] directDependencyIds;
+        try {
+            directDependencyIds = directDependencyQuery.executeResultList(Long.class).stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            directDependencyQuery.closeAll();
+        }
+
+        final Query<DependencyEdge> edgeQuery = pm.newQuery(DependencyEdge.class, "project == :project && parent != null");
+        edgeQuery.setParameters(project);
+        edgeQuery.setResult("parent.id, child.id");
+        final List<Object[]> edgeRows;
+        try {
+            edgeRows = List.copyOf(edgeQuery.executeResultList(Object[].class));
+        } finally {
+            edgeQuery.closeAll();
+        }
+        final long[] edgeParentIds = new long[edgeRows.size()];
+        final long[] edgeChildIds = new long[edgeRows.size()];
+        for (int i = 0; i < edgeRows.size(); i++) {
+            edgeParentIds[i] = (Long) edgeRows.get(i)[0];
+            edgeChildIds[i] = (Long) edgeRows.get(i)[1];
+        }
+
+        return new ProjectDependencyGraph(project.getLastBomImport(), componentIds, uuids, directDependencyIds,
+                edgeParentIds, edgeChildIds, exists(pm.newQuery(ServiceComponent.class, "project == :project"), project));
+    }
+
+    /**
+     * Looks up the latest versions of the given components with as few queries as possible.
+     * @return the latest versions, keyed by the {@link RepositoryQueryManager.RepositoryMetaComponentSearch} they were found for
+     */
+    private Map<RepositoryQueryManager.RepositoryMetaComponentSearch, String> getLatestVersions(final Collection<Component> components) {
+        final Set<RepositoryQueryManager.RepositoryMetaComponentSearch> searches = new HashSet<>();
+        for (final Component component : components) {
+            final RepositoryQueryManager.RepositoryMetaComponentSearch search = getRepositoryMetaComponentSearch(component);
+            if (search != null) {
+                searches.add(search);
+            }
+        }
+        final Map<RepositoryQueryManager.RepositoryMetaComponentSearch, String> latestVersions = new HashMap<>();
+        if (searches.isEmpty()) {
+            return latestVersions;
+        }
+        for (final RepositoryMetaComponent repoMetaComponent : getRepositoryMetaComponentsBatch(List.copyOf(searches))) {
+            latestVersions.put(new RepositoryQueryManager.RepositoryMetaComponentSearch(repoMetaComponent.getRepositoryType(),
+                    repoMetaComponent.getNamespace(), repoMetaComponent.getName()), repoMetaComponent.getLatestVersion());
+        }
+        return latestVersions;
+    }
+
+    private static RepositoryQueryManager.RepositoryMetaComponentSearch getRepositoryMetaComponentSearch(final Component component) {
+        if (component.getPurl() == null) {
+            return null;
+        }
+        final RepositoryType type = RepositoryType.resolve(component.getPurl());
+        if (RepositoryType.UNSUPPORTED == type) {
+            return null;
+        }
+        return new RepositoryQueryManager.RepositoryMetaComponentSearch(type, component.getPurl().getNamespace(), component.getPurl().getName());
+    }
+
+    /**
+     * Returns components by their IDs, with one query per batch of IDs
+     * rather than one query per component.
+     * @param componentIds the IDs of the components
+     * @return the matching Components, by their ID
+     * @since 4.11.0
+     */
+    public Map<Long, Component> getComponentsById(final Collection<Long> componentIds) {
+        final Map<Long, Component> componentsById = new HashMap<>();
+        for (final List<Long> batch : Lists.partition(List.copyOf(componentIds), DEPENDENCY_GRAPH_BATCH_SIZE)) {
+            final Query<Component> query = pm.newQuery(Component.class, ":ids.contains(id)");
+            query.setParameters(batch);
+            for (final Component component : query.executeList()) {
+                componentsById.put(component.getId(), component);
             }
         }
-        dependencyGraph.putAll(addToDependencyGraph);
+        return componentsById;
     }
 }
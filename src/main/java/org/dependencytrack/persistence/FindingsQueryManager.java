@@ -18,9 +18,13 @@
  */
 package org.dependencytrack.persistence;
 
+import alpine.persistence.OrderDirection;
 import alpine.resources.AlpineRequest;
+import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.AnalysisComment;
 import org.dependencytrack.model.AnalysisJustification;
@@ -28,6 +32,7 @@ import org.dependencytrack.model.AnalysisResponse;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Finding;
+import org.dependencytrack.model.FindingsPage;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
@@ -36,12 +41,28 @@ import org.dependencytrack.model.RepositoryMetaComponent;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class FindingsQueryManager extends QueryManager implements IQueryManager {
 
+    private static final int QUERY_BATCH_SIZE = 1000;
 
     /**
      * Constructs a new QueryManager.
@@ -207,6 +228,7 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         }
 
         analysis = persist(analysis);
+        MetricsDirtyTracker.getInstance().markDirty(component);
         return getAnalysis(analysis.getComponent(), analysis.getVulnerability());
     }
 
@@ -263,36 +285,333 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
      * @param includeSuppressed determines if suppressed vulnerabilities should be included or not
      * @return a List of Finding objects
      */
-    @SuppressWarnings("unchecked")
     public List<Finding> getFindings(Project project, boolean includeSuppressed) {
-        final Query<Object[]> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, Finding.QUERY);
-        query.setParameters(project.getId());
-        final List<Object[]> list = query.executeList();
-        final List<Finding> findings = new ArrayList<>();
-        for (final Object[] o: list) {
-            final Finding finding = new Finding(project.getUuid(), o);
-            final Component component = getObjectByUuid(Component.class, (String)finding.getComponent().get("uuid"));
-            final Vulnerability vulnerability = getObjectByUuid(Vulnerability.class, (String)finding.getVulnerability().get("uuid"));
-            final Analysis analysis = getAnalysis(component, vulnerability);
-            final List<VulnerabilityAlias> aliases = detach(getVulnerabilityAliases(vulnerability));
-            finding.addVulnerabilityAliases(aliases);
-            if (includeSuppressed || analysis == null || !analysis.isSuppressed()) { // do not add globally suppressed findings
-                // These are CLOB fields. Handle these here so that database-specific deserialization doesn't need to be performed (in Finding)
-                finding.getVulnerability().put("description", vulnerability.getDescription());
-                finding.getVulnerability().put("recommendation", vulnerability.getRecommendation());
-                final PackageURL purl = component.getPurl();
-                if (purl != null) {
+        return getFindings(project, includeSuppressed, null);
+    }
+
+    /**
+     * Returns a List of Finding objects for the specified project.
+     * @param project the project to retrieve findings for
+     * @param includeSuppressed determines if suppressed vulnerabilities should be included or not
+     * @param source the source of vulnerability intelligence to limit findings to, or {@code null} for all sources
+     * @return a List of Finding objects
+     * @since 4.11.0
+     */
+    public List<Finding> getFindings(Project project, boolean includeSuppressed, Vulnerability.Source source) {
+        final var params = new ArrayList<>();
+        final String filter = getFindingsFilter(project, includeSuppressed, source, params);
+        final List<Object[]> rows = executeFindingsQuery(Finding.QUERY + filter + " ORDER BY \"FINDINGATTRIBUTION\".\"ID\"", params, 0, 0);
+        return toFindings(project, rows);
+    }
+
+    /**
+     * Returns a single page of Finding objects for the specified project.
+     * <p>
+     * Pages are retrieved by keyset, using the opaque cursor of the previous page. When no cursor is provided,
+     * the first page is returned, unless the request specifies an offset. The page size, as well as the field
+     * to order by, are taken from the request. Only {@code component.name}, {@code vulnerability.vulnId}, and
+     * {@code attribution.attributedOn} are supported for ordering.
+     * @param project the project to retrieve findings for
+     * @param includeSuppressed determines if suppressed vulnerabilities should be included or not
+     * @param source the source of vulnerability intelligence to limit findings to, or {@code null} for all sources
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return a FindingsPage
+     * @throws IllegalArgumentException when the cursor is malformed, or ordering by an unsupported field is requested
+     * @since 4.11.0
+     */
+    public FindingsPage getFindingsPage(Project project, boolean includeSuppressed, Vulnerability.Source source, String cursor) {
+        final FindingsOrder order = FindingsOrder.of(orderBy);
+        final String direction = orderDirection == OrderDirection.DESCENDING ? " DESC" : " ASC";
+        final var params = new ArrayList<>();
+        final String filter = getFindingsFilter(project, includeSuppressed, source, params);
+        final boolean paginated = pagination != null && pagination.isPaginated();
+        final long totalCount = paginated ? getFindingsCount(filter, params) : -1;
+
+        final var sql = new StringBuilder(Finding.QUERY).append(filter);
+        if (cursor != null) {
+            final String operator = orderDirection == OrderDirection.DESCENDING ? " < ?" : " > ?";
+            final Map.Entry<Object, Long> position = decodeCursor(cursor, order);
+            if (order == null) {
+                sql.append(" AND \"FINDINGATTRIBUTION\".\"ID\"").append(operator);
+            } else {
+                sql.append(" AND (").append(order.column).append(operator)
+                        .append(" OR (").append(order.column).append(" = ? AND \"FINDINGATTRIBUTION\".\"ID\"").append(operator).append("))");
+                params.add(position.getKey());
+                params.add(position.getKey());
+            }
+            params.add(position.getValue());
+        }
+        // The attribution ID breaks ties, so that the order of findings is stable across pages.
+        sql.append(" ORDER BY ");
+        if (order != null) {
+            sql.append(order.column).append(direction).append(", ");
+        }
+        sql.append("\"FINDINGATTRIBUTION\".\"ID\"").append(direction);
+
+        final int limit = paginated ? pagination.getLimit() : 0;
+        final int offset = paginated && cursor == null ? pagination.getOffset() : 0;
+        // Fetch one additional row to tell whether there is a next page.
+        List<Object[]> rows = executeFindingsQuery(sql.toString(), params, offset, paginated ? limit + 1 : 0);
+        String nextCursor = null;
+        if (paginated && rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            nextCursor = encodeCursor(rows.get(limit - 1), order);
+        }
+        return new FindingsPage(toFindings(project, rows), paginated ? totalCount : rows.size(), nextCursor);
+    }
+
+    private long getFindingsCount(final String filter, final List<Object> params) {
+        final Query<?> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, "SELECT COUNT(*) " + Finding.QUERY_FROM + filter);
+        query.setParameters(params.toArray());
+        try {
+            return ((Number) query.executeUnique()).longValue();
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private static String getFindingsFilter(final Project project, final boolean includeSuppressed,
+                                            final Vulnerability.Source source, final List<Object> params) {
+        params.add(project.getId());
+        final var filter = new StringBuilder();
+        if (!includeSuppressed) {
+            filter.append(" AND (\"ANALYSIS\".\"SUPPRESSED\" IS NULL OR \"ANALYSIS\".\"SUPPRESSED\" = ?)");
+            params.add(false);
+        }
+        if (source != null) {
+            filter.append(" AND \"VULNERABILITY\".\"SOURCE\" = ?");
+            params.add(source.name());
+        }
+        return filter.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> executeFindingsQuery(final String sql, final List<Object> params, final int offset, final int limit) {
+        final Query<Object[]> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, sql);
+        query.setParameters(params.toArray());
+        if (limit > 0) {
+            // LIMIT / OFFSET syntax differs between the supported databases, let DataNucleus handle it.
+            query.setRange(offset, (long) offset + limit);
+        }
+        try {
+            return new ArrayList<>(query.executeList());
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    /**
+     * Converts rows returned by {@link Finding#QUERY} to {@link Finding}s, and adds the data that
+     * can't be retrieved through the query itself. Rather than querying them for every row,
+     * CLOB fields, vulnerability aliases, and latest versions are loaded with one query per batch of rows.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Finding> toFindings(final Project project, final List<Object[]> rows) {
+        final var findings = new ArrayList<Finding>(rows.size());
+        if (rows.isEmpty()) {
+            return findings;
+        }
+
+        final var vulnIds = new HashSet<Long>();
+        final var vulnIdsBySource = new HashMap<String, Set<String>>();
+        final var purlsByRepositoryType = new EnumMap<RepositoryType, List<PackageURL>>(RepositoryType.class);
+        final var purls = new ArrayList<PackageURL>(rows.size());
+        for (final Object[] row : rows) {
+            vulnIds.add(((Number) row[28]).longValue());
+            vulnIdsBySource.computeIfAbsent((String) row[7], ignored -> new HashSet<>()).add((String) row[8]);
+            PackageURL purl = null;
+            if (row[4] instanceof final String purlString) {
+                try {
+                    purl = new PackageURL(purlString);
                     final RepositoryType type = RepositoryType.resolve(purl);
                     if (RepositoryType.UNSUPPORTED != type) {
-                        final RepositoryMetaComponent repoMetaComponent = getRepositoryMetaComponent(type, purl.getNamespace(), purl.getName());
-                        if (repoMetaComponent != null) {
-                            finding.getComponent().put("latestVersion", repoMetaComponent.getLatestVersion());
-                        }
+                        purlsByRepositoryType.computeIfAbsent(type, ignored -> new ArrayList<>()).add(purl);
                     }
+                } catch (MalformedPackageURLException e) {
+                    purl = null;
+                }
+            }
+            purls.add(purl);
+        }
+
+        final Map<Long, Object[]> clobsByVulnId = getVulnerabilityClobs(vulnIds);
+        final Map<String, Map<String, List<VulnerabilityAlias>>> aliasesBySource = new HashMap<>();
+        vulnIdsBySource.forEach((source, ids) -> aliasesBySource.put(source, getVulnerabilityAliases(source, ids)));
+        final Map<RepositoryType, Map<List<String>, String>> latestVersionsByType = new EnumMap<>(RepositoryType.class);
+        purlsByRepositoryType.forEach((type, typePurls) -> latestVersionsByType.put(type, getLatestVersions(type, typePurls)));
+
+        for (int i = 0; i < rows.size(); i++) {
+            final Object[] row = rows.get(i);
+            final Finding finding = new Finding(project.getUuid(), row);
+            finding.addVulnerabilityAliases(aliasesBySource.get((String) row[7]).getOrDefault((String) row[8], List.of()));
+            final Object[] clobs = clobsByVulnId.get(((Number) row[28]).longValue());
+            if (clobs != null) {
+                finding.getVulnerability().put("description", clobs[0]);
+                finding.getVulnerability().put("recommendation", clobs[1]);
+            }
+            final PackageURL purl = purls.get(i);
+            if (purl != null && latestVersionsByType.containsKey(RepositoryType.resolve(purl))) {
+                final String latestVersion = latestVersionsByType.get(RepositoryType.resolve(purl))
+                        .get(Arrays.asList(purl.getNamespace(), purl.getName()));
+                if (latestVersion != null) {
+                    finding.getComponent().put("latestVersion", latestVersion);
                 }
-                findings.add(finding);
             }
+            findings.add(finding);
         }
         return findings;
     }
+
+    private Map<Long, Object[]> getVulnerabilityClobs(final Collection<Long> vulnIds) {
+        final var clobsByVulnId = new HashMap<Long, Object[]>();
+        for (final List<Long> vulnIdsBatch : Lists.partition(List.copyOf(vulnIds), QUERY_BATCH_SIZE)) {
+            final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+            query.setFilter(":ids.contains(id)");
+            query.setNamedParameters(Map.of("ids", vulnIdsBatch));
+            query.setResult("id, description, recommendation");
+            try {
+                for (final Object[] row : query.executeResultList(Object[].class)) {
+                    clobsByVulnId.put((Long) row[0], new Object[]{row[1], row[2]});
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+        return clobsByVulnId;
+    }
+
+    /**
+     * @return The {@link VulnerabilityAlias}es of the given vulnerabilities, grouped by the vulnerability's ID
+     * @see VulnerabilityQueryManager#getVulnerabilityAliases(Vulnerability)
+     */
+    private Map<String, List<VulnerabilityAlias>> getVulnerabilityAliases(final String source, final Collection<String> vulnIds) {
+        final String field;
+        final Function<VulnerabilityAlias, String> idGetter;
+        if (Vulnerability.Source.NVD.name().equals(source)) {
+            field = "cveId";
+            idGetter = VulnerabilityAlias::getCveId;
+        } else if (Vulnerability.Source.OSSINDEX.name().equals(source)) {
+            field = "sonatypeId";
+            idGetter = VulnerabilityAlias::getSonatypeId;
+        } else if (Vulnerability.Source.GITHUB.name().equals(source)) {
+            field = "ghsaId";
+            idGetter = VulnerabilityAlias::getGhsaId;
+        } else if (Vulnerability.Source.OSV.name().equals(source)) {
+            field = "osvId";
+            idGetter = VulnerabilityAlias::getOsvId;
+        } else if (Vulnerability.Source.SNYK.name().equals(source)) {
+            field = "snykId";
+            idGetter = VulnerabilityAlias::getSnykId;
+        } else if (Vulnerability.Source.VULNDB.name().equals(source)) {
+            field = "vulnDbId";
+            idGetter = VulnerabilityAlias::getVulnDbId;
+        } else {
+            field = "internalId";
+            idGetter = VulnerabilityAlias::getInternalId;
+        }
+
+        final var aliasesByVulnId = new HashMap<String, List<VulnerabilityAlias>>();
+        for (final List<String> vulnIdsBatch : Lists.partition(List.copyOf(vulnIds), QUERY_BATCH_SIZE)) {
+            final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
+            query.setFilter(":ids.contains(" + field + ")");
+            query.setNamedParameters(Map.of("ids", vulnIdsBatch));
+            try {
+                for (final VulnerabilityAlias alias : query.executeList()) {
+                    aliasesByVulnId.computeIfAbsent(idGetter.apply(alias), ignored -> new ArrayList<>()).add(alias);
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+        return aliasesByVulnId;
+    }
+
+    /**
+     * @return The latest versions of the given packages, keyed by their namespace and name
+     */
+    private Map<List<String>, String> getLatestVersions(final RepositoryType repositoryType, final List<PackageURL> purls) {
+        final Set<String> names = purls.stream().map(PackageURL::getName).collect(Collectors.toSet());
+        final var latestVersions = new HashMap<List<String>, String>();
+        for (final List<String> namesBatch : Lists.partition(List.copyOf(names), QUERY_BATCH_SIZE)) {
+            final Query<RepositoryMetaComponent> query = pm.newQuery(RepositoryMetaComponent.class);
+            query.setFilter("repositoryType == :repositoryType && :names.contains(name)");
+            query.setNamedParameters(Map.of("repositoryType", repositoryType, "names", namesBatch));
+            query.setResult("namespace, name, latestVersion");
+            try {
+                for (final Object[] row : query.executeResultList(Object[].class)) {
+                    latestVersions.putIfAbsent(Arrays.asList((String) row[0], (String) row[1]), (String) row[2]);
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+        return latestVersions;
+    }
+
+    private static String encodeCursor(final Object[] row, final FindingsOrder order) {
+        final long attributionId = ((Number) row[29]).longValue();
+        String position = String.valueOf(attributionId);
+        if (order != null) {
+            final Object value = row[order.index];
+            final String encodedValue = value instanceof final Date date ? date.toInstant().toString() : String.valueOf(value);
+            position = encodedValue + ":" + position;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map.Entry<Object, Long> decodeCursor(final String cursor, final FindingsOrder order) {
+        final String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (order == null) {
+            return new AbstractMap.SimpleEntry<>(null, Long.parseLong(position));
+        }
+        final int separatorIndex = position.lastIndexOf(':');
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        final String value = position.substring(0, separatorIndex);
+        final long attributionId = Long.parseLong(position.substring(separatorIndex + 1));
+        if (order == FindingsOrder.ATTRIBUTED_ON) {
+            try {
+                return new AbstractMap.SimpleEntry<>(Timestamp.from(Instant.parse(value)), attributionId);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+        return new AbstractMap.SimpleEntry<>(value, attributionId);
+    }
+
+    /**
+     * Fields that findings can be ordered by when retrieved page by page.
+     * Keyset pagination requires the respective columns to be non-nullable.
+     */
+    private enum FindingsOrder {
+
+        COMPONENT_NAME("component.name", "\"COMPONENT\".\"NAME\"", 1),
+        VULN_ID("vulnerability.vulnId", "\"VULNERABILITY\".\"VULNID\"", 8),
+        ATTRIBUTED_ON("attribution.attributedOn", "\"FINDINGATTRIBUTION\".\"ATTRIBUTED_ON\"", 23);
+
+        private final String field;
+        private final String column;
+        private final int index;
+
+        FindingsOrder(final String field, final String column, final int index) {
+            this.field = field;
+            this.column = column;
+            this.index = index;
+        }
+
+        private static FindingsOrder of(final String field) {
+            if (field == null) {
+                return null;
+            }
+            for (final FindingsOrder order : values()) {
+                if (order.field.equals(field)) {
+                    return order;
+                }
+            }
+            throw new IllegalArgumentException("Findings can not be ordered by " + field);
+        }
+
+    }
+
 }
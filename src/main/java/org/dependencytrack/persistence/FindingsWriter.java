@@ -0,0 +1,177 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import com.google.common.collect.Lists;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.dependencytrack.util.NotificationUtil;
+
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Collects findings reported by analyzers, and applies them in bulk.
+ * <p>
+ * Compared to {@link QueryManager#addVulnerability(Vulnerability, Component, AnalyzerIdentity)},
+ * which queries the existing vulnerabilities of a component for every single finding,
+ * findings are applied in groups of {@value #COMPONENT_GROUP_SIZE} components: existing findings
+ * of a group are determined with a single query, and all new findings and {@link FindingAttribution}s
+ * of the group are written in a single transaction, allowing the inserts to be batched.
+ * {@code NEW_VULNERABILITY} notifications are only dispatched for findings that did not exist before.
+ * <p>
+ * Mutable and not threadsafe!
+ *
+ * @since 4.11.0
+ */
+public final class FindingsWriter {
+
+    /**
+     * Number of components whose findings are applied at once. Writers only hold the locks of a single group
+     * at a time, so that concurrent writers are not serialized on all stripes of {@link VulnerabilityQueryManager#ADD_VULNERABILITY_LOCKS}.
+     */
+    private static final int COMPONENT_GROUP_SIZE = 25;
+
+    private final QueryManager qm;
+    private final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel;
+    private final Map<FindingKey, PendingFinding> pendingFindings = new LinkedHashMap<>();
+
+    public FindingsWriter(final QueryManager qm, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        this.qm = qm;
+        this.vulnerabilityAnalysisLevel = vulnerabilityAnalysisLevel;
+    }
+
+    public void add(final Component component, final Vulnerability vulnerability, final AnalyzerIdentity analyzerIdentity) {
+        add(component, vulnerability, analyzerIdentity, null, null);
+    }
+
+    /**
+     * @param component           the component affected by the vulnerability; must be attached to the {@link QueryManager} of this writer
+     * @param vulnerability       the vulnerability to add; must be attached to the {@link QueryManager} of this writer
+     * @param analyzerIdentity    the identify of the analyzer
+     * @param alternateIdentifier the optional identifier if the analyzer refers to the vulnerability by an alternative identifier
+     * @param referenceUrl        the optional URL that references the occurrence of the vulnerability if uniquely identified
+     */
+    public void add(final Component component, final Vulnerability vulnerability, final AnalyzerIdentity analyzerIdentity,
+                    final String alternateIdentifier, final String referenceUrl) {
+        pendingFindings.putIfAbsent(new FindingKey(component.getId(), vulnerability.getId()),
+                new PendingFinding(component, vulnerability, analyzerIdentity, alternateIdentifier, referenceUrl));
+    }
+
+    /**
+     * Apply all findings added since the last flush.
+     *
+     * @return The number of findings that did not exist before
+     */
+    public int flush() {
+        if (pendingFindings.isEmpty()) {
+            return 0;
+        }
+
+        final Map<Long, List<Map.Entry<FindingKey, PendingFinding>>> findingsByComponentId = new LinkedHashMap<>();
+        pendingFindings.entrySet().forEach(entry ->
+                findingsByComponentId.computeIfAbsent(entry.getKey().componentId(), ignored -> new ArrayList<>()).add(entry));
+        final List<PendingFinding> newFindings = new ArrayList<>();
+        try {
+            for (final List<Long> componentIds : Lists.partition(List.copyOf(findingsByComponentId.keySet()), COMPONENT_GROUP_SIZE)) {
+                newFindings.addAll(flush(componentIds, findingsByComponentId));
+            }
+        } finally {
+            pendingFindings.clear();
+        }
+
+        final Map<Long, Set<Project>> affectedProjectsByComponentId = new HashMap<>();
+        for (final PendingFinding finding : newFindings) {
+            MetricsDirtyTracker.getInstance().markDirty(finding.component());
+            final Set<Project> affectedProjects = affectedProjectsByComponentId.computeIfAbsent(finding.component().getId(),
+                    ignored -> NotificationUtil.getAffectedProjects(qm, finding.component()));
+            NotificationUtil.dispatchNewVulnerabilityNotification(qm, finding.vulnerability(), finding.component(),
+                    affectedProjects, vulnerabilityAnalysisLevel);
+        }
+        return newFindings.size();
+    }
+
+    private List<PendingFinding> flush(final List<Long> componentIds,
+                                       final Map<Long, List<Map.Entry<FindingKey, PendingFinding>>> findingsByComponentId) {
+        // Serialize with other writers modifying the findings of the same components.
+        // Locks are returned in a consistent order, so acquiring them one after another can't deadlock.
+        final List<Lock> locks = new ArrayList<>();
+        VulnerabilityQueryManager.ADD_VULNERABILITY_LOCKS.bulkGet(componentIds).forEach(locks::add);
+        locks.forEach(Lock::lock);
+        try {
+            final Set<FindingKey> existingFindings = getExistingFindings(componentIds);
+            final List<PendingFinding> newFindings = componentIds.stream()
+                    .flatMap(componentId -> findingsByComponentId.get(componentId).stream())
+                    .filter(entry -> !existingFindings.contains(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!newFindings.isEmpty()) {
+                qm.runInTransaction(() -> {
+                    for (final PendingFinding finding : newFindings) {
+                        finding.component().addVulnerability(finding.vulnerability());
+                    }
+                    qm.getPersistenceManager().makePersistentAll(newFindings.stream()
+                            .map(finding -> new FindingAttribution(finding.component(), finding.vulnerability(),
+                                    finding.analyzerIdentity(), finding.alternateIdentifier(), finding.referenceUrl()))
+                            .toList());
+                });
+            }
+            return newFindings;
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
+    }
+
+    private Set<FindingKey> getExistingFindings(final List<Long> componentIds) {
+        final var existingFindings = new HashSet<FindingKey>();
+        final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class);
+        query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+        query.setFilter(":componentIds.contains(id) && vulnerabilities.contains(vuln)");
+        query.setNamedParameters(Map.of("componentIds", componentIds));
+        query.setResult("id, vuln.id");
+        try {
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                existingFindings.add(new FindingKey((Long) row[0], (Long) row[1]));
+            }
+        } finally {
+            query.closeAll();
+        }
+        return existingFindings;
+    }
+
+    private record FindingKey(long componentId, long vulnerabilityId) {
+    }
+
+    private record PendingFinding(Component component, Vulnerability vulnerability, AnalyzerIdentity analyzerIdentity,
+                                  String alternateIdentifier, String referenceUrl) {
+    }
+
+}
@@ -25,11 +25,14 @@ import alpine.resources.AlpineRequest;
 import org.dependencytrack.model.NotificationPublisher;
 import org.dependencytrack.model.NotificationRule;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.notification.publisher.Publisher;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class NotificationQueryManager extends QueryManager implements IQueryManager {
@@ -106,6 +109,34 @@ public class NotificationQueryManager extends QueryManager implements IQueryMana
         return execute(query);
     }
 
+    /**
+     * Determines whether any enabled {@link NotificationRule} would be triggered by a notification,
+     * without considering the projects or teams the rule is limited to. This allows costly
+     * notification subjects to be omitted when nobody would receive them.
+     * @param scope the scope of the notification
+     * @param level the level of the notification
+     * @param groups the groups of the notification, any of which must be notified on
+     * @return true if at least one rule notifies on any of the groups
+     * @since 4.11.0
+     */
+    public boolean hasNotificationRules(final NotificationScope scope, final NotificationLevel level, final Collection<NotificationGroup> groups) {
+        // Mirrors the level semantics of NotificationRouter#resolveRules.
+        final List<NotificationLevel> ruleLevels = switch (level) {
+            case INFORMATIONAL -> List.of(NotificationLevel.INFORMATIONAL);
+            case WARNING -> List.of(NotificationLevel.INFORMATIONAL, NotificationLevel.WARNING);
+            case ERROR -> List.of(NotificationLevel.INFORMATIONAL, NotificationLevel.WARNING, NotificationLevel.ERROR);
+        };
+        final Query<NotificationRule> query = pm.newQuery(NotificationRule.class,
+                "enabled == true && scope == :scope && :levels.contains(notificationLevel)");
+        query.setParameters(scope, ruleLevels);
+        try {
+            return query.executeList().stream()
+                    .anyMatch(rule -> !Collections.disjoint(rule.getNotifyOn(), groups));
+        } finally {
+            query.closeAll();
+        }
+    }
+
     /**
      * Retrieves all NotificationPublishers.
      * This method if designed NOT to provide paginated results.
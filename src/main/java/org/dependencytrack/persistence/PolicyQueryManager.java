@@ -20,6 +20,9 @@ package org.dependencytrack.persistence;
 
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -34,11 +37,30 @@ import org.dependencytrack.model.ViolationAnalysisState;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 final class PolicyQueryManager extends QueryManager implements IQueryManager {
 
+    private static final int QUERY_BATCH_SIZE = 1000;
+
+    /**
+     * Number of components whose violations are reconciled at once. Only the locks of a single group are held
+     * at a time, so that concurrent reconciliations are not serialized on all stripes of {@link #POLICY_VIOLATION_LOCKS}.
+     */
+    private static final int RECONCILIATION_GROUP_SIZE = 25;
+
+    private static final Striped<Lock> POLICY_VIOLATION_LOCKS = Striped.lazyWeakLock(256);
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -145,30 +167,113 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
      * @param component the project to bind components to
      * @param policyViolations the complete list of existing dependent components
      */
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
-        // Removes violations as dependencies to the project for all
-        // components not included in the list provided
-        List<PolicyViolation> markedForDeletion = new ArrayList<>();
-        for (final PolicyViolation existingViolation: getAllPolicyViolations(component)) {
-            boolean keep = false;
-            for (final PolicyViolation violation: policyViolations) {
-                if (violation.getType() == existingViolation.getType()
-                        && violation.getPolicyCondition().getId() == existingViolation.getPolicyCondition().getId()
-                        && violation.getComponent().getId() == existingViolation.getComponent().getId())
-                {
-                    keep = true;
-                    break;
-                }
+    public void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+        final Lock lock = POLICY_VIOLATION_LOCKS.get(component.getId());
+        lock.lock();
+        try {
+            final Set<ViolationKey> keep = new HashSet<>();
+            policyViolations.forEach(violation -> keep.add(ViolationKey.of(violation)));
+            final List<PolicyViolation> markedForDeletion = getAllPolicyViolations(component).stream()
+                    .filter(existingViolation -> !keep.contains(ViolationKey.of(existingViolation)))
+                    .toList();
+            if (!markedForDeletion.isEmpty()) {
+                runInTransaction(() -> deletePolicyViolations(markedForDeletion));
+                MetricsDirtyTracker.getInstance().markDirty(component);
             }
-            if (!keep) {
-                markedForDeletion.add(existingViolation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconciles the {@link PolicyViolation}s of multiple {@link Component}s with the violations
+     * computed for them.
+     * <p>
+     * Violations are identified by their type, component, and policy condition. Computed violations
+     * that do not exist yet are created, and existing violations that were not computed again are
+     * deleted, along with their analysis trail. Components are reconciled in groups of
+     * {@value #RECONCILIATION_GROUP_SIZE}, using a single query to determine existing violations,
+     * and a single transaction to write all changes of a group.
+     * @param components the {@link Component}s that were evaluated
+     * @param policyViolations the transient {@link PolicyViolation}s computed for {@code components}
+     * @return the persistent equivalent of each of {@code policyViolations}, in the same order; Created
+     * violations are the very instances of {@code policyViolations}, and thus can be told apart by identity
+     * @since 4.11.0
+     */
+    public List<PolicyViolation> reconcilePolicyViolations(final Collection<Component> components, final List<PolicyViolation> policyViolations) {
+        final Map<Long, Component> componentsById = new LinkedHashMap<>();
+        components.forEach(component -> componentsById.put(component.getId(), component));
+        final Map<Long, List<Integer>> violationIndexesByComponentId = new HashMap<>();
+        for (int i = 0; i < policyViolations.size(); i++) {
+            final Component component = policyViolations.get(i).getComponent();
+            componentsById.putIfAbsent(component.getId(), component);
+            violationIndexesByComponentId.computeIfAbsent(component.getId(), ignored -> new ArrayList<>()).add(i);
+        }
+
+        final PolicyViolation[] result = new PolicyViolation[policyViolations.size()];
+        for (final List<Long> componentIds : Lists.partition(List.copyOf(componentsById.keySet()), RECONCILIATION_GROUP_SIZE)) {
+            final List<Integer> violationIndexes = componentIds.stream()
+                    .flatMap(componentId -> violationIndexesByComponentId.getOrDefault(componentId, Collections.emptyList()).stream())
+                    .toList();
+            final List<PolicyViolation> reconciledViolations = reconcilePolicyViolations(componentIds, componentsById,
+                    violationIndexes.stream().map(policyViolations::get).toList());
+            for (int i = 0; i < violationIndexes.size(); i++) {
+                result[violationIndexes.get(i)] = reconciledViolations.get(i);
             }
         }
-        if (!markedForDeletion.isEmpty()) {
-            for (final PolicyViolation violation : markedForDeletion) {
-                deleteViolationAnalysisTrail(violation);
+        return Arrays.asList(result);
+    }
+
+    private List<PolicyViolation> reconcilePolicyViolations(final List<Long> componentIds, final Map<Long, Component> componentsById,
+                                                            final List<PolicyViolation> policyViolations) {
+        // Serialize with other reconciliations of the same components, rather than with all of them.
+        // Locks are returned in a consistent order, so acquiring them one after another can't deadlock.
+        final List<Lock> locks = new ArrayList<>();
+        POLICY_VIOLATION_LOCKS.bulkGet(componentIds).forEach(locks::add);
+        locks.forEach(Lock::lock);
+        try {
+            final Map<ViolationKey, PolicyViolation> existingViolations = new HashMap<>();
+            final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, ":ids.contains(component.id)");
+            query.setParameters(componentIds);
+            for (final PolicyViolation existingViolation : query.executeList()) {
+                existingViolations.put(ViolationKey.of(existingViolation), existingViolation);
             }
-            delete(markedForDeletion);
+
+            final Map<ViolationKey, PolicyViolation> violations = new HashMap<>();
+            final List<PolicyViolation> createdViolations = new ArrayList<>();
+            final List<PolicyViolation> result = new ArrayList<>(policyViolations.size());
+            for (final PolicyViolation violation : policyViolations) {
+                final PolicyViolation reconciledViolation = violations.computeIfAbsent(ViolationKey.of(violation), key -> {
+                    final PolicyViolation existingViolation = existingViolations.get(key);
+                    if (existingViolation != null) {
+                        return existingViolation;
+                    }
+                    createdViolations.add(violation);
+                    return violation;
+                });
+                result.add(reconciledViolation);
+            }
+            final List<PolicyViolation> markedForDeletion = existingViolations.entrySet().stream()
+                    .filter(entry -> !violations.containsKey(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+
+            if (!createdViolations.isEmpty() || !markedForDeletion.isEmpty()) {
+                // Deleted violations can't be accessed after the transaction, so collect their components beforehand.
+                final Set<Long> modifiedComponentIds = new HashSet<>();
+                createdViolations.forEach(violation -> modifiedComponentIds.add(violation.getComponent().getId()));
+                markedForDeletion.forEach(violation -> modifiedComponentIds.add(violation.getComponent().getId()));
+                runInTransaction(() -> {
+                    if (!markedForDeletion.isEmpty()) {
+                        deletePolicyViolations(markedForDeletion);
+                    }
+                    pm.makePersistentAll(createdViolations);
+                });
+                modifiedComponentIds.forEach(componentId -> MetricsDirtyTracker.getInstance().markDirty(componentsById.get(componentId)));
+            }
+            return result;
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
         }
     }
 
@@ -176,14 +281,45 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
      * Adds a policy violation
      * @param pv the policy violation to add
      */
-    public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
-        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
-        query.setRange(0, 1);
-        PolicyViolation result = singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
-        if (result == null) {
-            result = persist(pv);
+    public PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
+        final Lock lock = POLICY_VIOLATION_LOCKS.get(pv.getComponent().getId());
+        lock.lock();
+        try {
+            final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
+            query.setRange(0, 1);
+            PolicyViolation result = singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
+            if (result == null) {
+                result = persist(pv);
+                MetricsDirtyTracker.getInstance().markDirty(pv.getComponent());
+            }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return result;
+    }
+
+    /**
+     * Deletes {@link PolicyViolation}s, along with their analysis trail, using a single statement per batch.
+     * @param violations the {@link PolicyViolation}s to delete
+     */
+    private void deletePolicyViolations(final List<PolicyViolation> violations) {
+        for (final List<PolicyViolation> batch : Lists.partition(violations, QUERY_BATCH_SIZE)) {
+            final List<Long> ids = batch.stream().map(PolicyViolation::getId).toList();
+            final Query<ViolationAnalysis> query = pm.newQuery(ViolationAnalysis.class, ":ids.contains(policyViolation.id)");
+            query.deletePersistentAll(ids);
+            pm.deletePersistentAll(batch);
+        }
+    }
+
+    /**
+     * Identifies a {@link PolicyViolation} by what it reports, rather than by its ID.
+     */
+    private record ViolationKey(PolicyViolation.Type type, long componentId, long policyConditionId) {
+
+        private static ViolationKey of(final PolicyViolation violation) {
+            return new ViolationKey(violation.getType(), violation.getComponent().getId(), violation.getPolicyCondition().getId());
+        }
+
     }
 
     /**
@@ -375,6 +511,7 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         }
         violationAnalysis.setViolationAnalysisState(violationAnalysisState);
         violationAnalysis = persist(violationAnalysis);
+        MetricsDirtyTracker.getInstance().markDirty(component);
         return getViolationAnalysis(violationAnalysis.getComponent(), violationAnalysis.getPolicyViolation());
     }
 
@@ -0,0 +1,372 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyEdge;
+import org.dependencytrack.model.Project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable, compact representation of the dependency graph of a {@link Project},
+ * as recorded by its {@link DependencyEdge}s.
+ * <p>
+ * Nodes are addressed by their index in the graph, rather than by {@link Component} objects.
+ * Adjacency is held in primitive arrays, with the children and parents of all nodes stored
+ * consecutively, and an offset array pointing to where the neighbours of each node begin.
+ * Only identifiers of components are held, as their remaining details may change independently
+ * of the graph.
+ *
+ * @since 4.11.0
+ */
+public final class ProjectDependencyGraph {
+
+    /**
+     * Maximum number of nodes visited by a single {@link #getPaths(int, int, int)} search.
+     */
+    private static final int MAX_PATH_SEARCH_STEPS = 100_000;
+
+    private final Date lastBomImport;
+    private final long[] componentIds;
+    private final UUID[] uuids;
+    private final Map<UUID, Integer> indexByUuid;
+    private final int[] directDependencies;
+    private final BitSet directDependencySet;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] parentOffsets;
+    private final int[] parents;
+    private final boolean hasServiceComponents;
+
+    /**
+     * @param lastBomImport        the {@link Project#getLastBomImport()} the graph was built for
+     * @param componentIds         the IDs of all components of the project
+     * @param uuids                the UUIDs of all components of the project, in the same order as {@code componentIds}
+     * @param directDependencyIds  the IDs of the direct dependencies of the project
+     * @param edgeParentIds        the IDs of the parent component of each edge
+     * @param edgeChildIds         the IDs of the child component of each edge, in the same order as {@code edgeParentIds}
+     * @param hasServiceComponents whether the project has any services, that the graph does not cover
+     */
+    ProjectDependencyGraph(final Date lastBomImport, final long[] componentIds, final UUID[] uuids,
+                           final long[] directDependencyIds, final long[] edgeParentIds, final long[] edgeChildIds,
+                           final boolean hasServiceComponents) {
+        this.lastBomImport = lastBomImport != null ? new Date(lastBomImport.getTime()) : null;
+        this.hasServiceComponents = hasServiceComponents;
+
+        // Sort nodes by component ID, so that they can be looked up using binary search.
+        final Integer[] order = new Integer[componentIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(componentIds[a], componentIds[b]));
+        this.componentIds = new long[order.length];
+        this.uuids = new UUID[order.length];
+        this.indexByUuid = new HashMap<>(order.length * 2);
+        for (int i = 0; i < order.length; i++) {
+            this.componentIds[i] = componentIds[order[i]];
+            this.uuids[i] = uuids[order[i]];
+            this.indexByUuid.put(this.uuids[i], i);
+        }
+
+        this.directDependencySet = new BitSet(order.length);
+        for (final long directDependencyId : directDependencyIds) {
+            final int node = indexOf(directDependencyId);
+            if (node >= 0) {
+                directDependencySet.set(node);
+            }
+        }
+        this.directDependencies = directDependencySet.stream().toArray();
+
+        // Edges referring to components that are not part of the graph are dropped.
+        final int[] edgeParents = new int[edgeParentIds.length];
+        final int[] edgeChildren = new int[edgeChildIds.length];
+        int edgeCount = 0;
+        for (int i = 0; i < edgeParentIds.length; i++) {
+            final int parent = indexOf(edgeParentIds[i]);
+            final int child = indexOf(edgeChildIds[i]);
+            if (parent >= 0 && child >= 0) {
+                edgeParents[edgeCount] = parent;
+                edgeChildren[edgeCount] = child;
+                edgeCount++;
+            }
+        }
+        this.childOffsets = new int[order.length + 1];
+        this.children = new int[edgeCount];
+        index(edgeParents, edgeChildren, edgeCount, childOffsets, children);
+        this.parentOffsets = new int[order.length + 1];
+        this.parents = new int[edgeCount];
+        index(edgeChildren, edgeParents, edgeCount, parentOffsets, parents);
+    }
+
+    private static void index(final int[] from, final int[] to, final int count, final int[] offsets, final int[] adjacent) {
+        for (int i = 0; i < count; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        final int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < count; i++) {
+            adjacent[next[from[i]]++] = to[i];
+        }
+    }
+
+    /**
+     * @return the {@link Project#getLastBomImport()} the graph was built for
+     */
+    public Date getLastBomImport() {
+        return lastBomImport != null ? new Date(lastBomImport.getTime()) : null;
+    }
+
+    /**
+     * @return whether the project has services, which may be referenced as dependencies, but are not part of the graph
+     */
+    public boolean hasServiceComponents() {
+        return hasServiceComponents;
+    }
+
+    /**
+     * @return the approximate number of bytes occupied by the graph
+     */
+    long estimateMemoryUsage() {
+        // Per node: ID, UUID object and reference, index map entry with boxed value, direct dependency bit,
+        // and offsets. Per edge: the child and parent entries.
+        return 256L + size() * 128L + (children.length + parents.length) * 4L + directDependencies.length * 4L;
+    }
+
+    /**
+     * @return the number of nodes in the graph
+     */
+    public int size() {
+        return componentIds.length;
+    }
+
+    /**
+     * @param componentId the ID of a {@link Component}
+     * @return the index of the node, or {@code -1} when the component is not part of the graph
+     */
+    public int indexOf(final long componentId) {
+        final int node = Arrays.binarySearch(componentIds, componentId);
+        return node >= 0 ? node : -1;
+    }
+
+    /**
+     * @param uuid the UUID of a {@link Component}
+     * @return the index of the node, or {@code -1} when the component is not part of the graph
+     */
+    public int indexOf(final UUID uuid) {
+        return indexByUuid.getOrDefault(uuid, -1);
+    }
+
+    public long getComponentId(final int node) {
+        return componentIds[node];
+    }
+
+    public UUID getUuid(final int node) {
+        return uuids[node];
+    }
+
+    /**
+     * @return the nodes of the direct dependencies of the project
+     */
+    public int[] getDirectDependencies() {
+        return directDependencies.clone();
+    }
+
+    public boolean isDirectDependency(final int node) {
+        return directDependencySet.get(node);
+    }
+
+    public int[] getChildren(final int node) {
+        return Arrays.copyOfRange(children, childOffsets[node], childOffsets[node + 1]);
+    }
+
+    public int[] getParents(final int node) {
+        return Arrays.copyOfRange(parents, parentOffsets[node], parentOffsets[node + 1]);
+    }
+
+    /**
+     * @param node the node to get the subtree of
+     * @return the node itself, followed by all nodes it transitively depends on, in breadth-first order
+     */
+    public int[] getSubtree(final int node) {
+        return traverse(new int[]{node}, childOffsets, children, true);
+    }
+
+    /**
+     * @param nodes the nodes to get the ancestors of
+     * @return all nodes that transitively depend on any of the given nodes, in breadth-first order;
+     * The given nodes themselves are only included when they depend on each other
+     */
+    public int[] getAncestors(final int... nodes) {
+        return traverse(nodes, parentOffsets, parents, false);
+    }
+
+    /**
+     * @param node the node to determine the depth of
+     * @return the number of edges on the shortest path from the project to the node, {@code 1} for direct
+     * dependencies, or {@code -1} if the node is not reachable from the project
+     */
+    public int getDepth(final int node) {
+        final BitSet visited = new BitSet(size());
+        final int[] queue = new int[size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = node;
+        visited.set(node);
+        for (int depth = 1; head < tail; depth++) {
+            final int levelEnd = tail;
+            while (head < levelEnd) {
+                final int current = queue[head++];
+                if (directDependencySet.get(current)) {
+                    return depth;
+                }
+                for (int i = parentOffsets[current]; i < parentOffsets[current + 1]; i++) {
+                    if (!visited.get(parents[i])) {
+                        visited.set(parents[i]);
+                        queue[tail++] = parents[i];
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the cycle-free paths leading to a node, each starting with a direct dependency of the project,
+     * and ending with the node itself.
+     * <p>
+     * The number of paths can grow exponentially with the number of diamonds in the graph. The search thus
+     * stops once {@code maxPaths} paths have been found, does not follow paths longer than {@code maxDepth}
+     * nodes, and gives up after visiting {@value #MAX_PATH_SEARCH_STEPS} nodes in total.
+     *
+     * @param node     the node to get the paths to
+     * @param maxPaths the maximum number of paths to return
+     * @param maxDepth the maximum number of nodes of a path
+     * @return the paths found
+     */
+    public Paths getPaths(final int node, final int maxPaths, final int maxDepth) {
+        final var search = new PathSearch(maxPaths, Math.min(maxDepth, size()));
+        if (search.maxDepth > 0) {
+            collectPaths(node, new int[search.maxDepth], 0, new BitSet(size()), search);
+        } else {
+            search.truncated = true;
+        }
+        return new Paths(search.paths.isEmpty() ? Collections.emptyList() : search.paths, search.truncated);
+    }
+
+    private void collectPaths(final int node, final int[] path, final int pathLength, final BitSet onPath, final PathSearch search) {
+        if (search.stopped || onPath.get(node)) {
+            return; // Cycle
+        }
+        if (++search.steps > MAX_PATH_SEARCH_STEPS) {
+            search.truncated = true;
+            search.stopped = true;
+            return;
+        }
+        onPath.set(node);
+        path[pathLength] = node;
+        if (directDependencySet.get(node)) {
+            if (search.paths.size() >= search.maxPaths) {
+                search.truncated = true;
+                search.stopped = true;
+                onPath.clear(node);
+                return;
+            }
+            final int[] result = new int[pathLength + 1];
+            for (int i = 0; i <= pathLength; i++) {
+                result[i] = path[pathLength - i];
+            }
+            search.paths.add(result);
+        }
+        if (pathLength + 1 < search.maxDepth) {
+            for (int i = parentOffsets[node]; i < parentOffsets[node + 1]; i++) {
+                collectPaths(parents[i], path, pathLength + 1, onPath, search);
+            }
+        } else if (parentOffsets[node] < parentOffsets[node + 1]) {
+            search.truncated = true;
+        }
+        onPath.clear(node);
+    }
+
+    /**
+     * Paths leading to a node, as returned by {@link #getPaths(int, int, int)}.
+     *
+     * @param paths     the paths, each starting with a direct dependency of the project, and ending with the node itself
+     * @param truncated whether further paths exist, that were not collected due to the limits of the search
+     */
+    public record Paths(List<int[]> paths, boolean truncated) {
+    }
+
+    private static final class PathSearch {
+
+        private final int maxPaths;
+        private final int maxDepth;
+        private final List<int[]> paths = new ArrayList<>();
+        private int steps;
+        private boolean truncated;
+        private boolean stopped;
+
+        private PathSearch(final int maxPaths, final int maxDepth) {
+            this.maxPaths = maxPaths;
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    private int[] traverse(final int[] start, final int[] offsets, final int[] adjacent, final boolean includeStart) {
+        final BitSet visited = new BitSet(size());
+        final int[] queue = new int[size() + start.length];
+        int head = 0;
+        int tail = 0;
+        for (final int node : start) {
+            queue[tail++] = node;
+            if (includeStart) {
+                visited.set(node);
+            }
+        }
+        final int[] result = new int[size()];
+        int resultSize = 0;
+        if (includeStart) {
+            for (int i = 0; i < tail; i++) {
+                result[resultSize++] = queue[i];
+            }
+        }
+        while (head < tail) {
+            final int current = queue[head++];
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                if (!visited.get(adjacent[i])) {
+                    visited.set(adjacent[i]);
+                    queue[tail++] = adjacent[i];
+                    result[resultSize++] = adjacent[i];
+                }
+            }
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+}
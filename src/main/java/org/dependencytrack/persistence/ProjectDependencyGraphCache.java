@@ -0,0 +1,123 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import alpine.Config;
+import alpine.common.metrics.Metrics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.Project;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * A bounded, in-memory cache of {@link ProjectDependencyGraph}s.
+ * <p>
+ * Graphs are built for a specific BOM import of a project. A cached graph is discarded as soon as
+ * the {@link Project#getLastBomImport()} of its project differs from the one it was built for,
+ * which also covers BOMs processed by other instances. Modifications of the dependency graph
+ * performed through {@link QueryManager} invalidate the graph of the affected project right away.
+ * The cache is bounded by the estimated memory usage of the graphs it holds, rather than by their number,
+ * as the size of graphs varies widely between projects. When the maximum is reached, the least recently
+ * used graphs are evicted.
+ *
+ * @since 4.11.0
+ */
+public final class ProjectDependencyGraphCache {
+
+    private static final ProjectDependencyGraphCache INSTANCE = new ProjectDependencyGraphCache(
+            Config.getInstance().getPropertyAsLong(ConfigKey.DEPENDENCY_GRAPH_CACHE_MAX_MEMORY_MB) * 1024 * 1024);
+
+    private final Cache<Long, ProjectDependencyGraph> cache;
+
+    /**
+     * @param maxMemoryBytes the maximum estimated memory usage of all graphs held
+     */
+    ProjectDependencyGraphCache(final long maxMemoryBytes) {
+        this.cache = CacheBuilder.newBuilder()
+                // Weights are in kilobytes, as a weight has to fit into an int.
+                .maximumWeight(Math.max(1, maxMemoryBytes / 1024))
+                .weigher((Long projectId, ProjectDependencyGraph graph) -> (int) Math.min(Integer.MAX_VALUE, graph.estimateMemoryUsage() / 1024 + 1))
+                // A single segment, so that the maximum applies to the cache as a whole rather than per segment.
+                .concurrencyLevel(1)
+                .build();
+        Gauge.builder("dependency_graph_cache_size", this, instance -> instance.cache.size())
+                .description("Number of project dependency graphs held in memory")
+                .register(Metrics.getRegistry());
+    }
+
+    public static ProjectDependencyGraphCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param project The {@link Project} to get the dependency graph of
+     * @param loader  Builds the {@link ProjectDependencyGraph} from the database, in case no current one is held in memory
+     * @return The {@link ProjectDependencyGraph}
+     */
+    ProjectDependencyGraph get(final Project project, final Function<Project, ProjectDependencyGraph> loader) {
+        ProjectDependencyGraph graph = cache.getIfPresent(project.getId());
+        if (graph != null && isSameImport(graph.getLastBomImport(), project.getLastBomImport())) {
+            recordRequest("hit");
+            return graph;
+        }
+
+        recordRequest("miss");
+        graph = loader.apply(project);
+        cache.put(project.getId(), graph);
+        return graph;
+    }
+
+    /**
+     * Discard the dependency graph of a {@link Project}.
+     *
+     * @param project The {@link Project} whose dependency graph was modified
+     */
+    void invalidate(final Project project) {
+        cache.invalidate(project.getId());
+    }
+
+    /**
+     * Discard all graphs held in memory.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static boolean isSameImport(final Date graphImport, final Date projectImport) {
+        // Compare timestamps rather than objects, as the project's date may be a java.sql.Timestamp.
+        if (graphImport == null || projectImport == null) {
+            return graphImport == projectImport;
+        }
+        return graphImport.getTime() == projectImport.getTime();
+    }
+
+    private static void recordRequest(final String result) {
+        Counter.builder("dependency_graph_cache_requests")
+                .description("Total number of lookups in the in-memory project dependency graph cache")
+                .tags("result", result)
+                .register(Metrics.getRegistry())
+                .increment();
+    }
+
+}
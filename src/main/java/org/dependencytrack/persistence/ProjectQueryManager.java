@@ -33,6 +33,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.auth.Permissions;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.AnalysisComment;
 import org.dependencytrack.model.Classifier;
@@ -560,6 +561,7 @@ final class ProjectQueryManager extends QueryManager implements IQueryManager {
         bind(project, resolvedTags);
 
         final Project result = persist(project);
+        MetricsDirtyTracker.getInstance().markDirty(result);
         Event.dispatch(new IndexEvent(IndexEvent.Action.UPDATE, result));
         commitSearchIndex(commitIndex, Project.class);
         return result;
@@ -644,6 +646,8 @@ final class ProjectQueryManager extends QueryManager implements IQueryManager {
                     clonedComponents.put(sourceComponent.getId(), clonedComponent);
                 }
             }
+            // The copied directDependencies JSON references the source components, so copy the edges instead.
+            cloneDependencyGraph(source, project, clonedComponents, includeServices);
         }
 
         if (includeServices) {
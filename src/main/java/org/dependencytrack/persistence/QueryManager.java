@@ -47,6 +47,7 @@ import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Finding;
+import org.dependencytrack.model.FindingsPage;
 import org.dependencytrack.model.FindingAttribution;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -72,6 +73,7 @@ import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerabilityMetrics;
 import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.notification.publisher.Publisher;
 import org.dependencytrack.resources.v1.vo.AffectedProject;
@@ -85,6 +87,7 @@ import javax.jdo.Transaction;
 import javax.json.JsonObject;
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -524,6 +527,10 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().createComponent(component, commitIndex);
     }
 
+    public List<Component> persistComponents(List<Component> components, boolean commitIndex) {
+        return getComponentQueryManager().persistComponents(components, commitIndex);
+    }
+
     public Component cloneComponent(Component sourceComponent, Project destinationProject, boolean commitIndex) {
         return getComponentQueryManager().cloneComponent(sourceComponent, destinationProject, commitIndex);
     }
@@ -544,6 +551,30 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().getDependencyGraphForComponents(project, components);
     }
 
+    public ProjectDependencyGraph getDependencyGraph(Project project) {
+        return getComponentQueryManager().getDependencyGraph(project);
+    }
+
+    public int getDependencyDepth(Component component) {
+        return getComponentQueryManager().getDependencyDepth(component);
+    }
+
+    public Map<Long, Component> getComponentsById(final Collection<Long> componentIds) {
+        return getComponentQueryManager().getComponentsById(componentIds);
+    }
+
+    public DependencyPaths getDependencyPaths(Component component, int maxPaths, int maxDepth) {
+        return getComponentQueryManager().getDependencyPaths(component, maxPaths, maxDepth);
+    }
+
+    public void synchronizeDependencyGraph(Project project, Collection<Component> components) {
+        getComponentQueryManager().synchronizeDependencyGraph(project, components);
+    }
+
+    public void cloneDependencyGraph(Project source, Project target, Map<Long, Component> clonedComponents, boolean includeDirectDependencies) {
+        getComponentQueryManager().cloneDependencyGraph(source, target, clonedComponents, includeDirectDependencies);
+    }
+
     public PaginatedResult getLicenses() {
         return getLicenseQueryManager().getLicenses();
     }
@@ -602,11 +633,15 @@ public class QueryManager extends AlpineQueryManager {
         return getPolicyQueryManager().updatePolicyCondition(policyCondition);
     }
 
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+    public void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
         getPolicyQueryManager().reconcilePolicyViolations(component, policyViolations);
     }
 
-    public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
+    public List<PolicyViolation> reconcilePolicyViolations(final Collection<Component> components, final List<PolicyViolation> policyViolations) {
+        return getPolicyQueryManager().reconcilePolicyViolations(components, policyViolations);
+    }
+
+    public PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
         return getPolicyQueryManager().addPolicyViolationIfNotExist(pv);
     }
 
@@ -727,6 +762,10 @@ public class QueryManager extends AlpineQueryManager {
         return getVulnerabilityQueryManager().getVulnerabilityByVulnId(source, vulnId, includeVulnerableSoftware);
     }
 
+    public List<Vulnerability> getVulnerabilitiesById(final Collection<Long> ids) {
+        return getVulnerabilityQueryManager().getVulnerabilitiesById(ids);
+    }
+
     public List<Vulnerability> getVulnerabilitiesForNpmModule(String module) {
         return getVulnerabilityQueryManager().getVulnerabilitiesForNpmModule(module);
     }
@@ -850,6 +889,10 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().matchSingleIdentity(project, cid);
     }
 
+    public Map<ComponentIdentity, Component> matchIdentities(final Project project, final Collection<ComponentIdentity> identities) {
+        return getComponentQueryManager().matchIdentities(project, identities);
+    }
+
     public List<Component> matchIdentity(final Project project, final ComponentIdentity cid) {
         return getComponentQueryManager().matchIdentity(project, cid);
     }
@@ -1028,6 +1071,14 @@ public class QueryManager extends AlpineQueryManager {
         return getFindingsQueryManager().getFindings(project, includeSuppressed);
     }
 
+    public List<Finding> getFindings(Project project, boolean includeSuppressed, Vulnerability.Source source) {
+        return getFindingsQueryManager().getFindings(project, includeSuppressed, source);
+    }
+
+    public FindingsPage getFindingsPage(Project project, boolean includeSuppressed, Vulnerability.Source source, String cursor) {
+        return getFindingsQueryManager().getFindingsPage(project, includeSuppressed, source, cursor);
+    }
+
     public List<VulnerabilityMetrics> getVulnerabilityMetrics() {
         return getMetricsQueryManager().getVulnerabilityMetrics();
     }
@@ -1112,10 +1163,14 @@ public class QueryManager extends AlpineQueryManager {
         return getRepositoryQueryManager().getRepositoryMetaComponent(repositoryType, namespace, name);
     }
 
-    public synchronized RepositoryMetaComponent synchronizeRepositoryMetaComponent(final RepositoryMetaComponent transientRepositoryMetaComponent) {
+    public RepositoryMetaComponent synchronizeRepositoryMetaComponent(final RepositoryMetaComponent transientRepositoryMetaComponent) {
         return getRepositoryQueryManager().synchronizeRepositoryMetaComponent(transientRepositoryMetaComponent);
     }
 
+    public void synchronizeRepositoryMetaComponents(final List<RepositoryMetaComponent> transientRepositoryMetaComponents) {
+        getRepositoryQueryManager().synchronizeRepositoryMetaComponents(transientRepositoryMetaComponents);
+    }
+
     public NotificationRule createNotificationRule(String name, NotificationScope scope, NotificationLevel level, NotificationPublisher publisher) {
         return getNotificationQueryManager().createNotificationRule(name, scope, level, publisher);
     }
@@ -1128,6 +1183,10 @@ public class QueryManager extends AlpineQueryManager {
         return getNotificationQueryManager().getNotificationRules();
     }
 
+    public boolean hasNotificationRules(final NotificationScope scope, final NotificationLevel level, final Collection<NotificationGroup> groups) {
+        return getNotificationQueryManager().hasNotificationRules(scope, level, groups);
+    }
+
     public List<NotificationPublisher> getAllNotificationPublishers() {
         return getNotificationQueryManager().getAllNotificationPublishers();
     }
@@ -1185,6 +1244,10 @@ public class QueryManager extends AlpineQueryManager {
         return getCacheQueryManager().getComponentAnalysisCache(cacheType, targetType, target);
     }
 
+    public Map<String, ComponentAnalysisCache> getComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, Collection<String> targets) {
+        return getCacheQueryManager().getComponentAnalysisCache(cacheType, targetHost, targetType, targets);
+    }
+
     public synchronized void updateComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, String target, Date lastOccurrence, JsonObject result) {
         getCacheQueryManager().updateComponentAnalysisCache(cacheType, targetHost, targetType, target, lastOccurrence,  result);
     }
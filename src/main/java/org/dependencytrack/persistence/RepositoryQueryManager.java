@@ -22,6 +22,8 @@ import alpine.common.logging.Logger;
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
 import alpine.security.crypto.DataEncryption;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.model.Repository;
 import org.dependencytrack.model.RepositoryMetaComponent;
@@ -32,13 +34,19 @@ import javax.jdo.Query;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
 
 public class RepositoryQueryManager extends QueryManager implements IQueryManager {
     private static final Logger LOGGER = Logger.getLogger(RepositoryQueryManager.class);
 
+    private static final int QUERY_BATCH_SIZE = 100;
+
+    private static final Striped<Lock> REPOSITORY_META_COMPONENT_LOCKS = Striped.lazyWeakLock(256);
+
 
     /**
      * Constructs a new QueryManager.
@@ -231,23 +239,77 @@ public class RepositoryQueryManager extends QueryManager implements IQueryManage
      * @param transientRepositoryMetaComponent the RepositoryMetaComponent object to synchronize
      * @return a synchronized RepositoryMetaComponent object
      */
-    public synchronized RepositoryMetaComponent synchronizeRepositoryMetaComponent(
+    public RepositoryMetaComponent synchronizeRepositoryMetaComponent(
             final RepositoryMetaComponent transientRepositoryMetaComponent) {
-        final RepositoryMetaComponent metaComponent = getRepositoryMetaComponent(transientRepositoryMetaComponent.getRepositoryType(),
-                transientRepositoryMetaComponent.getNamespace(), transientRepositoryMetaComponent.getName());
-        if (metaComponent != null) {
-            metaComponent.setRepositoryType(transientRepositoryMetaComponent.getRepositoryType());
-            metaComponent.setNamespace(transientRepositoryMetaComponent.getNamespace());
-            metaComponent.setLastCheck(transientRepositoryMetaComponent.getLastCheck());
-            metaComponent.setLatestVersion(transientRepositoryMetaComponent.getLatestVersion());
-            metaComponent.setName(transientRepositoryMetaComponent.getName());
-            metaComponent.setPublished(transientRepositoryMetaComponent.getPublished());
-            return persist(metaComponent);
-        } else {
-            return persist(transientRepositoryMetaComponent);
+        final Lock lock = REPOSITORY_META_COMPONENT_LOCKS.get(RepositoryMetaComponentSearch.of(transientRepositoryMetaComponent));
+        lock.lock();
+        try {
+            final RepositoryMetaComponent metaComponent = getRepositoryMetaComponent(transientRepositoryMetaComponent.getRepositoryType(),
+                    transientRepositoryMetaComponent.getNamespace(), transientRepositoryMetaComponent.getName());
+            if (metaComponent != null) {
+                applyRepositoryMetaComponent(metaComponent, transientRepositoryMetaComponent);
+                return persist(metaComponent);
+            } else {
+                return persist(transientRepositoryMetaComponent);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Synchronizes multiple {@link RepositoryMetaComponent}s in a single transaction, updating those that
+     * already exist, and creating the remaining ones.
+     * <p>
+     * Meta components are identified by their repository type, namespace, and name. When the same
+     * meta component is provided more than once, the last occurrence wins.
+     *
+     * @param transientRepositoryMetaComponents the {@link RepositoryMetaComponent}s to synchronize
+     * @since 4.11.0
+     */
+    public void synchronizeRepositoryMetaComponents(final List<RepositoryMetaComponent> transientRepositoryMetaComponents) {
+        final Map<RepositoryMetaComponentSearch, RepositoryMetaComponent> metaComponents = new LinkedHashMap<>();
+        transientRepositoryMetaComponents.forEach(metaComponent -> metaComponents.put(RepositoryMetaComponentSearch.of(metaComponent), metaComponent));
+        if (metaComponents.isEmpty()) {
+            return;
+        }
+
+        // Serialize with other synchronizations of the same meta components, rather than with all of them.
+        // Locks are returned in a consistent order, so acquiring them one after another can't deadlock.
+        final List<Lock> locks = new ArrayList<>();
+        REPOSITORY_META_COMPONENT_LOCKS.bulkGet(metaComponents.keySet()).forEach(locks::add);
+        locks.forEach(Lock::lock);
+        try {
+            final Map<RepositoryMetaComponentSearch, RepositoryMetaComponent> existingMetaComponents = new HashMap<>();
+            for (final List<RepositoryMetaComponentSearch> batch : Lists.partition(List.copyOf(metaComponents.keySet()), QUERY_BATCH_SIZE)) {
+                getRepositoryMetaComponents(batch).forEach(metaComponent ->
+                        existingMetaComponents.put(RepositoryMetaComponentSearch.of(metaComponent), metaComponent));
+            }
+
+            runInTransaction(() -> {
+                for (final Map.Entry<RepositoryMetaComponentSearch, RepositoryMetaComponent> entry : metaComponents.entrySet()) {
+                    final RepositoryMetaComponent existingMetaComponent = existingMetaComponents.get(entry.getKey());
+                    if (existingMetaComponent != null) {
+                        applyRepositoryMetaComponent(existingMetaComponent, entry.getValue());
+                    } else {
+                        pm.makePersistent(entry.getValue());
+                    }
+                }
+            });
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
+    }
+
+    private static void applyRepositoryMetaComponent(final RepositoryMetaComponent metaComponent, final RepositoryMetaComponent transientMetaComponent) {
+        metaComponent.setRepositoryType(transientMetaComponent.getRepositoryType());
+        metaComponent.setNamespace(transientMetaComponent.getNamespace());
+        metaComponent.setLastCheck(transientMetaComponent.getLastCheck());
+        metaComponent.setLatestVersion(transientMetaComponent.getLatestVersion());
+        metaComponent.setName(transientMetaComponent.getName());
+        metaComponent.setPublished(transientMetaComponent.getPublished());
+    }
+
     /**
      * Returns a list of {@link RepositoryMetaComponent} objects from the specified type, group, and name.
      *
@@ -305,5 +367,9 @@ public class RepositoryQueryManager extends QueryManager implements IQueryManage
      */
     public record RepositoryMetaComponentSearch(RepositoryType type, String namespace,
                                                 String name) implements Serializable {
+
+        static RepositoryMetaComponentSearch of(final RepositoryMetaComponent metaComponent) {
+            return new RepositoryMetaComponentSearch(metaComponent.getRepositoryType(), metaComponent.getNamespace(), metaComponent.getName());
+        }
     }
 }
@@ -21,8 +21,11 @@ package org.dependencytrack.persistence;
 import alpine.event.framework.Event;
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.AffectedVersionAttribution;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
@@ -45,10 +48,13 @@ import java.util.HashMap;
 import java.util.UUID;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 final class VulnerabilityQueryManager extends QueryManager implements IQueryManager {
 
+    static final Striped<Lock> ADD_VULNERABILITY_LOCKS = Striped.lazyWeakLock(256);
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -178,6 +184,23 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         return getVulnerabilityByVulnId(source.name(), vulnId, includeVulnerableSoftware);
     }
 
+    /**
+     * Returns vulnerabilities by their IDs, with one query per batch of IDs
+     * rather than one query per vulnerability.
+     * @param ids the IDs of the vulnerabilities
+     * @return the matching Vulnerability objects, in no particular order
+     * @since 4.11.0
+     */
+    public List<Vulnerability> getVulnerabilitiesById(final Collection<Long> ids) {
+        final var vulnerabilities = new ArrayList<Vulnerability>(ids.size());
+        for (final List<Long> batch : Lists.partition(List.copyOf(ids), 1000)) {
+            final Query<Vulnerability> query = pm.newQuery(Vulnerability.class, ":ids.contains(id)");
+            query.setParameters(batch);
+            vulnerabilities.addAll(query.executeList());
+        }
+        return vulnerabilities;
+    }
+
     /**
      * Returns vulnerabilities for the specified npm module
      * @param module the NPM module to query on
@@ -212,10 +235,37 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      */
     public void addVulnerability(Vulnerability vulnerability, Component component, AnalyzerIdentity analyzerIdentity,
                                  String alternateIdentifier, String referenceUrl) {
-        if (!contains(vulnerability, component)) {
+        if (contains(vulnerability, component)) {
+            return;
+        }
+
+        // Multiple analyzers may report the same vulnerability for the same component concurrently.
+        // Serialize additions per component, and re-check against the database while holding the lock,
+        // as the vulnerabilities of the component may have been loaded before another analyzer committed.
+        final Lock lock = ADD_VULNERABILITY_LOCKS.get(component.getId());
+        lock.lock();
+        try {
+            if (isAffectedInDatabase(vulnerability, component)) {
+                return;
+            }
             component.addVulnerability(vulnerability);
             component = persist(component);
             persist(new FindingAttribution(component, vulnerability, analyzerIdentity, alternateIdentifier, referenceUrl));
+            MetricsDirtyTracker.getInstance().markDirty(component);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isAffectedInDatabase(final Vulnerability vulnerability, final Component component) {
+        final Query<Component> query = pm.newQuery(Component.class);
+        query.setFilter("id == :componentId && vulnerabilities.contains(:vulnerability)");
+        query.setNamedParameters(Map.of("componentId", component.getId(), "vulnerability", vulnerability));
+        query.setResult("count(id)");
+        try {
+            return query.executeResultUnique(Long.class) > 0;
+        } finally {
+            query.closeAll();
         }
     }
 
@@ -229,6 +279,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             pm.currentTransaction().begin();
             component.removeVulnerability(vulnerability);
             pm.currentTransaction().commit();
+            MetricsDirtyTracker.getInstance().markDirty(component);
         }
         final FindingAttribution fa = getFindingAttribution(vulnerability, component);
         if (fa != null) {
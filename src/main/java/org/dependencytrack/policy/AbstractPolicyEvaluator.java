@@ -18,9 +18,16 @@
  */
 package org.dependencytrack.policy;
 
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.RepositoryMetaComponent;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.parser.spdx.expression.model.SpdxExpression;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.RepositoryQueryManager.RepositoryMetaComponentSearch;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,19 +42,130 @@ import java.util.stream.Collectors;
 public abstract class AbstractPolicyEvaluator implements PolicyEvaluator {
 
     protected QueryManager qm;
+    private PolicyEvaluationContext context;
 
     public void setQueryManager(final QueryManager qm) {
         this.qm = qm;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEvaluationContext(final PolicyEvaluationContext context) {
+        this.context = context;
+    }
+
     protected List<PolicyCondition> extractSupportedConditions(final Policy policy) {
         if (policy == null || policy.getPolicyConditions() == null) {
             return new ArrayList<>();
-        } else {
-            return policy.getPolicyConditions().stream()
-                    .filter(p -> supportedSubject() == p.getSubject())
-                    .collect(Collectors.toList());
         }
+        if (context != null) {
+            final List<PolicyCondition> conditions = context.getConditions(policy, supportedSubject());
+            if (conditions != null) {
+                return conditions;
+            }
+        }
+        return policy.getPolicyConditions().stream()
+                .filter(p -> supportedSubject() == p.getSubject())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param component the {@link Component} to get the vulnerabilities of
+     * @return all vulnerabilities of the component, excluding suppressed ones
+     * @since 4.11.0
+     */
+    protected List<Vulnerability> getVulnerabilities(final Component component) {
+        if (context != null) {
+            final List<Vulnerability> vulnerabilities = context.getVulnerabilities(component);
+            if (vulnerabilities != null) {
+                return vulnerabilities;
+            }
+        }
+        return qm.getAllVulnerabilities(component, false);
+    }
+
+    /**
+     * @param component the {@link Component} to get the license expression of
+     * @return the license expression of the component
+     * @since 4.11.0
+     */
+    protected SpdxExpression getSpdxExpression(final Component component) {
+        if (context != null) {
+            final SpdxExpression expression = context.getSpdxExpression(component);
+            if (expression != null) {
+                return expression;
+            }
+        }
+        return LicenseGroupPolicyEvaluator.getSpdxExpressionFromComponent(component);
+    }
+
+    /**
+     * @param component the {@link Component} to get the repository metadata of
+     * @return the repository metadata of the component, or {@code null} when none is available
+     * @since 4.11.0
+     */
+    protected RepositoryMetaComponent getRepositoryMetaComponent(final Component component) {
+        if (context != null && context.hasRepositoryMetaComponent(component)) {
+            return context.getRepositoryMetaComponent(component);
+        }
+        final RepositoryMetaComponentSearch search = PolicyEvaluationContext.getRepositoryMetaComponentSearch(component);
+        if (search == null) {
+            return null;
+        }
+        final RepositoryMetaComponent metaComponent;
+        try (final var qm = new QueryManager()) {
+            metaComponent = qm.getRepositoryMetaComponent(search.type(), search.namespace(), search.name());
+            qm.getPersistenceManager().detachCopy(metaComponent);
+        }
+        return metaComponent;
+    }
+
+    /**
+     * @param uuid the UUID of the {@link LicenseGroup}
+     * @return the {@link LicenseGroup}, or {@code null} when it does not exist
+     * @since 4.11.0
+     */
+    protected LicenseGroup getLicenseGroup(final String uuid) {
+        if (context != null && context.hasLicenseGroup(uuid)) {
+            return context.getLicenseGroup(uuid);
+        }
+        return qm.getObjectByUuid(LicenseGroup.class, uuid);
+    }
+
+    /**
+     * @param uuid the UUID of the {@link License}
+     * @return the {@link License}, or {@code null} when it does not exist
+     * @since 4.11.0
+     */
+    protected License getLicenseByUuid(final String uuid) {
+        if (context != null && context.hasLicenseByUuid(uuid)) {
+            return context.getLicenseByUuid(uuid);
+        }
+        return qm.getObjectByUuid(License.class, uuid);
+    }
+
+    /**
+     * @param spdxId the SPDX ID of the {@link License}
+     * @return the {@link License}, or {@code null} when it does not exist
+     * @since 4.11.0
+     */
+    protected License getLicense(final String spdxId) {
+        return context != null ? context.getLicense(spdxId) : qm.getLicense(spdxId);
+    }
+
+    /**
+     * @since 4.11.0
+     */
+    protected boolean doesLicenseGroupContainLicense(final LicenseGroup licenseGroup, final License license) {
+        if (context != null) {
+            final Boolean contained = context.doesLicenseGroupContainLicense(licenseGroup, license);
+            if (contained != null) {
+                return contained;
+            }
+        }
+        return qm.doesLicenseGroupContainLicense(licenseGroup, license);
     }
 
 }
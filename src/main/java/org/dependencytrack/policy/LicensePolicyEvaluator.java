@@ -60,7 +60,7 @@ public class LicensePolicyEvaluator extends AbstractPolicyEvaluator {
         }
 
         // use spdx expression checking logic from the license group policy evaluator
-        final SpdxExpression expression = LicenseGroupPolicyEvaluator.getSpdxExpressionFromComponent(component);
+        final SpdxExpression expression = getSpdxExpression(component);
 
         boolean allPoliciesViolated = true;
         for (final PolicyCondition condition: super.extractSupportedConditions(policy)) {
@@ -69,11 +69,11 @@ public class LicensePolicyEvaluator extends AbstractPolicyEvaluator {
             LicenseGroup licenseGroup = null;
             // lg will stay null if we are checking for "unresolved"
             if (!condition.getValue().equals("unresolved")) {
-                License conditionLicense = qm.getObjectByUuid(License.class, condition.getValue());
+                License conditionLicense = getLicenseByUuid(condition.getValue());
                 licenseGroup = LicenseGroupPolicyEvaluator.getTemporaryLicenseGroupForLicense(conditionLicense);
             }
 
-            boolean addedViolation = LicenseGroupPolicyEvaluator.evaluateCondition(qm, condition, expression,
+            boolean addedViolation = LicenseGroupPolicyEvaluator.evaluateCondition(this, condition, expression,
                     licenseGroup, component, violations);
             if (addedViolation == false) {
                 allPoliciesViolated = false;
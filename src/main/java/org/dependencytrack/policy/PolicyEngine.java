@@ -18,7 +18,12 @@
  */
 package org.dependencytrack.policy;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
@@ -27,14 +32,33 @@ import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Tag;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.NotificationUtil;
+
+import javax.jdo.Query;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A lightweight policy engine that evaluates a list of components against
  * all defined policies. Each policy is evaluated using individual policy
  * evaluators. Additional evaluators can be easily added in the future.
+ * <p>
+ * Components are grouped by project, and the policies applicable to each project are resolved and compiled
+ * into a {@link PolicyEvaluationPlan} once. The components of each project are then evaluated in chunks,
+ * which are distributed across a bounded pool of worker threads. Each chunk is evaluated with a dedicated
+ * {@link QueryManager} and set of {@link PolicyEvaluator}s, so that only the immutable plan is shared
+ * between workers. When any chunk fails, the evaluation fails as a whole.
  *
  * @author Steve Springett
  * @since 4.0.0
@@ -43,9 +67,45 @@ public class PolicyEngine {
 
     private static final Logger LOGGER = Logger.getLogger(PolicyEngine.class);
 
-    private final List<PolicyEvaluator> evaluators = new ArrayList<>();
+    /**
+     * Number of components that data is prefetched for at once.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        // Each worker holds a database connection while evaluating a chunk,
+        // thus the pool size acts as connection budget for policy evaluation.
+        final String name = PolicyEngine.class.getSimpleName();
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(name + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .daemon(true)
+                .build();
+        EXECUTOR = Executors.newFixedThreadPool(Config.getInstance().getPropertyAsInt(ConfigKey.POLICY_EVALUATION_THREAD_POOL_SIZE), threadFactory);
+        alpine.common.metrics.Metrics.registerExecutorService(EXECUTOR, name);
+    }
+
+    /**
+     * Shuts down the thread pool that chunks of components are evaluated on, waiting for {@code timeout} for work in progress to complete.
+     *
+     * @param timeout The maximum {@link Duration} to wait for
+     * @since 4.11.0
+     */
+    public static void shutdown(final Duration timeout) {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Policy evaluation did not complete within " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-    public PolicyEngine() {
+    private static List<PolicyEvaluator> createEvaluators() {
+        final List<PolicyEvaluator> evaluators = new ArrayList<>();
         evaluators.add(new SeverityPolicyEvaluator());
         evaluators.add(new CoordinatesPolicyEvaluator());
         evaluators.add(new LicenseGroupPolicyEvaluator());
@@ -59,81 +119,184 @@ public class PolicyEngine {
         evaluators.add(new CwePolicyEvaluator());
         evaluators.add(new VulnerabilityIdPolicyEvaluator());
         evaluators.add(new VersionDistancePolicyEvaluator());
+        return evaluators;
     }
 
     public List<PolicyViolation> evaluate(final List<Component> components) {
         LOGGER.info("Evaluating " + components.size() + " component(s) against applicable policies");
-        List<PolicyViolation> violations = new ArrayList<>();
+        final List<Chunk> chunks = new ArrayList<>();
         try (final QueryManager qm = new QueryManager()) {
             final List<Policy> policies = qm.getAllPolicies();
-            for (final Component component : components) {
-                final Component componentFromDb = qm.getObjectById(Component.class, component.getId());
-                violations.addAll(this.evaluate(qm, policies, componentFromDb));
+            // Projects with the same applicable policies share a plan, which is compiled only once.
+            final Map<Set<Long>, PolicyEvaluationPlan> plans = new HashMap<>();
+            for (final Map.Entry<Long, List<Long>> entry : getComponentIdsByProjectId(qm, components).entrySet()) {
+                final Project project = qm.getObjectById(Project.class, entry.getKey());
+                final PolicyEvaluationPlan plan = plans.computeIfAbsent(getApplicablePolicyIds(policies, project),
+                        policyIds -> new PolicyEvaluationPlan(qm, policies.stream().filter(policy -> policyIds.contains(policy.getId())).toList()));
+                for (final List<Long> componentIds : Lists.partition(entry.getValue(), BATCH_SIZE)) {
+                    chunks.add(new Chunk(plan, componentIds));
+                }
+            }
+        }
+
+        final List<PolicyViolation> violations = new ArrayList<>();
+        if (chunks.size() == 1) {
+            // Not worth handing off to a worker.
+            violations.addAll(evaluateChunk(chunks.get(0)));
+        } else {
+            final List<Future<List<PolicyViolation>>> futures = chunks.stream()
+                    .map(chunk -> EXECUTOR.submit(() -> evaluateChunk(chunk)))
+                    .toList();
+            try {
+                for (final Future<List<PolicyViolation>> future : futures) {
+                    violations.addAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for policy evaluation to complete", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to evaluate a chunk of components", e.getCause());
+            } finally {
+                // Chunks that have not been started yet are not worth evaluating when the result is discarded.
+                futures.forEach(future -> future.cancel(false));
             }
         }
         LOGGER.info("Policy analysis complete");
         return violations;
     }
 
-    private List<PolicyViolation> evaluate(final QueryManager qm, final List<Policy> policies, final Component component) {
+    /**
+     * Components of a single project that are evaluated together.
+     */
+    private record Chunk(PolicyEvaluationPlan plan, List<Long> componentIds) {
+    }
+
+    private List<PolicyViolation> evaluateChunk(final Chunk chunk) {
+        try (final QueryManager qm = new QueryManager()) {
+            final var context = new PolicyEvaluationContext(qm, chunk.plan());
+            final List<PolicyEvaluator> evaluators = createEvaluators();
+            for (final PolicyEvaluator evaluator : evaluators) {
+                evaluator.setQueryManager(qm);
+                evaluator.setEvaluationContext(context);
+            }
+
+            final List<Component> componentsFromDb = context.prefetch(chunk.componentIds());
+            final List<PolicyViolation> computedViolations = new ArrayList<>();
+            for (final Component componentFromDb : componentsFromDb) {
+                computedViolations.addAll(this.evaluate(context, evaluators, componentFromDb));
+            }
+            final List<PolicyViolation> reconciledViolations = qm.reconcilePolicyViolations(componentsFromDb, computedViolations);
+            for (int i = 0; i < reconciledViolations.size(); i++) {
+                // Violations that did not exist before are persisted as the computed instances.
+                if (reconciledViolations.get(i) == computedViolations.get(i)) {
+                    NotificationUtil.analyzeNotificationCriteria(qm, reconciledViolations.get(i));
+                }
+            }
+            return reconciledViolations;
+        }
+    }
+
+    private List<PolicyViolation> evaluate(final PolicyEvaluationContext context, final List<PolicyEvaluator> evaluators, final Component component) {
         final List<PolicyViolation> policyViolations = new ArrayList<>();
-        final List<PolicyViolation> existingPolicyViolations = qm.detach(qm.getAllPolicyViolations(component));
-        for (final Policy policy : policies) {
-            if (policy.isGlobal() || isPolicyAssignedToProject(policy, component.getProject())
-                    || isPolicyAssignedToProjectTag(policy, component.getProject())) {
-                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.getUuid() + ")");
-                final List<PolicyConditionViolation> policyConditionViolations = new ArrayList<>();
-                int policyConditionsViolated = 0;
-                for (final PolicyEvaluator evaluator : evaluators) {
-                    evaluator.setQueryManager(qm);
-                    final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(policy, component);
-                    if (!policyConditionViolationsFromEvaluator.isEmpty()) {
-                        policyConditionViolations.addAll(policyConditionViolationsFromEvaluator);
-                        policyConditionsViolated += (int) policyConditionViolationsFromEvaluator.stream()
-                                .map(pcv -> pcv.getPolicyCondition().getId())
-                                .sorted()
-                                .distinct()
-                                .count();
-                    }
+        for (final PolicyEvaluationPlan.CompiledPolicy compiledPolicy : context.getPolicies()) {
+            final Policy policy = compiledPolicy.policy();
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.getUuid() + ")");
+            final List<PolicyConditionViolation> policyConditionViolations = new ArrayList<>();
+            int policyConditionsViolated = 0;
+            for (final PolicyEvaluator evaluator : evaluators) {
+                if (compiledPolicy.getConditions(evaluator.supportedSubject()).isEmpty()) {
+                    continue;
                 }
-                if (Policy.Operator.ANY == policy.getOperator()) {
-                    if (policyConditionsViolated > 0) {
-                        policyViolations.addAll(createPolicyViolations(qm, policyConditionViolations));
-                    }
-                } else if (Policy.Operator.ALL == policy.getOperator() && policyConditionsViolated == policy.getPolicyConditions().size()) {
-                    policyViolations.addAll(createPolicyViolations(qm, policyConditionViolations));
+                final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(policy, component);
+                if (!policyConditionViolationsFromEvaluator.isEmpty()) {
+                    policyConditionViolations.addAll(policyConditionViolationsFromEvaluator);
+                    policyConditionsViolated += (int) policyConditionViolationsFromEvaluator.stream()
+                            .map(pcv -> pcv.getPolicyCondition().getId())
+                            .sorted()
+                            .distinct()
+                            .count();
                 }
             }
-        }
-        qm.reconcilePolicyViolations(component, policyViolations);
-        for (final PolicyViolation pv : qm.getAllPolicyViolations(component)) {
-            if (existingPolicyViolations.stream().noneMatch(existingViolation -> existingViolation.getId() == pv.getId())) {
-                NotificationUtil.analyzeNotificationCriteria(qm, pv);
+            if (Policy.Operator.ANY == policy.getOperator()) {
+                if (policyConditionsViolated > 0) {
+                    policyViolations.addAll(createPolicyViolations(context, policyConditionViolations));
+                }
+            } else if (Policy.Operator.ALL == policy.getOperator() && policyConditionsViolated == policy.getPolicyConditions().size()) {
+                policyViolations.addAll(createPolicyViolations(context, policyConditionViolations));
             }
         }
         return policyViolations;
     }
 
-    private boolean isPolicyAssignedToProject(Policy policy, Project project) {
-        if (policy.getProjects() == null || policy.getProjects().isEmpty()) {
-            return false;
-        }
-        return (policy.getProjects().stream().anyMatch(p -> p.getId() == project.getId()) || (Boolean.TRUE.equals(policy.isIncludeChildren()) && isPolicyAssignedToParentProject(policy, project)));
-    }
-
-    private List<PolicyViolation> createPolicyViolations(final QueryManager qm, final List<PolicyConditionViolation> pcvList) {
+    private List<PolicyViolation> createPolicyViolations(final PolicyEvaluationContext context, final List<PolicyConditionViolation> pcvList) {
         final List<PolicyViolation> policyViolations = new ArrayList<>();
         for (PolicyConditionViolation pcv : pcvList) {
             final PolicyViolation pv = new PolicyViolation();
             pv.setComponent(pcv.getComponent());
-            pv.setPolicyCondition(pcv.getPolicyCondition());
+            pv.setPolicyCondition(context.getPolicyCondition(pcv.getPolicyCondition()));
             pv.setType(determineViolationType(pcv.getPolicyCondition().getSubject()));
             pv.setTimestamp(new Date());
-            policyViolations.add(qm.addPolicyViolationIfNotExist(pv));
+            policyViolations.add(pv);
         }
         return policyViolations;
     }
 
+    private static Map<Long, List<Long>> getComponentIdsByProjectId(final QueryManager qm, final List<Component> components) {
+        final List<Long> componentIds = components.stream().map(Component::getId).distinct().toList();
+        final Map<Long, Long> projectIdsByComponentId = new HashMap<>();
+        for (final List<Long> batch : Lists.partition(componentIds, 1000)) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class, ":ids.contains(id)");
+            query.setParameters(batch);
+            query.setResult("id, project.id");
+            try {
+                for (final Object[] row : query.executeResultList(Object[].class)) {
+                    projectIdsByComponentId.put((Long) row[0], (Long) row[1]);
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+
+        // Retain the order of components within each project.
+        final Map<Long, List<Long>> componentIdsByProjectId = new LinkedHashMap<>();
+        for (final Long componentId : componentIds) {
+            final Long projectId = projectIdsByComponentId.get(componentId);
+            if (projectId != null) {
+                componentIdsByProjectId.computeIfAbsent(projectId, ignored -> new ArrayList<>()).add(componentId);
+            }
+        }
+        return componentIdsByProjectId;
+    }
+
+    /**
+     * Resolves the policies that apply to a project, because they are global, assigned to the project,
+     * inherited from a parent project, or assigned to any of the project's tags.
+     */
+    private static Set<Long> getApplicablePolicyIds(final List<Policy> policies, final Project project) {
+        final Set<Long> ancestorIds = new HashSet<>();
+        Project parent = project.getParent();
+        while (parent != null && ancestorIds.add(parent.getId())) {
+            parent = parent.getParent();
+        }
+        final Set<Long> tagIds = new HashSet<>();
+        if (project.getTags() != null) {
+            project.getTags().forEach(tag -> tagIds.add(tag.getId()));
+        }
+
+        final Set<Long> applicablePolicyIds = new HashSet<>();
+        for (final Policy policy : policies) {
+            final boolean isAssignedToProject = policy.getProjects() != null && policy.getProjects().stream()
+                    .anyMatch(p -> p.getId() == project.getId() || (Boolean.TRUE.equals(policy.isIncludeChildren()) && ancestorIds.contains(p.getId())));
+            final boolean isAssignedToProjectTag = policy.getTags() != null && policy.getTags().stream()
+                    .map(Tag::getId)
+                    .anyMatch(tagIds::contains);
+            if (policy.isGlobal() || isAssignedToProject || isAssignedToProjectTag) {
+                applicablePolicyIds.add(policy.getId());
+            }
+        }
+        return applicablePolicyIds;
+    }
+
     public PolicyViolation.Type determineViolationType(final PolicyCondition.Subject subject) {
         if (subject == null) {
             return null;
@@ -146,29 +309,4 @@ public class PolicyEngine {
         };
     }
 
-
-    private boolean isPolicyAssignedToProjectTag(Policy policy, Project project) {
-        if (policy.getTags() == null || policy.getTags().isEmpty()) {
-            return false;
-        }
-        boolean flag = false;
-        for (Tag projectTag : project.getTags()) {
-            flag = policy.getTags().stream().anyMatch(policyTag -> policyTag.getId() == projectTag.getId());
-            if (flag) {
-                break;
-            }
-        }
-        return flag;
-    }
-
-
-    private boolean isPolicyAssignedToParentProject(Policy policy, Project child) {
-        if (child.getParent() == null) {
-            return false;
-        }
-        if (policy.getProjects().stream().anyMatch(p -> p.getId() == child.getParent().getId())) {
-            return true;
-        }
-        return isPolicyAssignedToParentProject(policy, child.getParent());
-    }
 }
\ No newline at end of file
@@ -0,0 +1,344 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import com.google.common.collect.Lists;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.RepositoryMetaComponent;
+import org.dependencytrack.model.RepositoryType;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.parser.spdx.expression.SpdxExpressionParser;
+import org.dependencytrack.parser.spdx.expression.model.SpdxExpression;
+import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.RepositoryQueryManager.RepositoryMetaComponentSearch;
+
+import javax.jdo.Query;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data required by {@link PolicyEvaluator}s to evaluate many {@link Component}s at once.
+ * <p>
+ * Policies are evaluated according to a {@link PolicyEvaluationPlan}, which is compiled once and may be
+ * shared by multiple contexts. Violations must reference conditions that are managed by the
+ * {@link QueryManager} of the context, which {@link #getPolicyCondition(PolicyCondition)} provides.
+ * <p>
+ * Before components are evaluated, {@link #prefetch(Collection)} loads their vulnerabilities,
+ * licenses and repository metadata with a few queries per batch of components, rather than with
+ * a few queries per component, policy and condition. Only data that is required by the subjects
+ * of the compiled policies is loaded.
+ * <p>
+ * Mutable and not threadsafe!
+ *
+ * @since 4.11.0
+ */
+public final class PolicyEvaluationContext {
+
+    private static final int QUERY_BATCH_SIZE = 1000;
+
+    private static final Set<PolicyCondition.Subject> VULNERABILITY_SUBJECTS = EnumSet.of(
+            PolicyCondition.Subject.SEVERITY, PolicyCondition.Subject.CWE, PolicyCondition.Subject.VULNERABILITY_ID);
+    private static final Set<PolicyCondition.Subject> LICENSE_SUBJECTS = EnumSet.of(
+            PolicyCondition.Subject.LICENSE, PolicyCondition.Subject.LICENSE_GROUP);
+    private static final Set<PolicyCondition.Subject> REPOSITORY_META_SUBJECTS = EnumSet.of(
+            PolicyCondition.Subject.AGE, PolicyCondition.Subject.VERSION_DISTANCE);
+
+    private final QueryManager qm;
+    private final PolicyEvaluationPlan plan;
+    private final Map<String, License> licensesBySpdxId = new HashMap<>();
+    private Map<Long, PolicyCondition> conditionsById;
+
+    private final Map<Long, List<Vulnerability>> vulnerabilitiesByComponentId = new HashMap<>();
+    private final Map<Long, SpdxExpression> spdxExpressionsByComponentId = new HashMap<>();
+    private final Map<RepositoryMetaComponentSearch, RepositoryMetaComponent> repositoryMetaComponents = new HashMap<>();
+    private final Set<Long> prefetchedComponentIds = new HashSet<>();
+
+    PolicyEvaluationContext(final QueryManager qm, final PolicyEvaluationPlan plan) {
+        this.qm = qm;
+        this.plan = plan;
+    }
+
+    /**
+     * @return all compiled policies
+     */
+    List<PolicyEvaluationPlan.CompiledPolicy> getPolicies() {
+        return plan.getPolicies();
+    }
+
+    List<PolicyCondition> getConditions(final Policy policy, final PolicyCondition.Subject subject) {
+        final PolicyEvaluationPlan.CompiledPolicy compiledPolicy = plan.getPolicy(policy.getId());
+        return compiledPolicy != null ? compiledPolicy.getConditions(subject) : null;
+    }
+
+    /**
+     * The conditions of the plan are detached, and thus can't be referenced by persistent objects.
+     * Managed conditions are loaded with a single query the first time one is requested.
+     *
+     * @param condition a condition of the plan
+     * @return the condition, as managed by the {@link QueryManager} of this context
+     */
+    PolicyCondition getPolicyCondition(final PolicyCondition condition) {
+        if (conditionsById == null) {
+            conditionsById = new HashMap<>();
+            for (final List<Long> batch : Lists.partition(List.copyOf(plan.getConditionIds()), QUERY_BATCH_SIZE)) {
+                final Query<PolicyCondition> query = qm.getPersistenceManager().newQuery(PolicyCondition.class, ":ids.contains(id)");
+                query.setParameters(batch);
+                for (final PolicyCondition managedCondition : query.executeList()) {
+                    conditionsById.put(managedCondition.getId(), managedCondition);
+                }
+            }
+        }
+        final PolicyCondition managedCondition = conditionsById.get(condition.getId());
+        return managedCondition != null ? managedCondition : condition;
+    }
+
+    /**
+     * Loads the given {@link Component}s, and all data required to evaluate them.
+     * Data prefetched for previous batches is discarded.
+     *
+     * @param componentIds the IDs of the components to load
+     * @return the loaded components, in the order of {@code componentIds}
+     */
+    List<Component> prefetch(final Collection<Long> componentIds) {
+        vulnerabilitiesByComponentId.clear();
+        spdxExpressionsByComponentId.clear();
+        repositoryMetaComponents.clear();
+        prefetchedComponentIds.clear();
+
+        final Map<Long, Component> componentsById = new HashMap<>();
+        for (final List<Long> batch : Lists.partition(List.copyOf(componentIds), QUERY_BATCH_SIZE)) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class, ":ids.contains(id)");
+            query.setParameters(batch);
+            for (final Component component : query.executeList()) {
+                componentsById.put(component.getId(), component);
+            }
+        }
+        final List<Component> components = componentIds.stream()
+                .map(componentsById::get)
+                .filter(component -> component != null)
+                .toList();
+        prefetchedComponentIds.addAll(componentsById.keySet());
+
+        if (plan.hasAnySubject(VULNERABILITY_SUBJECTS)) {
+            prefetchVulnerabilities(componentsById.keySet());
+        }
+        if (plan.hasAnySubject(LICENSE_SUBJECTS)) {
+            prefetchSpdxExpressions(components);
+        }
+        if (plan.hasAnySubject(REPOSITORY_META_SUBJECTS)) {
+            prefetchRepositoryMetaComponents(components);
+        }
+        return components;
+    }
+
+    private void prefetchVulnerabilities(final Collection<Long> componentIds) {
+        final Map<Long, Set<Long>> vulnerabilityIdsByComponentId = new HashMap<>();
+        final Set<Long> vulnerabilityIds = new HashSet<>();
+        for (final List<Long> batch : Lists.partition(List.copyOf(componentIds), QUERY_BATCH_SIZE)) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class);
+            query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+            query.setFilter(":ids.contains(id) && vulnerabilities.contains(vuln)");
+            query.setParameters(batch);
+            query.setResult("id, vuln.id");
+            try {
+                for (final Object[] row : query.executeResultList(Object[].class)) {
+                    vulnerabilityIdsByComponentId.computeIfAbsent((Long) row[0], ignored -> new HashSet<>()).add((Long) row[1]);
+                    vulnerabilityIds.add((Long) row[1]);
+                }
+            } finally {
+                query.closeAll();
+            }
+
+            final Query<Analysis> suppressionQuery = qm.getPersistenceManager().newQuery(Analysis.class,
+                    ":ids.contains(component.id) && suppressed == true");
+            suppressionQuery.setParameters(batch);
+            suppressionQuery.setResult("component.id, vulnerability.id");
+            try {
+                for (final Object[] row : suppressionQuery.executeResultList(Object[].class)) {
+                    final Set<Long> componentVulnerabilityIds = vulnerabilityIdsByComponentId.get((Long) row[0]);
+                    if (componentVulnerabilityIds != null) {
+                        componentVulnerabilityIds.remove((Long) row[1]);
+                    }
+                }
+            } finally {
+                suppressionQuery.closeAll();
+            }
+        }
+
+        final Map<Long, Vulnerability> vulnerabilitiesById = new HashMap<>();
+        for (final List<Long> batch : Lists.partition(List.copyOf(vulnerabilityIds), QUERY_BATCH_SIZE)) {
+            final Query<Vulnerability> query = qm.getPersistenceManager().newQuery(Vulnerability.class, ":ids.contains(id)");
+            query.setParameters(batch);
+            for (final Vulnerability vulnerability : query.executeList()) {
+                vulnerabilitiesById.put(vulnerability.getId(), vulnerability);
+            }
+        }
+
+        for (final Long componentId : componentIds) {
+            vulnerabilitiesByComponentId.put(componentId, vulnerabilityIdsByComponentId
+                    .getOrDefault(componentId, Collections.emptySet()).stream()
+                    .map(vulnerabilitiesById::get)
+                    .filter(vulnerability -> vulnerability != null)
+                    .toList());
+        }
+    }
+
+    private void prefetchSpdxExpressions(final List<Component> components) {
+        // Mirrors LicenseGroupPolicyEvaluator#getSpdxExpressionFromComponent, but fetches the SPDX IDs
+        // of resolved licenses for the entire batch, rather than loading the license of each component.
+        final Map<Long, String> resolvedLicenseIdsByComponentId = new HashMap<>();
+        final List<Long> componentIds = components.stream().map(Component::getId).toList();
+        for (final List<Long> batch : Lists.partition(componentIds, QUERY_BATCH_SIZE)) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class,
+                    ":ids.contains(id) && resolvedLicense != null");
+            query.setParameters(batch);
+            query.setResult("id, resolvedLicense.licenseId");
+            try {
+                for (final Object[] row : query.executeResultList(Object[].class)) {
+                    resolvedLicenseIdsByComponentId.put((Long) row[0], (String) row[1]);
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+        for (final Component component : components) {
+            final String resolvedLicenseId = resolvedLicenseIdsByComponentId.get(component.getId());
+            final SpdxExpression expression;
+            if (resolvedLicenseId != null) {
+                expression = new SpdxExpression(resolvedLicenseId);
+            } else if (component.getLicenseExpression() != null) {
+                expression = new SpdxExpressionParser().parse(component.getLicenseExpression());
+            } else if (component.getLicense() != null) {
+                expression = new SpdxExpression(component.getLicense());
+            } else {
+                expression = new SpdxExpression("unresolved");
+            }
+            spdxExpressionsByComponentId.put(component.getId(), expression);
+        }
+    }
+
+    private void prefetchRepositoryMetaComponents(final List<Component> components) {
+        final Set<RepositoryMetaComponentSearch> searches = new HashSet<>();
+        for (final Component component : components) {
+            final RepositoryMetaComponentSearch search = getRepositoryMetaComponentSearch(component);
+            if (search != null) {
+                searches.add(search);
+            }
+        }
+        if (searches.isEmpty()) {
+            return;
+        }
+        for (final RepositoryMetaComponent metaComponent : qm.getRepositoryMetaComponentsBatch(List.copyOf(searches))) {
+            repositoryMetaComponents.put(new RepositoryMetaComponentSearch(metaComponent.getRepositoryType(),
+                    metaComponent.getNamespace(), metaComponent.getName()), metaComponent);
+        }
+    }
+
+    /**
+     * @return the non-suppressed vulnerabilities of the component, or {@code null} when they were not prefetched
+     */
+    List<Vulnerability> getVulnerabilities(final Component component) {
+        return vulnerabilitiesByComponentId.get(component.getId());
+    }
+
+    /**
+     * @return the parsed license expression of the component, or {@code null} when it was not prefetched
+     */
+    SpdxExpression getSpdxExpression(final Component component) {
+        return spdxExpressionsByComponentId.get(component.getId());
+    }
+
+    /**
+     * @return whether {@link #getRepositoryMetaComponent(Component)} can be answered from prefetched data
+     */
+    boolean hasRepositoryMetaComponent(final Component component) {
+        return prefetchedComponentIds.contains(component.getId()) && plan.hasAnySubject(REPOSITORY_META_SUBJECTS);
+    }
+
+    /**
+     * @return the repository metadata of the component, or {@code null} when none exists
+     */
+    RepositoryMetaComponent getRepositoryMetaComponent(final Component component) {
+        final RepositoryMetaComponentSearch search = getRepositoryMetaComponentSearch(component);
+        return search != null ? repositoryMetaComponents.get(search) : null;
+    }
+
+    /**
+     * @return whether {@code uuid} was referenced by a license group condition, i.e. {@link #getLicenseGroup(String)} may be used
+     */
+    boolean hasLicenseGroup(final String uuid) {
+        return plan.hasLicenseGroup(uuid);
+    }
+
+    LicenseGroup getLicenseGroup(final String uuid) {
+        return plan.getLicenseGroup(uuid);
+    }
+
+    /**
+     * @return whether {@code uuid} was referenced by a license condition, i.e. {@link #getLicenseByUuid(String)} may be used
+     */
+    boolean hasLicenseByUuid(final String uuid) {
+        return plan.hasLicenseByUuid(uuid);
+    }
+
+    License getLicenseByUuid(final String uuid) {
+        return plan.getLicenseByUuid(uuid);
+    }
+
+    /**
+     * @return the license with the given SPDX ID, or {@code null} when no such license exists; Lookups are memoized
+     */
+    License getLicense(final String spdxId) {
+        if (!licensesBySpdxId.containsKey(spdxId)) {
+            licensesBySpdxId.put(spdxId, qm.getLicense(spdxId));
+        }
+        return licensesBySpdxId.get(spdxId);
+    }
+
+    /**
+     * @return whether the license group contains the license, or {@code null} when the license group was not materialized
+     */
+    Boolean doesLicenseGroupContainLicense(final LicenseGroup licenseGroup, final License license) {
+        final Set<Long> licenseIds = plan.getLicenseIds(licenseGroup);
+        return licenseIds != null ? licenseIds.contains(license.getId()) : null;
+    }
+
+    static RepositoryMetaComponentSearch getRepositoryMetaComponentSearch(final Component component) {
+        if (component.getPurl() == null) {
+            return null;
+        }
+        final RepositoryType repoType = RepositoryType.resolve(component.getPurl());
+        if (RepositoryType.UNSUPPORTED == repoType) {
+            return null;
+        }
+        return new RepositoryMetaComponentSearch(repoType, component.getPurl().getNamespace(), component.getPurl().getName());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.persistence.QueryManager;
+
+import javax.jdo.PersistenceManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link Policy}s compiled for evaluation: their conditions are grouped by {@link PolicyCondition.Subject},
+ * and the {@link LicenseGroup}s and {@link License}s referenced by conditions are loaded once, with license
+ * groups materialized into sets of license IDs.
+ * <p>
+ * All objects are detached from the {@link QueryManager} used to compile the plan, so that a single
+ * plan can be shared by {@link PolicyEvaluationContext}s of multiple workers. The plan must not be
+ * modified after it has been compiled.
+ *
+ * @since 4.11.0
+ */
+final class PolicyEvaluationPlan {
+
+    /**
+     * A {@link Policy} with its conditions grouped by subject.
+     */
+    record CompiledPolicy(Policy policy, Map<PolicyCondition.Subject, List<PolicyCondition>> conditionsBySubject) {
+
+        List<PolicyCondition> getConditions(final PolicyCondition.Subject subject) {
+            return conditionsBySubject.getOrDefault(subject, Collections.emptyList());
+        }
+
+    }
+
+    private final List<CompiledPolicy> policies;
+    private final Map<Long, CompiledPolicy> policiesById = new HashMap<>();
+    private final Set<Long> conditionIds = new HashSet<>();
+    private final Set<PolicyCondition.Subject> subjects = EnumSet.noneOf(PolicyCondition.Subject.class);
+    private final Map<String, LicenseGroup> licenseGroupsByUuid = new HashMap<>();
+    private final Map<Long, Set<Long>> licenseIdsByGroupId = new HashMap<>();
+    private final Map<String, License> licensesByUuid = new HashMap<>();
+
+    PolicyEvaluationPlan(final QueryManager qm, final Collection<Policy> policies) {
+        final PersistenceManager pm = qm.getPersistenceManager();
+        this.policies = new ArrayList<>(policies.size());
+        for (final Policy policy : pm.detachCopyAll(policies)) {
+            final var conditionsBySubject = new EnumMap<PolicyCondition.Subject, List<PolicyCondition>>(PolicyCondition.Subject.class);
+            if (policy.getPolicyConditions() != null) {
+                for (final PolicyCondition condition : policy.getPolicyConditions()) {
+                    if (condition.getSubject() != null) {
+                        conditionsBySubject.computeIfAbsent(condition.getSubject(), ignored -> new ArrayList<>()).add(condition);
+                        conditionIds.add(condition.getId());
+                        compileCondition(qm, condition);
+                    }
+                }
+            }
+            final var compiledPolicy = new CompiledPolicy(policy, Collections.unmodifiableMap(conditionsBySubject));
+            this.policies.add(compiledPolicy);
+            this.policiesById.put(policy.getId(), compiledPolicy);
+            this.subjects.addAll(conditionsBySubject.keySet());
+        }
+    }
+
+    private void compileCondition(final QueryManager qm, final PolicyCondition condition) {
+        if (condition.getValue() == null) {
+            return;
+        }
+        if (PolicyCondition.Subject.LICENSE_GROUP == condition.getSubject()
+                && !licenseGroupsByUuid.containsKey(condition.getValue())) {
+            final LicenseGroup licenseGroup = qm.getObjectByUuid(LicenseGroup.class, condition.getValue());
+            if (licenseGroup != null) {
+                final Set<Long> licenseIds = new HashSet<>();
+                if (licenseGroup.getLicenses() != null) {
+                    licenseGroup.getLicenses().forEach(license -> licenseIds.add(license.getId()));
+                }
+                licenseIdsByGroupId.put(licenseGroup.getId(), Collections.unmodifiableSet(licenseIds));
+                licenseGroupsByUuid.put(condition.getValue(), qm.getPersistenceManager().detachCopy(licenseGroup));
+            } else {
+                licenseGroupsByUuid.put(condition.getValue(), null);
+            }
+        } else if (PolicyCondition.Subject.LICENSE == condition.getSubject()
+                && !"unresolved".equals(condition.getValue())
+                && !licensesByUuid.containsKey(condition.getValue())) {
+            final License license = qm.getObjectByUuid(License.class, condition.getValue());
+            licensesByUuid.put(condition.getValue(), license != null ? qm.getPersistenceManager().detachCopy(license) : null);
+        }
+    }
+
+    /**
+     * @return all compiled policies
+     */
+    List<CompiledPolicy> getPolicies() {
+        return Collections.unmodifiableList(policies);
+    }
+
+    CompiledPolicy getPolicy(final long policyId) {
+        return policiesById.get(policyId);
+    }
+
+    /**
+     * @return the IDs of all conditions of the compiled policies
+     */
+    Set<Long> getConditionIds() {
+        return Collections.unmodifiableSet(conditionIds);
+    }
+
+    /**
+     * @return whether any of the compiled policies has a condition with any of the given subjects
+     */
+    boolean hasAnySubject(final Set<PolicyCondition.Subject> subjects) {
+        return !Collections.disjoint(this.subjects, subjects);
+    }
+
+    boolean hasLicenseGroup(final String uuid) {
+        return licenseGroupsByUuid.containsKey(uuid);
+    }
+
+    LicenseGroup getLicenseGroup(final String uuid) {
+        return licenseGroupsByUuid.get(uuid);
+    }
+
+    /**
+     * @return the IDs of the licenses in the license group, or {@code null} when the license group was not materialized
+     */
+    Set<Long> getLicenseIds(final LicenseGroup licenseGroup) {
+        return licenseIdsByGroupId.get(licenseGroup.getId());
+    }
+
+    boolean hasLicenseByUuid(final String uuid) {
+        return licensesByUuid.containsKey(uuid);
+    }
+
+    License getLicenseByUuid(final String uuid) {
+        return licensesByUuid.get(uuid);
+    }
+
+}
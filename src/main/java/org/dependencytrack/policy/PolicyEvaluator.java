@@ -36,6 +36,15 @@ public interface PolicyEvaluator {
 
     void setQueryManager(final QueryManager qm);
 
+    /**
+     * Provides data that was compiled and prefetched for the evaluation of many components.
+     * Evaluators fall back to querying the {@link QueryManager} when no context is set.
+     * @param context the {@link PolicyEvaluationContext}, or {@code null} to clear it
+     * @since 4.11.0
+     */
+    default void setEvaluationContext(final PolicyEvaluationContext context) {
+    }
+
     /**
      * Returns the Subject for which a PolicyEvaluator is capable of analyzing.
      * @return A PolicyCondition Subject
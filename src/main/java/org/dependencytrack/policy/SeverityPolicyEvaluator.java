@@ -56,7 +56,7 @@ public class SeverityPolicyEvaluator extends AbstractPolicyEvaluator {
             return violations;
         }
         //final Component component = qm.getObjectById(Component.class, c.getId());
-        for (final Vulnerability vulnerability : qm.getAllVulnerabilities(component, false)) {
+        for (final Vulnerability vulnerability : getVulnerabilities(component)) {
             for (final PolicyCondition condition: policyConditions) {
                 LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
                 if (PolicyCondition.Operator.IS == condition.getOperator()) {
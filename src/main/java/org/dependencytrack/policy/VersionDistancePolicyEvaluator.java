@@ -25,8 +25,6 @@ import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.PolicyCondition.Operator;
 import org.dependencytrack.model.RepositoryMetaComponent;
-import org.dependencytrack.model.RepositoryType;
-import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.VersionDistance;
 import org.json.JSONObject;
 
@@ -73,17 +71,7 @@ public class VersionDistancePolicyEvaluator extends AbstractPolicyEvaluator {
             return violations;
         }
 
-        final RepositoryType repoType = RepositoryType.resolve(component.getPurl());
-        if (RepositoryType.UNSUPPORTED == repoType) {
-            return violations;
-        }
-
-        final RepositoryMetaComponent metaComponent;
-        try (final var qm = new QueryManager()) {
-            metaComponent = qm.getRepositoryMetaComponent(repoType,
-                    component.getPurl().getNamespace(), component.getPurl().getName());
-            qm.getPersistenceManager().detachCopy(metaComponent);
-        }
+        final RepositoryMetaComponent metaComponent = getRepositoryMetaComponent(component);
         if (metaComponent == null || metaComponent.getLatestVersion() == null) {
             return violations;
         }
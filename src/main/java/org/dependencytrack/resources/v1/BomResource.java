@@ -18,6 +18,7 @@
  */
 package org.dependencytrack.resources.v1;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.server.auth.PermissionRequired;
@@ -30,10 +31,12 @@ import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.cyclonedx.CycloneDxMediaType;
 import org.cyclonedx.exception.GeneratorException;
 import org.dependencytrack.auth.Permissions;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.BomUploadEvent;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Project;
@@ -42,6 +45,7 @@ import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.resources.v1.vo.BomSubmitRequest;
 import org.dependencytrack.resources.v1.vo.BomUploadResponse;
 import org.dependencytrack.resources.v1.vo.IsTokenBeingProcessedResponse;
+import org.dependencytrack.tasks.BomUploadProcessingExecutor;
 import org.glassfish.jersey.media.multipart.BodyPartEntity;
 import org.glassfish.jersey.media.multipart.FormDataBodyPart;
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
@@ -62,6 +66,7 @@ import javax.ws.rs.core.Response;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.security.Principal;
 import java.util.Base64;
 import java.util.Collections;
@@ -333,7 +338,9 @@ public class BomResource extends AlpineResource {
             @ApiParam(value = "The UUID of the token to query", required = true)
             @PathParam("uuid") String uuid) {
 
-        final boolean value = Event.isEventBeingProcessed(UUID.fromString(uuid));
+        final UUID token = UUID.fromString(uuid);
+        final boolean value = Event.isEventBeingProcessed(token)
+                || BomUploadProcessingExecutor.getInstance().isEventBeingProcessed(token);
 
         IsTokenBeingProcessedResponse response = new IsTokenBeingProcessedResponse();
 
@@ -352,8 +359,7 @@ public class BomResource extends AlpineResource {
             }
             final byte[] decoded = Base64.getDecoder().decode(encodedBomData);
             try (final ByteArrayInputStream bain = new ByteArrayInputStream(decoded)) {
-                final byte[] content = IOUtils.toByteArray(new BOMInputStream((bain)));
-                final BomUploadEvent bomUploadEvent = new BomUploadEvent(project.getUuid(), content);
+                final BomUploadEvent bomUploadEvent = createBomUploadEvent(project, bain);
                 Event.dispatch(bomUploadEvent);
                 return Response.ok(Collections.singletonMap("token", bomUploadEvent.getChainIdentifier())).build();
             } catch (IOException e) {
@@ -375,10 +381,9 @@ public class BomResource extends AlpineResource {
                     return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified project is forbidden").build();
                 }
                 try (InputStream in = bodyPartEntity.getInputStream()) {
-                    final byte[] content = IOUtils.toByteArray(new BOMInputStream((in)));
                     // todo: make option to combine all the bom data so components are reconciled in a single pass.
                     // todo: https://github.com/DependencyTrack/dependency-track/issues/130
-                    final BomUploadEvent bomUploadEvent = new BomUploadEvent(project.getUuid(), content);
+                    final BomUploadEvent bomUploadEvent = createBomUploadEvent(project, in);
                     Event.dispatch(bomUploadEvent);
 
                     BomUploadResponse bomUploadResponse = new BomUploadResponse();
@@ -396,4 +401,35 @@ public class BomResource extends AlpineResource {
         return Response.ok().build();
     }
 
+    /**
+     * Creates a {@link BomUploadEvent} for a BOM read from a given {@link InputStream}.
+     * <p>
+     * BOMs larger than {@link ConfigKey#BOM_UPLOAD_STREAMING_THRESHOLD_BYTES} are buffered
+     * in a temporary file rather than in memory. Ownership of that file is passed on to
+     * the event, and it will be deleted once the BOM has been processed.
+     */
+    private static BomUploadEvent createBomUploadEvent(final Project project, final InputStream inputStream) throws IOException {
+        final DeferredFileOutputStream outputStream = DeferredFileOutputStream.builder()
+                .setThreshold(Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_STREAMING_THRESHOLD_BYTES))
+                .setPrefix("dtrack-bom-")
+                .setSuffix(".tmp")
+                .get();
+        try (outputStream) {
+            IOUtils.copy(new BOMInputStream(inputStream), outputStream);
+        } catch (IOException e) {
+            if (outputStream.getFile() != null) {
+                Files.deleteIfExists(outputStream.getFile().toPath());
+            }
+            throw e;
+        }
+
+        if (outputStream.isInMemory()) {
+            return new BomUploadEvent(project.getUuid(), outputStream.getData());
+        }
+
+        LOGGER.debug("BOM uploaded to project %s exceeds %d bytes; Buffered in %s"
+                .formatted(project.getUuid(), outputStream.getThreshold(), outputStream.getFile()));
+        return new BomUploadEvent(project.getUuid(), outputStream.getFile());
+    }
+
 }
@@ -25,6 +25,7 @@ import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
@@ -33,23 +34,28 @@ import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
+import org.dependencytrack.persistence.DependencyPaths;
+import org.dependencytrack.persistence.ProjectDependencyGraph;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.persistence.RepositoryQueryManager;
 import org.dependencytrack.resources.v1.vo.DependencyGraphResponse;
+import org.dependencytrack.resources.v1.vo.DependencyPathsResponse;
 
 import javax.json.Json;
-import javax.json.JsonArray;
 import javax.json.JsonException;
 import javax.json.JsonReader;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -63,6 +69,12 @@ import java.util.UUID;
 @Api(value = "dependencyGraph", authorizations = @Authorization(value = "X-Api-Key"))
 public class DependencyGraphResource extends AlpineResource {
 
+    private static final int DEFAULT_MAX_PATHS = 100;
+
+    private static final int MAX_PATHS = 1000;
+
+    private static final int MAX_PATH_DEPTH = 100;
+
     @GET
     @Path("/project/{uuid}/directDependencies")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -93,7 +105,8 @@ public class DependencyGraphResource extends AlpineResource {
             final String directDependenciesJSON = project.getDirectDependencies();
 
             if (directDependenciesJSON != null) {
-                final List<DependencyGraphResponse> response = getDependencyGraphFromDirectDependenciesJSON(qm, directDependenciesJSON);
+                final ProjectDependencyGraph graph = qm.getDependencyGraph(project);
+                final List<DependencyGraphResponse> response = getDependencyGraph(qm, graph, graph.getDirectDependencies(), directDependenciesJSON);
                 return Response.ok(response).build();
             } else {
                 return Response.ok(List.of()).build();
@@ -130,7 +143,10 @@ public class DependencyGraphResource extends AlpineResource {
             final String directDependenciesJSON = component.getDirectDependencies();
 
             if (directDependenciesJSON != null) {
-                final List<DependencyGraphResponse> response = getDependencyGraphFromDirectDependenciesJSON(qm, directDependenciesJSON);
+                final ProjectDependencyGraph graph = qm.getDependencyGraph(component.getProject());
+                final int node = graph.indexOf(component.getId());
+                final int[] children = node >= 0 ? graph.getChildren(node) : new int[0];
+                final List<DependencyGraphResponse> response = getDependencyGraph(qm, graph, children, directDependenciesJSON);
                 return Response.ok(response).build();
             } else {
                 return Response.ok(List.of()).build();
@@ -139,32 +155,68 @@ public class DependencyGraphResource extends AlpineResource {
     }
 
 
+    @GET
+    @Path("/component/{uuid}/paths")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(
+            value = "Returns the paths through the dependency graph of a project that lead to a component",
+            notes = "The number and length of paths are limited, as they can grow exponentially with the size of the graph. " +
+                    "The truncated flag of the response tells whether paths were omitted.",
+            response = DependencyPathsResponse.class
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Access to the specified component is forbidden"),
+            @ApiResponse(code = 404, message = "The component could not be found"),
+    })
+    @PermissionRequired(Permissions.Constants.VIEW_PORTFOLIO)
+    public Response getDependencyPathsByComponentUuid(
+            @ApiParam(value = "The UUID of the component", required = true)
+            @PathParam("uuid") String uuid,
+            @ApiParam(value = "The maximum number of paths to return (defaults to " + DEFAULT_MAX_PATHS + ", at most " + MAX_PATHS + ")")
+            @DefaultValue("" + DEFAULT_MAX_PATHS) @QueryParam("maxPaths") int maxPaths,
+            @ApiParam(value = "The maximum number of components of a path (defaults to " + MAX_PATH_DEPTH + ")")
+            @DefaultValue("" + MAX_PATH_DEPTH) @QueryParam("maxDepth") int maxDepth) {
+        try (QueryManager qm = new QueryManager()) {
+            final Component component = qm.getObjectByUuid(Component.class, uuid);
+            if (component == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity("The component could not be found.").build();
+            }
+
+            if (!qm.hasAccess(super.getPrincipal(), component.getProject())) {
+                return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified component is forbidden").build();
+            }
+
+            final DependencyPaths dependencyPaths = qm.getDependencyPaths(component,
+                    Math.max(1, Math.min(maxPaths, MAX_PATHS)), Math.max(1, Math.min(maxDepth, MAX_PATH_DEPTH)));
+            final List<List<DependencyGraphResponse>> paths = dependencyPaths.paths().stream()
+                    .map(path -> path.stream()
+                            .map(pathComponent -> new DependencyGraphResponse(pathComponent.getUuid(), pathComponent.getName(),
+                                    pathComponent.getVersion(), pathComponent.getPurl() != null ? pathComponent.getPurl().canonicalize() : null, null, null))
+                            .toList())
+                    .toList();
+            return Response.ok(new DependencyPathsResponse(paths, dependencyPaths.truncated())).build();
+        }
+    }
+
     /**
-     * This method takes a {@link QueryManager} and a JSON string representing direct dependencies,
+     * This method takes a {@link QueryManager} and nodes of a {@link ProjectDependencyGraph},
      * and returns a list of {@link DependencyGraphResponse} objects.
      *
      * @param qm                     the {@link QueryManager} used to fetch dependencies
-     * @param directDependenciesJSON the JSON string representing direct dependencies
+     * @param graph                  the {@link ProjectDependencyGraph} the nodes belong to
+     * @param nodes                  the nodes of the components to return
+     * @param directDependenciesJSON the JSON string representing direct dependencies, used to resolve services
      * @return a list of {@link DependencyGraphResponse} objects representing the dependency graph
      * @since 4.9.0
      */
-    private List<DependencyGraphResponse> getDependencyGraphFromDirectDependenciesJSON(final QueryManager qm, final String directDependenciesJSON) {
-        // Parse the JSON to collect the UUIDs
-        JsonArray directDependencies = null;
-
-        try (final JsonReader jsonReader = Json.createReader(new StringReader(directDependenciesJSON))) {
-            directDependencies = jsonReader.readArray();
-        } catch (JsonException e) {
-            return List.of();
-        }
-
-        final List<DependencyGraphResponse> response = new ArrayList<>(directDependencies.size());
-
-        // Collect all the UUIDs
-        final List<UUID> uuids = directDependencies.stream().map(directDependency -> directDependency.asJsonObject().getString("uuid")).map(UUID::fromString).toList();
+    private List<DependencyGraphResponse> getDependencyGraph(final QueryManager qm, final ProjectDependencyGraph graph,
+                                                             final int[] nodes, final String directDependenciesJSON) {
+        final List<DependencyGraphResponse> response = new ArrayList<>(nodes.length);
 
         // Fetch all child components
-        final List<DependencyGraphResponse> components = qm.getComponentDependencyGraphByUuids(uuids);
+        final List<UUID> uuids = Arrays.stream(nodes).mapToObj(graph::getUuid).toList();
+        final List<DependencyGraphResponse> components = uuids.isEmpty() ? List.of() : qm.getComponentDependencyGraphByUuids(uuids);
 
         // Map the components to their respective repository types
         final HashMap<DependencyGraphResponse, RepositoryQueryManager.RepositoryMetaComponentSearch> repoMetaComponentSearchListHashMap = new HashMap<>(components.size());
@@ -223,11 +275,27 @@ public class DependencyGraphResource extends AlpineResource {
             }
         }
 
-        // if the response size is not equal to the uuids size, then we have some services to add
-        if (uuids.size() != components.size()) {
-            response.addAll(qm.getServiceDependencyGraphByUuids(uuids));
+        // Services are not part of the dependency graph, so they can only be resolved from the JSON
+        if (graph.hasServiceComponents()) {
+            final List<UUID> serviceUuids = getDirectDependencyUuids(directDependenciesJSON).stream()
+                    .filter(uuid -> graph.indexOf(uuid) < 0)
+                    .toList();
+            if (!serviceUuids.isEmpty()) {
+                response.addAll(qm.getServiceDependencyGraphByUuids(serviceUuids));
+            }
         }
 
         return response;
     }
+
+    private static List<UUID> getDirectDependencyUuids(final String directDependenciesJSON) {
+        try (final JsonReader jsonReader = Json.createReader(new StringReader(directDependenciesJSON))) {
+            return jsonReader.readArray().stream()
+                    .map(directDependency -> directDependency.asJsonObject().getString("uuid"))
+                    .map(UUID::fromString)
+                    .toList();
+        } catch (JsonException e) {
+            return List.of();
+        }
+    }
 }
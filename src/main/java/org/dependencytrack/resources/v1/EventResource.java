@@ -27,6 +27,7 @@ import io.swagger.annotations.Authorization;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import org.dependencytrack.resources.v1.vo.IsTokenBeingProcessedResponse;
+import org.dependencytrack.tasks.BomUploadProcessingExecutor;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -61,7 +62,9 @@ public class EventResource extends AlpineResource {
     public Response isTokenBeingProcessed (
             @ApiParam(value = "The UUID of the token to query", required = true)
             @PathParam("uuid") String uuid) {
-        final boolean value = Event.isEventBeingProcessed(UUID.fromString(uuid));
+        final UUID token = UUID.fromString(uuid);
+        final boolean value = Event.isEventBeingProcessed(token)
+                || BomUploadProcessingExecutor.getInstance().isEventBeingProcessed(token);
         IsTokenBeingProcessedResponse response = new IsTokenBeingProcessedResponse();
         response.setProcessing(value);
         return Response.ok(response).build();
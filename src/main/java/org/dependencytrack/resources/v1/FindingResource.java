@@ -36,6 +36,7 @@ import org.dependencytrack.event.VulnerabilityAnalysisEvent;
 import org.dependencytrack.integrations.FindingPackagingFormat;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Finding;
+import org.dependencytrack.model.FindingsPage;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.persistence.QueryManager;
@@ -46,11 +47,11 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * JAX-RS resources for processing findings.
@@ -63,17 +64,25 @@ import java.util.stream.Collectors;
 public class FindingResource extends AlpineResource {
 
     private static final Logger LOGGER = Logger.getLogger(FindingResource.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @GET
     @Path("/project/{uuid}")
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation(
             value = "Returns a list of all findings for a specific project",
+            notes = "When paginated, pages are retrieved by keyset: the cursor of the next page is returned in the " +
+                    NEXT_CURSOR_HEADER + " header. Findings can be sorted by component.name, vulnerability.vulnId, " +
+                    "and attribution.attributedOn.",
             response = Finding.class,
             responseContainer = "List",
-            responseHeaders = @ResponseHeader(name = TOTAL_COUNT_HEADER, response = Long.class, description = "The total number of findings")
+            responseHeaders = {
+                    @ResponseHeader(name = TOTAL_COUNT_HEADER, response = Long.class, description = "The total number of findings"),
+                    @ResponseHeader(name = NEXT_CURSOR_HEADER, response = String.class, description = "The cursor of the next page, if any")
+            }
     )
     @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "Invalid cursor or sort field"),
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 403, message = "Access to the specified project is forbidden"),
             @ApiResponse(code = 404, message = "The project could not be found")
@@ -83,19 +92,28 @@ public class FindingResource extends AlpineResource {
                                          @ApiParam(value = "Optionally includes suppressed findings")
                                          @QueryParam("suppressed") boolean suppressed,
                                          @ApiParam(value = "Optionally limit findings to specific sources of vulnerability intelligence")
-                                         @QueryParam("source") Vulnerability.Source source) {
+                                         @QueryParam("source") Vulnerability.Source source,
+                                         @ApiParam(value = "Optionally continue after the page the cursor was returned for")
+                                         @QueryParam("cursor") String cursor) {
         try (QueryManager qm = new QueryManager(getAlpineRequest())) {
             final Project project = qm.getObjectByUuid(Project.class, uuid);
             if (project != null) {
                 if (qm.hasAccess(super.getPrincipal(), project)) {
-                    //final long totalCount = qm.getVulnerabilityCount(project, suppressed);
-                    final List<Finding> findings = qm.getFindings(project, suppressed);
-                    if (source != null) {
-                        final List<Finding> filteredList = findings.stream().filter(finding -> source.name().equals(finding.getVulnerability().get("source"))).collect(Collectors.toList());
-                        return Response.ok(filteredList).header(TOTAL_COUNT_HEADER, filteredList.size()).build();
-                    } else {
+                    if (cursor == null && !isPaginationRequested()) {
+                        final List<Finding> findings = qm.getFindings(project, suppressed, source);
                         return Response.ok(findings).header(TOTAL_COUNT_HEADER, findings.size()).build();
                     }
+                    final FindingsPage page;
+                    try {
+                        page = qm.getFindingsPage(project, suppressed, source, cursor);
+                    } catch (IllegalArgumentException e) {
+                        return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+                    }
+                    final Response.ResponseBuilder rb = Response.ok(page.findings()).header(TOTAL_COUNT_HEADER, page.totalCount());
+                    if (page.nextCursor() != null) {
+                        rb.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return rb.build();
                 } else {
                     return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified project is forbidden").build();
                 }
@@ -105,6 +123,15 @@ public class FindingResource extends AlpineResource {
         }
     }
 
+    /**
+     * Findings were historically returned all at once, and clients may still rely on that.
+     * Only paginate when a page size was requested explicitly, rather than applying the default page size.
+     */
+    private boolean isPaginationRequested() {
+        final MultivaluedMap<String, String> queryParams = getUriInfo().getQueryParameters();
+        return queryParams.containsKey("pageSize") || queryParams.containsKey("size") || queryParams.containsKey("limit");
+    }
+
     @GET
     @Path("/project/{uuid}/export")
     @Produces(MediaType.APPLICATION_JSON)
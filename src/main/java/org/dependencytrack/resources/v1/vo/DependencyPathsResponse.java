@@ -0,0 +1,32 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.resources.v1.vo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Response-Object that represents the paths through the dependency graph of a project that lead to a component.
+ *
+ * @param paths     the paths, each starting with a direct dependency of the project, and ending with the component itself
+ * @param truncated whether further paths exist, that were omitted due to the limits of the search
+ * @since 4.11.0
+ */
+public record DependencyPathsResponse(List<List<DependencyGraphResponse>> paths, boolean truncated) implements Serializable {
+}
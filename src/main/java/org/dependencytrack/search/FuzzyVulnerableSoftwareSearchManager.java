@@ -29,6 +29,7 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
@@ -163,16 +164,18 @@ public class FuzzyVulnerableSoftwareSearchManager {
         final SearchResult searchResult = new SearchResult();
         final List<Map<String, String>> resultSet = new ArrayList<>();
         IndexManager indexManager = VulnerableSoftwareIndexer.getInstance();
+        IndexSearcher searcher = null;
         try {
             final Query query = indexManager.getQueryParser().parse(luceneQuery);
-            final TopDocs results = indexManager.getIndexSearcher().search(query,1000);
+            searcher = indexManager.acquireSearcher();
+            final TopDocs results = searcher.search(query,1000);
 
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Searching for: " + luceneQuery + " - Total Hits: " + results.totalHits);
             }
 
             for (final ScoreDoc scoreDoc: results.scoreDocs) {
-                final Document doc = indexManager.getIndexSearcher().doc(scoreDoc.doc);
+                final Document doc = searcher.doc(scoreDoc.doc);
                 final Map<String, String> fields = new HashMap<>();
                 for (final IndexableField field: doc.getFields()) {
                     if (StringUtils.isNotBlank(field.stringValue())) {
@@ -211,9 +214,10 @@ public class FuzzyVulnerableSoftwareSearchManager {
                     .content("An I/O Exception occurred while searching Lucene index. Check log for details. " + e.getMessage())
                     .level(NotificationLevel.ERROR)
             );
+        } finally {
+            indexManager.releaseSearcher(searcher);
         }
 
-        indexManager.close();
         return searchResult;
     }
 
@@ -36,14 +36,15 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.CheckIndex;
 import org.apache.lucene.index.CorruptIndexException;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
@@ -81,8 +82,16 @@ import static org.dependencytrack.model.ConfigPropertyConstants.SEARCH_INDEXES_C
 public abstract class IndexManager implements AutoCloseable {
 
     private static final Logger LOGGER = Logger.getLogger(IndexManager.class);
-    private IndexWriter iwriter;
-    private DirectoryReader searchReader;
+
+    /**
+     * Upper bound of the time it takes for changes made through the {@link IndexWriter} to become visible to searches.
+     */
+    private static final double SEARCHER_REFRESH_MAX_STALE_SECONDS = 1.0;
+    private static final double SEARCHER_REFRESH_MIN_STALE_SECONDS = 0.1;
+
+    private volatile IndexWriter iwriter;
+    private volatile SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> searcherRefreshThread;
     private final IndexType indexType;
 
     /**
@@ -179,14 +188,26 @@ public abstract class IndexManager implements AutoCloseable {
 
     /**
      * Opens the index.
+     * <p>
+     * Searchers are obtained from the {@link IndexWriter} in near-real-time, rather than from
+     * the index directory. A background thread refreshes them periodically, so that changes become
+     * visible to searches without having to be committed first.
      * @throws IOException when the index cannot be opened
      * @since 3.0.0
      */
-    protected void openIndex() throws IOException {
+    protected synchronized void openIndex() throws IOException {
+        closeIndex();
         final Analyzer analyzer = new StandardAnalyzer();
         final IndexWriterConfig config = new IndexWriterConfig(analyzer);
         config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-        iwriter = new IndexWriter(getDirectory(), config);
+        final IndexWriter writer = new IndexWriter(getDirectory(), config);
+        searcherManager = new SearcherManager(writer, null);
+        searcherRefreshThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                SEARCHER_REFRESH_MAX_STALE_SECONDS, SEARCHER_REFRESH_MIN_STALE_SECONDS);
+        searcherRefreshThread.setName("Lucene-SearcherRefresh-" + indexType.name().toLowerCase());
+        searcherRefreshThread.setDaemon(true);
+        searcherRefreshThread.start();
+        iwriter = writer;
     }
 
     /**
@@ -196,33 +217,50 @@ public abstract class IndexManager implements AutoCloseable {
      * @since 3.0.0
      */
     protected IndexWriter getIndexWriter() throws IOException {
-        if (iwriter == null || !iwriter.isOpen()) {
-            openIndex();
+        final IndexWriter writer = iwriter;
+        if (writer != null && writer.isOpen()) {
+            return writer;
         }
-        return iwriter;
-    }
-
-    private void ensureDirectoryReaderOpen() throws IOException {
-        if (searchReader == null) {
-            searchReader = DirectoryReader.open(getDirectory());
-        } else {
-            final var changedReader = DirectoryReader.openIfChanged(searchReader);
-            if (changedReader != null) {
-                searchReader = changedReader;
+        synchronized (this) {
+            if (iwriter == null || !iwriter.isOpen()) {
+                openIndex();
             }
+            return iwriter;
         }
     }
 
     /**
-     * Returns an {@link IndexSearcher} by opening the index directory first, if necessary.
+     * Acquires an {@link IndexSearcher}, by opening the index first, if necessary.
+     * <p>
+     * Acquiring a searcher does not block, and the same searcher is shared by all concurrent searches
+     * until the next refresh. Every acquired searcher must be handed back via {@link #releaseSearcher(IndexSearcher)}.
      *
      * @return an {@link IndexSearcher}
-     * @throws IOException when the index directory cannot be opened
-     * @since 3.0.0
+     * @throws IOException when the index cannot be opened
+     * @since 4.11.0
+     */
+    protected IndexSearcher acquireSearcher() throws IOException {
+        getIndexWriter();
+        return searcherManager.acquire();
+    }
+
+    /**
+     * Releases an {@link IndexSearcher} previously acquired via {@link #acquireSearcher()}.
+     *
+     * @param searcher the {@link IndexSearcher} to release; may be {@code null}
+     * @since 4.11.0
      */
-    protected synchronized IndexSearcher getIndexSearcher() throws IOException {
-        ensureDirectoryReaderOpen();
-        return new IndexSearcher(searchReader);
+    protected void releaseSearcher(final IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            // Releasing only decrements the reference count of the searcher's reader,
+            // so it is safe to do even when the SearcherManager was replaced in the meantime.
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to release searcher of the " + indexType.name().toLowerCase() + " index", e);
+        }
     }
 
     /**
@@ -239,12 +277,16 @@ public abstract class IndexManager implements AutoCloseable {
     }
 
     /**
-     * Commits changes to the index and closes the IndexWriter.
+     * Commits changes to the index, making them durable.
+     * <p>
+     * Changes become visible to searches independently of commits, within {@link #SEARCHER_REFRESH_MAX_STALE_SECONDS}.
+     * Searchers are nevertheless refreshed after committing, so that callers observe their own changes right away.
      * @since 3.0.0
      */
     public void commit() {
         try {
             getIndexWriter().commit();
+            searcherManager.maybeRefreshBlocking();
         } catch (CorruptIndexException e) {
             handleCorruptIndexException(e);
         } catch (IOException e) {
@@ -273,10 +315,26 @@ public abstract class IndexManager implements AutoCloseable {
     }
 
     /**
-     * Closes the IndexWriter.
+     * Closes the IndexWriter, and stops refreshing searchers.
+     * The index is opened again when it is accessed the next time.
      * @since 3.0.0
      */
-    public void close() {
+    public synchronized void close() {
+        closeIndex();
+    }
+
+    private void closeIndex() {
+        if (searcherRefreshThread != null) {
+            searcherRefreshThread.close();
+            searcherRefreshThread = null;
+        }
+        if (searcherManager != null) {
+            try {
+                searcherManager.close();
+            } catch (IOException e) {
+                // do nothing...
+            }
+        }
         if (iwriter != null) {
             try {
                 if (iwriter.isOpen()) {
@@ -334,12 +392,14 @@ public abstract class IndexManager implements AutoCloseable {
      */
     protected Document getDocument(final String fieldName, final String uuid) {
         final List<Document> list = new ArrayList<>();
+        IndexSearcher searcher = null;
         try {
+            searcher = acquireSearcher();
             final TermQuery query = new TermQuery(new Term(fieldName, uuid));
-            final TopDocs results = getIndexSearcher().search(query, 1000000);
+            final TopDocs results = searcher.search(query, 1000000);
             final ScoreDoc[] hits = results.scoreDocs;
             for (final ScoreDoc hit : hits) {
-                list.add(getIndexSearcher().doc(hit.doc));
+                list.add(searcher.doc(hit.doc));
             }
         } catch (CorruptIndexException e) {
             handleCorruptIndexException(e);
@@ -352,6 +412,8 @@ public abstract class IndexManager implements AutoCloseable {
                     .content("An I/O exception occurred while searching Lucene index. Check log for details. " + e.getMessage())
                     .level(NotificationLevel.ERROR)
             );
+        } finally {
+            releaseSearcher(searcher);
         }
         if (CollectionUtils.isNotEmpty(list)) {
             return list.get(0); // There should only be one document
@@ -483,8 +545,13 @@ public abstract class IndexManager implements AutoCloseable {
                 double databaseEntityCount = qm.getCount(indexType.getClazz());
                 LOGGER.info("Database entity count for type "+indexType.name()+" : "+databaseEntityCount);
                 IndexManager indexManager = IndexManagerFactory.getIndexManager(indexType.getClazz());
-                indexManager.ensureDirectoryReaderOpen();
-                double indexDocumentCount = indexManager.searchReader.numDocs();
+                final IndexSearcher searcher = indexManager.acquireSearcher();
+                double indexDocumentCount;
+                try {
+                    indexDocumentCount = searcher.getIndexReader().numDocs();
+                } finally {
+                    indexManager.releaseSearcher(searcher);
+                }
                 LOGGER.info("Index document count for type "+indexType.name()+" : "+indexDocumentCount);
                 double max = Math.max(Math.max(databaseEntityCount, indexDocumentCount),1);
                 double delta = 100 * (Math.abs(databaseEntityCount-indexDocumentCount) / max);
@@ -27,6 +27,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
@@ -74,6 +75,7 @@ public class SearchManager {
     public SearchResult searchIndex(final IndexManager indexManager, final String queryString, final int limit) {
         final SearchResult searchResult = new SearchResult();
         final List<Map<String, String>> resultSet = new ArrayList<>();
+        IndexSearcher searcher = null;
         try {
             String escaped = escape(queryString);
             final String sb = escaped +
@@ -87,14 +89,15 @@ public class SearchManager {
                     escaped +
                     "*";
             final Query query = indexManager.getQueryParser().parse(sb);
-            final TopDocs results = indexManager.getIndexSearcher().search(query, limit);
+            searcher = indexManager.acquireSearcher();
+            final TopDocs results = searcher.search(query, limit);
 
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Searching for: " + escaped + " - Total Hits: " + results.totalHits);
             }
 
             for (final ScoreDoc scoreDoc: results.scoreDocs) {
-                final Document doc = indexManager.getIndexSearcher().doc(scoreDoc.doc);
+                final Document doc = searcher.doc(scoreDoc.doc);
                 final Map<String, String> fields = new HashMap<>();
                 for (final IndexableField field: doc.getFields()) {
                     if (StringUtils.isNotBlank(field.stringValue())) {
@@ -133,9 +136,10 @@ public class SearchManager {
                     .content("An I/O Exception occurred while searching Lucene index. Check log for details. " + e.getMessage())
                     .level(NotificationLevel.ERROR)
             );
+        } finally {
+            indexManager.releaseSearcher(searcher);
         }
 
-        indexManager.close();
         return searchResult;
     }
 
@@ -0,0 +1,46 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks;
+
+import alpine.event.framework.Event;
+import alpine.event.framework.Subscriber;
+import org.dependencytrack.event.BomUploadEvent;
+
+/**
+ * Subscriber task that hands off {@link BomUploadEvent}s to the {@link BomUploadProcessingExecutor},
+ * such that uploads are processed with per-project ordering, rather than on the shared event service.
+ * <p>
+ * As this task returns before the BOM has been processed, the chain links of the event are
+ * dispatched by the {@link BomUploadProcessingExecutor} instead of the event service.
+ *
+ * @since 4.11.0
+ */
+public class BomUploadDispatchTask implements Subscriber {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void inform(final Event e) {
+        if (e instanceof final BomUploadEvent event) {
+            BomUploadProcessingExecutor.getInstance().submit(event);
+        }
+    }
+
+}
@@ -0,0 +1,322 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.ChainLink;
+import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.event.BomUploadEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Executes {@link BomUploadProcessingTask}s on dedicated thread pools.
+ * <p>
+ * Processing is split into two stages: parsing, and ingestion of the parsed BOM.
+ * Each stage is executed by its own thread pool, with a bounded queue in between.
+ * When ingestion can't keep up, parsing of further BOMs is paused until capacity
+ * frees up, such that only a bounded number of parsed BOMs is held in memory.
+ * <p>
+ * BOMs uploaded to different projects are processed in parallel, whereas BOMs uploaded to the
+ * same project are processed one after another, in the order in which they were uploaded.
+ * <p>
+ * When coalescing is enabled, only the most recent of all BOMs waiting to be processed for a project
+ * is retained. BOMs superseded by it are discarded without being processed, as the most recent BOM
+ * determines the project's inventory anyway. Superseded BOMs are considered to be processed along
+ * with the BOM that superseded them.
+ * <p>
+ * The chain links of {@link BomUploadEvent}s are dispatched by this executor once processing completed,
+ * rather than by the event service once the event has been handed off to this executor.
+ *
+ * @since 4.11.0
+ */
+public final class BomUploadProcessingExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(BomUploadProcessingExecutor.class);
+    private static BomUploadProcessingExecutor instance;
+
+    private final ExecutorService parseExecutor;
+    private final ThreadPoolExecutor ingestExecutor;
+    private final Function<BomUploadEvent, Runnable> parser;
+    private final boolean coalescingEnabled;
+    private final Map<UUID, ProjectQueue> queueByProjectUuid = new HashMap<>();
+    private final Set<UUID> trackedChainIdentifiers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final Timer queueLatencyTimer;
+    private final Counter coalescedCounter;
+
+    private static final class ProjectQueue {
+
+        private final Deque<QueuedEvent> pendingEvents = new ArrayDeque<>();
+        private boolean processing;
+
+    }
+
+    /**
+     * @param supersededEvents Events superseded by this event, which complete along with it
+     */
+    private record QueuedEvent(BomUploadEvent event, BomUploadEvent.DeferredChainLinks chainLinks, long queuedAtNanos,
+                               List<QueuedEvent> supersededEvents) {
+    }
+
+    /**
+     * @param parseThreadPoolSize   Number of threads to parse BOMs with
+     * @param ingestThreadPoolSize  Number of threads to ingest parsed BOMs with
+     * @param ingestQueueCapacity   Maximum number of parsed BOMs waiting to be ingested
+     * @param coalescingEnabled     Whether to discard BOMs superseded by more recent uploads
+     * @param parser                Parses a BOM, and returns a {@link Runnable} to ingest it with,
+     *                              or {@code null} when processing has already ended
+     */
+    BomUploadProcessingExecutor(final int parseThreadPoolSize, final int ingestThreadPoolSize,
+                                final int ingestQueueCapacity, final boolean coalescingEnabled,
+                                final Function<BomUploadEvent, Runnable> parser) {
+        this.parseExecutor = Executors.newFixedThreadPool(parseThreadPoolSize, createThreadFactory("Parse"));
+        this.ingestExecutor = new ThreadPoolExecutor(ingestThreadPoolSize, ingestThreadPoolSize,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(ingestQueueCapacity), createThreadFactory("Ingest"),
+                (runnable, executor) -> {
+                    // Block the submitting parser thread until the ingest stage has capacity again.
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Ingest stage has been shut down");
+                    }
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+        this.parser = parser;
+        this.coalescingEnabled = coalescingEnabled;
+        Metrics.registerExecutorService(parseExecutor, BomUploadProcessingExecutor.class.getSimpleName() + "-Parse");
+        Metrics.registerExecutorService(ingestExecutor, BomUploadProcessingExecutor.class.getSimpleName() + "-Ingest");
+
+        Gauge.builder("bom_upload_queue_depth", queueDepth, AtomicInteger::get)
+                .description("Number of uploaded BOMs waiting to be processed")
+                .register(Metrics.getRegistry());
+        queueLatencyTimer = Timer.builder("bom_upload_queue_latency")
+                .description("Time uploaded BOMs spent waiting to be processed")
+                .register(Metrics.getRegistry());
+        coalescedCounter = Counter.builder("bom_upload_coalesced")
+                .description("Total number of uploaded BOMs discarded because a more recent BOM was uploaded for the same project")
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * @return The shared {@link BomUploadProcessingExecutor} instance
+     */
+    public static synchronized BomUploadProcessingExecutor getInstance() {
+        if (instance == null) {
+            instance = new BomUploadProcessingExecutor(
+                    Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_PROCESSING_PARSE_THREAD_POOL_SIZE),
+                    Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_PROCESSING_INGEST_THREAD_POOL_SIZE),
+                    Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_PROCESSING_INGEST_QUEUE_CAPACITY),
+                    Config.getInstance().getPropertyAsBoolean(ConfigKey.BOM_UPLOAD_PROCESSING_COALESCING_ENABLED),
+                    event -> new BomUploadProcessingTask().parse(event));
+        }
+        return instance;
+    }
+
+    /**
+     * Submits a {@link BomUploadEvent} for processing.
+     *
+     * @param event The {@link BomUploadEvent} to process
+     */
+    public void submit(final BomUploadEvent event) {
+        trackedChainIdentifiers.add(event.getChainIdentifier());
+        queueDepth.incrementAndGet();
+
+        final var queuedEvent = new QueuedEvent(event, event.deferChainLinks(), System.nanoTime(), new ArrayList<>());
+        synchronized (queueByProjectUuid) {
+            final ProjectQueue queue = queueByProjectUuid.computeIfAbsent(event.getProjectUuid(), ignored -> new ProjectQueue());
+            if (!queue.processing) {
+                queue.processing = true;
+                parseExecutor.execute(() -> parse(queuedEvent));
+                return;
+            }
+
+            if (coalescingEnabled) {
+                QueuedEvent supersededEvent;
+                while ((supersededEvent = queue.pendingEvents.poll()) != null) {
+                    discard(supersededEvent);
+                    queuedEvent.supersededEvents().add(supersededEvent);
+                    queuedEvent.supersededEvents().addAll(supersededEvent.supersededEvents());
+                }
+            }
+            queue.pendingEvents.add(queuedEvent);
+        }
+    }
+
+    /**
+     * Determines whether a {@link BomUploadEvent} with a given chain identifier
+     * is waiting to be processed, or currently being processed. This includes events that
+     * were superseded by a more recent event, until that event has been processed.
+     *
+     * @param chainIdentifier The chain identifier to check for
+     * @return {@code true} when the event is waiting or being processed, otherwise {@code false}
+     */
+    public boolean isEventBeingProcessed(final UUID chainIdentifier) {
+        return trackedChainIdentifiers.contains(chainIdentifier);
+    }
+
+    /**
+     * Shuts down the executor, waiting for {@code timeout} for BOMs currently being processed to complete.
+     *
+     * @param timeout The maximum {@link Duration} to wait for
+     */
+    public void shutdown(final Duration timeout) {
+        final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        parseExecutor.shutdown();
+        try {
+            // Parser threads may still hand off BOMs to the ingest stage, so it must not be shut down before them.
+            if (!parseExecutor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Parsing of uploaded BOMs did not complete within " + timeout);
+            }
+            ingestExecutor.shutdown();
+            if (!ingestExecutor.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Ingestion of uploaded BOMs did not complete within " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void parse(final QueuedEvent queuedEvent) {
+        queueDepth.decrementAndGet();
+        queueLatencyTimer.record(System.nanoTime() - queuedEvent.queuedAtNanos(), TimeUnit.NANOSECONDS);
+
+        try {
+            final Runnable ingestion = parser.apply(queuedEvent.event());
+            if (ingestion == null) {
+                complete(queuedEvent, null);
+                return;
+            }
+
+            ingestExecutor.execute(() -> ingest(queuedEvent, ingestion));
+        } catch (RuntimeException e) {
+            complete(queuedEvent, e);
+        }
+    }
+
+    private void ingest(final QueuedEvent queuedEvent, final Runnable ingestion) {
+        try {
+            ingestion.run();
+            complete(queuedEvent, null);
+        } catch (RuntimeException e) {
+            complete(queuedEvent, e);
+        }
+    }
+
+    private void complete(final QueuedEvent queuedEvent, final RuntimeException failure) {
+        final BomUploadEvent event = queuedEvent.event();
+        final var completedEvents = new ArrayList<QueuedEvent>();
+        completedEvents.add(queuedEvent);
+        completedEvents.addAll(queuedEvent.supersededEvents());
+        try {
+            if (failure != null) {
+                LOGGER.error("Processing of BOM uploaded to project %s failed".formatted(event.getProjectUuid()), failure);
+            }
+            for (final QueuedEvent completedEvent : completedEvents) {
+                if (failure == null) {
+                    dispatchChainLinks(completedEvent.chainLinks().onSuccess(), ChainLink::getSuccessEvent);
+                } else {
+                    dispatchChainLinks(completedEvent.chainLinks().onFailure(), ChainLink::getFailureEvent);
+                }
+            }
+        } finally {
+            completedEvents.forEach(completedEvent -> trackedChainIdentifiers.remove(completedEvent.event().getChainIdentifier()));
+            processNext(event.getProjectUuid());
+        }
+    }
+
+    private void processNext(final UUID projectUuid) {
+        synchronized (queueByProjectUuid) {
+            final ProjectQueue queue = queueByProjectUuid.get(projectUuid);
+            final QueuedEvent nextEvent = queue.pendingEvents.poll();
+            if (nextEvent == null) {
+                queueByProjectUuid.remove(projectUuid);
+                return;
+            }
+
+            parseExecutor.execute(() -> parse(nextEvent));
+        }
+    }
+
+    private void discard(final QueuedEvent queuedEvent) {
+        final BomUploadEvent event = queuedEvent.event();
+        LOGGER.info("Discarding BOM uploaded to project %s (token: %s), as a more recent BOM has been uploaded since"
+                .formatted(event.getProjectUuid(), event.getChainIdentifier()));
+        queueDepth.decrementAndGet();
+        coalescedCounter.increment();
+
+        final File file = event.getFile();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete BOM file " + file, e);
+            }
+        }
+    }
+
+    private static ThreadFactory createThreadFactory(final String stage) {
+        return new BasicThreadFactory.Builder()
+                .namingPattern(BomUploadProcessingExecutor.class.getSimpleName() + "-" + stage + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .build();
+    }
+
+    private static void dispatchChainLinks(final ChainLink[] chainLinks, final Function<ChainLink, Event> eventExtractor) {
+        for (final ChainLink chainLink : chainLinks) {
+            final Event event = eventExtractor.apply(chainLink);
+            if (event != null) {
+                Event.dispatch(event);
+            }
+        }
+    }
+
+}
@@ -19,10 +19,12 @@
 package org.dependencytrack.tasks;
 
 import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
 import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
+import io.micrometer.core.instrument.Timer;
 import org.cyclonedx.BomParserFactory;
 import org.cyclonedx.parsers.Parser;
 import org.dependencytrack.event.BomUploadEvent;
@@ -45,12 +47,17 @@ import org.dependencytrack.notification.vo.BomProcessingFailed;
 import org.dependencytrack.parser.cyclonedx.util.ModelConverter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.CompressUtil;
-import org.dependencytrack.util.InternalComponentIdentificationUtil;
 
 import javax.jdo.FetchPlan;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -65,201 +72,379 @@ import java.util.stream.Collectors;
 public class BomUploadProcessingTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(BomUploadProcessingTask.class);
+    private static final int FORMAT_DETECTION_PREFIX_LENGTH = 64 * 1024;
+
+    /**
+     * State of a BOM as it is passed through the processing stages.
+     */
+    private static final class Context {
+
+        private final BomUploadEvent event;
+        private File bomFile;
+        private byte[] bomBytes;
+        private Bom.Format bomFormat;
+        private String bomSpecVersion;
+        private org.cyclonedx.model.Bom cycloneDxBom;
+
+        private Context(final BomUploadEvent event) {
+            this.event = event;
+        }
+
+        /**
+         * Encodes the BOM for notifications. The encoded form is larger than the BOM itself,
+         * so callers should only encode it when a notification rule would publish it.
+         */
+        private String encodeBom() throws IOException {
+            if (bomFile == null && bomBytes == null) {
+                return null;
+            }
+            return BomUploadProcessingTask.encodeBom(bomFile, bomBytes);
+        }
+
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     public void inform(final Event e) {
-        if (e instanceof BomUploadEvent) {
-            Project bomProcessingFailedProject = null;
-            Bom.Format bomProcessingFailedBomFormat = null;
-            String bomProcessingFailedBomVersion = null;
-            final BomUploadEvent event = (BomUploadEvent) e;
-            final byte[] bomBytes = CompressUtil.optionallyDecompress(event.getBom());
-            final QueryManager qm = new QueryManager();
-            try {
-                final Project project =  qm.getObjectByUuid(Project.class, event.getProjectUuid(),
-                        List.of(FetchPlan.DEFAULT, Project.FetchGroup.METADATA.name()));
-                bomProcessingFailedProject = project;
+        if (e instanceof final BomUploadEvent event) {
+            final Runnable ingestion = parse(event);
+            if (ingestion != null) {
+                ingestion.run();
+            }
+        }
+    }
 
-                if (project == null) {
+    /**
+     * Performs the first stage of BOM processing, which is decompression, format detection, and parsing.
+     * <p>
+     * This stage does not modify any persistent state, and may thus be performed
+     * while other BOMs are ingested.
+     *
+     * @param event The {@link BomUploadEvent} to process
+     * @return A {@link Runnable} that ingests the parsed BOM, or {@code null} when processing has already ended
+     * @since 4.11.0
+     */
+    Runnable parse(final BomUploadEvent event) {
+        final var ctx = new Context(event);
+        final Timer.Sample timerSample = Timer.start();
+        boolean parsed = false;
+        try (final var qm = new QueryManager()) {
+            try {
+                if (qm.getObjectByUuid(Project.class, event.getProjectUuid()) == null) {
                     LOGGER.warn("Ignoring BOM Upload event for no longer existing project " + event.getProjectUuid());
-                    return;
+                    return null;
                 }
 
-                final List<Component> components;
-                final List<Component> newComponents = new ArrayList<>();
-                final List<Component> flattenedComponents = new ArrayList<>();
-                final List<ServiceComponent> services;
-                final List<ServiceComponent> flattenedServices = new ArrayList<>();
-
-                // Holds a list of all Components that are existing dependencies of the specified project
-                final List<Component> existingProjectComponents = qm.getAllComponents(project);
-                final List<ServiceComponent> existingProjectServices = qm.getAllServiceComponents(project);
-                final Bom.Format bomFormat;
-                final String bomSpecVersion;
-                final Integer bomVersion;
-                final String serialNumnber;
-                org.cyclonedx.model.Bom cycloneDxBom = null;
-                if (BomParserFactory.looksLikeCycloneDX(bomBytes)) {
-                    if (qm.isEnabled(ConfigPropertyConstants.ACCEPT_ARTIFACT_CYCLONEDX)) {
-                        LOGGER.info("Processing CycloneDX BOM uploaded to project: " + event.getProjectUuid());
-                        bomFormat = Bom.Format.CYCLONEDX;
-                        bomProcessingFailedBomFormat = bomFormat;
-                        final Parser parser = BomParserFactory.createParser(bomBytes);
-                        cycloneDxBom = parser.parse(bomBytes);
-                        bomSpecVersion = cycloneDxBom.getSpecVersion();
-                        bomProcessingFailedBomVersion = bomSpecVersion;
-                        bomVersion = cycloneDxBom.getVersion();
-                        if (cycloneDxBom.getMetadata() != null) {
-                            project.setManufacturer(ModelConverter.convert(cycloneDxBom.getMetadata().getManufacture()));
-
-                            final var projectMetadata = new ProjectMetadata();
-                            projectMetadata.setSupplier(ModelConverter.convert(cycloneDxBom.getMetadata().getSupplier()));
-                            projectMetadata.setAuthors(cycloneDxBom.getMetadata().getAuthors() != null
-                                    ? new ArrayList<>(ModelConverter.convertCdxContacts(cycloneDxBom.getMetadata().getAuthors()))
-                                    : null);
-                            if (project.getMetadata() != null) {
-                                qm.runInTransaction(() -> {
-                                    project.getMetadata().setSupplier(projectMetadata.getSupplier());
-                                    project.getMetadata().setAuthors(projectMetadata.getAuthors());
-                                });
-                            } else {
-                                qm.runInTransaction(() -> {
-                                    projectMetadata.setProject(project);
-                                    qm.getPersistenceManager().makePersistent(projectMetadata);
-                                });
-                            }
-
-                            if (cycloneDxBom.getMetadata().getComponent() != null) {
-                                final org.cyclonedx.model.Component cdxMetadataComponent = cycloneDxBom.getMetadata().getComponent();
-                                if (cdxMetadataComponent.getType() != null && project.getClassifier() == null) {
-                                    try {
-                                        project.setClassifier(Classifier.valueOf(cdxMetadataComponent.getType().name()));
-                                    } catch (IllegalArgumentException ex) {
-                                        LOGGER.warn("""
-                                                The metadata.component element of the BOM is of unknown type %s. \
-                                                Known types are %s.""".formatted(cdxMetadataComponent.getType(),
-                                                Arrays.stream(Classifier.values()).map(Enum::name).collect(Collectors.joining(", "))));
-                                    }
-                                }
-                                if (cdxMetadataComponent.getSupplier() != null) {
-                                    project.setSupplier(ModelConverter.convert(cdxMetadataComponent.getSupplier()));
-                                }
-                            }
-                        }
-                        if (project.getClassifier() == null) {
-                            project.setClassifier(Classifier.APPLICATION);
-                        }
-                        project.setExternalReferences(ModelConverter.convertBomMetadataExternalReferences(cycloneDxBom));
-                        serialNumnber = (cycloneDxBom.getSerialNumber() != null) ? cycloneDxBom.getSerialNumber().replaceFirst("urn:uuid:", "") : null;
-                        components = ModelConverter.convertComponents(qm, cycloneDxBom, project);
-                        services = ModelConverter.convertServices(qm, cycloneDxBom, project);
-                    } else {
-                        LOGGER.warn("A CycloneDX BOM was uploaded but accepting CycloneDX BOMs is disabled. Aborting");
-                        return;
-                    }
-                } else {
+                // BOMs exceeding the streaming threshold are provided as file, and are never loaded into memory as a whole.
+                ctx.bomFile = event.getFile() != null ? CompressUtil.optionallyDecompress(event.getFile()) : null;
+                ctx.bomBytes = ctx.bomFile == null ? CompressUtil.optionallyDecompress(event.getBom()) : null;
+                if (!(ctx.bomFile != null ? looksLikeCycloneDX(ctx.bomFile) : BomParserFactory.looksLikeCycloneDX(ctx.bomBytes))) {
                     LOGGER.warn("The BOM uploaded is not in a supported format. Supported formats include CycloneDX XML and JSON");
-                    return;
+                    return null;
                 }
-                final Project copyOfProject = qm.detach(Project.class, qm.getObjectById(Project.class, project.getId()).getId());
-                Notification.dispatch(new Notification()
-                        .scope(NotificationScope.PORTFOLIO)
-                        .group(NotificationGroup.BOM_CONSUMED)
-                        .title(NotificationConstants.Title.BOM_CONSUMED)
-                        .level(NotificationLevel.INFORMATIONAL)
-                        .content("A " + bomFormat.getFormatShortName() + " BOM was consumed and will be processed")
-                        .subject(new BomConsumedOrProcessed(copyOfProject, Base64.getEncoder().encodeToString(bomBytes), bomFormat, bomSpecVersion)));
-                final Date date = new Date();
-                final Bom bom = qm.createBom(project, date, bomFormat, bomSpecVersion, bomVersion, serialNumnber);
-                for (final Component component: components) {
-                    processComponent(qm, component, flattenedComponents, newComponents);
+                if (!qm.isEnabled(ConfigPropertyConstants.ACCEPT_ARTIFACT_CYCLONEDX)) {
+                    LOGGER.warn("A CycloneDX BOM was uploaded but accepting CycloneDX BOMs is disabled. Aborting");
+                    return null;
                 }
-                LOGGER.info("Identified " + newComponents.size() + " new components");
-                for (final ServiceComponent service: services) {
-                    processService(qm, bom, service, flattenedServices);
+
+                LOGGER.info("Processing CycloneDX BOM uploaded to project: " + event.getProjectUuid());
+                ctx.bomFormat = Bom.Format.CYCLONEDX;
+                if (ctx.bomFile != null) {
+                    ctx.cycloneDxBom = BomParserFactory.createParser(ctx.bomFile).parse(ctx.bomFile);
+                } else {
+                    final Parser parser = BomParserFactory.createParser(ctx.bomBytes);
+                    ctx.cycloneDxBom = parser.parse(ctx.bomBytes);
                 }
-                if (Bom.Format.CYCLONEDX == bomFormat) {
-                    LOGGER.info("Processing CycloneDX dependency graph for project: " + event.getProjectUuid());
-                    ModelConverter.generateDependencies(cycloneDxBom, project, components);
+                ctx.bomSpecVersion = ctx.cycloneDxBom.getSpecVersion();
+                parsed = true;
+                return () -> ingest(ctx);
+            } catch (Exception ex) {
+                LOGGER.error("Error while processing bom", ex);
+                dispatchBomProcessingFailedNotification(qm, ctx, ex);
+                return null;
+            }
+        } finally {
+            timerSample.stop(stageTimer("parse"));
+            if (!parsed) {
+                deleteBomFiles(event.getFile(), ctx.bomFile);
+            }
+        }
+    }
+
+    /**
+     * Performs the second stage of BOM processing, which is conversion and persistence of the parsed BOM,
+     * generation of the dependency graph, and dispatching of events for vulnerability analysis,
+     * repository metadata analysis, and policy evaluation.
+     */
+    private void ingest(final Context ctx) {
+        final BomUploadEvent event = ctx.event;
+        final org.cyclonedx.model.Bom cycloneDxBom = ctx.cycloneDxBom;
+        final Bom.Format bomFormat = ctx.bomFormat;
+        final String bomSpecVersion = ctx.bomSpecVersion;
+        final QueryManager qm = new QueryManager();
+        try {
+            final Project project =  qm.getObjectByUuid(Project.class, event.getProjectUuid(),
+                    List.of(FetchPlan.DEFAULT, Project.FetchGroup.METADATA.name()));
+            if (project == null) {
+                LOGGER.warn("Ignoring BOM Upload event for no longer existing project " + event.getProjectUuid());
+                return;
+            }
+
+            final List<Component> components;
+            final List<Component> newComponents = new ArrayList<>();
+            final List<Component> flattenedComponents = new ArrayList<>();
+            final List<ServiceComponent> services;
+            final List<ServiceComponent> flattenedServices = new ArrayList<>();
+
+            // Holds a list of all Components that are existing dependencies of the specified project
+            final List<Component> existingProjectComponents = qm.getAllComponents(project);
+            final List<ServiceComponent> existingProjectServices = qm.getAllServiceComponents(project);
+            final Integer bomVersion = cycloneDxBom.getVersion();
+            if (cycloneDxBom.getMetadata() != null) {
+                project.setManufacturer(ModelConverter.convert(cycloneDxBom.getMetadata().getManufacture()));
+
+                final var projectMetadata = new ProjectMetadata();
+                projectMetadata.setSupplier(ModelConverter.convert(cycloneDxBom.getMetadata().getSupplier()));
+                projectMetadata.setAuthors(cycloneDxBom.getMetadata().getAuthors() != null
+                        ? new ArrayList<>(ModelConverter.convertCdxContacts(cycloneDxBom.getMetadata().getAuthors()))
+                        : null);
+                if (project.getMetadata() != null) {
+                    qm.runInTransaction(() -> {
+                        project.getMetadata().setSupplier(projectMetadata.getSupplier());
+                        project.getMetadata().setAuthors(projectMetadata.getAuthors());
+                    });
+                } else {
+                    qm.runInTransaction(() -> {
+                        projectMetadata.setProject(project);
+                        qm.getPersistenceManager().makePersistent(projectMetadata);
+                    });
                 }
-                LOGGER.debug("Reconciling components for project " + event.getProjectUuid());
-                qm.reconcileComponents(project, existingProjectComponents, flattenedComponents);
-                LOGGER.debug("Reconciling services for project " + event.getProjectUuid());
-                qm.reconcileServiceComponents(project, existingProjectServices, flattenedServices);
-                LOGGER.debug("Updating last import date for project " + event.getProjectUuid());
-                qm.updateLastBomImport(project, date, bomFormat.getFormatShortName() + " " + bomSpecVersion);
-                // Instead of firing off a new VulnerabilityAnalysisEvent, chain the VulnerabilityAnalysisEvent to
-                // the BomUploadEvent so that synchronous publishing mode (Jenkins) waits until vulnerability
-                // analysis has completed. If not chained, synchronous publishing mode will return immediately upon
-                // return from this method, resulting in inaccurate findings being returned in the response (since
-                // the vulnerability analysis hasn't taken place yet).
-                final List<Component> detachedFlattenedComponent = qm.detach(flattenedComponents);
-                final Project detachedProject = qm.detach(Project.class, project.getId());
-                final VulnerabilityAnalysisEvent vae = new VulnerabilityAnalysisEvent(detachedFlattenedComponent).project(detachedProject);
-                vae.setChainIdentifier(event.getChainIdentifier());
-                if (!newComponents.isEmpty()) {
-                    // Whether a new dependency is vulnerable or not can only be determined after
-                    // vulnerability analysis completed.
-                    vae.onSuccess(new NewVulnerableDependencyAnalysisEvent(newComponents));
+
+                if (cycloneDxBom.getMetadata().getComponent() != null) {
+                    final org.cyclonedx.model.Component cdxMetadataComponent = cycloneDxBom.getMetadata().getComponent();
+                    if (cdxMetadataComponent.getType() != null && project.getClassifier() == null) {
+                        try {
+                            project.setClassifier(Classifier.valueOf(cdxMetadataComponent.getType().name()));
+                        } catch (IllegalArgumentException ex) {
+                            LOGGER.warn("""
+                                    The metadata.component element of the BOM is of unknown type %s. \
+                                    Known types are %s.""".formatted(cdxMetadataComponent.getType(),
+                                    Arrays.stream(Classifier.values()).map(Enum::name).collect(Collectors.joining(", "))));
+                        }
+                    }
+                    if (cdxMetadataComponent.getSupplier() != null) {
+                        project.setSupplier(ModelConverter.convert(cdxMetadataComponent.getSupplier()));
+                    }
                 }
-                // Start PolicyEvaluationEvent when VulnerabilityAnalysisEvent is succesful
-                vae.onSuccess(new PolicyEvaluationEvent(detachedFlattenedComponent).project(detachedProject));
-                Event.dispatch(vae);
+            }
+            if (project.getClassifier() == null) {
+                project.setClassifier(Classifier.APPLICATION);
+            }
+            project.setExternalReferences(ModelConverter.convertBomMetadataExternalReferences(cycloneDxBom));
+            final String serialNumnber = (cycloneDxBom.getSerialNumber() != null) ? cycloneDxBom.getSerialNumber().replaceFirst("urn:uuid:", "") : null;
+            components = ModelConverter.convertComponents(qm, cycloneDxBom, project);
+            services = ModelConverter.convertServices(qm, cycloneDxBom, project);
+            // Only metadata and dependencies of the CycloneDX BOM are required from here on.
+            // Release its components and services early, as they can be huge for large BOMs.
+            cycloneDxBom.setComponents(null);
+            cycloneDxBom.setServices(null);
 
-                // Repository Metadata analysis
-                final var rme = new RepositoryMetaEvent(detachedFlattenedComponent);
-                // Start PolicyEvaluationEvent again when RepositoryMetaEvent is succesful,
-                // as it might trigger new violations
-                rme.onSuccess(new PolicyEvaluationEvent(detachedFlattenedComponent).project(detachedProject));
-                Event.dispatch(rme);
+            final Project copyOfProject = qm.detach(Project.class, qm.getObjectById(Project.class, project.getId()).getId());
+            // The BOM is encoded at most once, and shared by both notifications. It is only retained
+            // for the duration of the ingestion when the BOM_PROCESSED notification requires it.
+            final boolean publishConsumedBom = qm.hasNotificationRules(NotificationScope.PORTFOLIO,
+                    NotificationLevel.INFORMATIONAL, List.of(NotificationGroup.BOM_CONSUMED));
+            final boolean publishProcessedBom = qm.hasNotificationRules(NotificationScope.PORTFOLIO,
+                    NotificationLevel.INFORMATIONAL, List.of(NotificationGroup.BOM_PROCESSED));
+            String encodedBom = publishConsumedBom || publishProcessedBom ? ctx.encodeBom() : null;
+            Notification.dispatch(new Notification()
+                    .scope(NotificationScope.PORTFOLIO)
+                    .group(NotificationGroup.BOM_CONSUMED)
+                    .title(NotificationConstants.Title.BOM_CONSUMED)
+                    .level(NotificationLevel.INFORMATIONAL)
+                    .content("A " + bomFormat.getFormatShortName() + " BOM was consumed and will be processed")
+                    .subject(new BomConsumedOrProcessed(copyOfProject, publishConsumedBom ? encodedBom : null, bomFormat, bomSpecVersion)));
+            if (!publishProcessedBom) {
+                encodedBom = null;
+            }
+            final Date date = new Date();
+            final Timer.Sample persistTimerSample = Timer.start();
+            final Bom bom = qm.createBom(project, date, bomFormat, bomSpecVersion, bomVersion, serialNumnber);
+            processComponents(qm, components, flattenedComponents, newComponents);
+            LOGGER.info("Identified " + newComponents.size() + " new components");
+            for (final ServiceComponent service: services) {
+                processService(qm, bom, service, flattenedServices);
+            }
+            persistTimerSample.stop(stageTimer("persist"));
+            if (Bom.Format.CYCLONEDX == bomFormat) {
+                LOGGER.info("Processing CycloneDX dependency graph for project: " + event.getProjectUuid());
+                final Timer.Sample graphTimerSample = Timer.start();
+                ModelConverter.generateDependencies(cycloneDxBom, project, components);
+                qm.synchronizeDependencyGraph(project, flattenedComponents);
+                graphTimerSample.stop(stageTimer("graph"));
+            }
+            final Timer.Sample reconcileTimerSample = Timer.start();
+            LOGGER.debug("Reconciling components for project " + event.getProjectUuid());
+            qm.reconcileComponents(project, existingProjectComponents, flattenedComponents);
+            LOGGER.debug("Reconciling services for project " + event.getProjectUuid());
+            qm.reconcileServiceComponents(project, existingProjectServices, flattenedServices);
+            reconcileTimerSample.stop(stageTimer("reconcile"));
+            LOGGER.debug("Updating last import date for project " + event.getProjectUuid());
+            qm.updateLastBomImport(project, date, bomFormat.getFormatShortName() + " " + bomSpecVersion);
+            // Instead of firing off a new VulnerabilityAnalysisEvent, chain the VulnerabilityAnalysisEvent to
+            // the BomUploadEvent so that synchronous publishing mode (Jenkins) waits until vulnerability
+            // analysis has completed. If not chained, synchronous publishing mode will return immediately upon
+            // return from this method, resulting in inaccurate findings being returned in the response (since
+            // the vulnerability analysis hasn't taken place yet).
+            final List<Component> detachedFlattenedComponent = qm.detach(flattenedComponents);
+            final Project detachedProject = qm.detach(Project.class, project.getId());
+            final VulnerabilityAnalysisEvent vae = new VulnerabilityAnalysisEvent(detachedFlattenedComponent).project(detachedProject);
+            vae.setChainIdentifier(event.getChainIdentifier());
+            if (!newComponents.isEmpty()) {
+                // Whether a new dependency is vulnerable or not can only be determined after
+                // vulnerability analysis completed.
+                vae.onSuccess(new NewVulnerableDependencyAnalysisEvent(newComponents));
+            }
+            // Start PolicyEvaluationEvent when VulnerabilityAnalysisEvent is succesful
+            vae.onSuccess(new PolicyEvaluationEvent(detachedFlattenedComponent).project(detachedProject));
+            Event.dispatch(vae);
 
-                LOGGER.info("Processed " + flattenedComponents.size() + " components and " + flattenedServices.size() + " services uploaded to project " + event.getProjectUuid());
-                Notification.dispatch(new Notification()
-                        .scope(NotificationScope.PORTFOLIO)
-                        .group(NotificationGroup.BOM_PROCESSED)
-                        .title(NotificationConstants.Title.BOM_PROCESSED)
-                        .level(NotificationLevel.INFORMATIONAL)
-                        .content("A " + bomFormat.getFormatShortName() + " BOM was processed")
-                        .subject(new BomConsumedOrProcessed(detachedProject, Base64.getEncoder().encodeToString(bomBytes), bomFormat, bomSpecVersion)));
-            } catch (Exception ex) {
-                LOGGER.error("Error while processing bom", ex);
-                if (bomProcessingFailedProject != null) {
-                    bomProcessingFailedProject = qm.detach(Project.class, bomProcessingFailedProject.getId());
+            // Repository Metadata analysis
+            final var rme = new RepositoryMetaEvent(detachedFlattenedComponent);
+            // Start PolicyEvaluationEvent again when RepositoryMetaEvent is succesful,
+            // as it might trigger new violations
+            rme.onSuccess(new PolicyEvaluationEvent(detachedFlattenedComponent).project(detachedProject));
+            Event.dispatch(rme);
+
+            LOGGER.info("Processed " + flattenedComponents.size() + " components and " + flattenedServices.size() + " services uploaded to project " + event.getProjectUuid());
+            Notification.dispatch(new Notification()
+                    .scope(NotificationScope.PORTFOLIO)
+                    .group(NotificationGroup.BOM_PROCESSED)
+                    .title(NotificationConstants.Title.BOM_PROCESSED)
+                    .level(NotificationLevel.INFORMATIONAL)
+                    .content("A " + bomFormat.getFormatShortName() + " BOM was processed")
+                    .subject(new BomConsumedOrProcessed(detachedProject, encodedBom, bomFormat, bomSpecVersion)));
+        } catch (Exception ex) {
+            LOGGER.error("Error while processing bom", ex);
+            dispatchBomProcessingFailedNotification(qm, ctx, ex);
+        } finally {
+            qm.commitSearchIndex(true, Component.class);
+            qm.commitSearchIndex(true, ServiceComponent.class);
+            qm.close();
+            deleteBomFiles(event.getFile(), ctx.bomFile);
+        }
+    }
+
+    private static void dispatchBomProcessingFailedNotification(final QueryManager qm, final Context ctx, final Exception ex) {
+        final Project project = qm.getObjectByUuid(Project.class, ctx.event.getProjectUuid());
+        final Project detachedProject = project != null ? qm.detach(Project.class, project.getId()) : null;
+        String encodedBom = null;
+        try {
+            if (qm.hasNotificationRules(NotificationScope.PORTFOLIO, NotificationLevel.ERROR, List.of(NotificationGroup.BOM_PROCESSING_FAILED))) {
+                encodedBom = ctx.encodeBom();
+            }
+        } catch (IOException ioe) {
+            LOGGER.warn("Failed to encode BOM for notification", ioe);
+        }
+        Notification.dispatch(new Notification()
+                .scope(NotificationScope.PORTFOLIO)
+                .group(NotificationGroup.BOM_PROCESSING_FAILED)
+                .title(NotificationConstants.Title.BOM_PROCESSING_FAILED)
+                .level(NotificationLevel.ERROR)
+                .content("An error occurred while processing a BOM")
+                .subject(new BomProcessingFailed(detachedProject, encodedBom, ex.getMessage(), ctx.bomFormat, ctx.bomSpecVersion)));
+    }
+
+    private static Timer stageTimer(final String stage) {
+        return Timer.builder("bom_upload_processing_stage")
+                .description("Time spent in the individual stages of BOM processing")
+                .tag("stage", stage)
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * Determines whether a BOM file looks like CycloneDX, based on the first
+     * {@value #FORMAT_DETECTION_PREFIX_LENGTH} bytes of it.
+     */
+    private static boolean looksLikeCycloneDX(final File bomFile) throws IOException {
+        try (final InputStream inputStream = Files.newInputStream(bomFile.toPath())) {
+            return BomParserFactory.looksLikeCycloneDX(inputStream.readNBytes(FORMAT_DETECTION_PREFIX_LENGTH));
+        }
+    }
+
+    /**
+     * Base64-encodes a BOM for inclusion in notifications. BOM files are encoded in chunks
+     * directly into a buffer of the final size, such that their raw content is never held
+     * in memory as a whole, and the encoded content is not copied while it grows.
+     */
+    private static String encodeBom(final File bomFile, final byte[] bomBytes) throws IOException {
+        if (bomFile == null) {
+            return Base64.getEncoder().encodeToString(bomBytes);
+        }
+
+        final long encodedLength = 4 * ((bomFile.length() + 2) / 3);
+        if (encodedLength > Integer.MAX_VALUE - 8) {
+            throw new IOException("BOM file " + bomFile + " is too large to be encoded");
+        }
+
+        final Base64.Encoder encoder = Base64.getEncoder();
+        final var encoded = new byte[(int) encodedLength];
+        int offset = 0;
+        try (final InputStream inputStream = Files.newInputStream(bomFile.toPath())) {
+            // The chunk size must be a multiple of 3, so that no padding is introduced between chunks.
+            final byte[] buffer = new byte[3 * 8192];
+            final byte[] encodedBuffer = new byte[4 * 8192];
+            int length;
+            while ((length = inputStream.readNBytes(buffer, 0, buffer.length)) > 0) {
+                final int encodedChunkLength = length == buffer.length
+                        ? encoder.encode(buffer, encodedBuffer)
+                        : encoder.encode(Arrays.copyOf(buffer, length), encodedBuffer);
+                if (offset + encodedChunkLength > encoded.length) {
+                    throw new IOException("BOM file " + bomFile + " was modified while it was encoded");
                 }
-                Notification.dispatch(new Notification()
-                        .scope(NotificationScope.PORTFOLIO)
-                        .group(NotificationGroup.BOM_PROCESSING_FAILED)
-                        .title(NotificationConstants.Title.BOM_PROCESSING_FAILED)
-                        .level(NotificationLevel.ERROR)
-                        .content("An error occurred while processing a BOM")
-                        .subject(new BomProcessingFailed(bomProcessingFailedProject, Base64.getEncoder().encodeToString(bomBytes), ex.getMessage(), bomProcessingFailedBomFormat, bomProcessingFailedBomVersion)));
-            } finally {
-                qm.commitSearchIndex(true, Component.class);
-                qm.commitSearchIndex(true, ServiceComponent.class);
-                qm.close();
+                System.arraycopy(encodedBuffer, 0, encoded, offset, encodedChunkLength);
+                offset += encodedChunkLength;
             }
         }
+        return new String(encoded, 0, offset, StandardCharsets.US_ASCII);
     }
 
-    private void processComponent(final QueryManager qm, Component component,
-                                  final List<Component> flattenedComponents,
-                                  final List<Component> newComponents) {
-        final boolean isNew = component.getUuid() == null;
-        component.setInternal(InternalComponentIdentificationUtil.isInternalComponent(component, qm));
-        component = qm.createComponent(component, false);
-        final long oid = component.getId();
-        // Refreshing the object by querying for it again is preventative
-        component = qm.getObjectById(Component.class, oid);
-        flattenedComponents.add(component);
-        if (isNew) {
-            newComponents.add(qm.detach(Component.class, component.getId()));
+    private static void deleteBomFiles(final File... bomFiles) {
+        for (final File bomFile : bomFiles) {
+            if (bomFile == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(bomFile.toPath());
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete BOM file " + bomFile, e);
+            }
+        }
+    }
+
+    private void processComponents(final QueryManager qm, final List<Component> components,
+                                   final List<Component> flattenedComponents,
+                                   final List<Component> newComponents) {
+        final var transientComponents = new ArrayList<Component>();
+        flattenComponents(components, flattenedComponents);
+        for (final Component component : flattenedComponents) {
+            if (component.getUuid() == null) {
+                transientComponents.add(component);
+            }
         }
-        if (component.getChildren() != null) {
-            for (final Component child : component.getChildren()) {
-                processComponent(qm, child, flattenedComponents, newComponents);
+        // Components are persisted in a single batch. The internal flag has already been
+        // determined during conversion, and the persisted instances are used as-is.
+        qm.persistComponents(flattenedComponents, false);
+        newComponents.addAll(qm.detach(transientComponents));
+    }
+
+    private static void flattenComponents(final Collection<Component> components, final List<Component> flattenedComponents) {
+        for (final Component component : components) {
+            flattenedComponents.add(component);
+            if (component.getChildren() != null) {
+                flattenComponents(component.getChildren(), flattenedComponents);
             }
         }
     }
@@ -24,9 +24,11 @@ import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
 import io.micrometer.core.instrument.Timer;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.search.IndexManager;
 import org.dependencytrack.search.IndexManagerFactory;
 import org.dependencytrack.search.ObjectIndexer;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareMatchIndex;
 
 /**
  * Subscriber task that performs an action on an Index.
@@ -61,6 +63,11 @@ public class IndexTask implements Subscriber {
                 indexManager.remove((event).getDocument());
             } else if (IndexEvent.Action.COMMIT == event.getAction()) {
                 indexManager.commit();
+                if (Vulnerability.class == event.getIndexableClass()) {
+                    // Vulnerability mirroring tasks commit the index when they're done.
+                    // Only marks records as stale, they are reloaded by the analyses that need them.
+                    VulnerableSoftwareMatchIndex.invalidateShared();
+                }
             } else if (IndexEvent.Action.REINDEX == event.getAction()) {
                 Timer timer = Timer.builder("lucene_index_rebuild")
                         .description("Lucene index rebuild")
@@ -18,10 +18,16 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.Subscriber;
+import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.InternalAnalysisEvent;
 import org.dependencytrack.event.OssIndexAnalysisEvent;
 import org.dependencytrack.event.PortfolioVulnerabilityAnalysisEvent;
@@ -30,8 +36,11 @@ import org.dependencytrack.event.SnykAnalysisEvent;
 import org.dependencytrack.event.VulnDbAnalysisEvent;
 import org.dependencytrack.event.VulnerabilityAnalysisEvent;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.FindingAttribution;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.policy.PolicyEngine;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
@@ -41,16 +50,50 @@ import org.dependencytrack.tasks.scanners.OssIndexAnalysisTask;
 import org.dependencytrack.tasks.scanners.ScanTask;
 import org.dependencytrack.tasks.scanners.SnykAnalysisTask;
 import org.dependencytrack.tasks.scanners.VulnDbAnalysisTask;
+import org.dependencytrack.util.PurlUtil;
+
+import javax.jdo.Query;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class VulnerabilityAnalysisTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(VulnerabilityAnalysisTask.class);
+    private static final int PORTFOLIO_ANALYSIS_BATCH_SIZE = 1000;
+    private static final int PORTFOLIO_ANALYSIS_PAGE_SIZE = 10_000;
+    private static final Map<AnalyzerIdentity, ExecutorService> EXECUTORS = new EnumMap<>(AnalyzerIdentity.class);
+
+    static {
+        // Each analyzer gets a dedicated thread pool, so that slow (e.g. remote) analyzers can't
+        // starve others. Each thread may hold a database connection, and for remote analyzers,
+        // an HTTP connection, thus the pool size acts as per-analyzer connection budget.
+        final int threadPoolSize = Config.getInstance().getPropertyAsInt(ConfigKey.VULNERABILITY_ANALYSIS_ANALYZER_THREAD_POOL_SIZE);
+        for (final AnalyzerIdentity analyzerIdentity : List.of(AnalyzerIdentity.INTERNAL_ANALYZER, AnalyzerIdentity.OSSINDEX_ANALYZER,
+                AnalyzerIdentity.SNYK_ANALYZER, AnalyzerIdentity.VULNDB_ANALYZER)) {
+            final String name = VulnerabilityAnalysisTask.class.getSimpleName() + "-" + analyzerIdentity.name();
+            final var threadFactory = new BasicThreadFactory.Builder()
+                    .namingPattern(name + "-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build();
+            final ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize, threadFactory);
+            alpine.common.metrics.Metrics.registerExecutorService(executor, name);
+            EXECUTORS.put(analyzerIdentity, executor);
+        }
+    }
 
     /**
      * {@inheritDoc}
@@ -73,6 +116,8 @@ public class VulnerabilityAnalysisTask implements Subscriber {
         } else if (e instanceof PortfolioVulnerabilityAnalysisEvent event) {
             LOGGER.info("Analyzing portfolio");
             try (final QueryManager qm = new QueryManager()) {
+                analyzePortfolio(qm, e);
+
                 final List<UUID> projectUuids = qm.getAllProjects(true)
                         .stream()
                         .map(Project::getUuid)
@@ -81,8 +126,6 @@ public class VulnerabilityAnalysisTask implements Subscriber {
                     final Project project = qm.getObjectByUuid(Project.class, projectUuid);
                     if (project == null) continue;
                     final List<Component> components = qm.getAllComponents(project);
-                    LOGGER.info("Analyzing " + components.size() + " components in project: " + project.getUuid());
-                    analyzeComponents(qm, components, e);
                     performPolicyEvaluation(project, components);
                     LOGGER.info("Completed scheduled analysis of " + components.size() + " components in project: " + project.getUuid());
                 }
@@ -91,6 +134,130 @@ public class VulnerabilityAnalysisTask implements Subscriber {
         }
     }
 
+    /**
+     * Analyze all components of active projects in the portfolio.
+     * <p>
+     * Components are collapsed to distinct {@link AnalysisKey}s first. Analyzers are only invoked
+     * for one representative component per key, and the findings of the representative
+     * are then applied to all other components sharing its key.
+     */
+    private void analyzePortfolio(final QueryManager qm, final Event event) {
+        final Map<AnalysisKey, List<Long>> componentIdsByKey = getComponentIdsByAnalysisKey(qm);
+        LOGGER.info("Analyzing %d unique components, representing %d components".formatted(componentIdsByKey.size(),
+                componentIdsByKey.values().stream().mapToInt(List::size).sum()));
+
+        for (final List<AnalysisKey> batch : Lists.partition(List.copyOf(componentIdsByKey.keySet()), PORTFOLIO_ANALYSIS_BATCH_SIZE)) {
+            // Use a dedicated QueryManager per batch to prevent the L1 cache from growing with the portfolio.
+            try (final var batchQm = new QueryManager()) {
+                final Map<Long, Component> componentsById = batchQm.getComponentsById(batch.stream()
+                        .map(key -> componentIdsByKey.get(key).get(0))
+                        .toList());
+                final List<Component> representatives = batch.stream()
+                        .map(key -> componentsById.get(componentIdsByKey.get(key).get(0)))
+                        .filter(Objects::nonNull)
+                        .toList();
+                analyzeComponents(batchQm, representatives, event);
+                applyRepresentativeFindings(batchQm, batch, componentIdsByKey);
+            } catch (Exception ex) {
+                LOGGER.error("An unexpected error occurred while analyzing a batch of %d unique components".formatted(batch.size()), ex);
+            }
+        }
+    }
+
+    private static Map<AnalysisKey, List<Long>> getComponentIdsByAnalysisKey(final QueryManager qm) {
+        final var componentIdsByKey = new LinkedHashMap<AnalysisKey, List<Long>>();
+        long lastId = -1;
+        while (true) {
+            final List<ComponentAnalysisKeyProjection> page;
+            try (final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class)) {
+                query.setFilter("""
+                        id > :lastId
+                            && (project.active == null || project.active == true)
+                            && (purl != null || cpe != null)""");
+                query.setParameters(lastId);
+                query.setResult("id, purl, cpe, internal");
+                query.setOrdering("id ASC");
+                query.range(0, PORTFOLIO_ANALYSIS_PAGE_SIZE);
+                page = List.copyOf(query.executeResultList(ComponentAnalysisKeyProjection.class));
+            } catch (Exception ex) {
+                throw new IllegalStateException("Failed to fetch components of the portfolio", ex);
+            }
+            if (page.isEmpty()) {
+                return componentIdsByKey;
+            }
+
+            for (final ComponentAnalysisKeyProjection component : page) {
+                componentIdsByKey.computeIfAbsent(component.toAnalysisKey(), ignored -> new ArrayList<>()).add(component.id());
+            }
+            lastId = page.get(page.size() - 1).id();
+        }
+    }
+
+    /**
+     * Apply the findings of representative components to all other components sharing the same {@link AnalysisKey}.
+     * Findings that were not reported by an analyzer, but assigned manually, are not applied.
+     */
+    private static void applyRepresentativeFindings(final QueryManager qm, final List<AnalysisKey> keys,
+                                                    final Map<AnalysisKey, List<Long>> componentIdsByKey) throws Exception {
+        final List<Long> representativeIds = keys.stream()
+                .map(componentIdsByKey::get)
+                .filter(componentIds -> componentIds.size() > 1)
+                .map(componentIds -> componentIds.get(0))
+                .toList();
+        if (representativeIds.isEmpty()) {
+            return;
+        }
+
+        final Map<Long, List<FindingProjection>> findingsByComponentId;
+        try (final Query<FindingAttribution> query = qm.getPersistenceManager().newQuery(FindingAttribution.class)) {
+            query.setFilter(":ids.contains(component.id) && analyzerIdentity != :none");
+            query.setNamedParameters(Map.of("ids", representativeIds, "none", AnalyzerIdentity.NONE));
+            query.setResult("component.id, vulnerability.id, analyzerIdentity");
+            findingsByComponentId = query.executeResultList(FindingProjection.class).stream()
+                    .collect(Collectors.groupingBy(FindingProjection::componentId));
+        }
+
+        if (findingsByComponentId.isEmpty()) {
+            return;
+        }
+
+        // Load all components and vulnerabilities involved at once, rather than one by one.
+        final List<Long> componentIds = keys.stream()
+                .map(componentIdsByKey::get)
+                .filter(keyComponentIds -> findingsByComponentId.containsKey(keyComponentIds.get(0)))
+                .flatMap(keyComponentIds -> keyComponentIds.subList(1, keyComponentIds.size()).stream())
+                .toList();
+        final Map<Long, Component> componentsById = qm.getComponentsById(componentIds);
+        final Map<Long, Vulnerability> vulnerabilitiesById = qm.getVulnerabilitiesById(findingsByComponentId.values().stream()
+                        .flatMap(List::stream)
+                        .map(FindingProjection::vulnerabilityId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Vulnerability::getId, Function.identity()));
+
+        final var findingsWriter = new FindingsWriter(qm, VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS);
+        for (final AnalysisKey key : keys) {
+            final List<Long> keyComponentIds = componentIdsByKey.get(key);
+            final List<FindingProjection> findings = findingsByComponentId.get(keyComponentIds.get(0));
+            if (findings == null) {
+                continue;
+            }
+            for (final Long componentId : keyComponentIds.subList(1, keyComponentIds.size())) {
+                final Component component = componentsById.get(componentId);
+                if (component == null) {
+                    continue; // Deleted since the portfolio was fetched.
+                }
+                for (final FindingProjection finding : findings) {
+                    final Vulnerability vulnerability = vulnerabilitiesById.get(finding.vulnerabilityId());
+                    if (vulnerability != null) {
+                        findingsWriter.add(component, vulnerability, finding.analyzerIdentity());
+                    }
+                }
+            }
+        }
+        findingsWriter.flush();
+    }
+
     private void analyzeComponents(final QueryManager qm, final List<Component> components, final Event event) {
         /*
           When this task is processing events that specify the components to scan,
@@ -112,15 +279,35 @@ public class VulnerabilityAnalysisTask implements Subscriber {
             inspectComponentReadiness(component, snykAnalysisTask, snykCandidates);
         }
 
-        qm.detach(components);
+        // Analyzers are executed concurrently, so that the time it takes to analyze the given components
+        // is bound by the slowest analyzer, rather than the sum of all analyzers. Each analyzer operates on
+        // its own detached copies of the candidates, as their transient cache result must not be shared.
+        // Exceptions are caught per analyzer as to prevent one analyzer from interrupting the successful
+        // execution of all analyzers.
+        final List<Future<?>> futures = List.of(
+                submitAnalysis(internalAnalysisTask, new InternalAnalysisEvent(qm.detach(internalCandidates)), event),
+                submitAnalysis(ossIndexAnalysisTask, new OssIndexAnalysisEvent(qm.detach(ossIndexCandidates)), event),
+                submitAnalysis(snykAnalysisTask, new SnykAnalysisEvent(qm.detach(snykCandidates)), event),
+                submitAnalysis(vulnDbAnalysisTask, new VulnDbAnalysisEvent(qm.detach(vulnDbCandidates)), event));
 
-        // Do not call individual async events when processing a known list of components.
-        // Call each analyzer task sequentially and catch any exceptions as to prevent one analyzer
-        // from interrupting the successful execution of all analyzers.
-        performAnalysis(internalAnalysisTask, new InternalAnalysisEvent(internalCandidates), internalAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(ossIndexAnalysisTask, new OssIndexAnalysisEvent(ossIndexCandidates), ossIndexAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(snykAnalysisTask, new SnykAnalysisEvent(snykCandidates), snykAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(vulnDbAnalysisTask, new VulnDbAnalysisEvent(vulnDbCandidates), vulnDbAnalysisTask.getAnalyzerIdentity(), event);
+        // Findings of all analyzers must be persisted before policies are evaluated and metrics are updated.
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted while waiting for vulnerability analyzers to complete");
+                return;
+            } catch (ExecutionException ex) {
+                LOGGER.error("An unexpected error occurred performing a vulnerability analysis task", ex.getCause());
+            }
+        }
+    }
+
+    private <T extends Subscriber & ScanTask> Future<?> submitAnalysis(final T scanTask, final VulnerabilityAnalysisEvent event,
+                                                                        final Event eventType) {
+        return EXECUTORS.get(scanTask.getAnalyzerIdentity())
+                .submit(() -> performAnalysis(scanTask, event, scanTask.getAnalyzerIdentity(), eventType));
     }
 
     private void performPolicyEvaluation(Project project, List<Component> components) {
@@ -171,4 +358,37 @@ public class VulnerabilityAnalysisTask implements Subscriber {
             LOGGER.debug("Time taken by perform analysis task by " + analyzerIdentity.name() + " : " + timeElapsed.toMillis() + " milliseconds");
         }
     }
+
+    /**
+     * The attributes of a {@link Component} that determine the results of its vulnerability analysis.
+     * Components with equal keys yield equal findings.
+     * <p>
+     * The PURL is compared in its canonical form, including qualifiers and subpath, as some analyzers
+     * take them into account. Components whose PURLs merely differ in the order of their qualifiers
+     * thus share a key, while components whose PURLs differ in the qualifiers themselves do not.
+     */
+    record AnalysisKey(String purl, String cpe, boolean internal) {
+    }
+
+    public record ComponentAnalysisKeyProjection(Long id, String purl, String cpe, Boolean internal) {
+
+        AnalysisKey toAnalysisKey() {
+            final PackageURL parsedPurl = PurlUtil.silentPurl(purl);
+            return new AnalysisKey(parsedPurl != null ? parsedPurl.canonicalize() : purl, cpe, Boolean.TRUE.equals(internal));
+        }
+
+    }
+
+    /**
+     * @param analyzer The {@link AnalyzerIdentity} of the finding; DataNucleus is unable to
+     *                 map it to a result class constructor parameter of the enum type
+     */
+    public record FindingProjection(Long componentId, Long vulnerabilityId, Object analyzer) {
+
+        private AnalyzerIdentity analyzerIdentity() {
+            return (AnalyzerIdentity) analyzer;
+        }
+
+    }
+
 }
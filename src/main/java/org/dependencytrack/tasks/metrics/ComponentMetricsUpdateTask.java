@@ -21,6 +21,7 @@ package org.dependencytrack.tasks.metrics;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.dependencytrack.event.ComponentMetricsUpdateEvent;
 import org.dependencytrack.metrics.Metrics;
@@ -30,31 +31,57 @@ import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.ViolationAnalysis;
 import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.VulnerabilityUtil;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.Math.toIntExact;
 
 /**
  * A {@link Subscriber} task that updates {@link Component} metrics.
+ * <p>
+ * Metrics are calculated in a set-based manner, using a fixed number of grouped queries
+ * per invocation, no matter how many components are being updated. This allows
+ * {@link ProjectMetricsUpdateTask} to update the metrics of all components of a project
+ * at once, see {@link #updateMetrics(QueryManager, Project)}.
  *
  * @since 4.6.0
  */
 public class ComponentMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(ComponentMetricsUpdateTask.class);
+    private static final int QUERY_PARAMETER_BATCH_SIZE = 1000;
+    private static final int WRITE_BATCH_SIZE = 500;
+    private static final Map<String, Function<VulnerabilityAlias, String>> ALIAS_FIELD_GETTERS = Map.of(
+            "cveId", VulnerabilityAlias::getCveId,
+            "sonatypeId", VulnerabilityAlias::getSonatypeId,
+            "ghsaId", VulnerabilityAlias::getGhsaId,
+            "osvId", VulnerabilityAlias::getOsvId,
+            "snykId", VulnerabilityAlias::getSnykId,
+            "vulnDbId", VulnerabilityAlias::getVulnDbId,
+            "internalId", VulnerabilityAlias::getInternalId
+    );
 
     @Override
     public void inform(final Event e) {
@@ -69,173 +96,419 @@ public class ComponentMetricsUpdateTask implements Subscriber {
 
     static Counters updateMetrics(final UUID uuid) throws Exception {
         LOGGER.debug("Executing metrics update for component " + uuid);
-        final var counters = new Counters();
+        final var startedAt = new Date();
+        final Counters counters;
 
         try (final var qm = new QueryManager()) {
-            final PersistenceManager pm = qm.getPersistenceManager();
-
             final Component component = qm.getObjectByUuid(Component.class, uuid, List.of(Component.FetchGroup.METRICS_UPDATE.name()));
             if (component == null) {
                 throw new NoSuchElementException("Component " + uuid + " does not exist");
             }
 
-            final Set<String> aliasesSeen = new HashSet<>();
-            for (final Vulnerability vulnerability : getVulnerabilities(pm, component)) {
-                // Quick pre-flight check whether we already encountered an alias of this particular vulnerability
-                final String alias = vulnerability.getSource() + "|" + vulnerability.getVulnId();
-                if (aliasesSeen.contains(alias)) {
-                    LOGGER.debug("An alias of " + alias + " has already been processed; Skipping");
-                    continue;
-                }
+            counters = updateMetrics(qm, component.getProject(), List.of(component), Scope.component(component)).get(component.getId());
+        }
 
-                // Fetch all aliases for this vulnerability and consider all of them as "seen"
-                qm.getVulnerabilityAliases(vulnerability).stream()
-                        .map(VulnerabilityAlias::getAllBySource)
-                        .flatMap(vulnIdsBySource -> vulnIdsBySource.entrySet().stream())
-                        .map(vulnIdBySource -> vulnIdBySource.getKey() + "|" + vulnIdBySource.getValue())
-                        .forEach(aliasesSeen::add);
-
-                counters.vulnerabilities++;
-
-                switch (vulnerability.getSeverity()) {
-                    case CRITICAL -> counters.critical++;
-                    case HIGH -> counters.high++;
-                    case MEDIUM -> counters.medium++;
-                    case LOW, INFO -> counters.low++;
-                    case UNASSIGNED -> counters.unassigned++;
-                }
+        LOGGER.debug("Completed metrics update for component " + uuid + " in " +
+                DurationFormatUtils.formatDuration(new Date().getTime() - startedAt.getTime(), "mm:ss:SS"));
+        return counters;
+    }
+
+    /**
+     * Update the metrics of all {@link Component}s of a given {@link Project},
+     * whose ID is within the range of {@code firstId} and {@code lastId} (both inclusive).
+     *
+     * @param qm      The {@link QueryManager} to use
+     * @param project The {@link Project} to update component metrics for
+     * @param firstId The lowest component ID to update metrics for
+     * @param lastId  The highest component ID to update metrics for
+     * @return The {@link Counters} of all components, keyed by component ID
+     * @throws Exception When updating the metrics failed
+     * @since 4.11.0
+     */
+    static Map<Long, Counters> updateMetrics(final QueryManager qm, final Project project,
+                                             final long firstId, final long lastId) throws Exception {
+        return updateMetrics(qm, project, Scope.projectPage(project, firstId, lastId));
+    }
+
+    private static Map<Long, Counters> updateMetrics(final QueryManager qm, final Project project, final Scope scope) throws Exception {
+        final List<Component> components = getComponents(qm.getPersistenceManager(), scope);
+        if (components.isEmpty()) {
+            return Map.of();
+        }
+
+        return updateMetrics(qm, project, components, scope);
+    }
+
+    private static Map<Long, Counters> updateMetrics(final QueryManager qm, final Project project,
+                                                     final List<Component> components, final Scope scope) throws Exception {
+        final PersistenceManager pm = qm.getPersistenceManager();
+
+        final var countersByComponentId = new LinkedHashMap<Long, Counters>(components.size());
+        for (final Component component : components) {
+            countersByComponentId.put(component.getId(), new Counters());
+        }
+
+        final Map<Long, Set<Long>> suppressedVulnIdsByComponentId = new HashMap<>();
+        for (final ComponentVulnerabilityProjection suppression : getSuppressedFindings(pm, scope)) {
+            final Counters counters = countersByComponentId.get(suppression.componentId());
+            if (counters != null) {
+                counters.suppressions++;
+                suppressedVulnIdsByComponentId.computeIfAbsent(suppression.componentId(), ignored -> new HashSet<>()).add(suppression.vulnId());
             }
+        }
+
+        final List<VulnerabilityProjection> vulnerabilities = getVulnerabilities(pm, scope);
+        final Map<String, Set<String>> aliasesByVulnerability = getVulnerabilityAliases(pm, vulnerabilities);
+
+        Long previousComponentId = null;
+        final Set<String> aliasesSeen = new HashSet<>();
+        for (final VulnerabilityProjection vulnerability : vulnerabilities) {
+            final Counters counters = countersByComponentId.get(vulnerability.componentId());
+            if (counters == null
+                    || suppressedVulnIdsByComponentId.getOrDefault(vulnerability.componentId(), Set.of()).contains(vulnerability.id())) {
+                continue;
+            }
+
+            // Aliases are only de-duplicated within the scope of a single component
+            if (!vulnerability.componentId().equals(previousComponentId)) {
+                aliasesSeen.clear();
+                previousComponentId = vulnerability.componentId();
+            }
+
+            // Quick pre-flight check whether we already encountered an alias of this particular vulnerability
+            final String alias = vulnerability.source() + "|" + vulnerability.vulnId();
+            if (aliasesSeen.contains(alias)) {
+                LOGGER.debug("An alias of " + alias + " has already been processed; Skipping");
+                continue;
+            }
+
+            // Consider all aliases of this vulnerability as "seen"
+            aliasesSeen.addAll(aliasesByVulnerability.getOrDefault(alias, Set.of()));
 
+            counters.vulnerabilities++;
+
+            switch (vulnerability.getSeverity()) {
+                case CRITICAL -> counters.critical++;
+                case HIGH -> counters.high++;
+                case MEDIUM -> counters.medium++;
+                case LOW, INFO -> counters.low++;
+                case UNASSIGNED -> counters.unassigned++;
+            }
+        }
+
+        final Map<Long, Long> auditedFindingsByComponentId = getTotalAuditedFindings(pm, scope);
+        for (final Map.Entry<Long, Counters> entry : countersByComponentId.entrySet()) {
+            final Counters counters = entry.getValue();
             counters.findingsTotal = toIntExact(counters.vulnerabilities);
-            counters.findingsAudited = toIntExact(getTotalAuditedFindings(pm, component));
+            counters.findingsAudited = toIntExact(auditedFindingsByComponentId.getOrDefault(entry.getKey(), 0L));
             counters.findingsUnaudited = counters.findingsTotal - counters.findingsAudited;
-            counters.suppressions = toIntExact(getTotalSuppressedFindings(pm, component));
             counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+        }
 
-            for (final PolicyViolationProjection violation : getPolicyViolations(pm, component)) {
-                counters.policyViolationsTotal++;
+        for (final PolicyViolationProjection violations : getPolicyViolations(pm, scope)) {
+            final Counters counters = countersByComponentId.get(violations.componentId());
+            if (counters == null) {
+                continue;
+            }
 
-                switch (PolicyViolation.Type.valueOf(violation.type().name())) {
-                    case LICENSE -> counters.policyViolationsLicenseTotal++;
-                    case OPERATIONAL -> counters.policyViolationsOperationalTotal++;
-                    case SECURITY -> counters.policyViolationsSecurityTotal++;
-                }
+            final int count = toIntExact(violations.count());
+            counters.policyViolationsTotal += count;
 
-                switch (Policy.ViolationState.valueOf(violation.violationState().name())) {
-                    case FAIL -> counters.policyViolationsFail++;
-                    case WARN -> counters.policyViolationsWarn++;
-                    case INFO -> counters.policyViolationsInfo++;
-                }
+            switch (PolicyViolation.Type.valueOf(violations.type().name())) {
+                case LICENSE -> counters.policyViolationsLicenseTotal += count;
+                case OPERATIONAL -> counters.policyViolationsOperationalTotal += count;
+                case SECURITY -> counters.policyViolationsSecurityTotal += count;
             }
 
-            if (counters.policyViolationsLicenseTotal > 0) {
-                counters.policyViolationsLicenseAudited = toIntExact(getTotalAuditedPolicyViolations(pm, component, PolicyViolation.Type.LICENSE));
-                counters.policyViolationsLicenseUnaudited = counters.policyViolationsLicenseTotal - counters.policyViolationsLicenseAudited;
+            switch (Policy.ViolationState.valueOf(violations.violationState().name())) {
+                case FAIL -> counters.policyViolationsFail += count;
+                case WARN -> counters.policyViolationsWarn += count;
+                case INFO -> counters.policyViolationsInfo += count;
             }
-            if (counters.policyViolationsOperationalTotal > 0) {
-                counters.policyViolationsOperationalAudited = toIntExact(getTotalAuditedPolicyViolations(pm, component, PolicyViolation.Type.OPERATIONAL));
-                counters.policyViolationsOperationalUnaudited = counters.policyViolationsOperationalTotal - counters.policyViolationsOperationalAudited;
+        }
+
+        for (final AuditedPolicyViolationProjection audited : getTotalAuditedPolicyViolations(pm, scope)) {
+            final Counters counters = countersByComponentId.get(audited.componentId());
+            if (counters == null) {
+                continue;
             }
-            if (counters.policyViolationsSecurityTotal > 0) {
-                counters.policyViolationsSecurityAudited = toIntExact(getTotalAuditedPolicyViolations(pm, component, PolicyViolation.Type.SECURITY));
-                counters.policyViolationsSecurityUnaudited = counters.policyViolationsSecurityTotal - counters.policyViolationsSecurityAudited;
+
+            final int count = toIntExact(audited.count());
+            switch (PolicyViolation.Type.valueOf(audited.type().name())) {
+                case LICENSE -> {
+                    if (counters.policyViolationsLicenseTotal > 0) {
+                        counters.policyViolationsLicenseAudited = count;
+                    }
+                }
+                case OPERATIONAL -> {
+                    if (counters.policyViolationsOperationalTotal > 0) {
+                        counters.policyViolationsOperationalAudited = count;
+                    }
+                }
+                case SECURITY -> {
+                    if (counters.policyViolationsSecurityTotal > 0) {
+                        counters.policyViolationsSecurityAudited = count;
+                    }
+                }
             }
+        }
 
+        for (final Counters counters : countersByComponentId.values()) {
+            counters.policyViolationsLicenseUnaudited = counters.policyViolationsLicenseTotal - counters.policyViolationsLicenseAudited;
+            counters.policyViolationsOperationalUnaudited = counters.policyViolationsOperationalTotal - counters.policyViolationsOperationalAudited;
+            counters.policyViolationsSecurityUnaudited = counters.policyViolationsSecurityTotal - counters.policyViolationsSecurityAudited;
             counters.policyViolationsAudited = counters.policyViolationsLicenseAudited +
                     counters.policyViolationsOperationalAudited +
                     counters.policyViolationsSecurityAudited;
             counters.policyViolationsUnaudited = counters.policyViolationsTotal - counters.policyViolationsAudited;
+        }
 
+        final Map<Long, DependencyMetrics> latestMetricsByComponentId = getMostRecentDependencyMetrics(pm, scope);
+        for (final List<Component> batch : Lists.partition(components, WRITE_BATCH_SIZE)) {
+            throwIfInterrupted();
             qm.runInTransaction(() -> {
-                final DependencyMetrics latestMetrics = qm.getMostRecentDependencyMetrics(component);
-                if (!counters.hasChanged(latestMetrics)) {
-                    LOGGER.debug("Metrics of component " + uuid + " did not change");
-                    latestMetrics.setLastOccurrence(counters.measuredAt);
-                } else {
-                    LOGGER.debug("Metrics of component " + uuid + " changed");
-                    final DependencyMetrics metrics = counters.createComponentMetrics(component);
-                    pm.makePersistent(metrics);
+                final var metricsToCreate = new ArrayList<DependencyMetrics>();
+                for (final Component component : batch) {
+                    final Counters counters = countersByComponentId.get(component.getId());
+                    final DependencyMetrics latestMetrics = latestMetricsByComponentId.get(component.getId());
+                    if (!counters.hasChanged(latestMetrics)) {
+                        LOGGER.debug("Metrics of component " + component.getUuid() + " did not change");
+                        latestMetrics.setLastOccurrence(counters.measuredAt);
+                    } else {
+                        LOGGER.debug("Metrics of component " + component.getUuid() + " changed");
+                        metricsToCreate.add(counters.createComponentMetrics(component, project));
+                    }
+
+                    if (component.getLastInheritedRiskScore() == null ||
+                            component.getLastInheritedRiskScore() != counters.inheritedRiskScore) {
+                        LOGGER.debug("Updating inherited risk score of component " + component.getUuid());
+                        component.setLastInheritedRiskScore(counters.inheritedRiskScore);
+                    }
                 }
+                pm.makePersistentAll(metricsToCreate);
             });
+        }
+
+        return countersByComponentId;
+    }
+
+    /**
+     * Metrics updates may be abandoned, in which case they are interrupted. Database operations
+     * do not respond to interruption, thus it must be checked for before writing any results.
+     *
+     * @throws InterruptedException When the current thread has been interrupted
+     * @since 4.11.0
+     */
+    static void throwIfInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Metrics update was interrupted");
+        }
+    }
 
-            if (component.getLastInheritedRiskScore() == null ||
-                    component.getLastInheritedRiskScore() != counters.inheritedRiskScore) {
-                LOGGER.debug("Updating inherited risk score of component " + uuid);
-                qm.runInTransaction(() -> component.setLastInheritedRiskScore(counters.inheritedRiskScore));
+    private static List<Component> getComponents(final PersistenceManager pm, final Scope scope) throws Exception {
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter(scope.filter("this"));
+            query.setParameters(scope.value());
+            query.setOrdering("id ASC");
+            query.getFetchPlan().setGroup(Component.FetchGroup.METRICS_UPDATE.name());
+            return List.copyOf(query.executeList());
+        }
+    }
+
+    private static List<VulnerabilityProjection> getVulnerabilities(final PersistenceManager pm, final Scope scope) throws Exception {
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter(scope.filter("this") + " && vulnerabilities.contains(vuln)");
+            query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+            query.setParameters(scope.value());
+            query.setResult("""
+                    id, vuln.id, vuln.source, vuln.vulnId, vuln.severity, vuln.cvssV2BaseScore, vuln.cvssV3BaseScore,
+                    vuln.owaspRRLikelihoodScore, vuln.owaspRRTechnicalImpactScore, vuln.owaspRRBusinessImpactScore
+                    """);
+            query.setOrdering("id ASC, vuln.id ASC");
+            return List.copyOf(query.executeResultList(VulnerabilityProjection.class));
+        }
+    }
+
+    /**
+     * Fetch the aliases of all given vulnerabilities, using one query per alias identifier
+     * and batch of {@value #QUERY_PARAMETER_BATCH_SIZE} vulnerabilities.
+     *
+     * @return All aliases of a vulnerability in {@code SOURCE|VULN_ID} notation, keyed by the vulnerability in the same notation
+     */
+    private static Map<String, Set<String>> getVulnerabilityAliases(final PersistenceManager pm,
+                                                                    final List<VulnerabilityProjection> vulnerabilities) throws Exception {
+        // Multiple sources can share the same alias field (e.g. INTERNAL and NPM),
+        // thus a vulnerability ID may map to more than one vulnerability.
+        final Map<String, Map<String, Set<String>>> vulnerabilitiesByAliasField = new HashMap<>();
+        for (final VulnerabilityProjection vulnerability : vulnerabilities) {
+            vulnerabilitiesByAliasField
+                    .computeIfAbsent(getAliasField(vulnerability.source()), ignored -> new HashMap<>())
+                    .computeIfAbsent(vulnerability.vulnId(), ignored -> new HashSet<>())
+                    .add(vulnerability.source() + "|" + vulnerability.vulnId());
+        }
+
+        final Map<String, Set<String>> aliasesByVulnerability = new HashMap<>();
+        for (final Map.Entry<String, Map<String, Set<String>>> entry : vulnerabilitiesByAliasField.entrySet()) {
+            final String aliasField = entry.getKey();
+            final Map<String, Set<String>> vulnerabilitiesByVulnId = entry.getValue();
+
+            for (final List<String> batch : Lists.partition(List.copyOf(vulnerabilitiesByVulnId.keySet()), QUERY_PARAMETER_BATCH_SIZE)) {
+                final List<VulnerabilityAlias> aliases;
+                try (final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class)) {
+                    query.setFilter(":vulnIds.contains(" + aliasField + ")");
+                    query.setParameters(batch);
+                    aliases = List.copyOf(query.executeList());
+                }
+
+                for (final VulnerabilityAlias alias : aliases) {
+                    final Set<String> aliasVulnerabilities = alias.getAllBySource().entrySet().stream()
+                            .map(vulnIdBySource -> vulnIdBySource.getKey() + "|" + vulnIdBySource.getValue())
+                            .collect(Collectors.toSet());
+                    for (final String vulnerability : vulnerabilitiesByVulnId.getOrDefault(ALIAS_FIELD_GETTERS.get(aliasField).apply(alias), Set.of())) {
+                        aliasesByVulnerability.computeIfAbsent(vulnerability, ignored -> new HashSet<>()).addAll(aliasVulnerabilities);
+                    }
+                }
             }
         }
 
-        LOGGER.debug("Completed metrics update for component " + uuid + " in " +
-                DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
-        return counters;
+        return aliasesByVulnerability;
     }
 
-    @SuppressWarnings("unchecked")
-    private static List<Vulnerability> getVulnerabilities(final PersistenceManager pm, final Component component) throws Exception {
-        // Using the JDO single-string syntax here because we need to pass the parameter
-        // of the outer query (the component) to the sub-query. For some reason that does
-        // not work with the declarative JDO API.
-        try (final Query<?> query = pm.newQuery(Query.JDOQL, """
-                SELECT FROM org.dependencytrack.model.Vulnerability
-                WHERE this.components.contains(:component)
-                    && (SELECT FROM org.dependencytrack.model.Analysis a
-                        WHERE a.component == :component
-                            && a.vulnerability == this
-                            && a.suppressed == true).isEmpty()
-                """)) {
-            query.setParameters(component);
-            query.getFetchPlan().setGroup(Vulnerability.FetchGroup.METRICS_UPDATE.name());
-            return List.copyOf((List<Vulnerability>) query.executeList());
+    /**
+     * @see org.dependencytrack.persistence.QueryManager#getVulnerabilityAliases(Vulnerability)
+     */
+    private static String getAliasField(final String source) {
+        if (Vulnerability.Source.NVD.name().equals(source)) {
+            return "cveId";
+        } else if (Vulnerability.Source.OSSINDEX.name().equals(source)) {
+            return "sonatypeId";
+        } else if (Vulnerability.Source.GITHUB.name().equals(source)) {
+            return "ghsaId";
+        } else if (Vulnerability.Source.OSV.name().equals(source)) {
+            return "osvId";
+        } else if (Vulnerability.Source.SNYK.name().equals(source)) {
+            return "snykId";
+        } else if (Vulnerability.Source.VULNDB.name().equals(source)) {
+            return "vulnDbId";
         }
+        return "internalId";
     }
 
-    private static long getTotalAuditedFindings(final PersistenceManager pm, final Component component) throws Exception {
+    private static List<ComponentVulnerabilityProjection> getSuppressedFindings(final PersistenceManager pm, final Scope scope) throws Exception {
         try (final Query<Analysis> query = pm.newQuery(Analysis.class)) {
-            query.setFilter("""
-                    component == :component &&
-                    suppressed == false &&
-                    analysisState != :notSet &&
-                    analysisState != :inTriage
-                    """);
-            query.setParameters(component, AnalysisState.NOT_SET, AnalysisState.IN_TRIAGE);
-            query.setResult("count(this)");
-            return query.executeResultUnique(Long.class);
+            query.setFilter(scope.filter("component") + " && suppressed == true");
+            query.setParameters(scope.value());
+            query.setResult("component.id, vulnerability.id");
+            return List.copyOf(query.executeResultList(ComponentVulnerabilityProjection.class));
         }
     }
 
-    private static long getTotalSuppressedFindings(final PersistenceManager pm, final Component component) throws Exception {
+    private static Map<Long, Long> getTotalAuditedFindings(final PersistenceManager pm, final Scope scope) throws Exception {
         try (final Query<Analysis> query = pm.newQuery(Analysis.class)) {
-            query.setFilter("component == :component && suppressed == true");
-            query.setParameters(component);
-            query.setResult("count(this)");
-            return query.executeResultUnique(Long.class);
+            query.setFilter(scope.filter("component") + """
+                     &&
+                    suppressed == false &&
+                    analysisState != :notSet &&
+                    analysisState != :inTriage
+                    """);
+            query.setParameters(scope.value(), AnalysisState.NOT_SET, AnalysisState.IN_TRIAGE);
+            query.setGrouping("component.id");
+            query.setResult("component.id, count(this)");
+            return query.executeResultList(ComponentCountProjection.class).stream()
+                    .collect(Collectors.toMap(ComponentCountProjection::componentId, ComponentCountProjection::count));
         }
     }
 
-    private static List<PolicyViolationProjection> getPolicyViolations(final PersistenceManager pm, final Component component) throws Exception {
+    private static List<PolicyViolationProjection> getPolicyViolations(final PersistenceManager pm, final Scope scope) throws Exception {
         try (final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class)) {
-            query.setFilter("component == :component && (analysis == null || analysis.suppressed == false)");
-            query.setParameters(component);
-            query.setResult("type, policyCondition.policy.violationState");
+            query.setFilter(scope.filter("component") + " && (analysis == null || analysis.suppressed == false)");
+            query.setParameters(scope.value());
+            query.setGrouping("component.id, type, policyCondition.policy.violationState");
+            query.setResult("component.id, type, policyCondition.policy.violationState, count(this)");
             return List.copyOf(query.executeResultList(PolicyViolationProjection.class));
         }
     }
 
-    private static long getTotalAuditedPolicyViolations(final PersistenceManager pm, final Component component, final PolicyViolation.Type violationType) throws Exception {
+    private static List<AuditedPolicyViolationProjection> getTotalAuditedPolicyViolations(final PersistenceManager pm, final Scope scope) throws Exception {
         try (final Query<ViolationAnalysis> query = pm.newQuery(ViolationAnalysis.class)) {
-            query.setFilter("""
-                    component == :component &&
+            query.setFilter(scope.filter("component") + """
+                     &&
                     suppressed == false &&
-                    analysisState != :notSet &&
-                    policyViolation.type == :violationType
+                    analysisState != :notSet
                     """);
-            query.setParameters(component, ViolationAnalysisState.NOT_SET, violationType);
-            query.setResult("count(this)");
-            return query.executeResultUnique(Long.class);
+            query.setParameters(scope.value(), ViolationAnalysisState.NOT_SET);
+            query.setGrouping("component.id, policyViolation.type");
+            query.setResult("component.id, policyViolation.type, count(this)");
+            return List.copyOf(query.executeResultList(AuditedPolicyViolationProjection.class));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, DependencyMetrics> getMostRecentDependencyMetrics(final PersistenceManager pm, final Scope scope) throws Exception {
+        // Using the JDO single-string syntax here because the sub-query needs
+        // to be correlated with the candidate of the outer query.
+        try (final Query<?> query = pm.newQuery(Query.JDOQL, """
+                SELECT FROM org.dependencytrack.model.DependencyMetrics
+                WHERE %s
+                    && this.lastOccurrence == (SELECT max(m.lastOccurrence) FROM org.dependencytrack.model.DependencyMetrics m
+                        WHERE m.component == this.component)
+                """.formatted(scope.filter("this.component")))) {
+            query.setParameters(scope.value());
+            final var metricsByComponentId = new HashMap<Long, DependencyMetrics>();
+            for (final DependencyMetrics metrics : (List<DependencyMetrics>) query.executeList()) {
+                metricsByComponentId.putIfAbsent(metrics.getComponent().getId(), metrics);
+            }
+            return metricsByComponentId;
+        }
+    }
+
+    /**
+     * The set of {@link Component}s to calculate metrics for.
+     *
+     * @param filter Filter template, where {@code %1$s} is substituted with the path to the component
+     * @param value  Value of the {@code :scope} parameter
+     */
+    private record Scope(String filter, Object value) {
+
+        private static Scope component(final Component component) {
+            return new Scope("%1$s == :scope", component);
+        }
+
+        private static Scope projectPage(final Project project, final long firstId, final long lastId) {
+            return new Scope("%1$s.project == :scope && %1$s.id >= " + firstId + " && %1$s.id <= " + lastId, project);
+        }
+
+        private String filter(final String componentPath) {
+            return filter.formatted(componentPath);
         }
+
+    }
+
+    public record VulnerabilityProjection(Long componentId, Long id, String source, String vulnId, Object severity,
+                                          BigDecimal cvssV2BaseScore, BigDecimal cvssV3BaseScore,
+                                          BigDecimal owaspRRLikelihoodScore, BigDecimal owaspRRTechnicalImpactScore,
+                                          BigDecimal owaspRRBusinessImpactScore) {
+
+        /**
+         * @see Vulnerability#getSeverity()
+         */
+        private Severity getSeverity() {
+            return VulnerabilityUtil.getSeverity(severity, cvssV2BaseScore, cvssV3BaseScore,
+                    owaspRRLikelihoodScore, owaspRRTechnicalImpactScore, owaspRRBusinessImpactScore);
+        }
+
+    }
+
+    public record ComponentVulnerabilityProjection(Long componentId, Long vulnId) {
+    }
+
+    public record ComponentCountProjection(Long componentId, Long count) {
+    }
+
+    public record PolicyViolationProjection(Long componentId, Enum<?> type, Enum<?> violationState, Long count) {
     }
 
-    public record PolicyViolationProjection(Enum<?> type, Enum<?> violationState) {
+    public record AuditedPolicyViolationProjection(Long componentId, Enum<?> type, Long count) {
     }
 
 }
@@ -51,10 +51,10 @@ final class Counters {
         this.measuredAt = new Date();
     }
 
-    DependencyMetrics createComponentMetrics(final Component component) {
+    DependencyMetrics createComponentMetrics(final Component component, final Project project) {
         final var metrics = new DependencyMetrics();
         metrics.setComponent(component);
-        metrics.setProject(component.getProject());
+        metrics.setProject(project);
         metrics.setCritical(this.critical);
         metrics.setHigh(this.high);
         metrics.setMedium(this.medium);
@@ -21,12 +21,14 @@ package org.dependencytrack.tasks.metrics;
 import alpine.common.logging.Logger;
 import alpine.common.util.SystemUtil;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.dependencytrack.event.CallbackEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
-import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
@@ -34,20 +36,54 @@ import org.dependencytrack.persistence.QueryManager;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * A {@link Subscriber} task that updates portfolio metrics.
+ * <p>
+ * Metrics of projects are updated using a sliding window, which keeps up to
+ * {@link #MAX_IN_FLIGHT} project metrics updates in flight at any given time.
+ * Portfolio metrics are aggregated from the results of the individual updates.
+ * <p>
+ * When incremental metrics updates are enabled, only metrics of projects marked as dirty
+ * by {@link MetricsDirtyTracker} are recalculated. The most recent metrics of all other
+ * projects, and their components, are carried over by bumping their last occurrence.
  *
  * @since 4.6.0
  */
 public class PortfolioMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(PortfolioMetricsUpdateTask.class);
-    private static final long BATCH_SIZE = SystemUtil.getCpuCores();
+    private static final int MAX_IN_FLIGHT = SystemUtil.getCpuCores();
+    private static final long PAGE_SIZE = 100;
+    private static final int CARRY_OVER_BATCH_SIZE = 1000;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration STRAGGLER_TIMEOUT = Duration.ofMinutes(15);
+
+    private final MetricsDirtyTracker dirtyTracker;
+
+    public PortfolioMetricsUpdateTask() {
+        this(MetricsDirtyTracker.getInstance());
+    }
+
+    PortfolioMetricsUpdateTask(final MetricsDirtyTracker dirtyTracker) {
+        this.dirtyTracker = dirtyTracker;
+    }
 
     @Override
     public void inform(final Event e) {
@@ -61,94 +97,47 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
     }
 
     private void updateMetrics() throws Exception {
-        LOGGER.info("Executing portfolio metrics update");
         final var counters = new Counters();
+        final Instant startedAt = counters.measuredAt.toInstant();
+        final boolean fullUpdate = dirtyTracker.isFullUpdateDue();
+        LOGGER.info("Executing %s portfolio metrics update".formatted(fullUpdate ? "full" : "incremental"));
+
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(PortfolioMetricsUpdateTask.class.getSimpleName() + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .daemon(true)
+                .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(MAX_IN_FLIGHT, threadFactory);
 
         try (final var qm = new QueryManager()) {
             final PersistenceManager pm = qm.getPersistenceManager();
+            final var window = new SlidingWindow(qm, executor, counters, dirtyTracker);
 
-            LOGGER.debug("Fetching first " + BATCH_SIZE + " projects");
+            LOGGER.debug("Fetching first " + PAGE_SIZE + " projects");
             List<Project> activeProjects = fetchNextActiveProjectsPage(pm, null);
 
             while (!activeProjects.isEmpty()) {
-                final long firstId = activeProjects.get(0).getId();
-                final long lastId = activeProjects.get(activeProjects.size() - 1).getId();
-                final int batchCount = activeProjects.size();
-
-                final var countDownLatch = new CountDownLatch(batchCount);
-
                 for (final Project project : activeProjects) {
-                    LOGGER.debug("Dispatching metrics update event for project " + project.getUuid());
-                    final var callbackEvent = new CallbackEvent(countDownLatch::countDown);
-                    Event.dispatch(new ProjectMetricsUpdateEvent(project.getUuid())
-                            .onSuccess(callbackEvent)
-                            .onFailure(callbackEvent));
-                }
-
-                LOGGER.debug("Waiting for metrics updates for projects " + firstId + "-" + lastId + " to complete");
-                if (!countDownLatch.await(15, TimeUnit.MINUTES)) {
-                    // Depending on the system load, it may take a while for the queued events
-                    // to be processed. And depending on how large the projects are, it may take a
-                    // while for the processing of the respective event to complete.
-                    // It is unlikely though that either of these situations causes a block for
-                    // over 15 minutes. If that happens, the system is under-resourced.
-                    LOGGER.warn("Updating metrics for projects " + firstId + "-" + lastId +
-                            " took longer than expected (15m); Proceeding with potentially stale data");
-                }
-                LOGGER.debug("Completed metrics updates for projects " + firstId + "-" + lastId);
-
-                for (final Project project : activeProjects) {
-                    LOGGER.debug("Processing latest metrics for project " + project.getUuid());
-                    final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
-                    if (metrics == null) {
-                        // The project metrics calculation task failed, or the project has been
-                        // deleted after the event being dispatched. Either way, nothing we can
-                        // do anything about.
-                        LOGGER.debug("No metrics found for project " + project.getUuid() + " - skipping");
-                        continue;
+                    if (!fullUpdate && !dirtyTracker.isDirty(project)) {
+                        final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+                        if (metrics != null) {
+                            LOGGER.debug("Metrics of project " + project.getUuid() + " are not dirty; Carrying them over");
+                            carryOverMetrics(qm, project, metrics, counters.measuredAt);
+                            addProjectMetrics(counters, metrics);
+                            continue;
+                        }
                     }
 
-                    counters.critical += metrics.getCritical();
-                    counters.high += metrics.getHigh();
-                    counters.medium += metrics.getMedium();
-                    counters.low += metrics.getLow();
-                    counters.unassigned += metrics.getUnassigned();
-                    counters.vulnerabilities += metrics.getVulnerabilities();
-
-                    counters.findingsTotal += metrics.getFindingsTotal();
-                    counters.findingsAudited += metrics.getFindingsAudited();
-                    counters.findingsUnaudited += metrics.getFindingsUnaudited();
-                    counters.suppressions += metrics.getSuppressed();
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
-
-                    counters.projects++;
-                    if (metrics.getVulnerabilities() > 0) {
-                        counters.vulnerableProjects++;
-                    }
-                    counters.components += metrics.getComponents();
-                    counters.vulnerableComponents += metrics.getVulnerableComponents();
-
-                    counters.policyViolationsFail += metrics.getPolicyViolationsFail();
-                    counters.policyViolationsWarn += metrics.getPolicyViolationsWarn();
-                    counters.policyViolationsInfo += metrics.getPolicyViolationsInfo();
-                    counters.policyViolationsTotal += metrics.getPolicyViolationsTotal();
-                    counters.policyViolationsAudited += metrics.getPolicyViolationsAudited();
-                    counters.policyViolationsUnaudited += metrics.getPolicyViolationsUnaudited();
-                    counters.policyViolationsSecurityTotal += metrics.getPolicyViolationsSecurityTotal();
-                    counters.policyViolationsSecurityAudited += metrics.getPolicyViolationsSecurityAudited();
-                    counters.policyViolationsSecurityUnaudited += metrics.getPolicyViolationsSecurityUnaudited();
-                    counters.policyViolationsLicenseTotal += metrics.getPolicyViolationsLicenseTotal();
-                    counters.policyViolationsLicenseAudited += metrics.getPolicyViolationsLicenseAudited();
-                    counters.policyViolationsLicenseUnaudited += metrics.getPolicyViolationsLicenseUnaudited();
-                    counters.policyViolationsOperationalTotal += metrics.getPolicyViolationsOperationalTotal();
-                    counters.policyViolationsOperationalAudited += metrics.getPolicyViolationsOperationalAudited();
-                    counters.policyViolationsOperationalUnaudited += metrics.getPolicyViolationsOperationalUnaudited();
+                    window.submit(project);
                 }
 
-                LOGGER.debug("Fetching next " + BATCH_SIZE + " projects");
+                LOGGER.debug("Fetching next " + PAGE_SIZE + " projects");
+                final long lastId = activeProjects.get(activeProjects.size() - 1).getId();
                 activeProjects = fetchNextActiveProjectsPage(pm, lastId);
             }
 
+            window.drain();
+
             qm.runInTransaction(() -> {
                 final PortfolioMetrics latestMetrics = qm.getMostRecentPortfolioMetrics();
                 if (!counters.hasChanged(latestMetrics)) {
@@ -160,6 +149,15 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
                     pm.makePersistent(metrics);
                 }
             });
+        } finally {
+            // Project metrics updates that were abandoned, or are still in flight because the
+            // portfolio metrics update failed, are interrupted so they do not keep holding
+            // database connections.
+            executor.shutdownNow();
+        }
+
+        if (fullUpdate) {
+            dirtyTracker.fullUpdateCompleted(startedAt);
         }
 
         LOGGER.info("Completed portfolio metrics update in " +
@@ -175,10 +173,197 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
                 query.setParameters(lastId);
             }
             query.setOrdering("id DESC");
-            query.range(0, BATCH_SIZE);
+            query.range(0, PAGE_SIZE);
             query.getFetchPlan().setGroup(Project.FetchGroup.METRICS_UPDATE.name());
             return List.copyOf(query.executeList());
         }
     }
 
+    /**
+     * Carry over the most recent metrics of a {@link Project} and its components,
+     * without recalculating them, by bumping their last occurrence to {@code measuredAt}.
+     */
+    private void carryOverMetrics(final QueryManager qm, final Project project, final ProjectMetrics metrics, final Date measuredAt) throws Exception {
+        final PersistenceManager pm = qm.getPersistenceManager();
+        qm.runInTransaction(() -> metrics.setLastOccurrence(measuredAt));
+
+        final List<Long> dependencyMetricsIds;
+        try (final Query<?> query = pm.newQuery(Query.JDOQL, """
+                SELECT id FROM org.dependencytrack.model.DependencyMetrics
+                WHERE this.project == :project
+                    && this.lastOccurrence == (SELECT max(m.lastOccurrence) FROM org.dependencytrack.model.DependencyMetrics m
+                        WHERE m.component == this.component)
+                """)) {
+            query.setParameters(project);
+            dependencyMetricsIds = List.copyOf(query.executeResultList(Long.class));
+        }
+
+        for (final List<Long> batch : Lists.partition(dependencyMetricsIds, CARRY_OVER_BATCH_SIZE)) {
+            try (final Query<?> query = pm.newQuery(Query.JDOQL, """
+                    UPDATE org.dependencytrack.model.DependencyMetrics
+                    SET lastOccurrence = :lastOccurrence
+                    WHERE :ids.contains(id)
+                    """)) {
+                query.executeWithMap(Map.of("lastOccurrence", measuredAt, "ids", batch));
+            }
+        }
+    }
+
+    private static void addProjectMetrics(final Counters counters, final ProjectMetrics metrics) {
+        counters.critical += metrics.getCritical();
+        counters.high += metrics.getHigh();
+        counters.medium += metrics.getMedium();
+        counters.low += metrics.getLow();
+        counters.unassigned += metrics.getUnassigned();
+        counters.vulnerabilities += metrics.getVulnerabilities();
+
+        counters.findingsTotal += metrics.getFindingsTotal();
+        counters.findingsAudited += metrics.getFindingsAudited();
+        counters.findingsUnaudited += metrics.getFindingsUnaudited();
+        counters.suppressions += metrics.getSuppressed();
+        counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+
+        counters.projects++;
+        if (metrics.getVulnerabilities() > 0) {
+            counters.vulnerableProjects++;
+        }
+        counters.components += metrics.getComponents();
+        counters.vulnerableComponents += metrics.getVulnerableComponents();
+
+        counters.policyViolationsFail += metrics.getPolicyViolationsFail();
+        counters.policyViolationsWarn += metrics.getPolicyViolationsWarn();
+        counters.policyViolationsInfo += metrics.getPolicyViolationsInfo();
+        counters.policyViolationsTotal += metrics.getPolicyViolationsTotal();
+        counters.policyViolationsAudited += metrics.getPolicyViolationsAudited();
+        counters.policyViolationsUnaudited += metrics.getPolicyViolationsUnaudited();
+        counters.policyViolationsSecurityTotal += metrics.getPolicyViolationsSecurityTotal();
+        counters.policyViolationsSecurityAudited += metrics.getPolicyViolationsSecurityAudited();
+        counters.policyViolationsSecurityUnaudited += metrics.getPolicyViolationsSecurityUnaudited();
+        counters.policyViolationsLicenseTotal += metrics.getPolicyViolationsLicenseTotal();
+        counters.policyViolationsLicenseAudited += metrics.getPolicyViolationsLicenseAudited();
+        counters.policyViolationsLicenseUnaudited += metrics.getPolicyViolationsLicenseUnaudited();
+        counters.policyViolationsOperationalTotal += metrics.getPolicyViolationsOperationalTotal();
+        counters.policyViolationsOperationalAudited += metrics.getPolicyViolationsOperationalAudited();
+        counters.policyViolationsOperationalUnaudited += metrics.getPolicyViolationsOperationalUnaudited();
+    }
+
+    /**
+     * Keeps up to {@link #MAX_IN_FLIGHT} project metrics updates in flight, and aggregates
+     * their results into the portfolio {@link Counters} as soon as they complete.
+     * <p>
+     * Updates that take longer than {@link #STRAGGLER_TIMEOUT} are abandoned and cancelled, in which
+     * case the most recent metrics of the respective project are used instead. The same applies
+     * to updates that failed.
+     */
+    private static final class SlidingWindow {
+
+        private final QueryManager qm;
+        private final CompletionService<Counters> completionService;
+        private final Counters counters;
+        private final MetricsDirtyTracker dirtyTracker;
+        private final Map<Future<Counters>, InFlightUpdate> inFlightUpdates = new HashMap<>();
+        private long lastProgressReport = System.nanoTime();
+        private int completed;
+
+        private SlidingWindow(final QueryManager qm, final ExecutorService executor, final Counters counters,
+                              final MetricsDirtyTracker dirtyTracker) {
+            this.qm = qm;
+            this.completionService = new ExecutorCompletionService<>(executor);
+            this.counters = counters;
+            this.dirtyTracker = dirtyTracker;
+        }
+
+        private void submit(final Project project) throws InterruptedException {
+            while (inFlightUpdates.size() >= MAX_IN_FLIGHT) {
+                awaitNext();
+            }
+
+            LOGGER.debug("Submitting metrics update for project " + project.getUuid());
+            final UUID uuid = project.getUuid();
+            final Future<Counters> future = completionService.submit(() -> new ProjectMetricsUpdateTask().updateMetrics(uuid));
+            inFlightUpdates.put(future, new InFlightUpdate(project, System.nanoTime()));
+        }
+
+        private void drain() throws InterruptedException {
+            while (!inFlightUpdates.isEmpty()) {
+                awaitNext();
+            }
+        }
+
+        private void awaitNext() throws InterruptedException {
+            final Future<Counters> future = completionService.poll(PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            if (future != null) {
+                final InFlightUpdate update = inFlightUpdates.remove(future);
+                if (update != null) {
+                    complete(update, future);
+                }
+            }
+
+            if (System.nanoTime() - lastProgressReport >= PROGRESS_INTERVAL.toNanos()) {
+                reportProgress();
+            }
+        }
+
+        private void complete(final InFlightUpdate update, final Future<Counters> future) throws InterruptedException {
+            final Project project = update.project();
+            completed++;
+
+            try {
+                addProjectMetrics(counters, future.get().createProjectMetrics(project));
+                return;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof NoSuchElementException) {
+                    // The project has been deleted after the update was submitted.
+                    LOGGER.debug("Project " + project.getUuid() + " does not exist anymore - skipping");
+                    return;
+                }
+                LOGGER.error("An unexpected error occurred while updating metrics for project " + project.getUuid(), e.getCause());
+            }
+
+            addMostRecentProjectMetrics(project);
+        }
+
+        private void reportProgress() {
+            lastProgressReport = System.nanoTime();
+            LOGGER.info("Portfolio metrics update in progress: %d project metrics updates completed, %d in flight"
+                    .formatted(completed, inFlightUpdates.size()));
+
+            final Map<Future<Counters>, InFlightUpdate> stragglers = inFlightUpdates.entrySet().stream()
+                    .filter(entry -> entry.getValue().duration().compareTo(STRAGGLER_TIMEOUT) > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            for (final Map.Entry<Future<Counters>, InFlightUpdate> straggler : stragglers.entrySet()) {
+                final Project project = straggler.getValue().project();
+                // Depending on how large the project is, it may take a while for its metrics update
+                // to complete. It is unlikely though that it takes over 15 minutes. If that happens,
+                // the system is under-resourced.
+                LOGGER.warn("Updating metrics for project " + project.getUuid() + " took longer than expected (" +
+                        STRAGGLER_TIMEOUT.toMinutes() + "m); Proceeding with potentially stale data");
+                straggler.getKey().cancel(true);
+                inFlightUpdates.remove(straggler.getKey());
+                // The project was marked as clean when its update started, but its metrics were not updated.
+                dirtyTracker.markDirty(project);
+                completed++;
+                addMostRecentProjectMetrics(project);
+            }
+        }
+
+        private void addMostRecentProjectMetrics(final Project project) {
+            final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+            if (metrics == null) {
+                LOGGER.debug("No metrics found for project " + project.getUuid() + " - skipping");
+                return;
+            }
+            addProjectMetrics(counters, metrics);
+        }
+
+    }
+
+    private record InFlightUpdate(Project project, long startedAtNanos) {
+
+        private Duration duration() {
+            return Duration.ofNanos(System.nanoTime() - startedAtNanos);
+        }
+
+    }
+
 }
@@ -18,32 +18,96 @@
  */
 package org.dependencytrack.tasks.metrics;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.persistence.QueryManager;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link Subscriber} task that updates {@link Project} metrics.
+ * <p>
+ * When parallel mode is enabled, the components of a project are split into pages,
+ * whose metrics are updated concurrently. Each page is processed with its own
+ * {@link QueryManager}, so the size of the shared thread pool bounds the number of
+ * database connections used for component metrics updates across all projects.
  *
  * @since 4.6.0
  */
 public class ProjectMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(ProjectMetricsUpdateTask.class);
+    private static final int PAGE_SIZE = 500;
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        // Each thread holds a database connection while processing a page,
+        // thus the connection budget determines the size of the thread pool.
+        final int connectionBudget = Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_UPDATE_PROJECT_PARALLEL_CONNECTION_BUDGET);
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(ProjectMetricsUpdateTask.class.getSimpleName() + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .daemon(true)
+                .build();
+        EXECUTOR = Executors.newFixedThreadPool(connectionBudget, threadFactory);
+        alpine.common.metrics.Metrics.registerExecutorService(EXECUTOR, ProjectMetricsUpdateTask.class.getSimpleName());
+    }
+
+    /**
+     * Shuts down the thread pool that pages of components are processed on, waiting for {@code timeout} for work in progress to complete.
+     *
+     * @param timeout The maximum {@link Duration} to wait for
+     * @since 4.11.0
+     */
+    public static void shutdown(final Duration timeout) {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Parallel component metrics updates did not complete within " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final boolean parallelEnabled;
+    private final int pageSize;
+
+    public ProjectMetricsUpdateTask() {
+        this(Config.getInstance().getPropertyAsBoolean(ConfigKey.METRICS_UPDATE_PROJECT_PARALLEL_ENABLED), PAGE_SIZE);
+    }
+
+    ProjectMetricsUpdateTask(final boolean parallelEnabled, final int pageSize) {
+        this.parallelEnabled = parallelEnabled;
+        this.pageSize = pageSize;
+    }
 
     @Override
     public void inform(final Event e) {
@@ -58,7 +122,7 @@ public class ProjectMetricsUpdateTask implements Subscriber {
         }
     }
 
-    private void updateMetrics(final UUID uuid) throws Exception {
+    Counters updateMetrics(final UUID uuid) throws Exception {
         final var counters = new Counters();
 
         try (final QueryManager qm = new QueryManager()) {
@@ -69,64 +133,53 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                 throw new NoSuchElementException("Project " + uuid + " does not exist");
             }
 
-            LOGGER.debug("Fetching first components page for project " + uuid);
-            List<Component> components = fetchNextComponentsPage(pm, project, null);
-
-            while (!components.isEmpty()) {
-                for (final Component component : components) {
-                    final Counters componentCounters;
-                    try {
-                        componentCounters = ComponentMetricsUpdateTask.updateMetrics(component.getUuid());
-                    } catch (NoSuchElementException ex) {
-                        // This will happen when a component or its associated project have been deleted after the
-                        // task started. Instead of splurging the log with to-be-expected errors, we just log it
-                        // with DEBUG, and ignore it otherwise.
-                        LOGGER.debug("Couldn't update metrics of component " + component.getUuid() + " because the component was not found", ex);
-                        continue;
-                    } catch (Exception ex) {
-                        LOGGER.error("An unexpected error occurred while updating metrics of component " + component.getUuid(), ex);
-                        continue;
-                    }
-
-                    counters.critical += componentCounters.critical;
-                    counters.high += componentCounters.high;
-                    counters.medium += componentCounters.medium;
-                    counters.low += componentCounters.low;
-                    counters.unassigned += componentCounters.unassigned;
-                    counters.vulnerabilities += componentCounters.vulnerabilities;
-
-                    counters.findingsTotal += componentCounters.findingsTotal;
-                    counters.findingsAudited += componentCounters.findingsAudited;
-                    counters.findingsUnaudited += componentCounters.findingsUnaudited;
-                    counters.suppressions += componentCounters.suppressions;
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
-
-                    counters.components++;
-                    if (componentCounters.vulnerabilities > 0) {
-                        counters.vulnerableComponents += 1;
-                    }
-
-                    counters.policyViolationsFail += componentCounters.policyViolationsFail;
-                    counters.policyViolationsWarn += componentCounters.policyViolationsWarn;
-                    counters.policyViolationsInfo += componentCounters.policyViolationsInfo;
-                    counters.policyViolationsTotal += componentCounters.policyViolationsTotal;
-                    counters.policyViolationsAudited += componentCounters.policyViolationsAudited;
-                    counters.policyViolationsUnaudited += componentCounters.policyViolationsUnaudited;
-                    counters.policyViolationsSecurityTotal += componentCounters.policyViolationsSecurityTotal;
-                    counters.policyViolationsSecurityAudited += componentCounters.policyViolationsSecurityAudited;
-                    counters.policyViolationsSecurityUnaudited += componentCounters.policyViolationsSecurityUnaudited;
-                    counters.policyViolationsLicenseTotal += componentCounters.policyViolationsLicenseTotal;
-                    counters.policyViolationsLicenseAudited += componentCounters.policyViolationsLicenseAudited;
-                    counters.policyViolationsLicenseUnaudited += componentCounters.policyViolationsLicenseUnaudited;
-                    counters.policyViolationsOperationalTotal += componentCounters.policyViolationsOperationalTotal;
-                    counters.policyViolationsOperationalAudited += componentCounters.policyViolationsOperationalAudited;
-                    counters.policyViolationsOperationalUnaudited += componentCounters.policyViolationsOperationalUnaudited;
+            MetricsDirtyTracker.getInstance().markClean(project);
+
+            final Collection<Counters> componentsCounters;
+            if (parallelEnabled) {
+                LOGGER.debug("Updating metrics of components of project " + uuid + " in parallel");
+                componentsCounters = updateComponentMetricsInParallel(pm, project);
+            } else {
+                LOGGER.debug("Updating metrics of components of project " + uuid);
+                componentsCounters = updateComponentMetrics(pm, qm, project);
+            }
+
+            for (final Counters componentCounters : componentsCounters) {
+                counters.critical += componentCounters.critical;
+                counters.high += componentCounters.high;
+                counters.medium += componentCounters.medium;
+                counters.low += componentCounters.low;
+                counters.unassigned += componentCounters.unassigned;
+                counters.vulnerabilities += componentCounters.vulnerabilities;
+
+                counters.findingsTotal += componentCounters.findingsTotal;
+                counters.findingsAudited += componentCounters.findingsAudited;
+                counters.findingsUnaudited += componentCounters.findingsUnaudited;
+                counters.suppressions += componentCounters.suppressions;
+
+                counters.components++;
+                if (componentCounters.vulnerabilities > 0) {
+                    counters.vulnerableComponents += 1;
                 }
 
-                LOGGER.debug("Fetching next components page for project " + uuid);
-                final long lastId = components.get(components.size() - 1).getId();
-                components = fetchNextComponentsPage(pm, project, lastId);
+                counters.policyViolationsFail += componentCounters.policyViolationsFail;
+                counters.policyViolationsWarn += componentCounters.policyViolationsWarn;
+                counters.policyViolationsInfo += componentCounters.policyViolationsInfo;
+                counters.policyViolationsTotal += componentCounters.policyViolationsTotal;
+                counters.policyViolationsAudited += componentCounters.policyViolationsAudited;
+                counters.policyViolationsUnaudited += componentCounters.policyViolationsUnaudited;
+                counters.policyViolationsSecurityTotal += componentCounters.policyViolationsSecurityTotal;
+                counters.policyViolationsSecurityAudited += componentCounters.policyViolationsSecurityAudited;
+                counters.policyViolationsSecurityUnaudited += componentCounters.policyViolationsSecurityUnaudited;
+                counters.policyViolationsLicenseTotal += componentCounters.policyViolationsLicenseTotal;
+                counters.policyViolationsLicenseAudited += componentCounters.policyViolationsLicenseAudited;
+                counters.policyViolationsLicenseUnaudited += componentCounters.policyViolationsLicenseUnaudited;
+                counters.policyViolationsOperationalTotal += componentCounters.policyViolationsOperationalTotal;
+                counters.policyViolationsOperationalAudited += componentCounters.policyViolationsOperationalAudited;
+                counters.policyViolationsOperationalUnaudited += componentCounters.policyViolationsOperationalUnaudited;
             }
+            counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+            ComponentMetricsUpdateTask.throwIfInterrupted();
 
             qm.runInTransaction(() -> {
                 final ProjectMetrics latestMetrics = qm.getMostRecentProjectMetrics(project);
@@ -149,21 +202,60 @@ public class ProjectMetricsUpdateTask implements Subscriber {
 
         LOGGER.debug("Completed metrics update for project " + uuid + " in " +
                 DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
+        return counters;
     }
 
-    private List<Component> fetchNextComponentsPage(final PersistenceManager pm, final Project project, final Long lastId) throws Exception {
-        try (final Query<Component> query = pm.newQuery(Component.class)) {
-            if (lastId == null) {
-                query.setFilter("project == :project");
-                query.setParameters(project);
-            } else {
-                query.setFilter("project == :project && id < :lastId");
-                query.setParameters(project, lastId);
+    private Collection<Counters> updateComponentMetrics(final PersistenceManager pm, final QueryManager qm, final Project project) throws Exception {
+        final var componentsCounters = new ArrayList<Counters>();
+        for (final List<Long> page : Lists.partition(getComponentIds(pm, project), pageSize)) {
+            componentsCounters.addAll(ComponentMetricsUpdateTask.updateMetrics(qm, project, page.get(0), page.get(page.size() - 1)).values());
+
+            // Only hold the components of a single page in memory.
+            pm.evictAll(false, Component.class);
+            pm.evictAll(false, DependencyMetrics.class);
+        }
+
+        return componentsCounters;
+    }
+
+    private Collection<Counters> updateComponentMetricsInParallel(final PersistenceManager pm, final Project project) throws Exception {
+        final long projectId = project.getId();
+
+        final var futures = new ArrayList<Future<Collection<Counters>>>();
+        for (final List<Long> page : Lists.partition(getComponentIds(pm, project), pageSize)) {
+            final long firstId = page.get(0);
+            final long lastId = page.get(page.size() - 1);
+            futures.add(EXECUTOR.submit(() -> {
+                try (final var qm = new QueryManager()) {
+                    final Project pageProject = qm.getObjectById(Project.class, projectId);
+                    return ComponentMetricsUpdateTask.updateMetrics(qm, pageProject, firstId, lastId).values();
+                }
+            }));
+        }
+
+        final var componentsCounters = new ArrayList<Counters>();
+        try {
+            for (final Future<Collection<Counters>> future : futures) {
+                componentsCounters.addAll(future.get());
             }
-            query.setOrdering("id DESC");
-            query.setRange(0, 500);
-            query.getFetchPlan().setGroup(Component.FetchGroup.METRICS_UPDATE.name());
-            return List.copyOf(query.executeList());
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof final Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        return componentsCounters;
+    }
+
+    private List<Long> getComponentIds(final PersistenceManager pm, final Project project) throws Exception {
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter("project == :project");
+            query.setParameters(project);
+            query.setResult("id");
+            query.setOrdering("id ASC");
+            return List.copyOf(query.executeResultList(Long.class));
         }
     }
 
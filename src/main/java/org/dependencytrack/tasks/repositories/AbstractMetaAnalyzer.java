@@ -22,9 +22,13 @@ import alpine.common.logging.Logger;
 import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.dependencytrack.common.HttpClientPool;
 import org.dependencytrack.model.Component;
@@ -34,7 +38,10 @@ import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.util.HttpUtil;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Date;
 
 /**
  * Base abstract class that all IMetaAnalyzer implementations should likely extend.
@@ -44,6 +51,11 @@ import java.net.URISyntaxException;
  */
 public abstract class AbstractMetaAnalyzer implements IMetaAnalyzer {
 
+    /**
+     * Maximum number of attempts of a request to a repository that signals it is overloaded.
+     */
+    private static final int MAX_REQUEST_ATTEMPTS = 3;
+
     protected String baseUrl;
 
     protected String username;
@@ -92,20 +104,82 @@ public abstract class AbstractMetaAnalyzer implements IMetaAnalyzer {
         );
     }
 
+    /**
+     * Sends a GET request to a repository.
+     * <p>
+     * Requests are subject to the per-host limits of {@link RepositoryHostLimiter}. When the repository
+     * responds with HTTP 429, 502, 503, or 504, the request is retried up to {@value #MAX_REQUEST_ATTEMPTS}
+     * times in total, after requests to the host have been paused. The response of the last attempt is
+     * returned as-is, so that it can be handled like any other unexpected response.
+     *
+     * @param url the URL to request
+     * @return the response, or {@code null} if {@code url} is invalid
+     * @throws IOException when the request failed
+     */
     protected CloseableHttpResponse processHttpRequest(String url) throws IOException {
         final Logger logger = Logger.getLogger(getClass());
+        final URI uri;
         try {
-            URIBuilder uriBuilder = new URIBuilder(url);
-            final HttpUriRequest request = new HttpGet(uriBuilder.build().toString());
+            uri = new URIBuilder(url).build();
+        } catch (URISyntaxException ex) {
+            handleRequestException(logger, ex);
+            return null;
+        }
+
+        final RepositoryHostLimiter hostLimiter = RepositoryHostLimiter.getInstance();
+        final String host = uri.getHost() + ":" + uri.getPort();
+        for (int attempt = 1; ; attempt++) {
+            final HttpUriRequest request = new HttpGet(uri);
             request.addHeader("accept", "application/json");
             if (username != null || password != null) {
                 request.addHeader("Authorization", HttpUtil.basicAuthHeaderValue(username, password));
             }
-            return HttpClientPool.getClient().execute(request);
-        }catch (URISyntaxException ex){
-            handleRequestException(logger, ex);
+
+            final CloseableHttpResponse response;
+            try {
+                hostLimiter.acquire(host);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to send a request to " + host);
+            }
+            try {
+                response = HttpClientPool.getClient().execute(request);
+            } finally {
+                hostLimiter.release(host);
+            }
+
+            if (!isThrottled(response.getStatusLine().getStatusCode())) {
+                hostLimiter.onSuccess(host);
+                return response;
+            }
+            final long backoffMs = hostLimiter.onThrottled(host, getRetryAfterMs(response));
+            if (attempt >= MAX_REQUEST_ATTEMPTS) {
+                return response;
+            }
+            logger.debug("Repository " + host + " responded with HTTP " + response.getStatusLine().getStatusCode()
+                    + "; Retrying in " + backoffMs + "ms (attempt " + attempt + " of " + MAX_REQUEST_ATTEMPTS + ")");
+            response.close();
+        }
+    }
+
+    private static boolean isThrottled(final int statusCode) {
+        return statusCode == HttpStatus.SC_TOO_MANY_REQUESTS
+                || statusCode == HttpStatus.SC_BAD_GATEWAY
+                || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    private static Long getRetryAfterMs(final CloseableHttpResponse response) {
+        final Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || StringUtils.isBlank(header.getValue())) {
             return null;
         }
+        final String value = header.getValue().trim();
+        if (StringUtils.isNumeric(value)) {
+            return Long.parseLong(value) * 1000;
+        }
+        final Date date = DateUtils.parseDate(value);
+        return date != null ? date.getTime() - System.currentTimeMillis() : null;
     }
 
 }
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.repositories;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import org.dependencytrack.common.ConfigKey;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the requests sent to repository hosts, shared by all {@link IMetaAnalyzer}s.
+ * <p>
+ * At most a configurable number of requests may be in flight per host. When a host signals that
+ * it is overloaded, further requests to it are paused for a duration that grows exponentially with
+ * every consecutive failure, unless the host specifies the duration itself. The pause ends, and
+ * the duration is reset, once the host responds successfully again.
+ *
+ * @since 4.11.0
+ */
+final class RepositoryHostLimiter {
+
+    private static final Logger LOGGER = Logger.getLogger(RepositoryHostLimiter.class);
+
+    private static final RepositoryHostLimiter INSTANCE = new RepositoryHostLimiter(
+            Config.getInstance().getPropertyAsInt(ConfigKey.REPO_META_ANALYZER_MAX_CONCURRENT_REQUESTS_PER_HOST),
+            Config.getInstance().getPropertyAsLong(ConfigKey.REPO_META_ANALYZER_BACKOFF_INITIAL_DURATION_MS),
+            Config.getInstance().getPropertyAsLong(ConfigKey.REPO_META_ANALYZER_BACKOFF_MAX_DURATION_MS));
+
+    private final int maxConcurrentRequests;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Map<String, HostState> hostStates = new ConcurrentHashMap<>();
+
+    RepositoryHostLimiter(final int maxConcurrentRequests, final long initialBackoffMs, final long maxBackoffMs) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.initialBackoffMs = Math.max(0, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    static RepositoryHostLimiter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits until a request may be sent to a host. Every successful call must be followed by a call to {@link #release(String)}.
+     *
+     * @param host the host to send a request to
+     * @throws InterruptedException when interrupted while waiting
+     */
+    void acquire(final String host) throws InterruptedException {
+        final HostState state = getState(host);
+        state.permits.acquire();
+        try {
+            // Holding a permit while paused keeps other requests to the host waiting as well.
+            long delayMs;
+            while ((delayMs = state.pausedUntilMs - System.currentTimeMillis()) > 0) {
+                Thread.sleep(delayMs);
+            }
+        } catch (InterruptedException e) {
+            state.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @param host the host a request was sent to
+     */
+    void release(final String host) {
+        getState(host).permits.release();
+    }
+
+    /**
+     * Pauses requests to a host that signalled it is overloaded.
+     *
+     * @param host         the host that signalled it is overloaded
+     * @param retryAfterMs the duration requested by the host, or {@code null} if it did not request any
+     * @return the duration in milliseconds for which requests to the host are paused
+     */
+    long onThrottled(final String host, final Long retryAfterMs) {
+        final HostState state = getState(host);
+        synchronized (state) {
+            state.consecutiveFailures++;
+            final long backoffMs;
+            if (retryAfterMs != null) {
+                backoffMs = Math.min(Math.max(0, retryAfterMs), maxBackoffMs);
+            } else {
+                final int exponent = Math.min(state.consecutiveFailures - 1, 30);
+                backoffMs = Math.min(initialBackoffMs << exponent, maxBackoffMs);
+            }
+            state.pausedUntilMs = Math.max(state.pausedUntilMs, System.currentTimeMillis() + backoffMs);
+            LOGGER.debug("Pausing requests to " + host + " for " + backoffMs + "ms after " + state.consecutiveFailures + " consecutive failure(s)");
+            return backoffMs;
+        }
+    }
+
+    /**
+     * @param host the host that responded successfully
+     */
+    void onSuccess(final String host) {
+        final HostState state = getState(host);
+        synchronized (state) {
+            state.consecutiveFailures = 0;
+        }
+    }
+
+    private HostState getState(final String host) {
+        return hostStates.computeIfAbsent(host, ignored -> new HostState(maxConcurrentRequests));
+    }
+
+    private static final class HostState {
+
+        private final Semaphore permits;
+        private volatile long pausedUntilMs;
+        private int consecutiveFailures;
+
+        private HostState(final int maxConcurrentRequests) {
+            this.permits = new Semaphore(maxConcurrentRequests, true);
+        }
+    }
+
+}
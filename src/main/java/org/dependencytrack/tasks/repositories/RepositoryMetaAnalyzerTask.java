@@ -22,33 +22,51 @@ import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.common.metrics.Metrics;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.Subscriber;
 import alpine.model.ConfigProperty;
 import alpine.security.crypto.DataEncryption;
+import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.RepositoryMetaEvent;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ComponentAnalysisCache;
 import org.dependencytrack.model.ConfigPropertyConstants;
-import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Repository;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.RepositoryQueryManager.RepositoryMetaComponentSearch;
 import org.dependencytrack.util.CacheStampedeBlocker;
 import org.dependencytrack.util.PurlUtil;
 
+import javax.jdo.Query;
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class RepositoryMetaAnalyzerTask implements Subscriber {
 
@@ -69,6 +87,48 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
         );
     }
 
+    /**
+     * Number of components analyzed by a worker, before their metadata is written in a single transaction.
+     */
+    private static final int BATCH_SIZE = 25;
+
+    /**
+     * Number of components read at once when determining the package coordinates of the portfolio.
+     */
+    private static final int PORTFOLIO_PAGE_SIZE = 10_000;
+
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        // Workers mostly wait for repositories to respond. Requests per repository host are
+        // limited separately by RepositoryHostLimiter, so the pool can be larger than that limit.
+        final String name = RepositoryMetaAnalyzerTask.class.getSimpleName();
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(name + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .daemon(true)
+                .build();
+        EXECUTOR = Executors.newFixedThreadPool(Config.getInstance().getPropertyAsInt(ConfigKey.REPO_META_ANALYZER_THREAD_POOL_SIZE), threadFactory);
+        Metrics.registerExecutorService(EXECUTOR, name);
+    }
+
+    /**
+     * Shuts down the thread pool that batches of components are analyzed on, waiting for {@code timeout} for work in progress to complete.
+     *
+     * @param timeout The maximum {@link Duration} to wait for
+     * @since 4.11.0
+     */
+    public static void shutdown(final Duration timeout) {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Repository metadata analysis did not complete within " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -82,30 +142,18 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
                     .register(Metrics.getRegistry());
             Timer.Sample recording = Timer.start();
             if (event.getComponents().isPresent()) {
-                try (QueryManager qm = new QueryManager()) {
-                    final List<Component> components = event.getComponents().get();
-                    // Refreshing the object by querying for it again is preventative
-                    LOGGER.info("Performing component repository metadata analysis against " + components.size() + " components");
-                    for (final Component component : components) {
-                        qm.ensureNoActiveTransaction(); // Workaround for https://github.com/DependencyTrack/dependency-track/issues/2677
-                        analyze(qm, qm.getObjectById(Component.class, component.getId()));
-                    }
-                    LOGGER.info("Completed component repository metadata analysis against " + components.size() + " components");
-                }
+                final List<Component> components = event.getComponents().get();
+                LOGGER.info("Performing component repository metadata analysis against " + components.size() + " components");
+                analyze(components.stream().map(Component::getId).toList());
+                LOGGER.info("Completed component repository metadata analysis against " + components.size() + " components");
             } else {
                 LOGGER.info("Analyzing portfolio component repository metadata");
+                final List<Long> componentIds;
                 try (final QueryManager qm = new QueryManager()) {
-                    final List<Project> projects = qm.getAllProjects(true);
-                    for (final Project project : projects) {
-                        final List<Component> components = qm.getAllComponents(project);
-                        LOGGER.debug("Performing component repository metadata analysis against " + components.size() + " components in project: " + project.getUuid());
-                        for (final Component component : components) {
-                            qm.ensureNoActiveTransaction(); // Workaround for https://github.com/DependencyTrack/dependency-track/issues/2677
-                            analyze(qm, component);
-                        }
-                        LOGGER.debug("Completed component repository metadata analysis against " + components.size() + " components in project: " + project.getUuid());
-                    }
+                    componentIds = getPortfolioComponentIdsToAnalyze(qm);
                 }
+                LOGGER.info("Performing component repository metadata analysis against " + componentIds.size() + " distinct package coordinates");
+                analyze(componentIds);
                 LOGGER.info("Portfolio component repository metadata analysis complete");
             }
             recording.stop(timer);
@@ -113,28 +161,149 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
         }
     }
 
-    private void analyze(final QueryManager qm, final Component component) {
-        LOGGER.debug("Analyzing component: " + component.getUuid());
-        final IMetaAnalyzer analyzer = IMetaAnalyzer.build(component);
-        if (RepositoryType.UNSUPPORTED != analyzer.supportedRepositoryType() && !isRepositoryMetaComponentStillValid(qm, analyzer.supportedRepositoryType(), component.getPurl().getNamespace(), component.getPurl().getName())) {
-            Callable<Void> cacheLoader = () -> {
-                analyze(qm, component, analyzer);
-                return null;
-            };
-            boolean cacheStampedeBlockerEnabled = Config.getInstance().getPropertyAsBoolean(ConfigKey.REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_ENABLED);
-            if (cacheStampedeBlockerEnabled) {
-                cacheStampedeBlocker.readThroughOrPopulateCache(PurlUtil.silentPurlCoordinatesOnly(component.getPurl()).toString(), cacheLoader);
-            } else {
-                try {
-                    cacheLoader.call();
-                } catch (Exception e) {
-                    LOGGER.warn("Error while fetching component meta model for component(id=" + component.getId() + "; purl=" + component.getPurl() + ") : " + e.getMessage(), e);
+    /**
+     * Determines the components of all active projects that need to be analyzed. Components sharing the same
+     * package coordinates (type, namespace, and name) only need to be analyzed once, as the metadata of a package
+     * does not differ between its versions. Coordinates that have been checked recently are skipped entirely.
+     *
+     * @return the ID of one component per package coordinates to analyze
+     */
+    private static List<Long> getPortfolioComponentIdsToAnalyze(final QueryManager qm) {
+        final long cacheValidityPeriod = getCacheValidityPeriod(qm);
+        final Set<RepositoryMetaComponentSearch> recentlyChecked = new HashSet<>();
+        final Query<RepositoryMetaComponent> metaComponentQuery = qm.getPersistenceManager().newQuery(RepositoryMetaComponent.class, "lastCheck >= :threshold");
+        metaComponentQuery.setParameters(new Date(System.currentTimeMillis() - cacheValidityPeriod));
+        metaComponentQuery.setResult("repositoryType, namespace, name");
+        try {
+            for (final Object[] row : metaComponentQuery.executeResultList(Object[].class)) {
+                recentlyChecked.add(new RepositoryMetaComponentSearch((RepositoryType) row[0], (String) row[1], (String) row[2]));
+            }
+        } finally {
+            metaComponentQuery.closeAll();
+        }
+
+        final Map<RepositoryMetaComponentSearch, Long> componentIdByCoordinates = new LinkedHashMap<>();
+        long lastId = 0;
+        while (true) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class,
+                    "id > :lastId && purl != null && (project.active == true || project.active == null)");
+            query.setParameters(lastId);
+            query.setResult("id, purl");
+            query.setOrdering("id asc");
+            query.setRange(0, PORTFOLIO_PAGE_SIZE);
+            final List<Object[]> rows;
+            try {
+                rows = List.copyOf(query.executeResultList(Object[].class));
+            } finally {
+                query.closeAll();
+            }
+            for (final Object[] row : rows) {
+                final PackageURL purl = PurlUtil.silentPurl((String) row[1]);
+                if (purl == null) {
+                    continue;
+                }
+                final RepositoryType repositoryType = RepositoryType.resolve(purl);
+                final var coordinates = new RepositoryMetaComponentSearch(repositoryType, purl.getNamespace(), purl.getName());
+                if (repositoryType != RepositoryType.UNSUPPORTED && !recentlyChecked.contains(coordinates)) {
+                    componentIdByCoordinates.putIfAbsent(coordinates, (Long) row[0]);
                 }
             }
+            if (rows.size() < PORTFOLIO_PAGE_SIZE) {
+                break;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
         }
+        return List.copyOf(componentIdByCoordinates.values());
     }
 
-    private void analyze(final QueryManager qm, final Component component, final IMetaAnalyzer analyzer) {
+    /**
+     * Analyzes components in batches, which are distributed across {@link #EXECUTOR}.
+     * Waits for all batches to complete.
+     */
+    private void analyze(final List<Long> componentIds) {
+        final List<List<Long>> batches = Lists.partition(componentIds, BATCH_SIZE);
+        if (batches.size() == 1) {
+            analyzeBatch(batches.get(0));
+            return;
+        }
+        final List<Future<?>> futures = batches.stream()
+                .<Future<?>>map(batch -> EXECUTOR.submit(() -> analyzeBatch(batch)))
+                .toList();
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pendingFuture -> pendingFuture.cancel(true));
+                LOGGER.warn("Interrupted while waiting for component repository metadata analysis to complete");
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("Failed to analyze repository metadata of a batch of components", e.getCause());
+            }
+        }
+    }
+
+    private void analyzeBatch(final List<Long> componentIds) {
+        try (final QueryManager qm = new QueryManager()) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class, ":ids.contains(id)");
+            query.setParameters(componentIds);
+            final List<Component> components = List.copyOf(query.executeList());
+
+            final List<Map.Entry<Component, IMetaAnalyzer>> analyzersByComponent = new ArrayList<>();
+            final Set<RepositoryMetaComponentSearch> coordinates = new LinkedHashSet<>();
+            for (final Component component : components) {
+                final IMetaAnalyzer analyzer = IMetaAnalyzer.build(component);
+                if (RepositoryType.UNSUPPORTED != analyzer.supportedRepositoryType()) {
+                    analyzersByComponent.add(Map.entry(component, analyzer));
+                    coordinates.add(getCoordinates(analyzer, component));
+                }
+            }
+            if (analyzersByComponent.isEmpty()) {
+                return;
+            }
+
+            final long cacheValidityPeriod = getCacheValidityPeriod(qm);
+            final Set<RepositoryMetaComponentSearch> recentlyChecked = getRecentlyCheckedCoordinates(qm, List.copyOf(coordinates), cacheValidityPeriod);
+            final Map<RepositoryType, List<Repository>> repositoriesByType = new EnumMap<>(RepositoryType.class);
+            final List<RepositoryMetaComponent> metaComponents = new ArrayList<>();
+            for (final Map.Entry<Component, IMetaAnalyzer> entry : analyzersByComponent) {
+                final Component component = entry.getKey();
+                final IMetaAnalyzer analyzer = entry.getValue();
+                if (recentlyChecked.contains(getCoordinates(analyzer, component))) {
+                    LOGGER.debug("RepositoryMetaComponent has been checked in the last " + cacheValidityPeriod + " ms. Skipping analysis of component: " + component.getUuid());
+                    continue;
+                }
+                qm.ensureNoActiveTransaction(); // Workaround for https://github.com/DependencyTrack/dependency-track/issues/2677
+                final List<Repository> repositories = repositoriesByType.computeIfAbsent(analyzer.supportedRepositoryType(), qm::getAllRepositoriesOrdered);
+                analyze(qm, component, analyzer, repositories, cacheValidityPeriod, metaComponents::add);
+            }
+            if (!metaComponents.isEmpty()) {
+                qm.synchronizeRepositoryMetaComponents(metaComponents);
+            }
+        }
+    }
+
+    private void analyze(final QueryManager qm, final Component component, final IMetaAnalyzer analyzer, final List<Repository> repositories,
+                         final long cacheValidityPeriod, final Consumer<RepositoryMetaComponent> resultConsumer) {
+        LOGGER.debug("Analyzing component: " + component.getUuid());
+        Callable<Void> cacheLoader = () -> {
+            fetchFromRepositories(qm, component, analyzer, repositories, cacheValidityPeriod, resultConsumer);
+            return null;
+        };
+        boolean cacheStampedeBlockerEnabled = Config.getInstance().getPropertyAsBoolean(ConfigKey.REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_ENABLED);
+        if (cacheStampedeBlockerEnabled) {
+            cacheStampedeBlocker.readThroughOrPopulateCache(PurlUtil.silentPurlCoordinatesOnly(component.getPurl()).toString(), cacheLoader);
+        } else {
+            try {
+                cacheLoader.call();
+            } catch (Exception e) {
+                LOGGER.warn("Error while fetching component meta model for component(id=" + component.getId() + "; purl=" + component.getPurl() + ") : " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void fetchFromRepositories(final QueryManager qm, final Component component, final IMetaAnalyzer analyzer, final List<Repository> repositories,
+                                       final long cacheValidityPeriod, final Consumer<RepositoryMetaComponent> resultConsumer) {
         // Retrieve existing Component Analysis Cache in one query :- There will be either no cac or cac without "latestVersion" (otherwise a RepositoryMetaModel would have already been created).
         // Caching cac without "latestVersion" allow avoiding performing the same call to repository over and over.
         final Map<String, ComponentAnalysisCache> cacByHost = new HashMap<>();
@@ -142,7 +311,7 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
         if (cacList != null && cacList.size() > 0) {
             cacList.stream().forEach(cac -> cacByHost.put(cac.getTargetHost(), cac));
         }
-        for (final Repository repository : qm.getAllRepositoriesOrdered(analyzer.supportedRepositoryType())) {
+        for (final Repository repository : repositories) {
             // Moved the identification of internal components from the isApplicable() method from the Meta Analyzers
             // themselves (which was introduced in https://github.com/DependencyTrack/dependency-track/pull/512)
             // and made a global decision here instead. Internal components should only be analyzed using internal
@@ -154,7 +323,7 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
                 String purl = component.getPurl().toString();
                 ComponentAnalysisCache cac = cacByHost.get(repository.getUrl());
                 MetaModel model = new MetaModel(component);
-                if (cac != null && isCacheCurrent(cac, component.getPurl().toString())) {
+                if (cac != null && isCacheCurrent(cac, component.getPurl().toString(), cacheValidityPeriod)) {
                     LOGGER.debug("Building repository Metamodel from cache for " + purl);
                     model.setLatestVersion(StringUtils.trimToNull(cac.getResult().getString(LATEST_VERSION)));
                     model.setPublishedTimestamp(Date.from(Instant.ofEpochMilli(cac.getResult().getJsonNumber(PUBLISHED_TIMESTAMP).longValue())));
@@ -187,7 +356,7 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
                     metaComponent.setPublished(model.getPublishedTimestamp());
                     metaComponent.setLatestVersion(model.getLatestVersion());
                     metaComponent.setLastCheck(new Date());
-                    qm.synchronizeRepositoryMetaComponent(metaComponent);
+                    resultConsumer.accept(metaComponent);
                     // Since the component metadata found and captured from this repository, return from this
                     // method without attempting to query additional repositories.
                     LOGGER.debug("Found component metadata for: " + component.getUuid() + " using repository: "
@@ -210,46 +379,46 @@ public class RepositoryMetaAnalyzerTask implements Subscriber {
         return builder.build();
     }
 
-    protected boolean isRepositoryMetaComponentStillValid(final QueryManager qm, final RepositoryType repositoryType, final String namespace, final String name) {
-        boolean isRepositoryMetaComponentStillValid = false;
-        ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
-        long cacheValidityPeriod = Long.parseLong(cacheClearPeriod.getPropertyValue());
-        RepositoryMetaComponent metaComponent = qm.getRepositoryMetaComponent(repositoryType, namespace, name);
-        long delta = 0L;
-        if (metaComponent != null) {
-            final Date now = new Date();
-            if (now.getTime() > metaComponent.getLastCheck().getTime()) {
-                delta = now.getTime() - metaComponent.getLastCheck().getTime();
-                isRepositoryMetaComponentStillValid = delta <= cacheValidityPeriod;
+    private static RepositoryMetaComponentSearch getCoordinates(final IMetaAnalyzer analyzer, final Component component) {
+        return new RepositoryMetaComponentSearch(analyzer.supportedRepositoryType(), component.getPurl().getNamespace(), component.getPurl().getName());
+    }
+
+    /**
+     * @return the subset of {@code coordinates} whose {@link RepositoryMetaComponent} has been checked within the cache validity period
+     */
+    private static Set<RepositoryMetaComponentSearch> getRecentlyCheckedCoordinates(final QueryManager qm, final List<RepositoryMetaComponentSearch> coordinates,
+                                                                                  final long cacheValidityPeriod) {
+        final Set<RepositoryMetaComponentSearch> recentlyChecked = new HashSet<>();
+        final long now = System.currentTimeMillis();
+        for (final RepositoryMetaComponent metaComponent : qm.getRepositoryMetaComponentsBatch(coordinates, BATCH_SIZE)) {
+            final long delta = now - metaComponent.getLastCheck().getTime();
+            if (delta > 0 && delta <= cacheValidityPeriod) {
+                recentlyChecked.add(new RepositoryMetaComponentSearch(metaComponent.getRepositoryType(), metaComponent.getNamespace(), metaComponent.getName()));
             }
         }
-        if (isRepositoryMetaComponentStillValid) {
-            LOGGER.debug("RepositoryMetaComponent has been checked in the last " + cacheValidityPeriod + " ms (precisely " + delta + " ms ago). Skipping analysis. (source: " + repositoryType.name() + " / Namespace: " + namespace + " / Name: " + name + ")");
-        } else {
-            LOGGER.debug("RepositoryMetaComponent has not been checked since " + cacheValidityPeriod + " ms. Analysis should be performed (source: " + repositoryType.name() + " / Namespace: " + namespace + " / Name: " + name + ")");
-        }
-        return isRepositoryMetaComponentStillValid;
+        return recentlyChecked;
     }
 
-    protected boolean isCacheCurrent(ComponentAnalysisCache cac, String target) {
-        try (QueryManager qm = new QueryManager()) {
-            boolean isCacheCurrent = false;
-            ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
-            long cacheValidityPeriod = Long.parseLong(cacheClearPeriod.getPropertyValue());
-            long delta = 0L;
-            if (cac != null) {
-                final Date now = new Date();
-                if (now.getTime() > cac.getLastOccurrence().getTime()) {
-                    delta = now.getTime() - cac.getLastOccurrence().getTime();
-                    isCacheCurrent = delta <= cacheValidityPeriod;
-                }
-            }
-            if (isCacheCurrent) {
-                LOGGER.debug("Cache is current. External repository call was made in the last " + cacheValidityPeriod + " ms (precisely " + delta + " ms ago). Skipping analysis. (target: " + target + ")");
-            } else {
-                LOGGER.debug("Cache is not current. External repository call was not made in the last " + cacheValidityPeriod + " ms. Analysis should be performed (target: " + target + ")");
+    private static long getCacheValidityPeriod(final QueryManager qm) {
+        final ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
+        return Long.parseLong(cacheClearPeriod.getPropertyValue());
+    }
+
+    protected boolean isCacheCurrent(final ComponentAnalysisCache cac, final String target, final long cacheValidityPeriod) {
+        boolean isCacheCurrent = false;
+        long delta = 0L;
+        if (cac != null) {
+            final Date now = new Date();
+            if (now.getTime() > cac.getLastOccurrence().getTime()) {
+                delta = now.getTime() - cac.getLastOccurrence().getTime();
+                isCacheCurrent = delta <= cacheValidityPeriod;
             }
-            return isCacheCurrent;
         }
+        if (isCacheCurrent) {
+            LOGGER.debug("Cache is current. External repository call was made in the last " + cacheValidityPeriod + " ms (precisely " + delta + " ms ago). Skipping analysis. (target: " + target + ")");
+        } else {
+            LOGGER.debug("Cache is not current. External repository call was not made in the last " + cacheValidityPeriod + " ms. Analysis should be performed (target: " + target + ")");
+        }
+        return isCacheCurrent;
     }
 }
@@ -21,14 +21,14 @@ package org.dependencytrack.tasks.scanners;
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Vulnerability;
-import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.ComponentVersion;
-import org.dependencytrack.util.NotificationUtil;
 import us.springett.parsers.cpe.Cpe;
 import us.springett.parsers.cpe.util.Relation;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -45,46 +45,61 @@ public abstract class AbstractVulnerableSoftwareAnalysisTask extends BaseCompone
      * specific versions or version ranges. For every match, every vulnerability associated with
      * the VulnerableSoftware object will be applied to the specified component.
      *
-     * @param qm            the QueryManager to use
-     * @param vsList        a list of VulnerableSoftware objects
-     * @param targetVersion the version of the component
-     * @param component     the component being analyzed
+     * @param qm             the QueryManager to use
+     * @param vsList         a list of VulnerableSoftware objects
+     * @param targetVersion  the version of the component
+     * @param component      the component being analyzed
+     * @param findingsWriter the {@link FindingsWriter} to apply findings with
      */
     protected void analyzeVersionRange(final QueryManager qm, final List<VulnerableSoftware> vsList,
                                        final Cpe targetCpe, final String targetVersion, final Component component,
-                                       final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
-        for (final VulnerableSoftware vs : vsList) {
-            final Boolean isCpeMatch = maybeMatchCpe(vs, targetCpe, targetVersion);
-            if ((isCpeMatch == null || isCpeMatch) && compareVersions(vs, targetVersion)) {
-                if (vs.getVulnerabilities() != null) {
-                    for (final Vulnerability vulnerability : vs.getVulnerabilities()) {
-                        NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                        qm.addVulnerability(vulnerability, component, this.getAnalyzerIdentity());
-                    }
-                }
+                                       final FindingsWriter findingsWriter) {
+        final List<VulnerableSoftwareMatchIndex.Candidate> candidates = vsList.stream()
+                .map(VulnerableSoftwareMatchIndex.Candidate::of)
+                .toList();
+        analyzeCandidates(qm, candidates, targetCpe, targetVersion, component, findingsWriter);
+    }
+
+    /**
+     * Analyzes the targetVersion against a list of {@link VulnerableSoftwareMatchIndex.Candidate}s.
+     * For every match, every vulnerability associated with the candidate will be applied to the
+     * specified component.
+     *
+     * @param qm             the QueryManager to use
+     * @param candidates     a list of match candidates
+     * @param targetVersion  the version of the component
+     * @param component      the component being analyzed
+     * @param findingsWriter the {@link FindingsWriter} to apply findings with
+     * @since 4.11.0
+     */
+    void analyzeCandidates(final QueryManager qm, final List<VulnerableSoftwareMatchIndex.Candidate> candidates,
+                           final Cpe targetCpe, final String targetVersion, final Component component,
+                           final FindingsWriter findingsWriter) {
+        final var target = new ComponentVersion(targetVersion);
+        final CpeMatcher.Attributes targetCpeAttributes = CpeMatcher.compileTarget(targetCpe, targetVersion);
+        final var relations = new Relation[CpeMatcher.ATTRIBUTE_COUNT];
+        final var vulnerabilityIds = new LinkedHashSet<Long>();
+        for (final VulnerableSoftwareMatchIndex.Candidate candidate : candidates) {
+            final Boolean isCpeMatch = maybeMatchCpe(candidate, targetCpeAttributes, relations, targetCpe);
+            if ((isCpeMatch == null || isCpeMatch) && candidate.versionRange().matches(targetVersion, target)) {
+                vulnerabilityIds.addAll(candidate.vulnerabilityIds());
             }
         }
+        if (vulnerabilityIds.isEmpty()) {
+            return;
+        }
+        for (final Vulnerability vulnerability : qm.getVulnerabilitiesById(vulnerabilityIds)) {
+            findingsWriter.add(component, vulnerability, this.getAnalyzerIdentity());
+        }
     }
     
-    private Boolean maybeMatchCpe(final VulnerableSoftware vs, final Cpe targetCpe, final String targetVersion) {
-        if (targetCpe == null || vs.getCpe23() == null) {
+    private Boolean maybeMatchCpe(final VulnerableSoftwareMatchIndex.Candidate candidate, final CpeMatcher.Attributes targetCpeAttributes,
+                                  final Relation[] relations, final Cpe targetCpe) {
+        if (targetCpeAttributes == null || candidate.cpe() == null) {
             return null;
         }
 
-        final List<Relation> relations = List.of(
-                Cpe.compareAttribute(vs.getPart(), targetCpe.getPart().getAbbreviation()),
-                Cpe.compareAttribute(vs.getVendor(), targetCpe.getVendor()),
-                Cpe.compareAttribute(vs.getProduct(), targetCpe.getProduct()),
-                Cpe.compareAttribute(vs.getVersion(), targetVersion),
-                Cpe.compareAttribute(vs.getUpdate(), targetCpe.getUpdate()),
-                Cpe.compareAttribute(vs.getEdition(), targetCpe.getEdition()),
-                Cpe.compareAttribute(vs.getLanguage(), targetCpe.getLanguage()),
-                Cpe.compareAttribute(vs.getSwEdition(), targetCpe.getSwEdition()),
-                Cpe.compareAttribute(vs.getTargetSw(), targetCpe.getTargetSw()),
-                Cpe.compareAttribute(vs.getTargetHw(), targetCpe.getTargetHw()),
-                Cpe.compareAttribute(vs.getOther(), targetCpe.getOther())
-        );
-        if (relations.contains(Relation.DISJOINT)) {
+        if (!CpeMatcher.compare(candidate.cpe(), targetCpeAttributes, relations)) {
             return false;
         }
 
@@ -92,64 +107,16 @@ public abstract class AbstractVulnerableSoftwareAnalysisTask extends BaseCompone
 
         // Mixed SUBSET / SUPERSET relations in the vendor and product attribute are prone
         // to false positives: https://github.com/DependencyTrack/dependency-track/issues/3178
-        final Relation vendorRelation = relations.get(1);
-        final Relation productRelation = relations.get(2);
+        final Relation vendorRelation = relations[CpeMatcher.VENDOR];
+        final Relation productRelation = relations[CpeMatcher.PRODUCT];
         isMatch &= !(vendorRelation == Relation.SUBSET && productRelation == Relation.SUPERSET);
         isMatch &= !(vendorRelation == Relation.SUPERSET && productRelation == Relation.SUBSET);
         if (!isMatch) {
             Logger.getLogger(getClass()).debug("%s: Dropped match with %s due to ambiguous vendor/product relation"
-                    .formatted(targetCpe.toCpe23FS(), vs.getCpe23()));
+                    .formatted(targetCpe.toCpe23FS(), candidate.vulnerableSoftware().getCpe23()));
         }
 
         return isMatch;
     }
 
-    /**
-     * Evaluates the target against the version and version range checks:
-     * versionEndExcluding, versionStartExcluding versionEndIncluding, and
-     * versionStartIncluding.
-     *
-     * @param vs            a reference to the vulnerable software to compare
-     * @param targetVersion the version to compare
-     * @return <code>true</code> if the target version is matched; otherwise
-     * <code>false</code>
-     * <p>
-     * Ported from Dependency-Check v5.2.1
-     */
-    private static boolean compareVersions(VulnerableSoftware vs, String targetVersion) {
-        //if any of the four conditions will be evaluated - then true;
-        boolean result = (vs.getVersionEndExcluding() != null && !vs.getVersionEndExcluding().isEmpty())
-                || (vs.getVersionStartExcluding() != null && !vs.getVersionStartExcluding().isEmpty())
-                || (vs.getVersionEndIncluding() != null && !vs.getVersionEndIncluding().isEmpty())
-                || (vs.getVersionStartIncluding() != null && !vs.getVersionStartIncluding().isEmpty());
-
-        // Modified from original by Steve Springett
-        // Added null check: vs.getVersion() != null as purl sources that use version ranges may not have version populated.
-        if (!result && vs.getVersion() != null && Cpe.compareAttribute(vs.getVersion(), targetVersion) != Relation.DISJOINT) {
-            return true;
-        }
-
-        final ComponentVersion target = new ComponentVersion(targetVersion);
-        if (target.getVersionParts().isEmpty()) {
-            return false;
-        }
-        if (result && vs.getVersionEndExcluding() != null && !vs.getVersionEndExcluding().isEmpty()) {
-            final ComponentVersion endExcluding = new ComponentVersion(vs.getVersionEndExcluding());
-            result = endExcluding.compareTo(target) > 0;
-        }
-        if (result && vs.getVersionStartExcluding() != null && !vs.getVersionStartExcluding().isEmpty()) {
-            final ComponentVersion startExcluding = new ComponentVersion(vs.getVersionStartExcluding());
-            result = startExcluding.compareTo(target) < 0;
-        }
-        if (result && vs.getVersionEndIncluding() != null && !vs.getVersionEndIncluding().isEmpty()) {
-            final ComponentVersion endIncluding = new ComponentVersion(vs.getVersionEndIncluding());
-            result &= endIncluding.compareTo(target) >= 0;
-        }
-        if (result && vs.getVersionStartIncluding() != null && !vs.getVersionStartIncluding().isEmpty()) {
-            final ComponentVersion startIncluding = new ComponentVersion(vs.getVersionStartIncluding());
-            result &= startIncluding.compareTo(target) <= 0;
-        }
-        return result;
-    }
-
 }
@@ -31,15 +31,20 @@ import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.notification.NotificationConstants;
 import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
-import org.dependencytrack.util.NotificationUtil;
 
 import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * A base class that has logic common or useful to all classes that extend it.
@@ -50,6 +55,7 @@ import java.util.Date;
 public abstract class BaseComponentAnalyzerTask implements ScanTask {
 
     private final Logger LOGGER = Logger.getLogger(this.getClass()); // We dont want this class reporting the logger
+    private volatile Long cacheValidityPeriod;
 
     protected boolean isEnabled(final ConfigPropertyConstants configPropertyConstants) {
         try (QueryManager qm = new QueryManager()) {
@@ -63,56 +69,105 @@ public abstract class BaseComponentAnalyzerTask implements ScanTask {
         }
     }
 
-    protected boolean isCacheCurrent(Vulnerability.Source source, String targetHost, String target) {
+    /**
+     * Load the analysis cache of multiple targets into memory at once, so that subsequent
+     * {@link #isCacheCurrent(Vulnerability.Source, String, String)} and {@link #applyAnalysisFromCache(Vulnerability.Source,
+     * String, String, Component, AnalyzerIdentity, VulnerabilityAnalysisLevel)} invocations for them do not have to
+     * query the database individually.
+     * @since 4.11.0
+     */
+    protected void prefetchAnalysisCache(Vulnerability.Source source, String targetHost, Collection<String> targets) {
+        final ComponentAnalysisCacheTier cacheTier = ComponentAnalysisCacheTier.getInstance();
+        final long validityPeriod = getCacheValidityPeriod();
+        final Set<String> missingTargets = targets.stream()
+                .filter(Objects::nonNull)
+                .filter(target -> !cacheTier.contains(cacheKey(source, targetHost, target), validityPeriod))
+                .collect(Collectors.toSet());
+        if (missingTargets.isEmpty()) {
+            return;
+        }
         try (QueryManager qm = new QueryManager()) {
-            boolean isCacheCurrent = false;
-            ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
-            long cacheValidityPeriod = Long.parseLong(cacheClearPeriod.getPropertyValue());
-            ComponentAnalysisCache cac = qm.getComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target);
-            if (cac != null) {
-                final Date now = new Date();
-                if (now.getTime() > cac.getLastOccurrence().getTime()) {
-                    final long delta = now.getTime() - cac.getLastOccurrence().getTime();
-                    isCacheCurrent = delta <= cacheValidityPeriod;
-                }
+            final Map<String, ComponentAnalysisCache> cacheByTarget = qm.getComponentAnalysisCache(
+                    ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), missingTargets);
+            for (final String target : missingTargets) {
+                cacheTier.put(cacheKey(source, targetHost, target),
+                        ComponentAnalysisCacheTier.Entry.of(cacheByTarget.get(target)), validityPeriod);
             }
-            if (isCacheCurrent) {
-                LOGGER.debug("Cache is current. Skipping analysis. (source: " + source + " / targetHost: " + targetHost + " / target: " + target);
-            } else {
-                LOGGER.debug("Cache is not current. Analysis should be performed (source: " + source + " / targetHost: " + targetHost + " / target: " + target);
-            }
-            return isCacheCurrent;
         }
     }
 
+    protected boolean isCacheCurrent(Vulnerability.Source source, String targetHost, String target) {
+        final boolean isCacheCurrent = getAnalysisCache(source, targetHost, target).isCurrent(getCacheValidityPeriod());
+        if (isCacheCurrent) {
+            LOGGER.debug("Cache is current. Skipping analysis. (source: " + source + " / targetHost: " + targetHost + " / target: " + target);
+        } else {
+            LOGGER.debug("Cache is not current. Analysis should be performed (source: " + source + " / targetHost: " + targetHost + " / target: " + target);
+        }
+        return isCacheCurrent;
+    }
+
     protected void applyAnalysisFromCache(Vulnerability.Source source, String targetHost, String target, Component component,
                                           AnalyzerIdentity analyzerIdentity, VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        final JsonObject result = getAnalysisCache(source, targetHost, target).result();
+        if (result == null) {
+            return;
+        }
+        final JsonArray vulns = result.getJsonArray("vulnIds");
+        if (vulns == null || vulns.isEmpty()) {
+            return;
+        }
         try (QueryManager qm = new QueryManager()) {
-            final ComponentAnalysisCache cac = qm.getComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target);
-            if (cac != null) {
-                final JsonObject result = cac.getResult();
-                if (result != null) {
-                    final JsonArray vulns = result.getJsonArray("vulnIds");
-                    if (vulns != null) {
-                        for (JsonNumber vulnId : vulns.getValuesAs(JsonNumber.class)) {
-                            final Vulnerability vulnerability;
-                            vulnerability = qm.getObjectById(Vulnerability.class, vulnId.longValue());
-                            final Component c = qm.getObjectByUuid(Component.class, component.getUuid());
-                            if (c == null) continue;
-                            if (vulnerability != null) {
-                                NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                                qm.addVulnerability(vulnerability, c, analyzerIdentity);
-                            }
-                        }
-                    }
+            final Component c = qm.getObjectByUuid(Component.class, component.getUuid());
+            if (c == null) {
+                return;
+            }
+            final var findingsWriter = new FindingsWriter(qm, vulnerabilityAnalysisLevel);
+            for (JsonNumber vulnId : vulns.getValuesAs(JsonNumber.class)) {
+                final Vulnerability vulnerability = qm.getObjectById(Vulnerability.class, vulnId.longValue());
+                if (vulnerability != null) {
+                    findingsWriter.add(c, vulnerability, analyzerIdentity);
                 }
             }
+            findingsWriter.flush();
         }
     }
 
     protected synchronized void updateAnalysisCacheStats(QueryManager qm, Vulnerability.Source source, String
             targetHost, String target, JsonObject result) {
-        qm.updateComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target, new Date(), result);
+        final Date lastOccurrence = new Date();
+        qm.updateComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target, lastOccurrence, result);
+        if (result != null) {
+            ComponentAnalysisCacheTier.getInstance().put(cacheKey(source, targetHost, target),
+                    new ComponentAnalysisCacheTier.Entry(lastOccurrence, result), getCacheValidityPeriod());
+        } else {
+            // The previous result is retained in the database; Have it loaded again on next access.
+            ComponentAnalysisCacheTier.getInstance().put(cacheKey(source, targetHost, target),
+                    ComponentAnalysisCacheTier.Entry.of(qm.getComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY,
+                            targetHost, source.name(), target)), getCacheValidityPeriod());
+        }
+    }
+
+    private ComponentAnalysisCacheTier.Entry getAnalysisCache(Vulnerability.Source source, String targetHost, String target) {
+        return ComponentAnalysisCacheTier.getInstance().get(cacheKey(source, targetHost, target), getCacheValidityPeriod(), key -> {
+            try (QueryManager qm = new QueryManager()) {
+                return ComponentAnalysisCacheTier.Entry.of(qm.getComponentAnalysisCache(
+                        key.cacheType(), key.targetHost(), key.targetType(), key.target()));
+            }
+        });
+    }
+
+    private long getCacheValidityPeriod() {
+        if (cacheValidityPeriod == null) {
+            try (QueryManager qm = new QueryManager()) {
+                final ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
+                cacheValidityPeriod = Long.parseLong(cacheClearPeriod.getPropertyValue());
+            }
+        }
+        return cacheValidityPeriod;
+    }
+
+    private static ComponentAnalysisCacheTier.Key cacheKey(Vulnerability.Source source, String targetHost, String target) {
+        return new ComponentAnalysisCacheTier.Key(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target);
     }
 
     protected void addVulnerabilityToCache(Component component, Vulnerability vulnerability) {
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.util.ComponentVersion;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.util.Relation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The version and version range of a {@link VulnerableSoftware}, compiled into a form that
+ * can be evaluated against many target versions without parsing any of its bounds again.
+ * <p>
+ * Range bounds are parsed through a cache, as the same bounds are shared by many
+ * {@link VulnerableSoftware} records, e.g. of popular products like the Linux kernel.
+ * Parsed versions depend on nothing but their string representation, so the cache
+ * never needs to be invalidated. It is cleared when it exceeds {@link #MAX_CACHED_VERSIONS}.
+ * Cached versions are immutable, as they are shared between threads.
+ *
+ * @since 4.11.0
+ */
+final class CompiledVersionRange {
+
+    private static final int MAX_CACHED_VERSIONS = 50_000;
+    private static final Map<String, ComponentVersion> PARSED_VERSIONS = new ConcurrentHashMap<>();
+
+    private final String version;
+    private final ComponentVersion endExcluding;
+    private final ComponentVersion startExcluding;
+    private final ComponentVersion endIncluding;
+    private final ComponentVersion startIncluding;
+
+    private CompiledVersionRange(final String version, final ComponentVersion endExcluding, final ComponentVersion startExcluding,
+                                 final ComponentVersion endIncluding, final ComponentVersion startIncluding) {
+        this.version = version;
+        this.endExcluding = endExcluding;
+        this.startExcluding = startExcluding;
+        this.endIncluding = endIncluding;
+        this.startIncluding = startIncluding;
+    }
+
+    static CompiledVersionRange compile(final VulnerableSoftware vs) {
+        return new CompiledVersionRange(vs.getVersion(),
+                parseBound(vs.getVersionEndExcluding()),
+                parseBound(vs.getVersionStartExcluding()),
+                parseBound(vs.getVersionEndIncluding()),
+                parseBound(vs.getVersionStartIncluding()));
+    }
+
+    private static ComponentVersion parseBound(final String bound) {
+        if (bound == null || bound.isEmpty()) {
+            return null;
+        }
+
+        final ComponentVersion cached = PARSED_VERSIONS.get(bound);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (PARSED_VERSIONS.size() >= MAX_CACHED_VERSIONS) {
+            PARSED_VERSIONS.clear();
+        }
+        final var parsed = ComponentVersion.immutableOf(bound);
+        PARSED_VERSIONS.putIfAbsent(bound, parsed);
+        return parsed;
+    }
+
+    /**
+     * Evaluates the target against the version and version range checks:
+     * versionEndExcluding, versionStartExcluding versionEndIncluding, and
+     * versionStartIncluding.
+     *
+     * @param targetVersion the version to compare
+     * @param target        the parsed version to compare
+     * @return <code>true</code> if the target version is matched; otherwise
+     * <code>false</code>
+     * <p>
+     * Ported from Dependency-Check v5.2.1
+     */
+    boolean matches(final String targetVersion, final ComponentVersion target) {
+        //if any of the four conditions will be evaluated - then true;
+        boolean result = endExcluding != null || startExcluding != null || endIncluding != null || startIncluding != null;
+
+        // Modified from original by Steve Springett
+        // Added null check: vs.getVersion() != null as purl sources that use version ranges may not have version populated.
+        if (!result && version != null && Cpe.compareAttribute(version, targetVersion) != Relation.DISJOINT) {
+            return true;
+        }
+
+        if (target.getVersionParts().isEmpty()) {
+            return false;
+        }
+        if (result && endExcluding != null) {
+            result = endExcluding.compareTo(target) > 0;
+        }
+        if (result && startExcluding != null) {
+            result = startExcluding.compareTo(target) < 0;
+        }
+        if (result && endIncluding != null) {
+            result &= endIncluding.compareTo(target) >= 0;
+        }
+        if (result && startIncluding != null) {
+            result &= startIncluding.compareTo(target) <= 0;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.Config;
+import alpine.common.metrics.Metrics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.ComponentAnalysisCache;
+
+import javax.json.JsonObject;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A bounded, in-memory tier in front of the {@link ComponentAnalysisCache} table.
+ * <p>
+ * Entries expire after the analysis cache validity period, as they can't be current anymore
+ * by then. The absence of a {@link ComponentAnalysisCache} record is cached as well, so that
+ * components that were never analyzed before do not cause a database query every time.
+ * Writes performed through {@link BaseComponentAnalyzerTask} are written through to this tier.
+ *
+ * @since 4.11.0
+ */
+public final class ComponentAnalysisCacheTier {
+
+    private static final ComponentAnalysisCacheTier INSTANCE = new ComponentAnalysisCacheTier(
+            Config.getInstance().getPropertyAsInt(ConfigKey.SCANNER_ANALYSIS_CACHE_MEMORY_MAX_SIZE));
+
+    private final long maxSize;
+    private volatile Cache<Key, Entry> cache;
+    private volatile long validityPeriod = -1;
+
+    ComponentAnalysisCacheTier(final long maxSize) {
+        this.maxSize = maxSize;
+        Gauge.builder("component_analysis_cache_size", this, tier -> tier.cache != null ? tier.cache.size() : 0)
+                .description("Number of entries in the in-memory component analysis cache")
+                .register(Metrics.getRegistry());
+    }
+
+    public static ComponentAnalysisCacheTier getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key            The {@link Key} to look up
+     * @param validityPeriod The analysis cache validity period in milliseconds
+     * @param loader         Loads the {@link Entry} from the database, in case it is not held in memory;
+     *                       May return {@code null} when no {@link ComponentAnalysisCache} record exists
+     * @return The {@link Entry}, or {@link Entry#NONE} when no {@link ComponentAnalysisCache} record exists
+     */
+    Entry get(final Key key, final long validityPeriod, final Function<Key, Entry> loader) {
+        final Cache<Key, Entry> cache = getCache(validityPeriod);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            recordRequest("hit");
+            return entry;
+        }
+
+        recordRequest("miss");
+        entry = loader.apply(key);
+        if (entry == null) {
+            entry = Entry.NONE;
+        }
+        cache.put(key, entry);
+        return entry;
+    }
+
+    boolean contains(final Key key, final long validityPeriod) {
+        return getCache(validityPeriod).getIfPresent(key) != null;
+    }
+
+    void put(final Key key, final Entry entry, final long validityPeriod) {
+        getCache(validityPeriod).put(key, entry);
+    }
+
+    /**
+     * Discard all entries held in memory.
+     */
+    public void invalidateAll() {
+        final Cache<Key, Entry> cache = this.cache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private Cache<Key, Entry> getCache(final long validityPeriod) {
+        if (this.cache == null || this.validityPeriod != validityPeriod) {
+            synchronized (this) {
+                if (this.cache == null || this.validityPeriod != validityPeriod) {
+                    // The validity period is configurable at runtime. Entries loaded under a different
+                    // validity period may live longer than they should, so start over.
+                    this.cache = CacheBuilder.newBuilder()
+                            .maximumSize(maxSize)
+                            .expireAfterWrite(Math.max(validityPeriod, 0), TimeUnit.MILLISECONDS)
+                            .build();
+                    this.validityPeriod = validityPeriod;
+                }
+            }
+        }
+        return this.cache;
+    }
+
+    private static void recordRequest(final String result) {
+        Counter.builder("component_analysis_cache_requests")
+                .description("Total number of lookups in the in-memory component analysis cache")
+                .tags("result", result)
+                .register(Metrics.getRegistry())
+                .increment();
+    }
+
+    record Key(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, String target) {
+    }
+
+    /**
+     * @param lastOccurrence The time of the last analysis, or {@code null} if the target was never analyzed
+     * @param result         The result of the last analysis
+     */
+    record Entry(Date lastOccurrence, JsonObject result) {
+
+        static final Entry NONE = new Entry(null, null);
+
+        static Entry of(final ComponentAnalysisCache cac) {
+            return cac != null ? new Entry(cac.getLastOccurrence(), cac.getResult()) : NONE;
+        }
+
+        boolean isCurrent(final long validityPeriod) {
+            if (lastOccurrence == null) {
+                return false;
+            }
+            final long now = System.currentTimeMillis();
+            return now > lastOccurrence.getTime() && now - lastOccurrence.getTime() <= validityPeriod;
+        }
+
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import org.dependencytrack.model.VulnerableSoftware;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Relation;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Matches CPEs of {@link VulnerableSoftware} records against CPEs of components.
+ * <p>
+ * Yields the same relations as {@link Cpe#compareAttribute(String, String)}, but operates on
+ * attributes that have been normalized once: values are lower-cased and interned, and wildcard
+ * patterns are compiled ahead of time. Matching stops at the first {@link Relation#DISJOINT}
+ * attribute, and does not allocate.
+ *
+ * @since 4.11.0
+ */
+final class CpeMatcher {
+
+    static final int ATTRIBUTE_COUNT = 11;
+    static final int VENDOR = 1;
+    static final int PRODUCT = 2;
+
+    private static final String ANY = "*";
+    private static final String NA = "-";
+
+    private CpeMatcher() {
+    }
+
+    /**
+     * Normalized attributes of a CPE, in the order part, vendor, product, version, update, edition,
+     * language, swEdition, targetSw, targetHw, other.
+     */
+    static final class Attributes {
+
+        private final String[] values;
+        private final Pattern[] patterns;
+
+        private Attributes(final String... values) {
+            this.values = new String[ATTRIBUTE_COUNT];
+            this.patterns = new Pattern[ATTRIBUTE_COUNT];
+            for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                this.values[i] = values[i].toLowerCase(Locale.ROOT).intern();
+            }
+        }
+
+        private Attributes withPatterns() {
+            for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+                if (values[i] != null && !ANY.equals(values[i]) && containsSpecialCharacter(values[i])) {
+                    patterns[i] = Convert.wellFormedToPattern(values[i]);
+                }
+            }
+            return this;
+        }
+
+    }
+
+    /**
+     * @param vs The {@link VulnerableSoftware} to compile the CPE of
+     * @return The normalized source {@link Attributes}, or {@code null} when {@code vs} has no CPE
+     */
+    static Attributes compileSource(final VulnerableSoftware vs) {
+        if (vs.getCpe23() == null) {
+            return null;
+        }
+        return new Attributes(vs.getPart(), vs.getVendor(), vs.getProduct(), vs.getVersion(), vs.getUpdate(),
+                vs.getEdition(), vs.getLanguage(), vs.getSwEdition(), vs.getTargetSw(), vs.getTargetHw(),
+                vs.getOther()).withPatterns();
+    }
+
+    /**
+     * @param cpe           The CPE of a component
+     * @param targetVersion The version of the component
+     * @return The normalized target {@link Attributes}, or {@code null} when {@code cpe} is {@code null}
+     */
+    static Attributes compileTarget(final Cpe cpe, final String targetVersion) {
+        if (cpe == null) {
+            return null;
+        }
+        return new Attributes(cpe.getPart().getAbbreviation(), cpe.getVendor(), cpe.getProduct(), targetVersion,
+                cpe.getUpdate(), cpe.getEdition(), cpe.getLanguage(), cpe.getSwEdition(), cpe.getTargetSw(),
+                cpe.getTargetHw(), cpe.getOther());
+    }
+
+    /**
+     * Compare all attributes of {@code source} with those of {@code target}.
+     *
+     * @param source    The source {@link Attributes}
+     * @param target    The target {@link Attributes}
+     * @param relations Array of at least {@code 11} elements to store the relation of each attribute in;
+     *                  Only populated up until the first {@link Relation#DISJOINT} attribute
+     * @return {@code false} when any attribute is {@link Relation#DISJOINT}, otherwise {@code true}
+     */
+    static boolean compare(final Attributes source, final Attributes target, final Relation[] relations) {
+        for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+            relations[i] = compareAttribute(source.values[i], source.patterns[i], target.values[i]);
+            if (relations[i] == Relation.DISJOINT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see Cpe#compareAttribute(String, String)
+     */
+    private static Relation compareAttribute(final String source, final Pattern sourcePattern, final String target) {
+        if (source == null || target == null) {
+            return Cpe.compareAttribute(source, target);
+        }
+        // Values are interned, so identity implies equality. Equal values
+        // are not necessarily identical though, e.g. when not normalized.
+        if (source == target || source.equals(target)) {
+            return Relation.EQUAL;
+        } else if (ANY.equals(source)) {
+            return Relation.SUPERSET;
+        } else if (NA.equals(source)) {
+            return ANY.equals(target) ? Relation.SUBSET : Relation.DISJOINT;
+        } else if (NA.equals(target)) {
+            return Relation.DISJOINT;
+        } else if (ANY.equals(target)) {
+            return Relation.SUBSET;
+        } else if (sourcePattern != null) {
+            return sourcePattern.matcher(target).matches() ? Relation.SUPERSET : Relation.DISJOINT;
+        }
+        return Relation.DISJOINT;
+    }
+
+    /**
+     * Whether {@code value} contains an unescaped {@code *} or {@code ?} wildcard.
+     */
+    private static boolean containsSpecialCharacter(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '?' || c == '*') {
+                return true;
+            }
+            if (c == '\\') {
+                i++;
+            }
+        }
+        return false;
+    }
+
+}
@@ -21,18 +21,21 @@ package org.dependencytrack.tasks.scanners;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import com.github.packageurl.PackageURL;
 import org.dependencytrack.event.InternalAnalysisEvent;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.search.FuzzyVulnerableSoftwareSearchManager;
 import us.springett.parsers.cpe.CpeParser;
 import us.springett.parsers.cpe.exceptions.CpeParsingException;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Subscriber task that performs an analysis of component using internal CPE/PURL data.
@@ -85,18 +88,32 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
     public void analyze(final List<Component> components) {
         try (QueryManager qm = new QueryManager()) {
             LOGGER.info("Analyzing " + components.size() + " component(s)");
+            final var targets = new ArrayList<AnalysisTarget>(components.size());
             for (final Component c : components) {
                 final Component component = qm.getObjectByUuid(Component.class, c.getUuid()); // Refresh component and attach to current pm.
                 if (component == null) continue;
-                versionRangeAnalysis(qm, component);
+                final AnalysisTarget target = resolveTarget(component);
+                if (target != null) {
+                    targets.add(target);
+                }
             }
+
+            // Load the vulnerable software of all components at once,
+            // instead of querying it separately for every single component.
+            final VulnerableSoftwareMatchIndex matchIndex = VulnerableSoftwareMatchIndex.getInstance();
+            matchIndex.load(qm,
+                    targets.stream().map(AnalysisTarget::cpe).filter(Objects::nonNull).toList(),
+                    targets.stream().map(AnalysisTarget::purl).filter(Objects::nonNull).toList());
+
+            final var findingsWriter = new FindingsWriter(qm, vulnerabilityAnalysisLevel);
+            for (final AnalysisTarget target : targets) {
+                versionRangeAnalysis(qm, matchIndex, target, findingsWriter);
+            }
+            findingsWriter.flush();
         }
     }
 
-    private void versionRangeAnalysis(final QueryManager qm, final Component component) {
-        final boolean fuzzyEnabled = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_ENABLED) &&
-                (!component.isInternal() || !super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_INTERNAL));
-        final boolean excludeComponentsWithPurl = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_PURL);
+    private AnalysisTarget resolveTarget(final Component component) {
         us.springett.parsers.cpe.Cpe parsedCpe = null;
         if (component.getCpe() != null) {
             try {
@@ -105,7 +122,6 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
                 LOGGER.warn("An error occurred while parsing: " + component.getCpe() + " - The CPE is invalid and will be discarded. " + e.getMessage());
             }
         }
-        List<VulnerableSoftware> vsList = Collections.emptyList();
         String componentVersion;
         if (parsedCpe != null) {
             componentVersion = parsedCpe.getVersion();
@@ -115,11 +131,11 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
             // Catch cases where the CPE couldn't be parsed and no PURL exists.
             // Should be rare, but could lead to NPEs later.
             LOGGER.debug("Neither CPE nor PURL of component " + component.getUuid() + " provide a version - skipping analysis");
-            return;
+            return null;
         }
         // In some cases, componentVersion may be null, such as when a Package URL does not have a version specified
         if (componentVersion == null) {
-            return;
+            return null;
         }
         // https://github.com/DependencyTrack/dependency-track/issues/1574
         // Some ecosystems use the "v" version prefix (e.g. v1.2.3) for their components.
@@ -134,18 +150,37 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
                 componentVersion = componentVersion.substring(1);
             }
         }
+        return new AnalysisTarget(component, parsedCpe, component.getPurl(), componentVersion);
+    }
 
-        if (parsedCpe != null) {
-            vsList = qm.getAllVulnerableSoftware(parsedCpe.getPart().getAbbreviation(), parsedCpe.getVendor(), parsedCpe.getProduct(), component.getPurl());
-        } else {
-            vsList = qm.getAllVulnerableSoftware(null, null, null, component.getPurl());
+    private void versionRangeAnalysis(final QueryManager qm, final VulnerableSoftwareMatchIndex matchIndex, final AnalysisTarget target,
+                                      final FindingsWriter findingsWriter) {
+        final Component component = target.component();
+        final us.springett.parsers.cpe.Cpe parsedCpe = target.cpe();
+        final boolean fuzzyEnabled = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_ENABLED) &&
+                (!component.isInternal() || !super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_INTERNAL));
+        final boolean excludeComponentsWithPurl = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_PURL);
+
+        List<VulnerableSoftwareMatchIndex.Candidate> candidates = matchIndex.find(parsedCpe, target.purl());
+        if (candidates == null) {
+            // The CPE matches any part, vendor, or product, which the index can't handle,
+            // or the records were evicted from the index since they were loaded.
+            final List<VulnerableSoftware> vsList = parsedCpe != null
+                    ? qm.getAllVulnerableSoftware(parsedCpe.getPart().getAbbreviation(), parsedCpe.getVendor(), parsedCpe.getProduct(), target.purl())
+                    : qm.getAllVulnerableSoftware(null, null, null, target.purl());
+            candidates = vsList.stream().map(VulnerableSoftwareMatchIndex.Candidate::of).toList();
         }
 
-        if (fuzzyEnabled && vsList.isEmpty()) {
+        if (fuzzyEnabled && candidates.isEmpty()) {
             FuzzyVulnerableSoftwareSearchManager fm = new FuzzyVulnerableSoftwareSearchManager(excludeComponentsWithPurl);
-            vsList = fm.fuzzyAnalysis(qm, component, parsedCpe);
+            final List<VulnerableSoftware> vsList = fm.fuzzyAnalysis(qm, component, parsedCpe);
+            super.analyzeVersionRange(qm, vsList, parsedCpe, target.version(), component, findingsWriter);
+            return;
         }
-        super.analyzeVersionRange(qm, vsList, parsedCpe, componentVersion, component, vulnerabilityAnalysisLevel);
+        super.analyzeCandidates(qm, candidates, parsedCpe, target.version(), component, findingsWriter);
+    }
+
+    private record AnalysisTarget(Component component, us.springett.parsers.cpe.Cpe cpe, PackageURL purl, String version) {
     }
 
 }
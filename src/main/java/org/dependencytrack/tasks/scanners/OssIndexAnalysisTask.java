@@ -55,9 +55,9 @@ import org.dependencytrack.parser.common.resolver.CweResolver;
 import org.dependencytrack.parser.ossindex.OssIndexParser;
 import org.dependencytrack.parser.ossindex.model.ComponentReport;
 import org.dependencytrack.parser.ossindex.model.ComponentReportVulnerability;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.HttpUtil;
-import org.dependencytrack.util.NotificationUtil;
 import org.json.JSONObject;
 import us.springett.cvss.Cvss;
 import us.springett.cvss.CvssV2;
@@ -192,8 +192,12 @@ public class OssIndexAnalysisTask extends BaseComponentAnalyzerTask implements C
      * @param components a list of Components
      */
     public void analyze(final List<Component> components) {
-        Map<Boolean, List<Component>> componentsPartitionByCacheValidity = components.stream()
+        final List<Component> capableComponents = components.stream()
                 .filter(component -> !component.isInternal() && isCapable(component))
+                .toList();
+        prefetchAnalysisCache(Vulnerability.Source.OSSINDEX, API_BASE_URL,
+                capableComponents.stream().map(component -> component.getPurl().toString()).toList());
+        Map<Boolean, List<Component>> componentsPartitionByCacheValidity = capableComponents.stream()
                 .collect(Collectors.partitioningBy(component -> isCacheCurrent(Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString())));
         List<Component> componentWithValidAnalysisFromCache = componentsPartitionByCacheValidity.get(true);
         componentWithValidAnalysisFromCache.forEach(component -> applyAnalysisFromCache(Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString(), component, getAnalyzerIdentity(), vulnerabilityAnalysisLevel));
@@ -294,13 +298,13 @@ public class OssIndexAnalysisTask extends BaseComponentAnalyzerTask implements C
                          */
                         final Component component = qm.getObjectByUuid(Component.class, c.getUuid()); // Refresh component and attach to current pm.
                         if (component == null) continue;
+                        final var findingsWriter = new FindingsWriter(qm, vulnerabilityAnalysisLevel);
                         for (final ComponentReportVulnerability reportedVuln : componentReport.getVulnerabilities()) {
                             if (reportedVuln.getCve() != null) {
                                 Vulnerability vulnerability = qm.getVulnerabilityByVulnId(
                                         Vulnerability.Source.NVD, reportedVuln.getCve());
                                 if (vulnerability != null) {
-                                    NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                                    qm.addVulnerability(vulnerability, component, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
+                                    findingsWriter.add(component, vulnerability, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
                                     addVulnerabilityToCache(component, vulnerability);
                                 } else {
                                     /*
@@ -309,8 +313,7 @@ public class OssIndexAnalysisTask extends BaseComponentAnalyzerTask implements C
                                     through traditional feeds. Regardless, the vuln needs to be added to the database.
                                      */
                                     vulnerability = qm.createVulnerability(generateVulnerability(qm, reportedVuln), false);
-                                    NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                                    qm.addVulnerability(vulnerability, component, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
+                                    findingsWriter.add(component, vulnerability, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
                                     addVulnerabilityToCache(component, vulnerability);
                                 }
                             } else {
@@ -333,11 +336,11 @@ public class OssIndexAnalysisTask extends BaseComponentAnalyzerTask implements C
                                     alias.setCveId(reportedVuln.getCve());
                                     qm.synchronizeVulnerabilityAlias(alias);
                                 }
-                                NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                                qm.addVulnerability(vulnerability, component, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
+                                findingsWriter.add(component, vulnerability, this.getAnalyzerIdentity(), reportedVuln.getId(), reportedVuln.getReference());
                                 addVulnerabilityToCache(component, vulnerability);
                             }
                         }
+                        findingsWriter.flush();
                         updateAnalysisCacheStats(qm, Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString(), component.getCacheResult());
                     }
                 }
@@ -57,8 +57,8 @@ import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.parser.snyk.SnykParser;
 import org.dependencytrack.parser.snyk.model.SnykError;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
-import org.dependencytrack.util.NotificationUtil;
 import org.dependencytrack.util.RoundRobinAccessor;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -230,6 +230,8 @@ public class SnykAnalysisTask extends BaseComponentAnalyzerTask implements Cache
      */
     @Override
     public void analyze(final List<Component> components) {
+        prefetchAnalysisCache(Vulnerability.Source.SNYK, apiBaseUrl,
+                components.stream().map(component -> component.getPurl().getCoordinates()).toList());
         final var countDownLatch = new CountDownLatch(components.size());
         for (final Component component : components) {
             if (isCacheCurrent(Vulnerability.Source.SNYK, apiBaseUrl, component.getPurl().getCoordinates())) {
@@ -352,17 +354,18 @@ public class SnykAnalysisTask extends BaseComponentAnalyzerTask implements Cache
             final JSONArray data = object.optJSONArray("data");
             if (data != null && !data.isEmpty()) {
                 final var snykParser = new SnykParser();
+                final var findingsWriter = new FindingsWriter(qm, vulnerabilityAnalysisLevel);
                 for (int count = 0; count < data.length(); count++) {
                     Vulnerability synchronizedVulnerability = snykParser.parse(data, qm, purl, count, aliasSyncEnabled);
                     addVulnerabilityToCache(component, synchronizedVulnerability);
                     final Component componentPersisted = qm.getObjectByUuid(Component.class, component.getUuid());
                     if (componentPersisted != null && synchronizedVulnerability.getVulnId() != null) {
-                        NotificationUtil.analyzeNotificationCriteria(qm, synchronizedVulnerability, componentPersisted, vulnerabilityAnalysisLevel);
-                        qm.addVulnerability(synchronizedVulnerability, componentPersisted, this.getAnalyzerIdentity());
+                        findingsWriter.add(componentPersisted, synchronizedVulnerability, this.getAnalyzerIdentity());
                         LOGGER.debug("Snyk vulnerability added : " + synchronizedVulnerability.getVulnId() + " to component " + component.getName());
                     }
                     Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
                 }
+                findingsWriter.flush();
             } else {
                 addNoVulnerabilityToCache(component);
             }
@@ -34,8 +34,8 @@ import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.parser.vulndb.ModelConverter;
 import org.dependencytrack.parser.vulndb.VulnDbClient;
 import org.dependencytrack.parser.vulndb.model.Results;
+import org.dependencytrack.persistence.FindingsWriter;
 import org.dependencytrack.persistence.QueryManager;
-import org.dependencytrack.util.NotificationUtil;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -138,6 +138,7 @@ public class VulnDbAnalysisTask extends BaseComponentAnalyzerTask implements Sub
     @Override
     public void analyze(final List<Component> components) {
         final var api = new VulnDbClient(this.apiConsumerKey, this.apiConsumerSecret, this.apiBaseUrl);
+        prefetchAnalysisCache(Vulnerability.Source.VULNDB, apiBaseUrl, components.stream().map(Component::getCpe).toList());
         for (final Component component : components) {
             if (isCacheCurrent(Vulnerability.Source.VULNDB, apiBaseUrl, component.getCpe())) {
                 applyAnalysisFromCache(Vulnerability.Source.VULNDB, apiBaseUrl, component.getCpe(), component, AnalyzerIdentity.VULNDB_ANALYZER, vulnerabilityAnalysisLevel);
@@ -172,6 +173,7 @@ public class VulnDbAnalysisTask extends BaseComponentAnalyzerTask implements Sub
     private boolean processResults(final Results results, final Component component) {
         try (final QueryManager qm = new QueryManager()) {
             final Component vulnerableComponent = qm.getObjectByUuid(Component.class, component.getUuid()); // Refresh component and attach to current pm.
+            final var findingsWriter = new FindingsWriter(qm, vulnerabilityAnalysisLevel);
             for (org.dependencytrack.parser.vulndb.model.Vulnerability vulnDbVuln : (List<org.dependencytrack.parser.vulndb.model.Vulnerability>) results.getResults()) {
                 Vulnerability vulnerability = qm.getVulnerabilityByVulnId(Vulnerability.Source.VULNDB, String.valueOf(vulnDbVuln.id()));
                 if (vulnerability == null) {
@@ -179,10 +181,10 @@ public class VulnDbAnalysisTask extends BaseComponentAnalyzerTask implements Sub
                 } else {
                     vulnerability = qm.synchronizeVulnerability(ModelConverter.convert(qm, vulnDbVuln), false);
                 }
-                NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, vulnerableComponent, vulnerabilityAnalysisLevel);
-                qm.addVulnerability(vulnerability, vulnerableComponent, this.getAnalyzerIdentity());
+                findingsWriter.add(vulnerableComponent, vulnerability, this.getAnalyzerIdentity());
                 addVulnerabilityToCache(vulnerableComponent, vulnerability);
             }
+            findingsWriter.flush();
             updateAnalysisCacheStats(qm, Vulnerability.Source.VULNDB, apiBaseUrl, vulnerableComponent.getCpe(), vulnerableComponent.getCacheResult());
             return results.getPage() * PAGE_SIZE < results.getTotal();
         }
@@ -0,0 +1,422 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.Config;
+import com.github.packageurl.PackageURL;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.persistence.QueryManager;
+import us.springett.parsers.cpe.Cpe;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory index of {@link VulnerableSoftware} records, used by {@link InternalAnalysisTask}
+ * to look up match candidates for components without querying the database for every component.
+ * <p>
+ * Records are indexed by the coordinates of the components they are looked up for, i.e. PURL type,
+ * namespace, and name, and CPE part, vendor, and product. They are loaded in batches for all
+ * components of an analysis, and kept with their {@link CompiledVersionRange compiled version ranges}.
+ * <p>
+ * By default, an index only lives for the duration of a single analysis. When
+ * {@link ConfigKey#SCANNER_INTERNAL_MATCH_INDEX_SHARED_ENABLED} is enabled, a single index is
+ * shared across analyses. Whenever the vulnerability search index is committed, all records it holds
+ * are marked as stale, and are reloaded lazily by the next analysis that needs them.
+ * The shared index holds at most {@link ConfigKey#SCANNER_INTERNAL_MATCH_INDEX_SHARED_MAX_CANDIDATES}
+ * candidates, and evicts the least recently used coordinates beyond that.
+ *
+ * @since 4.11.0
+ */
+public final class VulnerableSoftwareMatchIndex {
+
+    private static final VulnerableSoftwareMatchIndex SHARED_INSTANCE = new VulnerableSoftwareMatchIndex(
+            Config.getInstance().getPropertyAsLong(ConfigKey.SCANNER_INTERNAL_MATCH_INDEX_SHARED_MAX_CANDIDATES));
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final String ANY = "*";
+    private static final String NA = "-";
+
+    private final Cache<Key, Entry> entriesByKey;
+    private final AtomicLong generation = new AtomicLong();
+
+    VulnerableSoftwareMatchIndex() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxCandidates The maximum number of candidates to hold
+     */
+    VulnerableSoftwareMatchIndex(final long maxCandidates) {
+        this.entriesByKey = CacheBuilder.newBuilder()
+                .maximumWeight(Math.max(1, maxCandidates))
+                .concurrencyLevel(1)
+                .weigher((Key key, Entry entry) -> entry.candidates().size() + 1)
+                .build();
+    }
+
+    /**
+     * @return The shared {@link VulnerableSoftwareMatchIndex} if sharing is enabled,
+     * otherwise a new, empty {@link VulnerableSoftwareMatchIndex}
+     */
+    static VulnerableSoftwareMatchIndex getInstance() {
+        if (isSharingEnabled()) {
+            return SHARED_INSTANCE;
+        }
+        return new VulnerableSoftwareMatchIndex();
+    }
+
+    /**
+     * Mark all records held by the shared {@link VulnerableSoftwareMatchIndex} as stale.
+     * Does nothing if sharing is disabled.
+     */
+    public static void invalidateShared() {
+        if (!isSharingEnabled()) {
+            return;
+        }
+        SHARED_INSTANCE.invalidate();
+    }
+
+    private static boolean isSharingEnabled() {
+        return Config.getInstance().getPropertyAsBoolean(ConfigKey.SCANNER_INTERNAL_MATCH_INDEX_SHARED_ENABLED);
+    }
+
+    /**
+     * Load records for the given CPEs and PURLs, unless they are already loaded and not stale.
+     *
+     * @param qm    The {@link QueryManager} to use
+     * @param cpes  CPEs to load records for
+     * @param purls PURLs to load records for
+     */
+    synchronized void load(final QueryManager qm, final Collection<Cpe> cpes, final Collection<PackageURL> purls) {
+        // Records loaded concurrently with an invalidation are considered stale right away.
+        final long loadGeneration = generation.get();
+        final List<CpeKey> missingCpeKeys = cpes.stream()
+                .map(CpeKey::of)
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(key -> getCandidates(key) == null)
+                .toList();
+        final List<PurlKey> missingPurlKeys = purls.stream()
+                .filter(Objects::nonNull)
+                .map(PurlKey::of)
+                .distinct()
+                .filter(key -> getCandidates(key) == null)
+                .toList();
+
+        loadCpes(qm.getPersistenceManager(), missingCpeKeys, loadGeneration);
+        loadPurls(qm.getPersistenceManager(), missingPurlKeys, loadGeneration);
+    }
+
+    /**
+     * Mark all records that are currently held by this index as stale, such that they are
+     * reloaded the next time they are {@link #load(QueryManager, Collection, Collection) loaded}.
+     * <p>
+     * This does not access the database, and does not wait for ongoing loads to complete.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Find match candidates for a given CPE and / or PURL.
+     * <p>
+     * This mirrors the filtering performed by {@link QueryManager#getAllVulnerableSoftware(String, String, String, PackageURL)},
+     * and requires records for the CPE and PURL to be {@link #load(QueryManager, Collection, Collection) loaded}.
+     *
+     * @param cpe  The CPE to find candidates for; May be {@code null}
+     * @param purl The PURL to find candidates for; May be {@code null}
+     * @return The match candidates, or {@code null} when the CPE can't be looked up in the index,
+     * or the records of the CPE or PURL are not loaded or stale
+     */
+    List<Candidate> find(final Cpe cpe, final PackageURL purl) {
+        final var candidates = new LinkedHashMap<Long, Candidate>();
+
+        if (cpe != null && cpe.getVendor() != null && cpe.getProduct() != null) {
+            final CpeKey key = CpeKey.of(cpe);
+            final List<Candidate> cpeCandidates = key != null ? getCandidates(key) : null;
+            if (cpeCandidates == null) {
+                return null;
+            }
+            cpeCandidates.forEach(candidate -> candidates.putIfAbsent(candidate.vulnerableSoftware().getId(), candidate));
+        }
+
+        if (purl != null) {
+            final List<Candidate> purlCandidates = getCandidates(PurlKey.of(purl));
+            if (purlCandidates == null) {
+                return null;
+            }
+            purlCandidates.forEach(candidate -> candidates.putIfAbsent(candidate.vulnerableSoftware().getId(), candidate));
+        }
+
+        return List.copyOf(candidates.values());
+    }
+
+    /**
+     * @return The candidates of the given key, or {@code null} if they are not loaded or stale
+     */
+    private List<Candidate> getCandidates(final Key key) {
+        final Entry entry = entriesByKey.getIfPresent(key);
+        if (entry == null || entry.generation() != generation.get()) {
+            return null;
+        }
+        return entry.candidates();
+    }
+
+    /**
+     * @see org.dependencytrack.persistence.VulnerableSoftwareQueryManager#getAllVulnerableSoftware(String, String, String, PackageURL)
+     */
+    private static boolean matchesCpeAttribute(final String source, final String target) {
+        if (ANY.equals(target)) {
+            return source != null;
+        } else if (NA.equals(target)) {
+            return ANY.equals(source) || NA.equals(source);
+        }
+        return ANY.equals(source) || target.equals(source);
+    }
+
+    private void loadCpes(final PersistenceManager pm, final List<CpeKey> keys, final long loadGeneration) {
+        for (final List<CpeKey> batch : Lists.partition(keys, LOAD_BATCH_SIZE)) {
+            // Over-fetches combinations of the attributes of different keys, which are filtered out in memory.
+            final List<Candidate> candidates = loadCandidates(pm, """
+                    (:parts.contains(part) || part == "*")
+                        && (:vendors.contains(vendor) || vendor == "*")
+                        && (:products.contains(product) || product == "*")""", Map.of(
+                    "parts", batch.stream().map(CpeKey::part).collect(Collectors.toSet()),
+                    "vendors", batch.stream().map(CpeKey::vendor).collect(Collectors.toSet()),
+                    "products", batch.stream().map(CpeKey::product).collect(Collectors.toSet())));
+            putAll(batch, candidates, loadGeneration);
+        }
+    }
+
+    private void loadPurls(final PersistenceManager pm, final List<PurlKey> keys, final long loadGeneration) {
+        for (final List<PurlKey> batch : Lists.partition(keys, LOAD_BATCH_SIZE)) {
+            final List<Candidate> candidates = loadCandidates(pm, ":types.contains(purlType) && :names.contains(purlName)", Map.of(
+                    "types", batch.stream().map(PurlKey::type).collect(Collectors.toSet()),
+                    "names", batch.stream().map(PurlKey::name).collect(Collectors.toSet())));
+            putAll(batch, candidates, loadGeneration);
+        }
+    }
+
+    private void putAll(final List<? extends Key> keys, final List<Candidate> candidates, final long loadGeneration) {
+        for (final Key key : keys) {
+            entriesByKey.put(key, new Entry(loadGeneration, candidates.stream()
+                    .filter(candidate -> key.matches(candidate.vulnerableSoftware()))
+                    .toList()));
+        }
+    }
+
+    private static List<Candidate> loadCandidates(final PersistenceManager pm, final String filter, final Map<String, Set<String>> params) {
+        final List<VulnerableSoftwareProjection> projections;
+        try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+            query.setFilter(filter);
+            query.setNamedParameters(new HashMap<>(params));
+            query.setResult("""
+                    id, cpe23, part, vendor, product, version, this.update, edition, language, swEdition,
+                    targetSw, targetHw, other, purlType, purlNamespace, purlName, versionEndExcluding,
+                    versionEndIncluding, versionStartExcluding, versionStartIncluding""");
+            projections = List.copyOf(query.executeResultList(VulnerableSoftwareProjection.class));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load vulnerable software", e);
+        }
+
+        final Map<Long, List<Long>> vulnerabilityIdsByVsId = getVulnerabilityIds(pm, projections);
+        return projections.stream()
+                .map(projection -> new Candidate(projection.toVulnerableSoftware(),
+                        vulnerabilityIdsByVsId.getOrDefault(projection.id(), List.of())))
+                .toList();
+    }
+
+    private static Map<Long, List<Long>> getVulnerabilityIds(final PersistenceManager pm,
+                                                            final List<VulnerableSoftwareProjection> projections) {
+        if (projections.isEmpty()) {
+            return Map.of();
+        }
+
+        final var vulnerabilityIdsByVsId = new HashMap<Long, List<Long>>();
+        final List<Long> vsIds = projections.stream().map(VulnerableSoftwareProjection::id).toList();
+        for (final List<Long> batch : Lists.partition(vsIds, LOAD_BATCH_SIZE)) {
+            try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                query.setFilter(":ids.contains(id) && vulnerabilities.contains(vuln)");
+                query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+                query.setParameters(batch);
+                query.setResult("id, vuln.id");
+                for (final VulnerabilityIdProjection projection : query.executeResultList(VulnerabilityIdProjection.class)) {
+                    vulnerabilityIdsByVsId.computeIfAbsent(projection.vulnerableSoftwareId(), ignored -> new ArrayList<>())
+                            .add(projection.vulnerabilityId());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load vulnerabilities of vulnerable software", e);
+            }
+        }
+
+        return vulnerabilityIdsByVsId;
+    }
+
+    /**
+     * Coordinates of a component that match candidates are looked up by.
+     */
+    private sealed interface Key permits CpeKey, PurlKey {
+
+        boolean matches(VulnerableSoftware vs);
+
+    }
+
+    private record CpeKey(String part, String vendor, String product) implements Key {
+
+        /**
+         * @return The key of the CPE, or {@code null} if the CPE matches any part, vendor, or product,
+         * which is not something that can be looked up
+         */
+        private static CpeKey of(final Cpe cpe) {
+            if (cpe == null || cpe.getVendor() == null || cpe.getProduct() == null) {
+                return null;
+            }
+            final var key = new CpeKey(cpe.getPart().getAbbreviation(), cpe.getVendor(), cpe.getProduct());
+            if (ANY.equals(key.part()) || ANY.equals(key.vendor()) || ANY.equals(key.product())) {
+                return null;
+            }
+            return key;
+        }
+
+        @Override
+        public boolean matches(final VulnerableSoftware vs) {
+            return matchesCpeAttribute(vs.getPart(), part)
+                    && matchesCpeAttribute(vs.getVendor(), vendor)
+                    && matchesCpeAttribute(vs.getProduct(), product);
+        }
+
+    }
+
+    private record PurlKey(String type, String namespace, String name) implements Key {
+
+        private static PurlKey of(final PackageURL purl) {
+            return new PurlKey(purl.getType(), purl.getNamespace(), purl.getName());
+        }
+
+        @Override
+        public boolean matches(final VulnerableSoftware vs) {
+            return Objects.equals(vs.getPurlType(), type)
+                    && Objects.equals(vs.getPurlNamespace(), namespace)
+                    && Objects.equals(vs.getPurlName(), name);
+        }
+
+    }
+
+    /**
+     * Candidates of a {@link Key}, and the generation of the index they were loaded in.
+     */
+    private record Entry(long generation, List<Candidate> candidates) {
+    }
+
+    /**
+     * A match candidate, consisting of a transient copy of a {@link VulnerableSoftware} record,
+     * its compiled CPE and version range, and the IDs of vulnerabilities associated with it.
+     */
+    static final class Candidate {
+
+        private final VulnerableSoftware vulnerableSoftware;
+        private final List<Long> vulnerabilityIds;
+        private final CpeMatcher.Attributes cpe;
+        private final CompiledVersionRange versionRange;
+
+        Candidate(final VulnerableSoftware vulnerableSoftware, final List<Long> vulnerabilityIds) {
+            this.vulnerableSoftware = vulnerableSoftware;
+            this.vulnerabilityIds = List.copyOf(vulnerabilityIds);
+            this.cpe = CpeMatcher.compileSource(vulnerableSoftware);
+            this.versionRange = CompiledVersionRange.compile(vulnerableSoftware);
+        }
+
+        static Candidate of(final VulnerableSoftware vs) {
+            final List<Long> vulnerabilityIds = vs.getVulnerabilities() != null
+                    ? vs.getVulnerabilities().stream().map(Vulnerability::getId).toList()
+                    : List.of();
+            return new Candidate(vs, vulnerabilityIds);
+        }
+
+        VulnerableSoftware vulnerableSoftware() {
+            return vulnerableSoftware;
+        }
+
+        List<Long> vulnerabilityIds() {
+            return vulnerabilityIds;
+        }
+
+        CpeMatcher.Attributes cpe() {
+            return cpe;
+        }
+
+        CompiledVersionRange versionRange() {
+            return versionRange;
+        }
+
+    }
+
+    public record VulnerableSoftwareProjection(Long id, String cpe23, String part, String vendor, String product,
+                                               String version, String update, String edition, String language,
+                                               String swEdition, String targetSw, String targetHw, String other,
+                                               String purlType, String purlNamespace, String purlName,
+                                               String versionEndExcluding, String versionEndIncluding,
+                                               String versionStartExcluding, String versionStartIncluding) {
+
+        private VulnerableSoftware toVulnerableSoftware() {
+            final var vs = new VulnerableSoftware();
+            vs.setId(id);
+            vs.setCpe23(cpe23);
+            vs.setPart(part);
+            vs.setVendor(vendor);
+            vs.setProduct(product);
+            vs.setVersion(version);
+            vs.setUpdate(update);
+            vs.setEdition(edition);
+            vs.setLanguage(language);
+            vs.setSwEdition(swEdition);
+            vs.setTargetSw(targetSw);
+            vs.setTargetHw(targetHw);
+            vs.setOther(other);
+            vs.setPurlType(purlType);
+            vs.setPurlNamespace(purlNamespace);
+            vs.setPurlName(purlName);
+            vs.setVersionEndExcluding(versionEndExcluding);
+            vs.setVersionEndIncluding(versionEndIncluding);
+            vs.setVersionStartExcluding(versionStartExcluding);
+            vs.setVersionStartIncluding(versionStartIncluding);
+            return vs;
+        }
+
+    }
+
+    public record VulnerabilityIdProjection(Long vulnerableSoftwareId, Long vulnerabilityId) {
+    }
+
+}
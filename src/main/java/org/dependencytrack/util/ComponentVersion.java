@@ -23,6 +23,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -43,19 +44,39 @@ import java.util.regex.Pattern;
  * @author Jeremy Long
  *
  * Ported from DependencyVersion in Dependency-Check v5.2.1
+ * <p>
+ * Instances created with {@link #immutableOf(String)} can't be modified, and thus may be shared between threads.
  */
 @NotThreadSafe
 public class ComponentVersion implements Iterable<String>, Comparable<ComponentVersion> {
 
+    private static final Pattern DEB_VERSION_PATTERN = Pattern.compile("^([0-9]+:)?(.*)(-[^-]+ubuntu[^-]+)$");
+    private static final Pattern VERSION_PART_PATTERN = Pattern.compile("(\\d+[a-z]{1,3}$|[a-z]{1,3}[_-]?\\d+|\\d+|(rc|release|snapshot|beta|alpha)$)",
+            Pattern.CASE_INSENSITIVE);
+
     /**
      * A list of the version parts.
      */
     private List<String> versionParts;
 
+    /**
+     * The numeric values of the version parts, as determined by {@link Integer#parseInt(String)}.
+     * Pre-computed so that comparisons neither parse nor throw.
+     */
+    private int[] numericValues;
+
+    /**
+     * Whether the version part at the respective index is numeric.
+     */
+    private boolean[] numeric;
+
+    private final boolean immutable;
+
     /**
      * Constructor for a empty DependencyVersion.
      */
     public ComponentVersion() {
+        this.immutable = false;
     }
 
     /**
@@ -67,7 +88,25 @@ public class ComponentVersion implements Iterable<String>, Comparable<ComponentV
      * @param version the well formatted version number to parse
      */
     public ComponentVersion(String version) {
-        parseVersion(version);
+        parse(version);
+        this.immutable = false;
+    }
+
+    private ComponentVersion(final String version, final boolean immutable) {
+        parse(version);
+        this.versionParts = Collections.unmodifiableList(versionParts);
+        this.immutable = immutable;
+    }
+
+    /**
+     * Parses a version string into a version that can't be modified.
+     *
+     * @param version the well formatted version number to parse
+     * @return the parsed version
+     * @since 4.11.0
+     */
+    public static ComponentVersion immutableOf(final String version) {
+        return new ComponentVersion(version, true);
     }
 
     /**
@@ -76,22 +115,25 @@ public class ComponentVersion implements Iterable<String>, Comparable<ComponentV
      * is already known to be a version number.
      *
      * @param version the version string to parse
+     * @throws UnsupportedOperationException when this version is immutable
      */
     public final void parseVersion(String version) {
+        requireMutable();
+        parse(version);
+    }
+
+    private void parse(final String version) {
         versionParts = new ArrayList<>();
         if (version != null) {
             // https://github.com/DependencyTrack/dependency-track/issues/1374
             // handle deb versions
             String lcVersion = version.toLowerCase();
-            final Pattern debrx = Pattern.compile("^([0-9]+:)?(.*)(-[^-]+ubuntu[^-]+)$");
-            final Matcher debmatcher = debrx.matcher(lcVersion);
+            final Matcher debmatcher = DEB_VERSION_PATTERN.matcher(lcVersion);
             if (debmatcher.matches()) {
                 lcVersion = debmatcher.group(2);
             }
 
-            final Pattern rx = Pattern.compile("(\\d+[a-z]{1,3}$|[a-z]{1,3}[_-]?\\d+|\\d+|(rc|release|snapshot|beta|alpha)$)",
-                    Pattern.CASE_INSENSITIVE);
-            final Matcher matcher = rx.matcher(lcVersion);
+            final Matcher matcher = VERSION_PART_PATTERN.matcher(lcVersion);
             while (matcher.find()) {
                 versionParts.add(matcher.group());
             }
@@ -99,6 +141,7 @@ public class ComponentVersion implements Iterable<String>, Comparable<ComponentV
                 versionParts.add(version);
             }
         }
+        computeNumericValues();
     }
 
     /**
@@ -114,9 +157,40 @@ public class ComponentVersion implements Iterable<String>, Comparable<ComponentV
      * Set the value of versionParts.
      *
      * @param versionParts new value of versionParts
+     * @throws UnsupportedOperationException when this version is immutable
      */
     public void setVersionParts(List<String> versionParts) {
+        requireMutable();
         this.versionParts = versionParts;
+        computeNumericValues();
+    }
+
+    private void requireMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Version " + this + " is immutable");
+        }
+    }
+
+    private void computeNumericValues() {
+        if (versionParts == null) {
+            numericValues = null;
+            numeric = null;
+            return;
+        }
+        numericValues = new int[versionParts.size()];
+        numeric = new boolean[versionParts.size()];
+        for (int i = 0; i < versionParts.size(); i++) {
+            try {
+                numericValues[i] = Integer.parseInt(versionParts.get(i));
+                numeric[i] = true;
+            } catch (NumberFormatException ex) {
+                numeric[i] = false;
+            }
+        }
+    }
+
+    private boolean isNumeric(final int index) {
+        return numeric != null && index < numeric.length && numeric[index];
     }
 
     /**
@@ -259,15 +333,15 @@ public class ComponentVersion implements Iterable<String>, Comparable<ComponentV
             if (lStr.equals(rStr)) {
                 continue;
             }
-            try {
-                final int l = Integer.parseInt(lStr);
-                final int r = Integer.parseInt(rStr);
+            if (this.isNumeric(i) && version.isNumeric(i)) {
+                final int l = this.numericValues[i];
+                final int r = version.numericValues[i];
                 if (l < r) {
                     return -1;
                 } else if (l > r) {
                     return 1;
                 }
-            } catch (NumberFormatException ex) {
+            } else {
                 final int comp = left.get(i).compareTo(right.get(i));
                 if (comp < 0) {
                     return -1;
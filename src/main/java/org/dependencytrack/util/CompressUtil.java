@@ -24,8 +24,14 @@ import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.io.IOUtils;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public final class CompressUtil {
 
@@ -52,4 +58,36 @@ public final class CompressUtil {
         return input;
     }
 
+    /**
+     * Helper method that attempts to automatically identify an archive and its type,
+     * and extract the contents to a temporary file. If this fails, it will gracefully return
+     * the original input file without exception. If the input was not an archive
+     * or compressed, it will return the original file.
+     * <p>
+     * Contrary to {@link #optionallyDecompress(byte[])}, neither the archive nor
+     * its contents are loaded into memory in their entirety.
+     * @param input the file to decompress
+     * @return the input file, or a temporary file holding the decompressed contents
+     * @since 4.11.0
+     */
+    public static File optionallyDecompress(final File input) {
+        try (final InputStream fis = new BufferedInputStream(Files.newInputStream(input.toPath()));
+             final ArchiveInputStream ais = new ArchiveStreamFactory().createArchiveInputStream(fis)) {
+            final ArchiveEntry entry = ais.getNextEntry();
+            if (ais.canReadEntryData(entry)) {
+                final Path output = Files.createTempFile("dtrack-bom-", ".tmp");
+                try {
+                    Files.copy(ais, output, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    Files.deleteIfExists(output);
+                    throw e;
+                }
+                return output.toFile();
+            }
+        } catch (ArchiveException | IOException e) {
+            // throw it away and return the original file
+        }
+        return input;
+    }
+
 }
@@ -68,6 +68,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -83,27 +84,45 @@ public final class NotificationUtil {
             // Component did not previously contain this vulnerability. It could be a newly discovered vulnerability
             // against an existing component, or it could be a newly added (and vulnerable) component. Either way,
             // it warrants a Notification be dispatched.
-            final Map<Long,Project> affectedProjects = new HashMap<>();
-            final List<Component> components = qm.matchIdentity(new ComponentIdentity(component));
-            for (final Component c : components) {
-                if(!affectedProjects.containsKey(c.getProject().getId())) {
-                    affectedProjects.put(c.getProject().getId(), qm.detach(Project.class, c.getProject().getId()));
-                }
+            dispatchNewVulnerabilityNotification(qm, vulnerability, component, getAffectedProjects(qm, component), vulnerabilityAnalysisLevel);
+        }
+    }
+
+    /**
+     * Determine the projects affected by a vulnerability in a given {@link Component},
+     * i.e. all projects containing a component with the same identity.
+     * @since 4.11.0
+     */
+    public static Set<Project> getAffectedProjects(final QueryManager qm, final Component component) {
+        final Map<Long,Project> affectedProjects = new HashMap<>();
+        final List<Component> components = qm.matchIdentity(new ComponentIdentity(component));
+        for (final Component c : components) {
+            if(!affectedProjects.containsKey(c.getProject().getId())) {
+                affectedProjects.put(c.getProject().getId(), qm.detach(Project.class, c.getProject().getId()));
             }
+        }
+        return new HashSet<>(affectedProjects.values());
+    }
 
-            final Vulnerability detachedVuln =  qm.detach(Vulnerability.class, vulnerability.getId());
-            detachedVuln.setAliases(qm.detach(qm.getVulnerabilityAliases(vulnerability))); // Aliases are lost during detach above
-            final Component detachedComponent = qm.detach(Component.class, component.getId());
+    /**
+     * Dispatch a {@link NotificationGroup#NEW_VULNERABILITY} notification for a vulnerability
+     * that is known to be newly identified in a given {@link Component}.
+     * @since 4.11.0
+     */
+    public static void dispatchNewVulnerabilityNotification(final QueryManager qm, final Vulnerability vulnerability, final Component component,
+                                                            final Set<Project> affectedProjects, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        final Vulnerability detachedVuln =  qm.detach(Vulnerability.class, vulnerability.getId());
+        detachedVuln.setAliases(qm.detach(qm.getVulnerabilityAliases(vulnerability))); // Aliases are lost during detach above
+        final Component detachedComponent = qm.detach(Component.class, component.getId());
 
-            Notification.dispatch(new Notification()
-                    .scope(NotificationScope.PORTFOLIO)
-                    .group(NotificationGroup.NEW_VULNERABILITY)
-                    .title(generateNotificationTitle(NotificationConstants.Title.NEW_VULNERABILITY, component.getProject()))
-                    .level(NotificationLevel.INFORMATIONAL)
-                    .content(generateNotificationContent(detachedVuln))
-                    .subject(new NewVulnerabilityIdentified(detachedVuln, detachedComponent, new HashSet<>(affectedProjects.values()), vulnerabilityAnalysisLevel))
-            );
-        }
+        Notification.dispatch(new Notification()
+                .scope(NotificationScope.PORTFOLIO)
+                .group(NotificationGroup.NEW_VULNERABILITY)
+                .title(generateNotificationTitle(NotificationConstants.Title.NEW_VULNERABILITY, component.getProject()))
+                .level(NotificationLevel.INFORMATIONAL)
+                .content(generateNotificationContent(detachedVuln))
+                .subject(new NewVulnerabilityIdentified(detachedVuln, detachedComponent, affectedProjects, vulnerabilityAnalysisLevel))
+        );
     }
 
     public static void analyzeNotificationCriteria(final QueryManager qm, Component component) {
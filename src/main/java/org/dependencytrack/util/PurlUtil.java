@@ -52,4 +52,20 @@ public class PurlUtil {
         }
     }
 
+    /**
+     * @param purl the Package URL to parse
+     * @return the parsed {@link PackageURL}, or {@code null} if {@code purl} is {@code null} or malformed
+     * @since 4.11.0
+     */
+    public static PackageURL silentPurl(final String purl) {
+        if (purl == null) {
+            return null;
+        }
+        try {
+            return new PackageURL(purl);
+        } catch (MalformedPackageURLException e) {
+            return null;
+        }
+    }
+
 }
@@ -20,7 +20,9 @@ package org.dependencytrack;
 
 import alpine.Config;
 import alpine.server.persistence.PersistenceManagerFactory;
+import org.dependencytrack.persistence.ProjectDependencyGraphCache;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.ComponentAnalysisCacheTier;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -51,6 +53,8 @@ public abstract class PersistenceCapableTest {
         }
 
         PersistenceManagerFactory.tearDown();
+        ComponentAnalysisCacheTier.getInstance().invalidateAll();
+        ProjectDependencyGraphCache.getInstance().invalidateAll();
     }
 
 }
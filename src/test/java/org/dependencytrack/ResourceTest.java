@@ -26,7 +26,9 @@ import alpine.server.auth.JsonWebToken;
 import alpine.server.auth.PasswordService;
 import alpine.server.persistence.PersistenceManagerFactory;
 import org.dependencytrack.auth.Permissions;
+import org.dependencytrack.persistence.ProjectDependencyGraphCache;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.ComponentAnalysisCacheTier;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.grizzly.connector.GrizzlyConnectorProvider;
 import org.glassfish.jersey.test.JerseyTest;
@@ -121,6 +123,8 @@ public abstract class ResourceTest extends JerseyTest {
         }
 
         PersistenceManagerFactory.tearDown();
+        ComponentAnalysisCacheTier.getInstance().invalidateAll();
+        ProjectDependencyGraphCache.getInstance().invalidateAll();
     }
 
     @Override
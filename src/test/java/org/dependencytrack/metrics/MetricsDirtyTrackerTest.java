@@ -0,0 +1,76 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsDirtyTrackerTest {
+
+    @Test
+    public void testMarkDirtyAndClean() {
+        final var tracker = new MetricsDirtyTracker(true, Duration.ofHours(24));
+        final Project project = createProject(1);
+        final var component = new Component();
+        component.setProject(project);
+
+        assertThat(tracker.isDirty(project)).isFalse();
+        tracker.markDirty(component);
+        assertThat(tracker.isDirty(project)).isTrue();
+        assertThat(tracker.isDirty(createProject(2))).isFalse();
+
+        tracker.markClean(project);
+        assertThat(tracker.isDirty(project)).isFalse();
+    }
+
+    @Test
+    public void testMarkDirtyWhenDisabled() {
+        final var tracker = new MetricsDirtyTracker(false, Duration.ofHours(24));
+        final Project project = createProject(1);
+
+        tracker.markDirty(project);
+        assertThat(tracker.isDirty(project)).isFalse();
+        assertThat(tracker.isFullUpdateDue()).isTrue();
+    }
+
+    @Test
+    public void testIsFullUpdateDue() {
+        final var tracker = new MetricsDirtyTracker(true, Duration.ofHours(24));
+        assertThat(tracker.isFullUpdateDue()).isTrue();
+
+        tracker.fullUpdateCompleted(Instant.now());
+        assertThat(tracker.isFullUpdateDue()).isFalse();
+
+        tracker.fullUpdateCompleted(Instant.now().minus(Duration.ofHours(25)));
+        assertThat(tracker.isFullUpdateDue()).isTrue();
+    }
+
+    private static Project createProject(final long id) {
+        final var project = new Project();
+        project.setId(id);
+        return project;
+    }
+
+}
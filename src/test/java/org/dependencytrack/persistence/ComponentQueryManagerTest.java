@@ -0,0 +1,309 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import alpine.common.logging.Logger;
+import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyEdge;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.junit.Assume;
+import org.junit.Test;
+
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentQueryManagerTest extends PersistenceCapableTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ComponentQueryManagerTest.class);
+
+    @Test
+    public void testReconcileComponents() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INT-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln = qm.createVulnerability(vuln, false);
+
+        final Component componentToKeep = createComponent(project, "acme-lib-a", null);
+        final Component componentToDelete = createComponent(project, "acme-lib-b", null);
+        final Component childToKeep = createComponent(project, "acme-lib-c", componentToDelete);
+
+        qm.addVulnerability(vuln, componentToDelete, AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.makeAnalysis(componentToDelete, vuln, AnalysisState.NOT_AFFECTED, null, null, null, false);
+        createMetrics(componentToDelete);
+        qm.addVulnerability(vuln, componentToKeep, AnalyzerIdentity.INTERNAL_ANALYZER);
+        createMetrics(componentToKeep);
+
+        qm.reconcileComponents(project, qm.getAllComponents(project), List.of(componentToKeep, childToKeep));
+
+        assertThat(qm.getAllComponents(project)).extracting(Component::getName)
+                .containsExactlyInAnyOrder("acme-lib-a", "acme-lib-c");
+        assertThat(qm.getObjectById(Component.class, childToKeep.getId()).getParent()).isNull();
+        assertThat(qm.getAllVulnerabilities(componentToKeep)).hasSize(1);
+
+        assertThat(countComponentVulnerabilities(componentToDelete.getId())).isZero();
+        assertThat(countComponentVulnerabilities(componentToKeep.getId())).isEqualTo(1);
+        assertThat(countByComponentId(Analysis.class, componentToDelete.getId())).isZero();
+        assertThat(countByComponentId(FindingAttribution.class, componentToDelete.getId())).isZero();
+        assertThat(countByComponentId(DependencyMetrics.class, componentToDelete.getId())).isZero();
+        assertThat(countByComponentId(FindingAttribution.class, componentToKeep.getId())).isEqualTo(1);
+        assertThat(countByComponentId(DependencyMetrics.class, componentToKeep.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void testReconcileComponentsWithoutChanges() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component component = createComponent(project, "acme-lib-a", null);
+
+        qm.reconcileComponents(project, qm.getAllComponents(project), List.of(component));
+
+        assertThat(qm.getAllComponents(project)).containsExactly(component);
+    }
+
+    /**
+     * Measures reconciliation time against project size, where half of all components are removed.
+     * <p>
+     * This is a benchmark rather than a test, and thus only executed when the {@code benchmark}
+     * system property is set, e.g. {@code mvn test -P enhance -Dtest=ComponentQueryManagerTest -Dbenchmark}.
+     */
+    @Test
+    public void benchmarkReconcileComponents() {
+        Assume.assumeTrue(System.getProperty("benchmark") != null);
+
+        for (final int projectSize : new int[]{100, 1_000, 5_000, 10_000}) {
+            final Project project = qm.createProject("Acme Example " + projectSize, null, "1.0", null, null, null, true, false);
+            final var allComponents = new ArrayList<Component>(projectSize);
+            final var componentsToKeep = new ArrayList<Component>(projectSize / 2);
+            for (int i = 0; i < projectSize; i++) {
+                final var component = new Component();
+                component.setProject(project);
+                component.setName("acme-lib-" + i);
+                component.setVersion("1.0");
+                allComponents.add(component);
+                if (i % 2 == 0) {
+                    componentsToKeep.add(component);
+                }
+            }
+            qm.persistComponents(allComponents, false);
+
+            final List<Component> existingComponents = qm.getAllComponents(project);
+            final long startTimeNs = System.nanoTime();
+            qm.reconcileComponents(project, existingComponents, componentsToKeep);
+            final long durationMs = (System.nanoTime() - startTimeNs) / 1_000_000;
+            LOGGER.info("Reconciled %d components (%d removed) in %dms".formatted(projectSize, projectSize / 2, durationMs));
+
+            assertThat(qm.getAllComponents(project)).hasSize(componentsToKeep.size());
+        }
+    }
+
+    @Test
+    public void testDependencyGraphTraversal() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        final Component componentC = createComponent(project, "acme-lib-c", null);
+        final Component componentD = createComponent(project, "acme-lib-d", null);
+        final Component componentE = createComponent(project, "acme-lib-e", null);
+        project.setDirectDependencies(directDependencies(componentA, componentB));
+        componentA.setDirectDependencies(directDependencies(componentC));
+        componentB.setDirectDependencies(directDependencies(componentC));
+        componentC.setDirectDependencies(directDependencies(componentD));
+        componentD.setDirectDependencies(directDependencies(componentB)); // Cycle
+        qm.synchronizeDependencyGraph(project, List.of(componentA, componentB, componentC, componentD, componentE));
+
+        assertThat(qm.getDependencyDepth(componentA)).isEqualTo(1);
+        assertThat(qm.getDependencyDepth(componentC)).isEqualTo(2);
+        assertThat(qm.getDependencyDepth(componentD)).isEqualTo(3);
+        assertThat(qm.getDependencyDepth(componentE)).isEqualTo(-1);
+
+        final DependencyPaths paths = qm.getDependencyPaths(componentD, 10, 10);
+        assertThat(paths.paths())
+                .extracting(path -> path.stream().map(Component::getName).toList())
+                .containsExactlyInAnyOrder(
+                        List.of("acme-lib-a", "acme-lib-c", "acme-lib-d"),
+                        List.of("acme-lib-b", "acme-lib-c", "acme-lib-d"));
+        assertThat(paths.truncated()).isFalse();
+        assertThat(qm.getDependencyPaths(componentE, 10, 10).paths()).isEmpty();
+    }
+
+    @Test
+    public void testDependencyGraphIsPopulatedOnFirstAccess() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        project.setDirectDependencies(directDependencies(componentA));
+        componentA.setDirectDependencies(directDependencies(componentB));
+
+        assertThat(countDependencyEdges()).isZero();
+        assertThat(qm.getDependencyDepth(componentB)).isEqualTo(2);
+        assertThat(countDependencyEdges()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDependencyGraphIsPopulatedOnlyOnce() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        project.setDirectDependencies("[{\"uuid\":\"" + UUID.randomUUID() + "\"}]");
+
+        assertThat(qm.getDependencyDepth(componentA)).isEqualTo(-1);
+        assertThat(qm.getObjectById(Project.class, project.getId()).isDependencyGraphSynchronized()).isTrue();
+        assertThat(countDependencyEdges()).isZero();
+
+        // Edges are not populated again, even though none exist.
+        project.setDirectDependencies(directDependencies(componentA));
+        componentA.setDirectDependencies(directDependencies(componentB));
+        qm.updateLastBomImport(project, new Date(), "CycloneDX 1.5");
+        assertThat(qm.getDependencyDepth(componentB)).isEqualTo(-1);
+        assertThat(countDependencyEdges()).isZero();
+    }
+
+    @Test
+    public void testCloneDependencyGraph() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        project.setDirectDependencies(directDependencies(componentA));
+        componentA.setDirectDependencies(directDependencies(componentB));
+        qm.synchronizeDependencyGraph(project, List.of(componentA, componentB));
+
+        final Project clone = qm.clone(project.getUuid(), "1.1", false, false, true, true, false, false);
+        assertThat(clone.isDependencyGraphSynchronized()).isTrue();
+        assertThat(countDependencyEdges()).isEqualTo(4);
+
+        final Component clonedComponentB = qm.getAllComponents(clone).stream()
+                .filter(component -> "acme-lib-b".equals(component.getName()))
+                .findFirst().orElseThrow();
+        assertThat(qm.getDependencyPaths(clonedComponentB, 10, 10).paths())
+                .extracting(path -> path.stream().map(component -> component.getProject().getId()).distinct().toList())
+                .containsExactly(List.of(clone.getId()));
+    }
+
+    @Test
+    public void testDependencyGraphIsCachedUntilModified() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        project.setDirectDependencies(directDependencies(componentA));
+        componentA.setDirectDependencies(directDependencies(componentB));
+        qm.synchronizeDependencyGraph(project, List.of(componentA, componentB));
+
+        final ProjectDependencyGraph graph = qm.getDependencyGraph(project);
+        assertThat(Arrays.stream(graph.getDirectDependencies()).mapToObj(graph::getUuid))
+                .containsExactly(componentA.getUuid());
+        assertThat(Arrays.stream(graph.getSubtree(graph.indexOf(componentA.getId()))).mapToObj(graph::getUuid))
+                .containsExactly(componentA.getUuid(), componentB.getUuid());
+        assertThat(qm.getDependencyGraph(project)).isSameAs(graph);
+
+        // A new BOM import invalidates the graph.
+        qm.updateLastBomImport(project, new Date(), "CycloneDX 1.5");
+        final ProjectDependencyGraph graphAfterImport = qm.getDependencyGraph(project);
+        assertThat(graphAfterImport).isNotSameAs(graph);
+        assertThat(qm.getDependencyGraph(project)).isSameAs(graphAfterImport);
+
+        // So does modifying the graph.
+        qm.recursivelyDelete(componentB, false);
+        final ProjectDependencyGraph graphAfterDeletion = qm.getDependencyGraph(project);
+        assertThat(graphAfterDeletion).isNotSameAs(graphAfterImport);
+        assertThat(graphAfterDeletion.indexOf(componentB.getUuid())).isEqualTo(-1);
+        assertThat(graphAfterDeletion.getChildren(graphAfterDeletion.indexOf(componentA.getId()))).isEmpty();
+    }
+
+    @Test
+    public void testDeleteComponentsWithDependencyEdges() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a", null);
+        final Component componentB = createComponent(project, "acme-lib-b", null);
+        final Component componentC = createComponent(project, "acme-lib-c", null);
+        project.setDirectDependencies(directDependencies(componentA));
+        componentA.setDirectDependencies(directDependencies(componentB));
+        componentB.setDirectDependencies(directDependencies(componentC));
+        qm.synchronizeDependencyGraph(project, List.of(componentA, componentB, componentC));
+        assertThat(countDependencyEdges()).isEqualTo(3);
+
+        qm.recursivelyDelete(componentC, false);
+        assertThat(countDependencyEdges()).isEqualTo(2);
+
+        qm.reconcileComponents(project, qm.getAllComponents(project), List.of(componentA));
+        assertThat(countDependencyEdges()).isEqualTo(1);
+
+        qm.recursivelyDelete(project, false);
+        assertThat(countDependencyEdges()).isZero();
+    }
+
+    private Component createComponent(final Project project, final String name, final Component parent) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        component.setVersion("1.0");
+        component.setParent(parent);
+        return qm.createComponent(component, false);
+    }
+
+    private void createMetrics(final Component component) {
+        final var metrics = new DependencyMetrics();
+        metrics.setProject(component.getProject());
+        metrics.setComponent(component);
+        metrics.setFirstOccurrence(new Date());
+        metrics.setLastOccurrence(new Date());
+        qm.persist(metrics);
+    }
+
+    private static String directDependencies(final Component... components) {
+        return Arrays.stream(components)
+                .map(component -> "{\"uuid\":\"" + component.getUuid() + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private long countDependencyEdges() {
+        final Query<DependencyEdge> query = qm.getPersistenceManager().newQuery(DependencyEdge.class);
+        query.setResult("count(this)");
+        return (long) query.execute();
+    }
+
+    private long countComponentVulnerabilities(final long componentId) {
+        final Query<?> query = qm.getPersistenceManager().newQuery(JDOQuery.SQL_QUERY_LANGUAGE,
+                "SELECT COUNT(*) FROM \"COMPONENTS_VULNERABILITIES\" WHERE \"COMPONENT_ID\" = ?");
+        query.setParameters(componentId);
+        return query.executeResultUnique(Number.class).longValue();
+    }
+
+    private long countByComponentId(final Class<?> clazz, final long componentId) {
+        final Query<?> query = qm.getPersistenceManager().newQuery(clazz, "component.id == :id");
+        query.setResult("count(this)");
+        return (long) query.execute(componentId);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import alpine.notification.Notification;
+import alpine.notification.NotificationService;
+import alpine.notification.Subscriber;
+import alpine.notification.Subscription;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.dependencytrack.notification.NotificationGroup;
+import org.dependencytrack.notification.vo.NewVulnerabilityIdentified;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.jdo.Query;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class FindingsWriterTest extends PersistenceCapableTest {
+
+    public static class NotificationSubscriber implements Subscriber {
+
+        @Override
+        public void inform(final Notification notification) {
+            NOTIFICATIONS.add(notification);
+        }
+
+    }
+
+    private static final ConcurrentLinkedQueue<Notification> NOTIFICATIONS = new ConcurrentLinkedQueue<>();
+
+    @BeforeClass
+    public static void setUpClass() {
+        NotificationService.getInstance().subscribe(new Subscription(NotificationSubscriber.class));
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        NotificationService.getInstance().unsubscribe(new Subscription(NotificationSubscriber.class));
+    }
+
+    @Before
+    public void setUp() {
+        NOTIFICATIONS.clear();
+    }
+
+    @Test
+    public void testFlush() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        final Vulnerability vulnX = createVulnerability("INT-001");
+        final Vulnerability vulnY = createVulnerability("INT-002");
+        qm.addVulnerability(vulnX, componentA, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var findingsWriter = new FindingsWriter(qm, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+        findingsWriter.add(componentA, vulnX, AnalyzerIdentity.OSSINDEX_ANALYZER);
+        findingsWriter.add(componentA, vulnY, AnalyzerIdentity.OSSINDEX_ANALYZER, "sonatype-2023-001", "https://example.com");
+        findingsWriter.add(componentA, vulnY, AnalyzerIdentity.INTERNAL_ANALYZER);
+        findingsWriter.add(componentB, vulnX, AnalyzerIdentity.INTERNAL_ANALYZER);
+        assertThat(findingsWriter.flush()).isEqualTo(2);
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllVulnerabilities(componentA)).extracting(Vulnerability::getVulnId)
+                .containsExactlyInAnyOrder("INT-001", "INT-002");
+        assertThat(qm.getAllVulnerabilities(componentB)).extracting(Vulnerability::getVulnId)
+                .containsExactly("INT-001");
+
+        assertThat(qm.getFindingAttribution(vulnX, componentA).getAnalyzerIdentity()).isEqualTo(AnalyzerIdentity.INTERNAL_ANALYZER);
+        assertThat(qm.getFindingAttribution(vulnY, componentA)).satisfies(attribution -> {
+            assertThat(attribution.getAnalyzerIdentity()).isEqualTo(AnalyzerIdentity.OSSINDEX_ANALYZER);
+            assertThat(attribution.getAlternateIdentifier()).isEqualTo("sonatype-2023-001");
+            assertThat(attribution.getReferenceUrl()).isEqualTo("https://example.com");
+        });
+        assertThat(qm.getFindingAttribution(vulnX, componentB).getAnalyzerIdentity()).isEqualTo(AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        // Only the findings that did not exist before warrant a notification.
+        await().atMost(Duration.ofSeconds(5)).until(() -> newVulnerabilityNotifications().size() >= 2);
+        assertThat(newVulnerabilityNotifications())
+                .extracting(notification -> (NewVulnerabilityIdentified) notification.getSubject())
+                .satisfiesExactlyInAnyOrder(
+                        subject -> {
+                            assertThat(subject.getComponent().getName()).isEqualTo("acme-lib-a");
+                            assertThat(subject.getVulnerability().getVulnId()).isEqualTo("INT-002");
+                            assertThat(subject.getAffectedProjects()).extracting(Project::getName).containsExactly("acme-app");
+                            assertThat(subject.getVulnerabilityAnalysisLevel()).isEqualTo(VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+                        },
+                        subject -> {
+                            assertThat(subject.getComponent().getName()).isEqualTo("acme-lib-b");
+                            assertThat(subject.getVulnerability().getVulnId()).isEqualTo("INT-001");
+                        }
+                );
+    }
+
+    @Test
+    public void testFlushWithoutNewFindings() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final Component component = createComponent(project, "acme-lib");
+        final Vulnerability vulnerability = createVulnerability("INT-001");
+        qm.addVulnerability(vulnerability, component, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var findingsWriter = new FindingsWriter(qm, VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS);
+        findingsWriter.add(component, vulnerability, AnalyzerIdentity.OSSINDEX_ANALYZER);
+        assertThat(findingsWriter.flush()).isZero();
+        assertThat(findingsWriter.flush()).isZero();
+
+        final Query<FindingAttribution> query = qm.getPersistenceManager().newQuery(FindingAttribution.class);
+        final List<FindingAttribution> attributions = query.executeList();
+        assertThat(attributions).extracting(FindingAttribution::getAnalyzerIdentity)
+                .containsExactly(AnalyzerIdentity.INTERNAL_ANALYZER);
+        assertThat(newVulnerabilityNotifications()).isEmpty();
+    }
+
+    @Test
+    public void testFlushMultipleComponentGroups() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final Vulnerability vulnerability = createVulnerability("INT-001");
+        final var components = new ArrayList<Component>();
+        for (int i = 0; i < 60; i++) {
+            components.add(createComponent(project, "acme-lib-" + i));
+        }
+        qm.addVulnerability(vulnerability, components.get(42), AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var findingsWriter = new FindingsWriter(qm, VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS);
+        components.forEach(component -> findingsWriter.add(component, vulnerability, AnalyzerIdentity.OSSINDEX_ANALYZER));
+        assertThat(findingsWriter.flush()).isEqualTo(59);
+
+        qm.getPersistenceManager().evictAll();
+        for (final Component component : components) {
+            assertThat(qm.getAllVulnerabilities(component)).extracting(Vulnerability::getVulnId).containsExactly("INT-001");
+        }
+    }
+
+    private static List<Notification> newVulnerabilityNotifications() {
+        return NOTIFICATIONS.stream()
+                .filter(notification -> NotificationGroup.NEW_VULNERABILITY.name().equals(notification.getGroup()))
+                .toList();
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        return qm.createComponent(component, false);
+    }
+
+    private Vulnerability createVulnerability(final String vulnId) {
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId(vulnId);
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        return qm.createVulnerability(vulnerability, false);
+    }
+
+}
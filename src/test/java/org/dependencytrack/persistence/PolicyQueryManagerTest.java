@@ -18,11 +18,20 @@
  */
 package org.dependencytrack.persistence;
 
+import com.google.common.collect.Lists;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisState;
 import org.junit.Test;
 
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,4 +56,88 @@ public class PolicyQueryManagerTest extends PersistenceCapableTest {
         assertThat(qm.getObjectById(Policy.class, policy2.getId()).getProjects()).isEmpty();
     }
 
+    @Test
+    public void testReconcilePolicyViolations() {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition conditionA = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        final PolicyCondition conditionB = qm.createPolicyCondition(policy, PolicyCondition.Subject.COORDINATES, PolicyCondition.Operator.MATCHES, "{}");
+
+        final PolicyViolation keptViolation = qm.addPolicyViolationIfNotExist(violation(componentA, conditionA));
+        final PolicyViolation obsoleteViolation = qm.addPolicyViolationIfNotExist(violation(componentB, conditionB));
+        qm.makeViolationAnalysis(componentB, obsoleteViolation, ViolationAnalysisState.APPROVED, false);
+
+        final PolicyViolation duplicateViolation = violation(componentA, conditionA);
+        final PolicyViolation newViolation = violation(componentB, conditionA);
+        final PolicyViolation newDuplicateViolation = violation(componentB, conditionA);
+        final List<PolicyViolation> reconciledViolations = qm.reconcilePolicyViolations(List.of(componentA, componentB),
+                List.of(duplicateViolation, newViolation, newDuplicateViolation));
+
+        assertThat(reconciledViolations).hasSize(3);
+        assertThat(reconciledViolations.get(0)).isSameAs(keptViolation);
+        assertThat(reconciledViolations.get(1)).isSameAs(newViolation);
+        assertThat(reconciledViolations.get(2)).isSameAs(newViolation);
+        assertThat(qm.getAllPolicyViolations(componentA)).extracting(PolicyViolation::getId)
+                .containsExactly(keptViolation.getId());
+        assertThat(qm.getAllPolicyViolations(componentB)).extracting(PolicyViolation::getId)
+                .containsExactly(newViolation.getId());
+        assertThat(qm.getObjectById(PolicyViolation.class, newViolation.getId()).getProject().getId()).isEqualTo(project.getId());
+
+        // Reconciling without any violations removes all of them.
+        assertThat(qm.reconcilePolicyViolations(List.of(componentA, componentB), List.of())).isEmpty();
+        assertThat(qm.getAllPolicyViolations(project)).isEmpty();
+        final Query<ViolationAnalysis> query = qm.getPersistenceManager().newQuery(ViolationAnalysis.class);
+        query.setResult("count(this)");
+        assertThat((long) query.execute()).isZero();
+    }
+
+    @Test
+    public void testReconcilePolicyViolationsOfMultipleComponentGroups() {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        final var components = new ArrayList<Component>();
+        for (int i = 0; i < 60; i++) {
+            components.add(createComponent(project, "acme-lib-" + i));
+        }
+        final PolicyViolation existingViolation = qm.addPolicyViolationIfNotExist(violation(components.get(7), condition));
+
+        // Violations are passed in reverse order of their components, to verify that the order is retained.
+        final List<PolicyViolation> violations = Lists.reverse(components).stream()
+                .map(component -> violation(component, condition))
+                .toList();
+        final List<PolicyViolation> reconciledViolations = qm.reconcilePolicyViolations(components, violations);
+
+        assertThat(reconciledViolations).hasSize(60);
+        for (int i = 0; i < 60; i++) {
+            final PolicyViolation reconciledViolation = reconciledViolations.get(i);
+            assertThat(reconciledViolation.getComponent().getId()).isEqualTo(violations.get(i).getComponent().getId());
+            if (reconciledViolation.getComponent().getId() == components.get(7).getId()) {
+                assertThat(reconciledViolation).isSameAs(existingViolation);
+            } else {
+                assertThat(reconciledViolation).isSameAs(violations.get(i));
+            }
+        }
+        assertThat(qm.getAllPolicyViolations(project)).hasSize(60);
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        component.setVersion("1.0");
+        return qm.createComponent(component, false);
+    }
+
+    private static PolicyViolation violation(final Component component, final PolicyCondition condition) {
+        final var violation = new PolicyViolation();
+        violation.setComponent(component);
+        violation.setPolicyCondition(condition);
+        violation.setType(PolicyViolation.Type.OPERATIONAL);
+        violation.setTimestamp(new Date());
+        return violation;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Project;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectDependencyGraphTest {
+
+    private static final UUID[] UUIDS = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+
+    /**
+     * Project -> 10 -> 30 -> 40 -> 20 (cycle back to 30)
+     * Project -> 20 -> 30
+     * 50 is not reachable.
+     */
+    private static ProjectDependencyGraph graph(final Date lastBomImport) {
+        return new ProjectDependencyGraph(lastBomImport,
+                new long[]{50, 40, 30, 20, 10},
+                new UUID[]{UUIDS[4], UUIDS[3], UUIDS[2], UUIDS[1], UUIDS[0]},
+                new long[]{10, 20, 666},
+                new long[]{10, 20, 30, 40, 666},
+                new long[]{30, 30, 40, 20, 10},
+                false);
+    }
+
+    @Test
+    public void testStructure() {
+        final ProjectDependencyGraph graph = graph(null);
+
+        assertThat(graph.size()).isEqualTo(5);
+        assertThat(graph.indexOf(666)).isEqualTo(-1);
+        assertThat(graph.indexOf(UUID.randomUUID())).isEqualTo(-1);
+        final int node = graph.indexOf(30);
+        assertThat(graph.getComponentId(node)).isEqualTo(30);
+        assertThat(graph.getUuid(node)).isEqualTo(UUIDS[2]);
+        assertThat(graph.indexOf(UUIDS[2])).isEqualTo(node);
+
+        assertThat(ids(graph, graph.getDirectDependencies())).containsExactlyInAnyOrder(10L, 20L);
+        assertThat(graph.isDirectDependency(graph.indexOf(10))).isTrue();
+        assertThat(graph.isDirectDependency(graph.indexOf(40))).isFalse();
+        assertThat(ids(graph, graph.getChildren(graph.indexOf(30)))).containsExactly(40L);
+        assertThat(ids(graph, graph.getParents(graph.indexOf(30)))).containsExactlyInAnyOrder(10L, 20L);
+        assertThat(graph.getChildren(graph.indexOf(50))).isEmpty();
+    }
+
+    @Test
+    public void testTraversal() {
+        final ProjectDependencyGraph graph = graph(null);
+
+        assertThat(ids(graph, graph.getSubtree(graph.indexOf(10)))).containsExactly(10L, 30L, 40L, 20L);
+        assertThat(ids(graph, graph.getAncestors(graph.indexOf(40)))).containsExactlyInAnyOrder(10L, 20L, 30L, 40L);
+        assertThat(ids(graph, graph.getAncestors(graph.indexOf(10)))).isEmpty();
+
+        assertThat(graph.getDepth(graph.indexOf(10))).isEqualTo(1);
+        assertThat(graph.getDepth(graph.indexOf(30))).isEqualTo(2);
+        assertThat(graph.getDepth(graph.indexOf(40))).isEqualTo(3);
+        assertThat(graph.getDepth(graph.indexOf(50))).isEqualTo(-1);
+
+        final ProjectDependencyGraph.Paths paths = graph.getPaths(graph.indexOf(40), 10, 10);
+        assertThat(paths.paths())
+                .extracting(path -> ids(graph, path))
+                .containsExactlyInAnyOrder(new long[]{10, 30, 40}, new long[]{20, 30, 40});
+        assertThat(paths.truncated()).isFalse();
+        assertThat(graph.getPaths(graph.indexOf(50), 10, 10).paths()).isEmpty();
+    }
+
+    @Test
+    public void testPathsAreTruncated() {
+        // 1 -> (2|3) -> 4 -> (5|6) -> 7 -> ... -> 61, i.e. 2^20 paths of 41 nodes each.
+        final int diamonds = 20;
+        final int nodes = diamonds * 3 + 1;
+        final long[] componentIds = new long[nodes];
+        final UUID[] uuids = new UUID[nodes];
+        for (int i = 0; i < nodes; i++) {
+            componentIds[i] = i + 1;
+            uuids[i] = UUID.randomUUID();
+        }
+        final long[] edgeParentIds = new long[diamonds * 4];
+        final long[] edgeChildIds = new long[diamonds * 4];
+        for (int i = 0; i < diamonds; i++) {
+            final long top = i * 3L + 1;
+            edgeParentIds[i * 4] = top;
+            edgeChildIds[i * 4] = top + 1;
+            edgeParentIds[i * 4 + 1] = top;
+            edgeChildIds[i * 4 + 1] = top + 2;
+            edgeParentIds[i * 4 + 2] = top + 1;
+            edgeChildIds[i * 4 + 2] = top + 3;
+            edgeParentIds[i * 4 + 3] = top + 2;
+            edgeChildIds[i * 4 + 3] = top + 3;
+        }
+        final var graph = new ProjectDependencyGraph(null, componentIds, uuids, new long[]{1}, edgeParentIds, edgeChildIds, false);
+        final int bottom = graph.indexOf(nodes);
+
+        ProjectDependencyGraph.Paths paths = graph.getPaths(bottom, 100, 100);
+        assertThat(paths.paths()).hasSize(100);
+        assertThat(paths.paths()).allSatisfy(path -> assertThat(path).hasSize(diamonds * 2 + 1));
+        assertThat(paths.truncated()).isTrue();
+
+        paths = graph.getPaths(bottom, 100, 10);
+        assertThat(paths.paths()).isEmpty();
+        assertThat(paths.truncated()).isTrue();
+
+        paths = graph.getPaths(graph.indexOf(7), 100, 100);
+        assertThat(paths.paths()).hasSize(4);
+        assertThat(paths.truncated()).isFalse();
+    }
+
+    @Test
+    public void testCacheIsInvalidatedByNewBomImport() {
+        final var cache = new ProjectDependencyGraphCache(1024 * 1024);
+        final var project = new Project();
+        project.setId(1);
+        project.setLastBomImport(new Date(1000));
+        final var loads = new AtomicInteger();
+
+        final ProjectDependencyGraph graph = cache.get(project, p -> {
+            loads.incrementAndGet();
+            return graph(p.getLastBomImport());
+        });
+        assertThat(cache.get(project, p -> graph(p.getLastBomImport()))).isSameAs(graph);
+        assertThat(loads).hasValue(1);
+
+        project.setLastBomImport(new Date(2000));
+        assertThat(cache.get(project, p -> graph(p.getLastBomImport()))).isNotSameAs(graph);
+
+        cache.invalidate(project);
+        assertThat(cache.get(project, p -> {
+            loads.incrementAndGet();
+            return graph(p.getLastBomImport());
+        })).isNotNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testCacheMaxMemory() {
+        // Leaves room for exactly one graph.
+        final var cache = new ProjectDependencyGraphCache((graph(null).estimateMemoryUsage() / 1024 + 1) * 1024);
+        final var projectA = new Project();
+        projectA.setId(1);
+        final var projectB = new Project();
+        projectB.setId(2);
+
+        final ProjectDependencyGraph graphA = cache.get(projectA, p -> graph(null));
+        cache.get(projectB, p -> graph(null));
+
+        assertThat(cache.get(projectA, p -> graph(null))).isNotSameAs(graphA);
+    }
+
+    private static long[] ids(final ProjectDependencyGraph graph, final int[] nodes) {
+        final long[] ids = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ids[i] = graph.getComponentId(nodes[i]);
+        }
+        return ids;
+    }
+
+}
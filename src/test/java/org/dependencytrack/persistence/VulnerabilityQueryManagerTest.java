@@ -21,7 +21,11 @@ package org.dependencytrack.persistence;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -31,6 +35,11 @@ import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static java.util.Collections.singletonList;
@@ -38,7 +47,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.dependencytrack.persistence.VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.VulnerabilityAliasBuilder.anAlias;
 
 @RunWith(Suite.class)
-@SuiteClasses(VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.class)
+@SuiteClasses({
+        VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.class,
+        VulnerabilityQueryManagerTest.AddVulnerabilityTest.class
+})
 public class VulnerabilityQueryManagerTest {
 
     @RunWith(JUnitParamsRunner.class)
@@ -656,4 +668,54 @@ public class VulnerabilityQueryManagerTest {
 
     }
 
-}
\ No newline at end of file
+    public static class AddVulnerabilityTest extends PersistenceCapableTest {
+
+        @Test
+        public void testAddVulnerabilityConcurrently() throws Exception {
+            final var project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+            var component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib");
+            component = qm.createComponent(component, false);
+
+            var vulnerability = new Vulnerability();
+            vulnerability.setVulnId("INT-001");
+            vulnerability.setSource(Vulnerability.Source.INTERNAL);
+            vulnerability = qm.createVulnerability(vulnerability, false);
+
+            // Simulate multiple analyzers reporting the same finding at the same time.
+            final long componentId = component.getId();
+            final long vulnerabilityId = vulnerability.getId();
+            final int analyzerCount = 8;
+            final var startLatch = new CountDownLatch(1);
+            final ExecutorService executor = Executors.newFixedThreadPool(analyzerCount);
+            try {
+                final var futures = new ArrayList<Future<?>>();
+                for (int i = 0; i < analyzerCount; i++) {
+                    futures.add(executor.submit(() -> {
+                        try (final var analyzerQm = new QueryManager()) {
+                            final Component analyzerComponent = analyzerQm.getObjectById(Component.class, componentId);
+                            final Vulnerability analyzerVulnerability = analyzerQm.getObjectById(Vulnerability.class, vulnerabilityId);
+                            startLatch.await();
+                            analyzerQm.addVulnerability(analyzerVulnerability, analyzerComponent, AnalyzerIdentity.INTERNAL_ANALYZER);
+                        }
+                        return null;
+                    }));
+                }
+                startLatch.countDown();
+                for (final Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            final Query<FindingAttribution> query = qm.getPersistenceManager().newQuery(FindingAttribution.class);
+            query.setFilter("component.id == :componentId");
+            query.setParameters(component.getId());
+            assertThat(query.executeList()).hasSize(1);
+        }
+
+    }
+
+}
@@ -24,6 +24,7 @@ import alpine.notification.NotificationService;
 import alpine.notification.Subscriber;
 import alpine.notification.Subscription;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -51,6 +52,7 @@ import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 
 import java.sql.Date;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -59,6 +61,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 public class PolicyEngineTest extends PersistenceCapableTest {
 
@@ -168,6 +171,35 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         Assert.assertEquals(1, violations.size());
     }
 
+    @Test
+    public void evaluateComponentsOfMultipleProjectsTest() {
+        final Policy policy = qm.createPolicy("Test Policy", Operator.ANY, ViolationState.INFO);
+        qm.createPolicyCondition(policy, Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        policy.setIncludeChildren(true);
+        final Project parent = qm.createProject("Parent", null, "1", null, null, null, true, false);
+        final Project child = qm.createProject("Child", null, "1", null, parent, null, true, false);
+        final Project unrelated = qm.createProject("Unrelated", null, "1", null, null, null, true, false);
+        policy.setProjects(List.of(parent));
+        qm.persist(policy);
+
+        // Components of different projects are evaluated in separate chunks, each of them on a worker thread.
+        final List<Component> components = new ArrayList<>();
+        for (final Project project : List.of(child, unrelated, parent)) {
+            for (int i = 0; i < 3; i++) {
+                final var component = new Component();
+                component.setProject(project);
+                component.setName(project.getName() + "-lib-" + i);
+                component.setVersion("1.0");
+                components.add(qm.createComponent(component, false));
+            }
+        }
+
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(components);
+        assertThat(violations).extracting(violation -> violation.getComponent().getName()).containsExactly(
+                "Child-lib-0", "Child-lib-1", "Child-lib-2", "Parent-lib-0", "Parent-lib-1", "Parent-lib-2");
+        assertThat(qm.getAllPolicyViolations(unrelated)).isEmpty();
+    }
+
     @Test
     public void noPolicyAssignedToParentProject() {
         Policy policy = qm.createPolicy("Test Policy", Operator.ANY, ViolationState.INFO);
@@ -319,6 +351,65 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         Assert.assertEquals(Subject.LICENSE_GROUP, policyViolation.getPolicyCondition().getSubject());
     }
 
+    @Test
+    public void evaluateWithPrefetchedDataTest() {
+        final Policy securityPolicy = qm.createPolicy("Security", Operator.ANY, ViolationState.FAIL);
+        qm.createPolicyCondition(securityPolicy, Subject.SEVERITY, PolicyCondition.Operator.IS, Severity.HIGH.name());
+        final Policy licensePolicy = qm.createPolicy("License", Operator.ANY, ViolationState.FAIL);
+
+        final var license = new License();
+        license.setName("MIT");
+        license.setLicenseId("MIT");
+        license.setUuid(UUID.randomUUID());
+        qm.persist(license);
+        final LicenseGroup licenseGroup = qm.createLicenseGroup("Permissive");
+        licenseGroup.setLicenses(List.of(license));
+        qm.persist(licenseGroup);
+        qm.createPolicyCondition(licensePolicy, Subject.LICENSE_GROUP, PolicyCondition.Operator.IS_NOT, licenseGroup.getUuid().toString());
+
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("INT-001");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability.setSeverity(Severity.HIGH);
+        qm.persist(vulnerability);
+
+        // Vulnerable, with a license from the group.
+        final var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA.setResolvedLicense(license);
+        qm.persist(componentA);
+        qm.addVulnerability(vulnerability, componentA, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        // Vulnerable, but suppressed, with a license expression that permits a license from the group.
+        final var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB.setLicenseExpression("MIT OR Apache-2.0");
+        qm.persist(componentB);
+        qm.addVulnerability(vulnerability, componentB, AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.makeAnalysis(componentB, vulnerability, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+
+        // Not vulnerable, with a license that is not in the group.
+        final var componentC = new Component();
+        componentC.setProject(project);
+        componentC.setName("acme-lib-c");
+        componentC.setLicense("Proprietary");
+        qm.persist(componentC);
+
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(List.of(componentA, componentB, componentC));
+        assertThat(violations).satisfiesExactlyInAnyOrder(
+                violation -> {
+                    assertThat(violation.getComponent().getName()).isEqualTo("acme-lib-a");
+                    assertThat(violation.getType()).isEqualTo(PolicyViolation.Type.SECURITY);
+                },
+                violation -> {
+                    assertThat(violation.getComponent().getName()).isEqualTo("acme-lib-c");
+                    assertThat(violation.getType()).isEqualTo(PolicyViolation.Type.LICENSE);
+                });
+    }
+
     @Test
     public void notificationTest() {
         final var policy = qm.createPolicy("Test", Operator.ANY, ViolationState.FAIL);
@@ -342,12 +433,14 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         // Evaluate policies and ensure that a notification has been sent.
         final var policyEngine = new PolicyEngine();
         assertThat(policyEngine.evaluate(List.of(component))).hasSize(1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> NOTIFICATIONS.size() >= 1);
         assertThat(NOTIFICATIONS).hasSize(1);
 
         // Create an additional policy condition that matches on the exact version of the component,
         // and re-evaluate policies. Ensure that only one notification per newly violated condition was sent.
         final var policyConditionB = qm.createPolicyCondition(policy, Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.2.3");
         assertThat(policyEngine.evaluate(List.of(component))).hasSize(2);
+        await().atMost(Duration.ofSeconds(5)).until(() -> NOTIFICATIONS.size() >= 2);
         assertThat(NOTIFICATIONS).satisfiesExactly(
                 notification -> {
                     assertThat(notification.getScope()).isEqualTo(NotificationScope.PORTFOLIO.name());
@@ -377,6 +470,44 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         assertThat(NOTIFICATIONS).hasSize(2);
     }
 
+    @Test
+    public void evaluateChunksWithSharedPlanTest() {
+        final Policy policy = qm.createPolicy("License", Operator.ANY, ViolationState.FAIL);
+        final var license = new License();
+        license.setName("MIT");
+        license.setLicenseId("MIT");
+        license.setUuid(UUID.randomUUID());
+        qm.persist(license);
+        final LicenseGroup licenseGroup = qm.createLicenseGroup("Permissive");
+        licenseGroup.setLicenses(List.of(license));
+        qm.persist(licenseGroup);
+        qm.createPolicyCondition(policy, Subject.LICENSE_GROUP, PolicyCondition.Operator.IS_NOT, licenseGroup.getUuid().toString());
+
+        // More components than fit into a single chunk, all of which are evaluated against the same plan.
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+        final List<Component> components = new ArrayList<>();
+        for (int i = 0; i < 750; i++) {
+            final var component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib-" + i);
+            if (i % 2 == 0) {
+                component.setResolvedLicense(license);
+            } else {
+                component.setLicense("Proprietary");
+            }
+            components.add(qm.createComponent(component, false));
+        }
+
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(components);
+        assertThat(violations).hasSize(375);
+        assertThat(violations).allSatisfy(violation -> {
+            assertThat(violation.getType()).isEqualTo(PolicyViolation.Type.LICENSE);
+            assertThat(violation.getComponent().getLicense()).isEqualTo("Proprietary");
+            assertThat(violation.getPolicyCondition().getPolicy().getName()).isEqualTo("License");
+        });
+        assertThat(qm.getAllPolicyViolations(project)).hasSize(375);
+    }
+
     @Test
     public void violationReconciliationTest() {
         final var project = new Project();
@@ -380,4 +380,76 @@ public class DependencyGraphResourceTest extends ResourceTest {
                         """);
     }
 
+    @Test
+    public void getDependencyPathsByComponentUuidTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        final Component componentC = createComponent(project, "acme-lib-c");
+        project.setDirectDependencies("""
+                [{"uuid": "%s"}, {"uuid": "%s"}]
+                """.formatted(componentA.getUuid(), componentB.getUuid()));
+        qm.persist(project);
+        componentA.setDirectDependencies("""
+                [{"uuid": "%s"}]
+                """.formatted(componentC.getUuid()));
+        qm.persist(componentA);
+        componentB.setDirectDependencies("""
+                [{"uuid": "%s"}]
+                """.formatted(componentC.getUuid()));
+        qm.persist(componentB);
+
+        Response response = target("%s/component/%s/paths".formatted(V1_DEPENDENCY_GRAPH, componentC.getUuid()))
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(getPlainTextBody(response))
+                .withOptions(Option.IGNORING_ARRAY_ORDER, Option.IGNORING_EXTRA_FIELDS)
+                .isEqualTo("""
+                        {
+                          "paths": [
+                            [{"name": "acme-lib-a"}, {"name": "acme-lib-c"}],
+                            [{"name": "acme-lib-b"}, {"name": "acme-lib-c"}]
+                          ],
+                          "truncated": false
+                        }
+                        """);
+
+        response = target("%s/component/%s/paths".formatted(V1_DEPENDENCY_GRAPH, componentC.getUuid()))
+                .queryParam("maxPaths", 1)
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(getPlainTextBody(response))
+                .withOptions(Option.IGNORING_EXTRA_FIELDS)
+                .isEqualTo("""
+                        {
+                          "paths": [[{}, {"name": "acme-lib-c"}]],
+                          "truncated": true
+                        }
+                        """);
+    }
+
+    @Test
+    public void getDependencyPathsByComponentUuidNotFoundTest() {
+        final Response response = target("%s/component/%s/paths".formatted(V1_DEPENDENCY_GRAPH, UUID.randomUUID()))
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        component.setVersion("1.0.0");
+        return qm.createComponent(component, false);
+    }
+
 }
@@ -123,6 +123,106 @@ public class FindingResourceTest extends ResourceTest {
         Assert.assertEquals("The project could not be found.", body);
     }
 
+    @Test
+    public void getFindingsByProjectPaginatedTest() {
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        Component c1 = createComponent(project, "Component B", "1.0");
+        Component c2 = createComponent(project, "Component A", "1.0");
+        Vulnerability v1 = new Vulnerability();
+        v1.setVulnId("Vuln-1");
+        v1.setSource(Vulnerability.Source.INTERNAL);
+        v1.setDescription("Description");
+        v1 = qm.createVulnerability(v1, false);
+        Vulnerability v2 = createVulnerability("Vuln-2", Severity.HIGH);
+        Vulnerability v3 = createVulnerability("Vuln-3", Severity.MEDIUM);
+        qm.addVulnerability(v1, c1, AnalyzerIdentity.NONE);
+        qm.addVulnerability(v2, c2, AnalyzerIdentity.NONE);
+        qm.addVulnerability(v3, c1, AnalyzerIdentity.NONE);
+
+        Response response = target(V1_FINDING + "/project/" + project.getUuid().toString())
+                .queryParam("pageNumber", 1)
+                .queryParam("pageSize", 2)
+                .queryParam("sortName", "component.name")
+                .queryParam("sortOrder", "asc")
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(200, response.getStatus(), 0);
+        Assert.assertEquals(String.valueOf(3), response.getHeaderString(TOTAL_COUNT_HEADER));
+        String cursor = response.getHeaderString(FindingResource.NEXT_CURSOR_HEADER);
+        Assert.assertNotNull(cursor);
+        JsonArray json = parseJsonArray(response);
+        Assert.assertEquals(2, json.size());
+        Assert.assertEquals("Component A", json.getJsonObject(0).getJsonObject("component").getString("name"));
+        Assert.assertEquals("Vuln-2", json.getJsonObject(0).getJsonObject("vulnerability").getString("vulnId"));
+        Assert.assertEquals("Component B", json.getJsonObject(1).getJsonObject("component").getString("name"));
+        Assert.assertEquals("Vuln-1", json.getJsonObject(1).getJsonObject("vulnerability").getString("vulnId"));
+        Assert.assertEquals("Description", json.getJsonObject(1).getJsonObject("vulnerability").getString("description"));
+
+        response = target(V1_FINDING + "/project/" + project.getUuid().toString())
+                .queryParam("pageNumber", 1)
+                .queryParam("pageSize", 2)
+                .queryParam("sortName", "component.name")
+                .queryParam("sortOrder", "asc")
+                .queryParam("cursor", cursor)
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(200, response.getStatus(), 0);
+        Assert.assertEquals(String.valueOf(3), response.getHeaderString(TOTAL_COUNT_HEADER));
+        Assert.assertNull(response.getHeaderString(FindingResource.NEXT_CURSOR_HEADER));
+        json = parseJsonArray(response);
+        Assert.assertEquals(1, json.size());
+        Assert.assertEquals("Component B", json.getJsonObject(0).getJsonObject("component").getString("name"));
+        Assert.assertEquals("Vuln-3", json.getJsonObject(0).getJsonObject("vulnerability").getString("vulnId"));
+    }
+
+    @Test
+    public void getFindingsByProjectWithSourceTest() {
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        Component component = createComponent(project, "Component A", "1.0");
+        Vulnerability v1 = createVulnerability("Vuln-1", Severity.CRITICAL);
+        Vulnerability v2 = new Vulnerability();
+        v2.setVulnId("CVE-2023-0001");
+        v2.setSource(Vulnerability.Source.NVD);
+        v2 = qm.createVulnerability(v2, false);
+        qm.addVulnerability(v1, component, AnalyzerIdentity.NONE);
+        qm.addVulnerability(v2, component, AnalyzerIdentity.NONE);
+
+        Response response = target(V1_FINDING + "/project/" + project.getUuid().toString())
+                .queryParam("source", "NVD")
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(200, response.getStatus(), 0);
+        Assert.assertEquals(String.valueOf(1), response.getHeaderString(TOTAL_COUNT_HEADER));
+        JsonArray json = parseJsonArray(response);
+        Assert.assertEquals(1, json.size());
+        Assert.assertEquals("CVE-2023-0001", json.getJsonObject(0).getJsonObject("vulnerability").getString("vulnId"));
+    }
+
+    @Test
+    public void getFindingsByProjectWithInvalidSortTest() {
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        Response response = target(V1_FINDING + "/project/" + project.getUuid().toString())
+                .queryParam("pageNumber", 1)
+                .queryParam("pageSize", 2)
+                .queryParam("sortName", "vulnerability.description")
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(400, response.getStatus(), 0);
+
+        response = target(V1_FINDING + "/project/" + project.getUuid().toString())
+                .queryParam("pageNumber", 1)
+                .queryParam("pageSize", 2)
+                .queryParam("cursor", "not-a-cursor")
+                .request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(400, response.getStatus(), 0);
+    }
+
     @Test
     public void exportFindingsByProjectTest() {
         Project p1 = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
@@ -24,8 +24,11 @@ import org.dependencytrack.search.document.ComponentDocument;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.UUID;
 
+import static org.awaitility.Awaitility.await;
+
 public class ComponentIndexerTest extends PersistenceCapableTest {
 
     @Test
@@ -77,6 +80,22 @@ public class ComponentIndexerTest extends PersistenceCapableTest {
         Assert.assertEquals(0, result.getResults().get("component").size());
     }
 
+    @Test
+    public void addWithoutCommitTest() {
+        Component c = new Component();
+        c.setUuid(UUID.randomUUID());
+        c.setGroup("acme");
+        c.setName("crypto-library");
+        c.setVersion("1.0.0");
+        ComponentIndexer.getInstance().add(new ComponentDocument(c));
+        SearchManager searchManager = new SearchManager();
+        // Changes become visible once searchers are refreshed in the background, without committing.
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            SearchResult result = searchManager.searchIndex(ComponentIndexer.getInstance(), c.getUuid().toString(), 10);
+            Assert.assertEquals(1, result.getResults().get("component").size());
+        });
+    }
+
     @Test
     public void reindexTest() {
         ComponentIndexer.getInstance().reindex();
@@ -0,0 +1,217 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks;
+
+import alpine.event.framework.Event;
+import alpine.event.framework.EventService;
+import alpine.event.framework.Subscriber;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.event.BomUploadEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class BomUploadProcessingExecutorTest extends PersistenceCapableTest {
+
+    private final List<BomUploadEvent> startedEvents = new CopyOnWriteArrayList<>();
+    private final List<BomUploadEvent> completedEvents = new CopyOnWriteArrayList<>();
+    private final CountDownLatch releaseLatch = new CountDownLatch(1);
+    private BomUploadProcessingExecutor executor;
+
+    @After
+    public void tearDown() {
+        releaseLatch.countDown();
+        if (executor != null) {
+            executor.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testParallelProcessingOfDifferentProjects() {
+        executor = new BomUploadProcessingExecutor(2, 2, 1, true, blockingIngestion());
+
+        final var eventA = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        final var eventB = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        executor.submit(eventA);
+        executor.submit(eventB);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(startedEvents).containsExactlyInAnyOrder(eventA, eventB));
+        assertThat(executor.isEventBeingProcessed(eventA.getChainIdentifier())).isTrue();
+        assertThat(executor.isEventBeingProcessed(eventB.getChainIdentifier())).isTrue();
+
+        releaseLatch.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(completedEvents).containsExactlyInAnyOrder(eventA, eventB));
+        assertThat(executor.isEventBeingProcessed(eventA.getChainIdentifier())).isFalse();
+        assertThat(executor.isEventBeingProcessed(eventB.getChainIdentifier())).isFalse();
+    }
+
+    @Test
+    public void testSequentialProcessingOfSameProject() throws Exception {
+        executor = new BomUploadProcessingExecutor(2, 2, 1, false, blockingIngestion());
+
+        final UUID projectUuid = UUID.randomUUID();
+        final var eventA = new BomUploadEvent(projectUuid, new byte[0]);
+        final var eventB = new BomUploadEvent(projectUuid, new byte[0]);
+        final var eventC = new BomUploadEvent(projectUuid, new byte[0]);
+        executor.submit(eventA);
+        executor.submit(eventB);
+        executor.submit(eventC);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(startedEvents).containsExactly(eventA));
+        TimeUnit.MILLISECONDS.sleep(250);
+        assertThat(startedEvents).containsExactly(eventA);
+        assertThat(executor.isEventBeingProcessed(eventB.getChainIdentifier())).isTrue();
+        assertThat(executor.isEventBeingProcessed(eventC.getChainIdentifier())).isTrue();
+
+        releaseLatch.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(completedEvents).containsExactly(eventA, eventB, eventC));
+    }
+
+    @Test
+    public void testCoalescingOfSupersededEvents() {
+        executor = new BomUploadProcessingExecutor(2, 2, 1, true, blockingIngestion());
+
+        final UUID projectUuid = UUID.randomUUID();
+        final var eventA = new BomUploadEvent(projectUuid, new byte[0]);
+        final var eventB = new BomUploadEvent(projectUuid, new byte[0]);
+        final var eventC = new BomUploadEvent(projectUuid, new byte[0]);
+        executor.submit(eventA);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(startedEvents).containsExactly(eventA));
+        executor.submit(eventB);
+        executor.submit(eventC);
+
+        // B is superseded by C, but remains tracked until C has been processed.
+        assertThat(executor.isEventBeingProcessed(eventB.getChainIdentifier())).isTrue();
+        assertThat(executor.isEventBeingProcessed(eventC.getChainIdentifier())).isTrue();
+
+        releaseLatch.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(completedEvents).containsExactly(eventA, eventC));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(executor.isEventBeingProcessed(eventB.getChainIdentifier())).isFalse();
+            assertThat(executor.isEventBeingProcessed(eventC.getChainIdentifier())).isFalse();
+        });
+    }
+
+    @Test
+    public void testChainLinksAreDispatchedOnceProcessed() {
+        EventService.getInstance().subscribe(ChainedEvent.class, ChainedEventSubscriber.class);
+        try {
+            executor = new BomUploadProcessingExecutor(1, 1, 1, true, blockingIngestion());
+
+            final var event = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+            final var chainedEvent = new ChainedEvent();
+            event.onSuccess(chainedEvent);
+            executor.submit(event);
+
+            // The event service must not dispatch the links as soon as the event has been handed off.
+            assertThat(event.onSuccess()).isEmpty();
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(startedEvents).containsExactly(event));
+            assertThat(ChainedEventSubscriber.EVENTS).isEmpty();
+
+            releaseLatch.countDown();
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                    () -> assertThat(ChainedEventSubscriber.EVENTS).containsExactly(chainedEvent));
+        } finally {
+            EventService.getInstance().unsubscribe(ChainedEventSubscriber.class);
+            ChainedEventSubscriber.EVENTS.clear();
+        }
+    }
+
+    @Test
+    public void testParsingContinuesWhileIngestionIsBusy() {
+        final List<BomUploadEvent> parsedEvents = new CopyOnWriteArrayList<>();
+        executor = new BomUploadProcessingExecutor(1, 1, 1, true, event -> {
+            parsedEvents.add(event);
+            return blockingIngestion().apply(event);
+        });
+
+        final var eventA = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        final var eventB = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        final var eventC = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        executor.submit(eventA);
+        executor.submit(eventB);
+        executor.submit(eventC);
+
+        // A is being ingested, B is waiting in the ingest queue, and C is parsed
+        // but can't be handed off to the ingest stage, as its queue is full.
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(startedEvents).containsExactly(eventA);
+            assertThat(parsedEvents).containsExactly(eventA, eventB, eventC);
+        });
+
+        releaseLatch.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(completedEvents).containsExactly(eventA, eventB, eventC));
+    }
+
+    @Test
+    public void testParsingEndingProcessing() {
+        executor = new BomUploadProcessingExecutor(1, 1, 1, true, event -> null);
+
+        final var event = new BomUploadEvent(UUID.randomUUID(), new byte[0]);
+        executor.submit(event);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(executor.isEventBeingProcessed(event.getChainIdentifier())).isFalse());
+        assertThat(startedEvents).isEmpty();
+    }
+
+    public static class ChainedEvent implements Event {
+    }
+
+    public static class ChainedEventSubscriber implements Subscriber {
+
+        private static final List<Event> EVENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void inform(final Event event) {
+            EVENTS.add(event);
+        }
+
+    }
+
+    private Function<BomUploadEvent, Runnable> blockingIngestion() {
+        return event -> () -> {
+            startedEvents.add(event);
+            try {
+                releaseLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completedEvents.add(event);
+        };
+    }
+
+}
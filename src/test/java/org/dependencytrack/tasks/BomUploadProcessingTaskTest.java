@@ -36,6 +36,8 @@ import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.License;
+import org.dependencytrack.model.NotificationPublisher;
+import org.dependencytrack.model.NotificationRule;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
@@ -43,6 +45,8 @@ import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
+import org.dependencytrack.notification.publisher.ConsolePublisher;
+import org.dependencytrack.notification.vo.BomConsumedOrProcessed;
 import org.dependencytrack.notification.vo.BomProcessingFailed;
 import org.dependencytrack.notification.vo.NewVulnerabilityIdentified;
 import org.junit.After;
@@ -51,10 +55,13 @@ import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -216,6 +223,7 @@ public class BomUploadProcessingTaskTest extends PersistenceCapableTest {
 
     @Test
     public void informWithInvalidCycloneDxBomTest() throws Exception {
+        createNotificationRule(NotificationLevel.ERROR, NotificationGroup.BOM_PROCESSING_FAILED);
         final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
 
         final byte[] bomBytes = """
@@ -423,6 +431,128 @@ public class BomUploadProcessingTaskTest extends PersistenceCapableTest {
         assertProjectAuthors.run();
     }
 
+    @Test
+    public void informWithExistingComponentsTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final var existingComponent = new Component();
+        existingComponent.setProject(project);
+        existingComponent.setGroup("com.acme");
+        existingComponent.setName("acme-lib");
+        existingComponent.setVersion("1.0.0");
+        existingComponent.setPurl("pkg:maven/com.acme/acme-lib@1.0.0");
+        qm.persist(existingComponent);
+
+        final byte[] bomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "components": [
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib",
+                      "version": "1.0.0",
+                      "purl": "pkg:maven/com.acme/acme-lib@1.0.0",
+                      "description": "Updated description",
+                      "components": [
+                        {
+                          "type": "library",
+                          "group": "com.acme",
+                          "name": "acme-lib-child",
+                          "version": "2.0.0",
+                          "purl": "pkg:maven/com.acme/acme-lib-child@2.0.0"
+                        }
+                      ]
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        awaitBomProcessedNotification();
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).satisfiesExactlyInAnyOrder(
+                component -> {
+                    assertThat(component.getUuid()).isEqualTo(existingComponent.getUuid());
+                    assertThat(component.getDescription()).isEqualTo("Updated description");
+                    assertThat(component.getChildren()).hasSize(1);
+                },
+                component -> {
+                    assertThat(component.getName()).isEqualTo("acme-lib-child");
+                    assertThat(component.getParent()).isNotNull();
+                    assertThat(component.getParent().getUuid()).isEqualTo(existingComponent.getUuid());
+                }
+        );
+
+        // Uploading the same BOM again must not create new components.
+        NOTIFICATIONS.clear();
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        awaitBomProcessedNotification();
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).hasSize(2);
+    }
+
+    @Test
+    public void informWithBomFileTest() throws Exception {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        createNotificationRule(NotificationLevel.INFORMATIONAL, NotificationGroup.BOM_CONSUMED, NotificationGroup.BOM_PROCESSED);
+
+        final byte[] bomBytes = IOUtils.resourceToByteArray("/bom-1.xml");
+        final Path bomFile = Files.createTempFile("dtrack-bom-", ".tmp");
+        Files.write(bomFile, bomBytes);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomFile.toFile()));
+        awaitBomProcessedNotification();
+
+        qm.getPersistenceManager().refresh(project);
+        assertThat(project.getLastBomImport()).isNotNull();
+        assertThat(qm.getAllComponents(project)).satisfiesExactly(
+                component -> assertThat(component.getName()).isEqualTo("xmlutil"));
+        assertThat(NOTIFICATIONS)
+                .filteredOn(n -> NotificationGroup.BOM_CONSUMED.name().equals(n.getGroup())
+                        || NotificationGroup.BOM_PROCESSED.name().equals(n.getGroup()))
+                .extracting(n -> ((BomConsumedOrProcessed) n.getSubject()).getBom())
+                .containsOnly(Base64.getEncoder().encodeToString(bomBytes));
+
+        // Ownership of the file is transferred with the event; It must be deleted after processing.
+        assertThat(bomFile).doesNotExist();
+    }
+
+    @Test
+    public void informEncodesBomOnlyForNotificationRulesTest() throws Exception {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        createNotificationRule(NotificationLevel.INFORMATIONAL, NotificationGroup.BOM_CONSUMED);
+
+        final byte[] bomBytes = IOUtils.resourceToByteArray("/bom-1.xml");
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        awaitBomProcessedNotification();
+
+        // No rule publishes the BOM_PROCESSED notification, so it does not carry the BOM.
+        assertThat(NOTIFICATIONS)
+                .filteredOn(n -> NotificationGroup.BOM_CONSUMED.name().equals(n.getGroup()))
+                .extracting(n -> ((BomConsumedOrProcessed) n.getSubject()).getBom())
+                .containsExactly(Base64.getEncoder().encodeToString(bomBytes));
+        assertThat(NOTIFICATIONS)
+                .filteredOn(n -> NotificationGroup.BOM_PROCESSED.name().equals(n.getGroup()))
+                .extracting(n -> ((BomConsumedOrProcessed) n.getSubject()).getBom())
+                .containsExactly((String) null);
+    }
+
+    private void createNotificationRule(final NotificationLevel level, final NotificationGroup... groups) {
+        final NotificationPublisher publisher = qm.createNotificationPublisher("Console", null,
+                ConsolePublisher.class, "template", "text/plain", false);
+        final NotificationRule rule = qm.createNotificationRule("BOM Rule", NotificationScope.PORTFOLIO, level, publisher);
+        rule.setNotifyOn(Set.of(groups));
+        qm.persist(rule);
+    }
+
     private void awaitBomProcessedNotification() {
         try {
             await("BOM Processed Notification")
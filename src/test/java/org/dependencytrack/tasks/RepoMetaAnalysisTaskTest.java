@@ -6,6 +6,7 @@ import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.http.Body;
 import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import org.dependencytrack.PersistenceCapableTest;
 import org.dependencytrack.event.RepositoryMetaEvent;
 import org.dependencytrack.model.Component;
@@ -20,6 +21,8 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
@@ -229,4 +232,116 @@ public class RepoMetaAnalysisTaskTest extends PersistenceCapableTest {
         qm.getPersistenceManager().refresh(metaComponent);
         assertThat(metaComponent.getLatestVersion()).isEqualTo("4.13.2");
     }
+
+    @Test
+    public void informTestRetriesThrottledRequest() throws Exception {
+        WireMock.stubFor(WireMock.get(WireMock.anyUrl())
+                .inScenario("throttled").whenScenarioStateIs(Scenario.STARTED).willSetStateTo("recovered")
+                .willReturn(WireMock.aResponse()
+                        .withStatus(429)
+                        .withHeader("Retry-After", "0")));
+        WireMock.stubFor(WireMock.get(WireMock.anyUrl())
+                .inScenario("throttled").whenScenarioStateIs("recovered")
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withResponseBody(Body.ofBinaryOrText(mavenMetadata("test4", "2.0.0").getBytes(),
+                                new ContentTypeHeader(MediaType.APPLICATION_JSON)))));
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        Component component = new Component();
+        component.setProject(project);
+        component.setName("test4");
+        component.setPurl(new PackageURL("pkg:maven/test4/test4@1.0.0"));
+        qm.createComponent(component, false);
+        qm.createRepository(RepositoryType.MAVEN, "test", wireMockRule.baseUrl(), true, false, false, null, null);
+        new RepositoryMetaAnalyzerTask().inform(new RepositoryMetaEvent(List.of(component)));
+        WireMock.verify(2, WireMock.getRequestedFor(WireMock.anyUrl()));
+        RepositoryMetaComponent metaComponent = qm.getRepositoryMetaComponent(RepositoryType.MAVEN, "test4", "test4");
+        qm.getPersistenceManager().refresh(metaComponent);
+        assertThat(metaComponent.getLatestVersion()).isEqualTo("2.0.0");
+    }
+
+    @Test
+    public void informTestMultipleBatches() throws Exception {
+        WireMock.stubFor(WireMock.get(WireMock.anyUrl())
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withResponseBody(Body.ofBinaryOrText(mavenMetadata("acme", "3.0.0").getBytes(),
+                                new ContentTypeHeader(MediaType.APPLICATION_JSON)))));
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final var components = new ArrayList<Component>();
+        for (int i = 0; i < 60; i++) {
+            Component component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib-" + i);
+            component.setPurl(new PackageURL("pkg:maven/acme/acme-lib-" + i + "@1.0.0"));
+            components.add(qm.createComponent(component, false));
+        }
+        qm.createRepository(RepositoryType.MAVEN, "test", wireMockRule.baseUrl(), true, false, false, null, null);
+        new RepositoryMetaAnalyzerTask().inform(new RepositoryMetaEvent(components));
+        for (int i = 0; i < 60; i++) {
+            RepositoryMetaComponent metaComponent = qm.getRepositoryMetaComponent(RepositoryType.MAVEN, "acme", "acme-lib-" + i);
+            assertThat(metaComponent).isNotNull();
+            assertThat(metaComponent.getLatestVersion()).isEqualTo("3.0.0");
+        }
+    }
+
+    @Test
+    public void informTestPortfolioAnalyzesDistinctCoordinatesOnce() throws Exception {
+        WireMock.stubFor(WireMock.get(WireMock.anyUrl())
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withResponseBody(Body.ofBinaryOrText(mavenMetadata("acme", "5.0.0").getBytes(),
+                                new ContentTypeHeader(MediaType.APPLICATION_JSON)))));
+        Project projectA = qm.createProject("Acme Example A", null, "1.0", null, null, null, true, false);
+        Project projectB = qm.createProject("Acme Example B", null, "1.0", null, null, null, true, false);
+        Project inactiveProject = qm.createProject("Acme Example C", null, "1.0", null, null, null, false, false);
+        createComponent(projectA, "pkg:maven/acme/acme-lib-a@1.0.0");
+        createComponent(projectA, "pkg:maven/acme/acme-lib-a@2.0.0");
+        createComponent(projectB, "pkg:maven/acme/acme-lib-a@1.0.0");
+        createComponent(projectB, "pkg:maven/acme/acme-lib-b@1.0.0");
+        createComponent(projectB, "pkg:maven/acme/acme-lib-c@1.0.0");
+        createComponent(inactiveProject, "pkg:maven/acme/acme-lib-d@1.0.0");
+
+        // Checked recently, and thus not to be analyzed again.
+        final var recentlyChecked = new RepositoryMetaComponent();
+        recentlyChecked.setRepositoryType(RepositoryType.MAVEN);
+        recentlyChecked.setNamespace("acme");
+        recentlyChecked.setName("acme-lib-c");
+        recentlyChecked.setLatestVersion("1.0.0");
+        recentlyChecked.setLastCheck(new Date(System.currentTimeMillis() - 1000));
+        qm.persist(recentlyChecked);
+
+        qm.createRepository(RepositoryType.MAVEN, "test", wireMockRule.baseUrl(), true, false, false, null, null);
+        new RepositoryMetaAnalyzerTask().inform(new RepositoryMetaEvent());
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlPathMatching(".*/acme-lib-a/maven-metadata.xml")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlPathMatching(".*/acme-lib-b/maven-metadata.xml")));
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(".*/acme-lib-c/maven-metadata.xml")));
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(".*/acme-lib-d/maven-metadata.xml")));
+        assertThat(qm.getRepositoryMetaComponent(RepositoryType.MAVEN, "acme", "acme-lib-a").getLatestVersion()).isEqualTo("5.0.0");
+        assertThat(qm.getRepositoryMetaComponent(RepositoryType.MAVEN, "acme", "acme-lib-b").getLatestVersion()).isEqualTo("5.0.0");
+        assertThat(qm.getRepositoryMetaComponent(RepositoryType.MAVEN, "acme", "acme-lib-d")).isNull();
+    }
+
+    private void createComponent(final Project project, final String purl) throws Exception {
+        Component component = new Component();
+        component.setProject(project);
+        component.setPurl(new PackageURL(purl));
+        component.setName(component.getPurl().getName());
+        component.setVersion(component.getPurl().getVersion());
+        qm.createComponent(component, false);
+    }
+
+    private static String mavenMetadata(final String groupId, final String latestVersion) {
+        return """
+                <metadata>
+                <groupId>%s</groupId>
+                <versioning>
+                <latest>%s</latest>
+                <release>%s</release>
+                <lastUpdated>20210213164433</lastUpdated>
+                </versioning>
+                </metadata>
+                """.formatted(groupId, latestVersion, latestVersion);
+    }
 }
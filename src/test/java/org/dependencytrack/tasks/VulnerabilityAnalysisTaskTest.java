@@ -11,9 +11,14 @@ import org.dependencytrack.PersistenceCapableTest;
 import org.dependencytrack.event.PortfolioVulnerabilityAnalysisEvent;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.tasks.metrics.ProjectMetricsUpdateTask;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.dependencytrack.util.PurlUtil;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -67,4 +72,75 @@ public class VulnerabilityAnalysisTaskTest extends PersistenceCapableTest {
 
     }
 
+    @Test
+    public void testPortfolioVulnerabilityAnalysisWithSharedComponents() throws Exception {
+        qm.createConfigProperty(ConfigPropertyConstants.SCANNER_INTERNAL_ENABLED.getGroupName(),
+                ConfigPropertyConstants.SCANNER_INTERNAL_ENABLED.getPropertyName(), "true",
+                ConfigPropertyConstants.SCANNER_INTERNAL_ENABLED.getPropertyType(),
+                ConfigPropertyConstants.SCANNER_INTERNAL_ENABLED.getDescription());
+
+        var vs = new VulnerableSoftware();
+        vs.setPurlType("maven");
+        vs.setPurlNamespace("com.acme");
+        vs.setPurlName("acme-lib");
+        vs.setVersionEndExcluding("2.0");
+        vs.setVulnerable(true);
+        vs = qm.persist(vs);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INT-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setVulnerableSoftware(List.of(vs));
+        vuln = qm.createVulnerability(vuln, false);
+
+        var manualVuln = new Vulnerability();
+        manualVuln.setVulnId("INT-002");
+        manualVuln.setSource(Vulnerability.Source.INTERNAL);
+        manualVuln = qm.createVulnerability(manualVuln, false);
+
+        final Project projectA = qm.createProject("Project A", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(projectA, "pkg:maven/com.acme/acme-lib@1.0?type=jar");
+        final Project projectB = qm.createProject("Project B", null, "1.0", null, null, null, true, false);
+        final Component componentB = createComponent(projectB, "pkg:maven/com.acme/acme-lib@1.0");
+        final Component componentC = createComponent(projectB, "pkg:maven/com.acme/acme-lib@2.0");
+
+        // Manually assigned findings must not be applied to other components.
+        qm.addVulnerability(manualVuln, componentA, AnalyzerIdentity.NONE);
+
+        new VulnerabilityAnalysisTask().inform(new PortfolioVulnerabilityAnalysisEvent());
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllVulnerabilities(componentA)).extracting(Vulnerability::getVulnId)
+                .containsExactlyInAnyOrder("INT-001", "INT-002");
+        assertThat(qm.getAllVulnerabilities(componentB)).extracting(Vulnerability::getVulnId)
+                .containsExactly("INT-001");
+        assertThat(qm.getFindingAttribution(vuln, componentB).getAnalyzerIdentity())
+                .isEqualTo(AnalyzerIdentity.INTERNAL_ANALYZER);
+        assertThat(qm.getAllVulnerabilities(componentC)).isEmpty();
+    }
+
+    @Test
+    public void testAnalysisKeyComparesCanonicalPurl() {
+        final VulnerabilityAnalysisTask.AnalysisKey key = new VulnerabilityAnalysisTask.ComponentAnalysisKeyProjection(
+                1L, "pkg:maven/com.acme/acme-lib@1.0?type=jar&classifier=sources", null, false).toAnalysisKey();
+
+        // Qualifiers in a different order are merged.
+        assertThat(new VulnerabilityAnalysisTask.ComponentAnalysisKeyProjection(
+                2L, "pkg:maven/com.acme/acme-lib@1.0?classifier=sources&type=jar", null, false).toAnalysisKey()).isEqualTo(key);
+        // Different qualifiers are not.
+        assertThat(new VulnerabilityAnalysisTask.ComponentAnalysisKeyProjection(
+                3L, "pkg:maven/com.acme/acme-lib@1.0?type=jar", null, false).toAnalysisKey()).isNotEqualTo(key);
+        assertThat(new VulnerabilityAnalysisTask.ComponentAnalysisKeyProjection(
+                4L, "pkg:maven/com.acme/acme-lib@1.0?type=jar&classifier=sources", null, true).toAnalysisKey()).isNotEqualTo(key);
+    }
+
+    private Component createComponent(final Project project, final String purl) throws Exception {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component.setPurl(purl);
+        component.setPurlCoordinates(PurlUtil.purlCoordinatesOnly(component.getPurl()));
+        return qm.createComponent(component, false);
+    }
+
 }
@@ -18,26 +18,24 @@
  */
 package org.dependencytrack.tasks.metrics;
 
-import alpine.event.framework.EventService;
 import net.jcip.annotations.NotThreadSafe;
-import org.dependencytrack.event.CallbackEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
-import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
-import org.dependencytrack.tasks.CallbackTask;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
-import org.junit.AfterClass;
-import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 
@@ -46,18 +44,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 @NotThreadSafe
 public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest {
 
-    @BeforeClass
-    public static void setUpClass() {
-        EventService.getInstance().subscribe(ProjectMetricsUpdateEvent.class, ProjectMetricsUpdateTask.class);
-        EventService.getInstance().subscribe(CallbackEvent.class, CallbackTask.class);
-    }
-
-    @AfterClass
-    public static void tearDownClass() {
-        EventService.getInstance().unsubscribe(ProjectMetricsUpdateTask.class);
-        EventService.getInstance().unsubscribe(CallbackTask.class);
-    }
-
     @Test
     public void testUpdateMetricsEmpty() {
         new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
@@ -112,6 +98,56 @@ public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(metrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
     }
 
+    @Test
+    public void testUpdateMetricsIncremental() {
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+
+        final Project projectClean = qm.createProject("acme-app-a", null, null, null, null, null, true, false);
+        var componentClean = new Component();
+        componentClean.setProject(projectClean);
+        componentClean.setName("acme-lib-a");
+        componentClean = qm.createComponent(componentClean, false);
+
+        final Project projectDirty = qm.createProject("acme-app-b", null, null, null, null, null, true, false);
+        var componentDirty = new Component();
+        componentDirty.setProject(projectDirty);
+        componentDirty.setName("acme-lib-b");
+        componentDirty = qm.createComponent(componentDirty, false);
+
+        // The first update is always a full one.
+        final var dirtyTracker = new MetricsDirtyTracker(true, Duration.ofHours(24));
+        new PortfolioMetricsUpdateTask(dirtyTracker).inform(new PortfolioMetricsUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics().getVulnerabilities()).isZero();
+        final ProjectMetrics projectCleanMetrics = qm.getMostRecentProjectMetrics(projectClean);
+        final DependencyMetrics componentCleanMetrics = qm.getMostRecentDependencyMetrics(componentClean);
+
+        // Introduce a finding for both projects, but only mark one of them as dirty.
+        qm.addVulnerability(vuln, componentClean, AnalyzerIdentity.NONE);
+        qm.addVulnerability(vuln, componentDirty, AnalyzerIdentity.NONE);
+        dirtyTracker.markDirty(projectDirty);
+
+        final var beforeSecondRun = new Date();
+        new PortfolioMetricsUpdateTask(dirtyTracker).inform(new PortfolioMetricsUpdateEvent());
+
+        // Only the finding of the dirty project must be considered.
+        final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(metrics.getProjects()).isEqualTo(2);
+        assertThat(metrics.getVulnerableProjects()).isEqualTo(1);
+        assertThat(metrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(qm.getMostRecentProjectMetrics(projectDirty).getVulnerabilities()).isEqualTo(1);
+
+        // Metrics of the clean project must have been carried over.
+        qm.getPersistenceManager().refreshAll(projectCleanMetrics, componentCleanMetrics);
+        assertThat(qm.getMostRecentProjectMetrics(projectClean).getId()).isEqualTo(projectCleanMetrics.getId());
+        assertThat(projectCleanMetrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+        assertThat(qm.getMostRecentDependencyMetrics(componentClean).getId()).isEqualTo(componentCleanMetrics.getId());
+        assertThat(componentCleanMetrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+    }
+
     @Test
     public void testUpdateMetricsVulnerabilities() {
         var vuln = new Vulnerability();
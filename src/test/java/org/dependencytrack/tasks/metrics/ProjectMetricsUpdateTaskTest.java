@@ -21,6 +21,7 @@ package org.dependencytrack.tasks.metrics;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
@@ -28,13 +29,17 @@ import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 public class ProjectMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest {
 
@@ -101,6 +106,28 @@ public class ProjectMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest
         assertThat(metrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
     }
 
+    @Test
+    public void testUpdateMetricsInterrupted() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+
+        // Abandoned updates are interrupted, and must not write any metrics afterwards.
+        final UUID uuid = project.getUuid();
+        Thread.currentThread().interrupt();
+        assertThatExceptionOfType(InterruptedException.class)
+                .isThrownBy(() -> new ProjectMetricsUpdateTask().updateMetrics(uuid));
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+
+        assertThat(qm.getMostRecentProjectMetrics(project)).isNull();
+        assertThat(qm.getMostRecentDependencyMetrics(component)).isNull();
+    }
+
     @Test
     public void testUpdateMetricsVulnerabilities() {
         var project = new Project();
@@ -175,6 +202,118 @@ public class ProjectMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest
         assertThat(componentSuppressed.getLastInheritedRiskScore()).isZero();
     }
 
+    @Test
+    public void testUpdateMetricsWithDuplicateAliases() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var vulnA = new Vulnerability();
+        vulnA.setVulnId("INTERNAL-001");
+        vulnA.setSource(Vulnerability.Source.INTERNAL);
+        vulnA.setSeverity(Severity.HIGH);
+        vulnA = qm.createVulnerability(vulnA, false);
+
+        var vulnB = new Vulnerability();
+        vulnB.setVulnId("SONATYPE-002");
+        vulnB.setSource(Vulnerability.Source.OSSINDEX);
+        vulnB.setSeverity(Severity.MEDIUM);
+        vulnB = qm.createVulnerability(vulnB, false);
+
+        // Make A an alias of B
+        final var aliasAtoB = new VulnerabilityAlias();
+        aliasAtoB.setInternalId(vulnA.getVulnId());
+        aliasAtoB.setSonatypeId(vulnB.getVulnId());
+        qm.persist(aliasAtoB);
+
+        // Create a component affected by both A and B.
+        var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA = qm.createComponent(componentA, false);
+        qm.addVulnerability(vulnA, componentA, AnalyzerIdentity.NONE);
+        qm.addVulnerability(vulnB, componentA, AnalyzerIdentity.NONE);
+
+        // Create a component affected by B only.
+        var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB = qm.createComponent(componentB, false);
+        qm.addVulnerability(vulnB, componentB, AnalyzerIdentity.NONE);
+
+        // Aliases are only de-duplicated per component, so B must still be considered for the second component.
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+
+        final DependencyMetrics componentAMetrics = qm.getMostRecentDependencyMetrics(componentA);
+        assertThat(componentAMetrics.getHigh()).isEqualTo(1); // INTERNAL-001
+        assertThat(componentAMetrics.getMedium()).isZero();
+        assertThat(componentAMetrics.getVulnerabilities()).isEqualTo(1);
+
+        final DependencyMetrics componentBMetrics = qm.getMostRecentDependencyMetrics(componentB);
+        assertThat(componentBMetrics.getHigh()).isZero();
+        assertThat(componentBMetrics.getMedium()).isEqualTo(1); // SONATYPE-002
+        assertThat(componentBMetrics.getVulnerabilities()).isEqualTo(1);
+
+        final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(metrics.getComponents()).isEqualTo(2);
+        assertThat(metrics.getVulnerableComponents()).isEqualTo(2);
+        assertThat(metrics.getHigh()).isEqualTo(1);
+        assertThat(metrics.getMedium()).isEqualTo(1);
+        assertThat(metrics.getVulnerabilities()).isEqualTo(2);
+        assertThat(metrics.getFindingsTotal()).isEqualTo(2);
+        assertThat(metrics.getInheritedRiskScore()).isEqualTo(8.0);
+    }
+
+    @Test
+    public void testUpdateMetricsInPages() {
+        testUpdateMetricsInPages(false);
+    }
+
+    @Test
+    public void testUpdateMetricsInParallel() {
+        testUpdateMetricsInPages(true);
+    }
+
+    private void testUpdateMetricsInPages(final boolean parallel) {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+
+        final var components = new ArrayList<Component>();
+        for (int i = 0; i < 5; i++) {
+            var component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib-" + i);
+            component = qm.createComponent(component, false);
+            if (i % 2 == 0) {
+                qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+            }
+            components.add(component);
+        }
+
+        // Use a page size of 2, so that components are processed in three pages.
+        new ProjectMetricsUpdateTask(parallel, 2).inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+
+        final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(metrics.getComponents()).isEqualTo(5);
+        assertThat(metrics.getVulnerableComponents()).isEqualTo(3);
+        assertThat(metrics.getHigh()).isEqualTo(3);
+        assertThat(metrics.getVulnerabilities()).isEqualTo(3);
+        assertThat(metrics.getFindingsTotal()).isEqualTo(3);
+        assertThat(metrics.getFindingsUnaudited()).isEqualTo(3);
+        assertThat(metrics.getInheritedRiskScore()).isEqualTo(15.0);
+
+        for (final Component component : components) {
+            assertThat(qm.getMostRecentDependencyMetrics(component)).isNotNull();
+        }
+    }
+
     @Test
     public void testUpdateMetricsPolicyViolations() {
         var project = new Project();
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.repositories;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryHostLimiterTest {
+
+    @Test
+    public void testConcurrentRequestsAreLimitedPerHost() throws Exception {
+        final var limiter = new RepositoryHostLimiter(2, 0, 0);
+        final var inFlight = new AtomicInteger();
+        final var maxInFlight = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    limiter.acquire("repo.example.com:443");
+                    try {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        Thread.sleep(10);
+                        inFlight.decrementAndGet();
+                    } finally {
+                        limiter.release("repo.example.com:443");
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight.get()).isEqualTo(2);
+
+        // Other hosts are not affected by requests in flight.
+        limiter.acquire("repo.example.com:443");
+        limiter.acquire("repo.example.com:443");
+        limiter.acquire("other.example.com:443");
+        limiter.release("other.example.com:443");
+    }
+
+    @Test
+    public void testBackoff() throws Exception {
+        final var limiter = new RepositoryHostLimiter(1, 10, 35);
+        assertThat(limiter.onThrottled("repo.example.com:443", null)).isEqualTo(10);
+        assertThat(limiter.onThrottled("repo.example.com:443", null)).isEqualTo(20);
+        assertThat(limiter.onThrottled("repo.example.com:443", null)).isEqualTo(35);
+        assertThat(limiter.onThrottled("repo.example.com:443", 5L)).isEqualTo(5);
+        assertThat(limiter.onThrottled("repo.example.com:443", 60_000L)).isEqualTo(35);
+
+        limiter.onSuccess("repo.example.com:443");
+        assertThat(limiter.onThrottled("repo.example.com:443", null)).isEqualTo(10);
+
+        final long startTimeMs = System.currentTimeMillis();
+        limiter.acquire("repo.example.com:443");
+        limiter.release("repo.example.com:443");
+        assertThat(System.currentTimeMillis() - startTimeMs).isGreaterThanOrEqualTo(5);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.common.logging.Logger;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.util.ComponentVersion;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledVersionRangeTest {
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledVersionRangeTest.class);
+
+    @Test
+    public void testMatchesRange() {
+        final CompiledVersionRange range = compile("2.6.0", null, "4.19.1", null);
+
+        assertThat(matches(range, "2.5.9")).isFalse();
+        assertThat(matches(range, "2.6.0")).isTrue();
+        assertThat(matches(range, "3.10")).isTrue();
+        assertThat(matches(range, "4.19.0")).isTrue();
+        assertThat(matches(range, "4.19.1")).isFalse();
+    }
+
+    @Test
+    public void testMatchesExclusiveStartAndInclusiveEnd() {
+        final CompiledVersionRange range = compile(null, "1.0", null, "1.2");
+
+        assertThat(matches(range, "1.0")).isFalse();
+        assertThat(matches(range, "1.0.1")).isTrue();
+        assertThat(matches(range, "1.2")).isTrue();
+        assertThat(matches(range, "1.2.0.0")).isFalse();
+        assertThat(matches(range, "1.3")).isFalse();
+    }
+
+    @Test
+    public void testMatchesExactVersion() {
+        final var vs = new VulnerableSoftware();
+        vs.setVersion("1.2.3");
+        final CompiledVersionRange range = CompiledVersionRange.compile(vs);
+
+        assertThat(matches(range, "1.2.3")).isTrue();
+        assertThat(matches(range, "1.2.4")).isFalse();
+    }
+
+    @Test
+    public void testMatchesWithPartsExceedingIntegerRange() {
+        // Parts that don't fit into an int are compared lexicographically.
+        final CompiledVersionRange range = compile(null, null, "20230101000000", null);
+
+        assertThat(matches(range, "20221231235959")).isTrue();
+        assertThat(matches(range, "3")).isFalse();
+    }
+
+    /**
+     * Measures evaluation of a target version against a large set of version ranges, as seen for
+     * popular products like the Linux kernel, with and without compiled version ranges.
+     * <p>
+     * This is a benchmark rather than a test, and thus only executed when the {@code benchmark}
+     * system property is set, e.g. {@code mvn test -Dtest=CompiledVersionRangeTest -Dbenchmark}.
+     */
+    @Test
+    public void benchmarkMatches() {
+        Assume.assumeTrue(System.getProperty("benchmark") != null);
+
+        final var vsList = new ArrayList<VulnerableSoftware>();
+        for (int major = 2; major <= 6; major++) {
+            for (int minor = 0; minor < 20; minor++) {
+                for (int patch = 0; patch < 50; patch++) {
+                    final var vs = new VulnerableSoftware();
+                    vs.setVersionStartIncluding("%d.%d".formatted(major, minor));
+                    vs.setVersionEndExcluding("%d.%d.%d".formatted(major, minor, patch + 1));
+                    vsList.add(vs);
+                }
+            }
+        }
+        final List<CompiledVersionRange> ranges = vsList.stream().map(CompiledVersionRange::compile).toList();
+        final var targetVersions = List.of("2.6.32", "4.19.121", "5.10.0-rc1", "6.1.rc3", "3.0");
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            long startTimeNs = System.nanoTime();
+            int matches = 0;
+            for (final String targetVersion : targetVersions) {
+                for (final VulnerableSoftware vs : vsList) {
+                    final var target = new ComponentVersion(targetVersion);
+                    if (new ComponentVersion(vs.getVersionStartIncluding()).compareTo(target) <= 0
+                            && new ComponentVersion(vs.getVersionEndExcluding()).compareTo(target) > 0) {
+                        matches++;
+                    }
+                }
+            }
+            final long parsingDurationUs = (System.nanoTime() - startTimeNs) / 1_000;
+
+            startTimeNs = System.nanoTime();
+            int compiledMatches = 0;
+            for (final String targetVersion : targetVersions) {
+                final var target = new ComponentVersion(targetVersion);
+                for (final CompiledVersionRange range : ranges) {
+                    if (range.matches(targetVersion, target)) {
+                        compiledMatches++;
+                    }
+                }
+            }
+            final long compiledDurationUs = (System.nanoTime() - startTimeNs) / 1_000;
+
+            assertThat(compiledMatches).isEqualTo(matches);
+            LOGGER.info("Evaluated %d ranges against %d versions: %dus with parsing, %dus compiled"
+                    .formatted(ranges.size(), targetVersions.size(), parsingDurationUs, compiledDurationUs));
+        }
+    }
+
+    private static CompiledVersionRange compile(final String startIncluding, final String startExcluding,
+                                                final String endExcluding, final String endIncluding) {
+        final var vs = new VulnerableSoftware();
+        vs.setVersionStartIncluding(startIncluding);
+        vs.setVersionStartExcluding(startExcluding);
+        vs.setVersionEndExcluding(endExcluding);
+        vs.setVersionEndIncluding(endIncluding);
+        return CompiledVersionRange.compile(vs);
+    }
+
+    private static boolean matches(final CompiledVersionRange range, final String version) {
+        return range.matches(version, new ComponentVersion(version));
+    }
+
+}
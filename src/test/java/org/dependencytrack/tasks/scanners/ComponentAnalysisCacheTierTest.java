@@ -0,0 +1,128 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.common.metrics.Metrics;
+import org.dependencytrack.model.ComponentAnalysisCache;
+import org.junit.Test;
+
+import javax.json.Json;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentAnalysisCacheTierTest {
+
+    private static final long VALIDITY_PERIOD = Duration.ofHours(12).toMillis();
+
+    @Test
+    public void testGetLoadsOnlyOnMiss() {
+        final var tier = new ComponentAnalysisCacheTier(10);
+        final var key = key("pkg:maven/foo/bar@1.2.3");
+        final var entry = new ComponentAnalysisCacheTier.Entry(new Date(),
+                Json.createObjectBuilder().add("vulnIds", Json.createArrayBuilder().add(1)).build());
+        final var loads = new AtomicInteger();
+        final double hitsBefore = requestCount("hit");
+        final double missesBefore = requestCount("miss");
+
+        assertThat(tier.get(key, VALIDITY_PERIOD, ignored -> {
+            loads.incrementAndGet();
+            return entry;
+        })).isEqualTo(entry);
+        assertThat(tier.get(key, VALIDITY_PERIOD, ignored -> {
+            loads.incrementAndGet();
+            return entry;
+        })).isEqualTo(entry);
+
+        assertThat(loads).hasValue(1);
+        assertThat(requestCount("hit") - hitsBefore).isEqualTo(1);
+        assertThat(requestCount("miss") - missesBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetCachesAbsence() {
+        final var tier = new ComponentAnalysisCacheTier(10);
+        final var key = key("pkg:maven/foo/bar@1.2.3");
+        final var loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            final ComponentAnalysisCacheTier.Entry entry = tier.get(key, VALIDITY_PERIOD, ignored -> {
+                loads.incrementAndGet();
+                return null;
+            });
+            assertThat(entry).isEqualTo(ComponentAnalysisCacheTier.Entry.NONE);
+            assertThat(entry.isCurrent(VALIDITY_PERIOD)).isFalse();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testPutOverridesCachedEntry() {
+        final var tier = new ComponentAnalysisCacheTier(10);
+        final var key = key("pkg:maven/foo/bar@1.2.3");
+        tier.put(key, ComponentAnalysisCacheTier.Entry.NONE, VALIDITY_PERIOD);
+
+        final var entry = new ComponentAnalysisCacheTier.Entry(new Date(), null);
+        tier.put(key, entry, VALIDITY_PERIOD);
+
+        assertThat(tier.get(key, VALIDITY_PERIOD, ignored -> null)).isEqualTo(entry);
+    }
+
+    @Test
+    public void testChangedValidityPeriodDiscardsEntries() {
+        final var tier = new ComponentAnalysisCacheTier(10);
+        final var key = key("pkg:maven/foo/bar@1.2.3");
+        tier.put(key, ComponentAnalysisCacheTier.Entry.NONE, VALIDITY_PERIOD);
+        assertThat(tier.contains(key, VALIDITY_PERIOD)).isTrue();
+
+        assertThat(tier.contains(key, VALIDITY_PERIOD / 2)).isFalse();
+    }
+
+    @Test
+    public void testMaxSize() {
+        final var tier = new ComponentAnalysisCacheTier(1);
+        tier.put(key("pkg:maven/foo/bar@1.2.3"), ComponentAnalysisCacheTier.Entry.NONE, VALIDITY_PERIOD);
+        tier.put(key("pkg:maven/foo/bar@1.2.4"), ComponentAnalysisCacheTier.Entry.NONE, VALIDITY_PERIOD);
+
+        assertThat(tier.contains(key("pkg:maven/foo/bar@1.2.3"), VALIDITY_PERIOD)).isFalse();
+        assertThat(tier.contains(key("pkg:maven/foo/bar@1.2.4"), VALIDITY_PERIOD)).isTrue();
+    }
+
+    @Test
+    public void testEntryIsCurrent() {
+        final var recentEntry = new ComponentAnalysisCacheTier.Entry(new Date(System.currentTimeMillis() - 1000), null);
+        final var staleEntry = new ComponentAnalysisCacheTier.Entry(new Date(System.currentTimeMillis() - VALIDITY_PERIOD - 1000), null);
+
+        assertThat(recentEntry.isCurrent(VALIDITY_PERIOD)).isTrue();
+        assertThat(staleEntry.isCurrent(VALIDITY_PERIOD)).isFalse();
+    }
+
+    private static ComponentAnalysisCacheTier.Key key(final String target) {
+        return new ComponentAnalysisCacheTier.Key(ComponentAnalysisCache.CacheType.VULNERABILITY,
+                "https://ossindex.sonatype.org", "OSSINDEX", target);
+    }
+
+    private static double requestCount(final String result) {
+        final var counter = Metrics.getRegistry().find("component_analysis_cache_requests").tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.common.logging.Logger;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.parser.nvd.ModelConverter;
+import org.junit.Assume;
+import org.junit.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.util.Relation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CpeMatcherTest {
+
+    private static final Logger LOGGER = Logger.getLogger(CpeMatcherTest.class);
+
+    private static final List<String> ATTRIBUTE_VALUES = List.of("*", "-", "acme", "ACME", "acm?", "ac*", "other", "1.0", "1.0.1", "1.*");
+
+    @Test
+    public void testCompareMatchesCpeParser() throws Exception {
+        for (final String source : ATTRIBUTE_VALUES) {
+            for (final String target : ATTRIBUTE_VALUES) {
+                final VulnerableSoftware vs = ModelConverter.convertCpe23UriToVulnerableSoftware(
+                        "cpe:2.3:a:acme:%s:1.0:*:*:*:*:*:*:*".formatted(source));
+                final Cpe targetCpe = CpeParser.parse("cpe:2.3:a:acme:%s:1.0:*:*:*:*:*:*:*".formatted(target));
+
+                final var relations = new Relation[CpeMatcher.ATTRIBUTE_COUNT];
+                final boolean isMatch = CpeMatcher.compare(CpeMatcher.compileSource(vs), CpeMatcher.compileTarget(targetCpe, "1.0"), relations);
+
+                final Relation expected = Cpe.compareAttribute(vs.getProduct(), targetCpe.getProduct());
+                assertThat(isMatch).as("%s vs. %s", source, target).isEqualTo(expected != Relation.DISJOINT);
+                if (isMatch) {
+                    assertThat(relations[CpeMatcher.PRODUCT]).as("%s vs. %s", source, target).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompareStopsAtFirstDisjointAttribute() throws Exception {
+        final VulnerableSoftware vs = ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:o:acme:os:1.0:*:*:*:*:*:*:*");
+        final Cpe targetCpe = CpeParser.parse("cpe:2.3:a:acme:os:1.0:*:*:*:*:*:*:*");
+
+        final var relations = new Relation[CpeMatcher.ATTRIBUTE_COUNT];
+        assertThat(CpeMatcher.compare(CpeMatcher.compileSource(vs), CpeMatcher.compileTarget(targetCpe, "1.0"), relations)).isFalse();
+        assertThat(relations[0]).isEqualTo(Relation.DISJOINT);
+        assertThat(relations[CpeMatcher.VENDOR]).isNull();
+    }
+
+    @Test
+    public void testCompileSourceWithoutCpe() {
+        assertThat(CpeMatcher.compileSource(new VulnerableSoftware())).isNull();
+        assertThat(CpeMatcher.compileTarget(null, "1.0")).isNull();
+    }
+
+    /**
+     * Measures matching of a component CPE against a large set of vulnerable software CPEs,
+     * with {@link Cpe#compareAttribute(String, String)} for every attribute as done previously,
+     * and with {@link CpeMatcher}.
+     * <p>
+     * This is a benchmark rather than a test, and thus only executed when the {@code benchmark}
+     * system property is set, e.g. {@code mvn test -Dtest=CpeMatcherTest -Dbenchmark}.
+     */
+    @Test
+    public void benchmarkCompare() throws Exception {
+        Assume.assumeTrue(System.getProperty("benchmark") != null);
+
+        final var vsList = new ArrayList<VulnerableSoftware>();
+        for (int i = 0; i < 100_000; i++) {
+            vsList.add(ModelConverter.convertCpe23UriToVulnerableSoftware(switch (i % 4) {
+                case 0 -> "cpe:2.3:o:linux:linux_kernel:%d.%d:*:*:*:*:*:*:*".formatted(i % 7, i % 50);
+                case 1 -> "cpe:2.3:o:linux:linux_kernel:*:*:*:*:*:*:*:*";
+                case 2 -> "cpe:2.3:a:debian:package%d:*:*:*:*:*:*:*:*".formatted(i % 1000);
+                default -> "cpe:2.3:o:linux:linux_kernel:5.10:rc%d:*:*:*:*:*:*".formatted(i % 8);
+            }));
+        }
+        final List<CpeMatcher.Attributes> sources = vsList.stream().map(CpeMatcher::compileSource).toList();
+        final Cpe targetCpe = CpeParser.parse("cpe:2.3:o:linux:linux_kernel:5.10:*:*:*:*:*:*:*");
+        final String targetVersion = targetCpe.getVersion();
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            long startTimeNs = System.nanoTime();
+            int matches = 0;
+            for (final VulnerableSoftware vs : vsList) {
+                final List<Relation> relations = List.of(
+                        Cpe.compareAttribute(vs.getPart(), targetCpe.getPart().getAbbreviation()),
+                        Cpe.compareAttribute(vs.getVendor(), targetCpe.getVendor()),
+                        Cpe.compareAttribute(vs.getProduct(), targetCpe.getProduct()),
+                        Cpe.compareAttribute(vs.getVersion(), targetVersion),
+                        Cpe.compareAttribute(vs.getUpdate(), targetCpe.getUpdate()),
+                        Cpe.compareAttribute(vs.getEdition(), targetCpe.getEdition()),
+                        Cpe.compareAttribute(vs.getLanguage(), targetCpe.getLanguage()),
+                        Cpe.compareAttribute(vs.getSwEdition(), targetCpe.getSwEdition()),
+                        Cpe.compareAttribute(vs.getTargetSw(), targetCpe.getTargetSw()),
+                        Cpe.compareAttribute(vs.getTargetHw(), targetCpe.getTargetHw()),
+                        Cpe.compareAttribute(vs.getOther(), targetCpe.getOther()));
+                if (!relations.contains(Relation.DISJOINT)) {
+                    matches++;
+                }
+            }
+            final long listDurationUs = (System.nanoTime() - startTimeNs) / 1_000;
+
+            startTimeNs = System.nanoTime();
+            int matcherMatches = 0;
+            final CpeMatcher.Attributes target = CpeMatcher.compileTarget(targetCpe, targetVersion);
+            final var relations = new Relation[CpeMatcher.ATTRIBUTE_COUNT];
+            for (final CpeMatcher.Attributes source : sources) {
+                if (CpeMatcher.compare(source, target, relations)) {
+                    matcherMatches++;
+                }
+            }
+            final long matcherDurationUs = (System.nanoTime() - startTimeNs) / 1_000;
+
+            assertThat(matcherMatches).isEqualTo(matches);
+            LOGGER.info("Matched %d CPEs: %dus with compareAttribute, %dus with CpeMatcher"
+                    .formatted(sources.size(), listDurationUs, matcherDurationUs));
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import com.github.packageurl.PackageURL;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.parser.nvd.ModelConverter;
+import org.junit.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerableSoftwareMatchIndexTest extends PersistenceCapableTest {
+
+    @Test
+    public void testFind() throws Exception {
+        final VulnerableSoftware vsPurl = createVulnerableSoftware(null, "pkg:maven/com.acme/acme-lib");
+        createVulnerableSoftware(null, "pkg:maven/org.acme/acme-lib");
+        final VulnerableSoftware vsCpe = createVulnerableSoftware("cpe:2.3:a:acme:acme-lib:*:*:*:*:*:*:*:*", null);
+        final VulnerableSoftware vsCpeAnyVendor = createVulnerableSoftware("cpe:2.3:a:*:acme-lib:*:*:*:*:*:*:*:*", null);
+        createVulnerableSoftware("cpe:2.3:a:foo:acme-lib:*:*:*:*:*:*:*:*", null);
+        final Vulnerability vuln = createVulnerability("INT-001", List.of(vsPurl, vsCpe));
+
+        final var purl = new PackageURL("pkg:maven/com.acme/acme-lib@1.0");
+        final Cpe cpe = CpeParser.parse("cpe:2.3:a:acme:acme-lib:1.0:*:*:*:*:*:*:*");
+        final var index = new VulnerableSoftwareMatchIndex();
+        index.load(qm, List.of(cpe), List.of(purl));
+
+        final List<VulnerableSoftwareMatchIndex.Candidate> purlCandidates = index.find(null, purl);
+        assertThat(purlCandidates).extracting(candidate -> candidate.vulnerableSoftware().getId())
+                .containsExactly(vsPurl.getId());
+        assertThat(purlCandidates.get(0).vulnerabilityIds()).containsExactly(vuln.getId());
+
+        final List<VulnerableSoftwareMatchIndex.Candidate> cpeCandidates =
+                index.find(cpe, null);
+        assertThat(cpeCandidates).extracting(candidate -> candidate.vulnerableSoftware().getId())
+                .containsExactlyInAnyOrder(vsCpe.getId(), vsCpeAnyVendor.getId());
+
+        assertThat(index.find(CpeParser.parse("cpe:2.3:a:acme:*:1.0:*:*:*:*:*:*:*"), null)).isNull();
+        assertThat(index.find(CpeParser.parse("cpe:2.3:a:*:acme-lib:1.0:*:*:*:*:*:*:*"), null)).isNull();
+
+        // Records of coordinates that were not loaded can't be found.
+        final var otherPurl = new PackageURL("pkg:maven/org.acme/acme-lib@1.0");
+        assertThat(index.find(null, otherPurl)).isNull();
+        index.load(qm, List.of(), List.of(otherPurl, new PackageURL("pkg:maven/com.acme/other-lib@1.0")));
+        assertThat(index.find(null, otherPurl)).hasSize(1);
+        assertThat(index.find(null, new PackageURL("pkg:maven/com.acme/other-lib@1.0"))).isEmpty();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        createVulnerableSoftware(null, "pkg:maven/com.acme/acme-lib-a");
+        createVulnerableSoftware(null, "pkg:maven/com.acme/acme-lib-b");
+        final var purlA = new PackageURL("pkg:maven/com.acme/acme-lib-a@1.0");
+        final var purlB = new PackageURL("pkg:maven/com.acme/acme-lib-b@1.0");
+
+        // Leaves room for the candidates of a single PURL only.
+        final var index = new VulnerableSoftwareMatchIndex(2);
+        index.load(qm, List.of(), List.of(purlA));
+        assertThat(index.find(null, purlA)).hasSize(1);
+
+        index.load(qm, List.of(), List.of(purlB));
+        assertThat(index.find(null, purlB)).hasSize(1);
+        assertThat(index.find(null, purlA)).isNull();
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final VulnerableSoftware vs = createVulnerableSoftware(null, "pkg:maven/com.acme/acme-lib");
+
+        final var index = new VulnerableSoftwareMatchIndex();
+        final var purl = new PackageURL("pkg:maven/com.acme/acme-lib@1.0");
+        index.load(qm, List.of(), List.of(purl));
+        assertThat(index.find(null, purl)).satisfiesExactly(
+                candidate -> assertThat(candidate.vulnerabilityIds()).isEmpty());
+
+        final Vulnerability vuln = createVulnerability("INT-001", List.of(vs));
+        createVulnerableSoftware(null, "pkg:maven/com.acme/acme-lib");
+
+        // Already loaded keys are not loaded again.
+        index.load(qm, List.of(), List.of(purl));
+        assertThat(index.find(null, purl)).hasSize(1);
+
+        // Stale keys are not looked up until they are loaded again.
+        index.invalidate();
+        assertThat(index.find(null, purl)).isNull();
+
+        index.load(qm, List.of(), List.of(purl));
+        assertThat(index.find(null, purl)).hasSize(2).anySatisfy(
+                candidate -> assertThat(candidate.vulnerabilityIds()).containsExactly(vuln.getId()));
+    }
+
+    private VulnerableSoftware createVulnerableSoftware(final String cpe, final String purl) throws Exception {
+        final VulnerableSoftware vs;
+        if (cpe != null) {
+            vs = ModelConverter.convertCpe23UriToVulnerableSoftware(cpe);
+        } else {
+            final var parsedPurl = new PackageURL(purl);
+            vs = new VulnerableSoftware();
+            vs.setPurlType(parsedPurl.getType());
+            vs.setPurlNamespace(parsedPurl.getNamespace());
+            vs.setPurlName(parsedPurl.getName());
+            vs.setVersionEndExcluding("2.0");
+        }
+        vs.setVulnerable(true);
+        return qm.persist(vs);
+    }
+
+    private Vulnerability createVulnerability(final String vulnId, final List<VulnerableSoftware> vsList) {
+        final var vuln = new Vulnerability();
+        vuln.setVulnId(vulnId);
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setVulnerableSoftware(vsList);
+        return qm.createVulnerability(vuln, false);
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ComponentVersionTest {
+
+    @Test
+    public void testImmutableOf() {
+        final ComponentVersion version = ComponentVersion.immutableOf("1.2.3");
+        assertThat(version.getVersionParts()).containsExactly("1", "2", "3");
+        assertThat(version.equals(new ComponentVersion("1.2.3"))).isTrue();
+        assertThat(version.compareTo(new ComponentVersion("1.2.4"))).isNegative();
+
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> version.getVersionParts().set(0, "2"));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> version.setVersionParts(List.of("2")));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> version.parseVersion("2.0.0"));
+        assertThat(version.getVersionParts()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void testMutable() {
+        final var version = new ComponentVersion("1.2.3");
+        version.parseVersion("2.0.0");
+        assertThat(version.getVersionParts()).containsExactly("2", "0", "0");
+        version.setVersionParts(List.of("3"));
+        assertThat(version.compareTo(new ComponentVersion("2.0.0"))).isPositive();
+    }
+
+}